@@ -6,11 +6,15 @@ import data.repositories.ChannelProgressRepository;
 import data.repositories.CommissionRepository;
 import data.repositories.PageOfVotingsRepository;
 import data.repositories.VoterRepository;
+import data.repositories.DbUpgrades;
+import data.repositories.WorkQueueRepository;
 import data.repositories.imp.EbeanCommissionRepository;
 import data.repositories.imp.EbeanChannelProgressRepository;
 import data.repositories.imp.EbeanPageOfVotingRepository;
 import data.repositories.imp.EbeanServerProvider;
 import data.repositories.imp.EbeanVoterRepository;
+import data.repositories.imp.EbeanDbUpgrades;
+import data.repositories.imp.EbeanWorkQueueRepository;
 import devote.blockchain.operations.CommissionBlockchainOperations;
 import devote.blockchain.operations.VotingBlockchainOperations;
 import data.operations.VotingDbOperations;
@@ -36,7 +40,11 @@ import services.EnvelopKeyPairProvider;
 import services.VotingService;
 import services.commissionsubs.userinfo.Auth0UserInfoCollector;
 import services.commissionsubs.userinfo.UserInfoCollector;
+import services.signatures.BatchingSignatureVerifier;
+import services.signatures.EnvelopeSigner;
+import services.signatures.SignatureVerifier;
 import tasks.TasksOrganizer;
+import tasks.WorkQueueContext;
 import tasks.channelaccounts.ChannelAccountBuilderTaskContext;
 import tasks.votingblockchaininit.VotingBlockchainInitTaskContext;
 
@@ -61,6 +69,8 @@ public class Module extends AbstractModule {
         bind(CommissionRepository.class).to(EbeanCommissionRepository.class).asEagerSingleton();
         bind(VoterRepository.class).to(EbeanVoterRepository.class).asEagerSingleton();
         bind(PageOfVotingsRepository.class).to(EbeanPageOfVotingRepository.class).asEagerSingleton();
+        bind(WorkQueueRepository.class).to(EbeanWorkQueueRepository.class).asEagerSingleton();
+        bind(DbUpgrades.class).to(EbeanDbUpgrades.class).asEagerSingleton();
 
         // Operations
         bind(VotingDbOperations.class).asEagerSingleton();
@@ -72,10 +82,13 @@ public class Module extends AbstractModule {
         // Services
         bind(VotingService.class).asEagerSingleton();
         bind(CommissionService.class).asEagerSingleton();
+        bind(EnvelopeSigner.class).asEagerSingleton();
+        bind(SignatureVerifier.class).to(BatchingSignatureVerifier.class).asEagerSingleton();
 
         // Tasks
         bind(ChannelAccountBuilderTaskContext.class).asEagerSingleton();
         bind(VotingBlockchainInitTaskContext.class).asEagerSingleton();
+        bind(WorkQueueContext.class).asEagerSingleton();
         bind(TasksOrganizer.class).asEagerSingleton();
 
         // Auth
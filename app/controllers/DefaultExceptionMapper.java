@@ -5,9 +5,11 @@ import devote.blockchain.api.BlockchainException;
 import exceptions.BusinessLogicViolationException;
 import exceptions.ForbiddenException;
 import exceptions.NotFoundException;
+import exceptions.ServiceUnavailableException;
 import play.Logger;
 import play.data.validation.ValidationError;
 import play.libs.Json;
+import play.mvc.Http;
 import play.mvc.Result;
 
 import static play.mvc.Results.*;
@@ -45,6 +47,13 @@ public class DefaultExceptionMapper implements Function<Throwable, Result> {
             return forbidden(Json.toJson(ve.messages()));
         }
 
+        if (input instanceof ServiceUnavailableException) {
+            logger.warn("Service unavailable!", input);
+            ValidationError ve = new ValidationError("", input.getMessage());
+            return status(Http.Status.SERVICE_UNAVAILABLE, Json.toJson(ve.messages()))
+                    .withHeader(Http.HeaderNames.RETRY_AFTER, "1");
+        }
+
         if(input instanceof BlockchainException) {
             logger.warn("Blockchain exception!", input);
             return internalServerError(input.getMessage());
@@ -1,15 +1,20 @@
 package controllers;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import controllers.bodyparsers.CreateVotingBodyParser;
+import controllers.bodyparsers.CreateVotingRequestReader;
+import controllers.bodyparsers.VotersImportBodyParser;
 import requests.CreateVotingRequest;
 import play.Logger;
-import play.data.Form;
-import play.data.FormFactory;
+import play.i18n.MessagesApi;
+import play.libs.F;
+import play.libs.Files;
 import play.libs.Json;
+import play.mvc.BodyParser;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
-import responses.VotingResponse;
+import responses.SingleVotingResponse;
 import security.SecurityUtils;
 import security.VerifiedJwt;
 import services.VotingService;
@@ -23,7 +28,8 @@ import static security.SecurityUtils.getFromRequest;
 import static security.SecurityUtils.hasVerifiedJwt;
 
 public class VotingController extends Controller {
-    private final FormFactory formFactory;
+    private final CreateVotingRequestReader createVotingRequestReader;
+    private final MessagesApi messagesApi;
     private final VotingService votingService;
 
     private static final Logger.ALogger logger = Logger.of(VotingController.class);
@@ -32,34 +38,53 @@ public class VotingController extends Controller {
     private final Function<Throwable, Result> mapExceptionWithUnpack = e -> mapException.apply(e.getCause());
 
     @Inject
-    public VotingController(FormFactory formFactory, VotingService votingService) {
-        this.formFactory = formFactory;
+    public VotingController(CreateVotingRequestReader createVotingRequestReader, MessagesApi messagesApi,
+                            VotingService votingService) {
+        this.createVotingRequestReader = createVotingRequestReader;
+        this.messagesApi = messagesApi;
         this.votingService = votingService;
     }
 
+    @BodyParser.Of(CreateVotingBodyParser.class)
     public CompletionStage<Result> create(Http.Request request) {
         logger.info("create()");
 
-        Form<CreateVotingRequest> form = formFactory.form(CreateVotingRequest.class).bindFromRequest(request);
+        Files.TemporaryFile body = request.body().as(Files.TemporaryFile.class);
+        F.Either<JsonNode, CreateVotingRequest> readRequest =
+                createVotingRequestReader.read(body.path(), messagesApi.preferred(request));
 
-        if (form.hasErrors()) {
-            JsonNode errorJson = form.errorsAsJson();
-            logger.warn("create(): Form has errors! error json:\n{}", errorJson.toPrettyString());
+        if (readRequest.left.isPresent()) {
+            JsonNode errorJson = readRequest.left.get();
+            logger.warn("create(): Request has errors! error json:\n{}", errorJson.toPrettyString());
 
             return completedFuture(badRequest(errorJson));
         } else {
+            CreateVotingRequest createVotingRequest = readRequest.right.get();
             VerifiedJwt jwt = SecurityUtils.getFromRequest(request);
 
-            return votingService.create(form.get(), jwt)
+            return votingService.create(createVotingRequest, jwt)
+                    .whenComplete((id, e) -> createVotingRequestReader.deleteStreamedEmailsOf(createVotingRequest))
                     .thenApply(id -> toCreatedVotingResult(request, id))
                     .exceptionally(mapExceptionWithUnpack);
         }
     }
 
+    @BodyParser.Of(VotersImportBodyParser.class)
+    public CompletionStage<Result> importVoters(String id, Http.Request request) {
+        logger.info("importVoters(): id = {}", id);
+
+        Files.TemporaryFile emailsFile = request.body().as(Files.TemporaryFile.class);
+        VerifiedJwt jwt = SecurityUtils.getFromRequest(request);
+
+        return votingService.importVoters(id, emailsFile.path(), jwt)
+                .thenApply(r -> ok(Json.toJson(r)))
+                .exceptionally(mapExceptionWithUnpack);
+    }
+
     public CompletionStage<Result> single(String id, Http.Request request) {
         logger.info("single(): id = {}", id);
 
-        CompletionStage<VotingResponse> votingResponseStage;
+        CompletionStage<SingleVotingResponse> votingResponseStage;
         if(hasVerifiedJwt(request)) {
             votingResponseStage = votingService.single(id, getFromRequest(request));
         } else {
@@ -0,0 +1,20 @@
+package controllers.bodyparsers;
+
+import com.typesafe.config.Config;
+import play.http.HttpErrorHandler;
+import play.libs.Files;
+import play.mvc.BodyParser;
+
+import javax.inject.Inject;
+
+/**
+ * Streams the voting creation request to a temporary file, so that it can be read with
+ * {@link CreateVotingRequestReader} instead of being bound as a whole; the size of the request is limited by
+ * devote.voting.create.max.body.size.
+ */
+public class CreateVotingBodyParser extends BodyParser.TemporaryFile {
+    @Inject
+    public CreateVotingBodyParser(Config config, Files.TemporaryFileCreator temporaryFileCreator, HttpErrorHandler errorHandler) {
+        super(config.getBytes("devote.voting.create.max.body.size"), temporaryFileCreator, errorHandler);
+    }
+}
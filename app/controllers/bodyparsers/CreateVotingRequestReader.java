@@ -0,0 +1,186 @@
+package controllers.bodyparsers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.Logger;
+import play.data.validation.Constraints;
+import play.i18n.Messages;
+import play.libs.F;
+import play.libs.Files;
+import play.libs.Json;
+import requests.CreateVotingRequest;
+import requests.StreamedEmails;
+
+import javax.inject.Inject;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Reads a voting creation request with a streaming parser. The email options are validated one by one, and written
+ * to a temporary file (one email per line) to be imported from there, so they are never held in memory; the rest of
+ * the request is small, it is bound and validated as usual.
+ * <p>
+ * Errors are in the same format as the ones of a bound form.
+ */
+public class CreateVotingRequestReader {
+    private static final String EMAIL_OPTIONS_FIELD = "authorizationEmailOptions";
+    private static final int MAX_REPORTED_EMAIL_ERRORS = 10;
+
+    private final Validator validator;
+    private final Files.TemporaryFileCreator temporaryFileCreator;
+
+    private static final Logger.ALogger logger = Logger.of(CreateVotingRequestReader.class);
+
+    @Inject
+    public CreateVotingRequestReader(Validator validator, Files.TemporaryFileCreator temporaryFileCreator) {
+        this.validator = validator;
+        this.temporaryFileCreator = temporaryFileCreator;
+    }
+
+    public F.Either<JsonNode, CreateVotingRequest> read(Path body, Messages messages) {
+        ObjectMapper mapper = Json.mapper();
+        ObjectNode rest = Json.newObject();
+        ObjectNode errors = Json.newObject();
+
+        Files.TemporaryFile emailsFile = temporaryFileCreator.create("voting-emails", ".txt");
+        long numOfEmails = 0;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body.toFile());
+             BufferedWriter emailsWriter = java.nio.file.Files.newBufferedWriter(emailsFile.path(), StandardCharsets.UTF_8)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return rejected(emailsFile, error(errors, "", messages.at("error.invalid")));
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (EMAIL_OPTIONS_FIELD.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    numOfEmails = streamEmails(parser, emailsWriter, errors, messages);
+                } else {
+                    rest.set(fieldName, mapper.readTree(parser));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("read(): Failed to parse request!", e);
+            return rejected(emailsFile, error(errors, "", messages.at("error.invalid")));
+        } catch (IOException e) {
+            temporaryFileCreator.delete(emailsFile);
+            throw new UncheckedIOException(e);
+        }
+
+        if (errors.size() > 0) {
+            return rejected(emailsFile, errors);
+        }
+
+        CreateVotingRequest request;
+        try {
+            request = mapper.treeToValue(rest, CreateVotingRequest.class);
+        } catch (JsonMappingException e) {
+            logger.warn("read(): Failed to bind request!", e);
+            return rejected(emailsFile, error(errors, fieldOf(e), messages.at("error.invalid")));
+        } catch (JsonProcessingException e) {
+            logger.warn("read(): Failed to bind request!", e);
+            return rejected(emailsFile, error(errors, "", messages.at("error.invalid")));
+        }
+
+        if (numOfEmails > 0) {
+            request.setStreamedAuthorizationEmails(new StreamedEmails(emailsFile, numOfEmails));
+        } else {
+            temporaryFileCreator.delete(emailsFile);
+        }
+
+        for (ConstraintViolation<CreateVotingRequest> violation : validator.validate(request)) {
+            error(errors, violation.getPropertyPath().toString(), messages.at(violation.getMessage()));
+        }
+
+        if (errors.size() > 0) {
+            deleteStreamedEmailsOf(request);
+            return F.Either.Left(errors);
+        }
+
+        return F.Either.Right(request);
+    }
+
+    public void deleteStreamedEmailsOf(CreateVotingRequest request) {
+        StreamedEmails streamedEmails = request.getStreamedAuthorizationEmails();
+        if (streamedEmails != null) {
+            temporaryFileCreator.delete(streamedEmails.file);
+        }
+    }
+
+    private long streamEmails(JsonParser parser, BufferedWriter emailsWriter, ObjectNode errors, Messages messages)
+            throws IOException {
+        Constraints.EmailValidator emailValidator = new Constraints.EmailValidator();
+        long index = 0;
+        long numOfEmails = 0;
+        int numOfReportedErrors = 0;
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String email = parser.currentToken() == JsonToken.VALUE_STRING ? parser.getText() : null;
+
+            // Reading goes on after an invalid email, so that the request is consumed, but only the first few
+            // errors are reported.
+            if (email == null || email.isEmpty() || !emailValidator.isValid(email)) {
+                if (numOfReportedErrors < MAX_REPORTED_EMAIL_ERRORS) {
+                    error(errors, EMAIL_OPTIONS_FIELD + "[" + index + "]", messages.at("error.email"));
+                    numOfReportedErrors++;
+                }
+
+                parser.skipChildren();
+            } else {
+                emailsWriter.write(email);
+                emailsWriter.newLine();
+                numOfEmails++;
+            }
+
+            index++;
+        }
+
+        return numOfEmails;
+    }
+
+    private F.Either<JsonNode, CreateVotingRequest> rejected(Files.TemporaryFile emailsFile, JsonNode errors) {
+        temporaryFileCreator.delete(emailsFile);
+        return F.Either.Left(errors);
+    }
+
+    // The path of the field which failed to bind, like "polls[0].question"; the message of the exception is only
+    // logged, as it tells about the classes of the request.
+    private static String fieldOf(JsonMappingException e) {
+        StringBuilder field = new StringBuilder();
+
+        for (JsonMappingException.Reference reference : e.getPath()) {
+            if (reference.getFieldName() != null) {
+                if (field.length() > 0) {
+                    field.append('.');
+                }
+
+                field.append(reference.getFieldName());
+            } else if (reference.getIndex() >= 0) {
+                field.append('[').append(reference.getIndex()).append(']');
+            }
+        }
+
+        return field.toString();
+    }
+
+    private static ObjectNode error(ObjectNode errors, String key, String message) {
+        if (!errors.has(key)) {
+            errors.putArray(key);
+        }
+
+        errors.withArray(key).add(message);
+        return errors;
+    }
+}
@@ -0,0 +1,19 @@
+package controllers.bodyparsers;
+
+import com.typesafe.config.Config;
+import play.http.HttpErrorHandler;
+import play.libs.Files;
+import play.mvc.BodyParser;
+
+import javax.inject.Inject;
+
+/**
+ * Streams the uploaded email list to a temporary file, so that it is never held in memory; the size of the list is
+ * limited by devote.voters.import.max.body.size.
+ */
+public class VotersImportBodyParser extends BodyParser.TemporaryFile {
+    @Inject
+    public VotersImportBodyParser(Config config, Files.TemporaryFileCreator temporaryFileCreator, HttpErrorHandler errorHandler) {
+        super(config.getBytes("devote.voters.import.max.body.size"), temporaryFileCreator, errorHandler);
+    }
+}
@@ -0,0 +1,45 @@
+package crypto;
+
+import exceptions.CryptoException;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.engines.RSAEngine;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+// See https://en.wikipedia.org/wiki/Blind_signature#Blind_RSA_signatures
+public class RsaBlindSignature {
+    public static byte[] sign(CipherParameters privateKey, byte[] envelope) {
+        RSAEngine engine = new RSAEngine();
+        engine.init(true, privateKey);
+        return engine.processBlock(envelope, 0, envelope.length);
+    }
+
+    public static boolean isValid(CipherParameters publicKey, byte[] message, byte[] revealedSignature) {
+        RSAEngine engine = new RSAEngine();
+        engine.init(false, publicKey);
+
+        return isValid(engine, createSha256Digest(), message, revealedSignature);
+    }
+
+    /**
+     * Same as {@link #isValid(CipherParameters, byte[], byte[])}, but with an engine already initialized with the
+     * public key, and a reusable SHA-256 digest; neither of them is thread safe.
+     */
+    public static boolean isValid(RSAEngine verifyingEngine, MessageDigest sha256, byte[] message, byte[] revealedSignature) {
+        byte[] signatureDecrypted = verifyingEngine.processBlock(revealedSignature, 0, revealedSignature.length);
+        return Arrays.equals(sha256.digest(message), signatureDecrypted);
+    }
+
+    public static MessageDigest createSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CryptoException("Failed to create digest of message!", e);
+        }
+    }
+
+    private RsaBlindSignature() {
+    }
+}
@@ -11,10 +11,14 @@ import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 @Entity
 @Table(
         name = "stored_transaction",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_stored_transaction_signature_digest", columnNames = {"signature_digest"})
+        },
         indexes = {
                 @Index(name = "ix_signature_footprint", columnList = "signature_footprint")
         }
@@ -33,6 +37,12 @@ public class JpaStoredTransaction {
     @Lob
     private String transaction;
 
+    // Hex encoded SHA-256 of the signature; lookups by signature go through this.
+    @Column(name = "signature_digest", length = 64)
+    private String signatureDigest;
+
+    // Set only on transactions stored before signature digests were introduced; those are found by it (the signature
+    // itself can't be indexed) until they get a digest.
     @Column(name = "signature_footprint")
     private String signatureFootPrint;
 
@@ -40,6 +50,11 @@ public class JpaStoredTransaction {
     @JoinColumn(name = "voting_id")
     private JpaVoting voting;
 
+    // The channel reserved for building the transaction; the transaction is null until it is built.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "channel_account_id")
+    private JpaVotingChannelAccount channelAccount;
+
     public Long getId() {
         return id;
     }
@@ -64,6 +79,14 @@ public class JpaStoredTransaction {
         this.transaction = transaction;
     }
 
+    public String getSignatureDigest() {
+        return signatureDigest;
+    }
+
+    public void setSignatureDigest(String signatureDigest) {
+        this.signatureDigest = signatureDigest;
+    }
+
     public String getSignatureFootPrint() {
         return signatureFootPrint;
     }
@@ -79,4 +102,12 @@ public class JpaStoredTransaction {
     public void setVoting(JpaVoting voting) {
         this.voting = voting;
     }
+
+    public JpaVotingChannelAccount getChannelAccount() {
+        return channelAccount;
+    }
+
+    public void setChannelAccount(JpaVotingChannelAccount channelAccount) {
+        this.channelAccount = channelAccount;
+    }
 }
@@ -28,9 +28,15 @@ public class JpaVoter {
     @Column(name = "user_id")
     private String userId;
 
+    // Unique; the index is created by EbeanDbUpgrades, as voters of earlier versions might share an email.
     @Column(name = "email")
     private String email;
 
+    // Number of votings the voter participates in; null until counted from the participants.
+    @Column(name = "num_of_votings")
+    private Long numOfVotings;
+
+    // The (voting_id, voter_id) index of the join table is created by EbeanDbUpgrades.
     @ManyToMany
     @JoinTable(
             name = "votings_participants",
@@ -55,6 +61,14 @@ public class JpaVoter {
         this.email = email;
     }
 
+    public Long getNumOfVotings() {
+        return numOfVotings;
+    }
+
+    public void setNumOfVotings(Long numOfVotings) {
+        this.numOfVotings = numOfVotings;
+    }
+
     public List<JpaVoting> getVotings() {
         return votings;
     }
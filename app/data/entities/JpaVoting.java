@@ -8,6 +8,7 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
@@ -16,7 +17,12 @@ import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "voting")
+@Table(
+        name = "voting",
+        indexes = {
+                @Index(name = "ix_voting_created_at_id", columnList = "created_at, id")
+        }
+)
 public class JpaVoting {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -111,6 +117,10 @@ public class JpaVoting {
     @Column(name = "is_on_test_network")
     private Boolean isOnTestNetwork;
 
+    // Decided when the voting is created, as its number of channel accounts depends on it.
+    @Column(name = "is_channel_reuse_enabled")
+    private boolean isChannelReuseEnabled;
+
     public Long getId() {
         return id;
     }
@@ -326,4 +336,12 @@ public class JpaVoting {
     public void setOnTestNetwork(Boolean onTestNetwork) {
         isOnTestNetwork = onTestNetwork;
     }
+
+    public boolean isChannelReuseEnabled() {
+        return isChannelReuseEnabled;
+    }
+
+    public void setChannelReuseEnabled(boolean channelReuseEnabled) {
+        isChannelReuseEnabled = channelReuseEnabled;
+    }
 }
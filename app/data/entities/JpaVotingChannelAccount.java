@@ -9,6 +9,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import java.time.Instant;
 
 @Entity
 @Table(name = "voting_channel_account")
@@ -29,6 +30,14 @@ public class JpaVotingChannelAccount {
     @Column(name = "is_consumed")
     private boolean isConsumed;
 
+    // Set while the channel is reserved by a node, but not used yet; an expired reservation can be taken again.
+    @Column(name = "reserved_until")
+    private Instant reservedUntil;
+
+    // Set only when channels are reused; a consumed channel can be taken again after this.
+    @Column(name = "reusable_after")
+    private Instant reusableAfter;
+
     @ManyToOne
     @JoinColumn(name = "voting_id")
     private JpaVoting voting;
@@ -72,4 +81,20 @@ public class JpaVotingChannelAccount {
     public void setConsumed(boolean consumed) {
         isConsumed = consumed;
     }
+
+    public Instant getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public void setReservedUntil(Instant reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
+
+    public Instant getReusableAfter() {
+        return reusableAfter;
+    }
+
+    public void setReusableAfter(Instant reusableAfter) {
+        this.reusableAfter = reusableAfter;
+    }
 }
@@ -0,0 +1,33 @@
+package data.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "voting_counter")
+public class JpaVotingCounter {
+    @Id
+    @Column(name = "counter_key", nullable = false)
+    private String counterKey;
+
+    @Column(name = "num_of_votings", nullable = false)
+    private Long numOfVotings;
+
+    public String getCounterKey() {
+        return counterKey;
+    }
+
+    public void setCounterKey(String counterKey) {
+        this.counterKey = counterKey;
+    }
+
+    public Long getNumOfVotings() {
+        return numOfVotings;
+    }
+
+    public void setNumOfVotings(Long numOfVotings) {
+        this.numOfVotings = numOfVotings;
+    }
+}
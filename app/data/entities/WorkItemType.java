@@ -0,0 +1,6 @@
+package data.entities;
+
+public enum WorkItemType {
+    VOTING_INIT,
+    CHANNEL_PROGRESS
+}
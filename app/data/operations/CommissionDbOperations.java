@@ -2,17 +2,16 @@ package data.operations;
 
 import data.entities.JpaCommissionSession;
 import data.entities.JpaStoredTransaction;
-import data.entities.JpaVotingChannelAccount;
+import data.repositories.AccountCreationReservation;
+import data.repositories.CommissionInitChecks;
 import data.repositories.CommissionRepository;
 import executioncontexts.DatabaseExecutionContext;
 import play.Logger;
 import services.commissionsubs.userinfo.UserInfoCollector;
 
 import javax.inject.Inject;
-import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static utils.StringUtils.redactWithEllipsis;
 
@@ -35,11 +34,7 @@ public class CommissionDbOperations {
 
     public CompletionStage<Boolean> doesSessionExistForUserInVoting(Long votingId, String userId) {
         logger.info("doesSessionExistForUserInVoting(): votingId = {}, userId = {}", votingId, userId);
-        return supplyAsync(() -> {
-            Optional<JpaCommissionSession> optionalEntity =
-                    commissionRepository.getByVotingIdAndUserId(votingId, userId);
-            return optionalEntity.isPresent();
-        }, dbExecContext);
+        return supplyAsync(() -> commissionRepository.doesSessionExist(votingId, userId), dbExecContext);
     }
 
     public CompletionStage<JpaCommissionSession> createSession(Long votingId, String userId) {
@@ -60,23 +55,14 @@ public class CommissionDbOperations {
         }, dbExecContext);
     }
 
-    public CompletionStage<JpaVotingChannelAccount> consumeOneChannel(Long votingId) {
-        logger.info("consumeOneChannel(): votingId = {}", votingId);
-        return supplyAsync(() -> commissionRepository.consumeOneChannel(votingId), dbExecContext);
-    }
-
-    public CompletionStage<Void> storeTransaction(Long votingId, String signature, String transaction) {
-        String signatureToLog = redactWithEllipsis(signature, 5);
-        String transactionToLog = redactWithEllipsis(transaction, 5);
-        logger.info("storeTransaction(): votingId = {}, signature = {}, transaction = {}", votingId, signatureToLog, transactionToLog);
-
-        return runAsync(() -> commissionRepository.storeTransactionForRevealedSignature(votingId, signature, transaction),
-                dbExecContext);
+    public CompletionStage<AccountCreationReservation> reserveAccountCreation(Long votingId, String signature) {
+        logger.info("reserveAccountCreation(): votingId = {}, signature = {}", votingId, redactWithEllipsis(signature, 5));
+        return supplyAsync(() -> commissionRepository.reserveAccountCreation(votingId, signature), dbExecContext);
     }
 
-    public CompletionStage<Boolean> doesTransactionExistForSignature(String signature) {
-        logger.info("doesTransactionExistForSignature(): signature = {}", redactWithEllipsis(signature, 5));
-        return supplyAsync(() -> commissionRepository.doesTransactionExistForSignature(signature), dbExecContext);
+    public CompletionStage<String> completeAccountCreation(Long storedTransactionId, String transaction) {
+        logger.info("completeAccountCreation(): storedTransactionId = {}", storedTransactionId);
+        return supplyAsync(() -> commissionRepository.completeAccountCreation(storedTransactionId, transaction), dbExecContext);
     }
 
     public CompletionStage<JpaStoredTransaction> getTransaction(String signature) {
@@ -93,5 +79,9 @@ public class CommissionDbOperations {
         logger.info("isVotingInitializedProperly(): votingId = {}", votingId);
         return supplyAsync(() -> commissionRepository.isVotingInitializedProperly(votingId), dbExecContext);
     }
-}
 
+    public CompletionStage<CommissionInitChecks> checkInit(Long votingId, String userId) {
+        logger.info("checkInit(): votingId = {}, userId = {}", votingId, userId);
+        return supplyAsync(() -> commissionRepository.checkInit(votingId, userId), dbExecContext);
+    }
+}
@@ -2,6 +2,7 @@ package data.operations;
 
 import data.entities.JpaVoting;
 import data.repositories.PageOfVotingsRepository;
+import data.repositories.VotingsPageCursor;
 import executioncontexts.DatabaseExecutionContext;
 import play.Logger;
 import responses.Page;
@@ -28,13 +29,28 @@ public class PageOfVotingsDbOperations {
         return supplyAsync(() -> repository.pageOfPublic(offset, limit), dbExecContext);
     }
 
+    public CompletionStage<Page<JpaVoting>> pageOfPublic(VotingsPageCursor cursor, int limit) {
+        logger.info("pageOfPublic(): cursor = {}, limit = {}", cursor, limit);
+        return supplyAsync(() -> repository.pageOfPublic(cursor, limit), dbExecContext);
+    }
+
     public CompletionStage<Page<JpaVoting>> votingsOfVoteCaller(int offset, int limit, String userId) {
         logger.info("votingsOfVoteCaller(): offset = {}, limit = {}, userId = {}", offset, limit, userId);
         return supplyAsync(() -> repository.votingsOfVoteCaller(offset, limit, userId), dbExecContext);
     }
 
+    public CompletionStage<Page<JpaVoting>> votingsOfVoteCaller(VotingsPageCursor cursor, int limit, String userId) {
+        logger.info("votingsOfVoteCaller(): cursor = {}, limit = {}, userId = {}", cursor, limit, userId);
+        return supplyAsync(() -> repository.votingsOfVoteCaller(cursor, limit, userId), dbExecContext);
+    }
+
     public CompletionStage<Page<JpaVoting>> votingsOfVoter(int offset, int limit, String userId) {
         logger.info("votingsOfVoter(): offset = {}, limit = {}, userId = {}", offset, limit, userId);
         return supplyAsync(() -> repository.votingsOfVoter(offset, limit, userId), dbExecContext);
     }
+
+    public CompletionStage<Page<JpaVoting>> votingsOfVoter(VotingsPageCursor cursor, int limit, String userId) {
+        logger.info("votingsOfVoter(): cursor = {}, limit = {}, userId = {}", cursor, limit, userId);
+        return supplyAsync(() -> repository.votingsOfVoter(cursor, limit, userId), dbExecContext);
+    }
 }
@@ -1,18 +1,39 @@
 package data.operations;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.typesafe.config.Config;
 import data.entities.JpaVoter;
 import data.repositories.VoterRepository;
+import data.repositories.VotersImportResult;
 import executioncontexts.DatabaseExecutionContext;
 import play.Logger;
+import play.data.validation.Constraints;
 import services.commissionsubs.userinfo.UserInfoCollector;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+@Singleton
 public class VoterDbOperations {
     private static final Logger.ALogger logger = Logger.of(VoterDbOperations.class);
 
@@ -20,30 +41,58 @@ public class VoterDbOperations {
     private final UserInfoCollector userInfoCollector;
     private final DatabaseExecutionContext dbExecContext;
 
+    // Bounded set of user ids already linked to a voter; for these there is nothing to collect.
+    private final Cache<String, Boolean> knownUserIds;
+    // User ids whose info was collected, but no voter has their email; forgotten shortly, or when voters are imported.
+    private final Cache<String, Boolean> userIdsWithoutVoter;
+    private final Map<String, CompletableFuture<Void>> userInfoCollectionsInFlight = new ConcurrentHashMap<>();
+
     @Inject
-    public VoterDbOperations(VoterRepository repository, UserInfoCollector userInfoCollector, DatabaseExecutionContext dbExecContext) {
+    public VoterDbOperations(
+            VoterRepository repository,
+            UserInfoCollector userInfoCollector,
+            DatabaseExecutionContext dbExecContext,
+            Config config) {
         this.repository = repository;
         this.userInfoCollector = userInfoCollector;
         this.dbExecContext = dbExecContext;
+
+        int maxNumOfKnownUsers = config.getInt("devote.voters.known.users.cache.size");
+        knownUserIds = CacheBuilder.newBuilder()
+                .maximumSize(maxNumOfKnownUsers)
+                .build();
+        userIdsWithoutVoter = CacheBuilder.newBuilder()
+                .maximumSize(maxNumOfKnownUsers)
+                .expireAfterWrite(config.getLong("devote.voters.unknown.users.cache.sec"), TimeUnit.SECONDS)
+                .build();
+
+        runAsync(() -> loadKnownUserIds(maxNumOfKnownUsers), dbExecContext);
     }
 
     public CompletionStage<Void> collectUserInfoIfNeeded(String accessToken, String userId) {
-        CompletionStage<Void> userInfoCollectStage = userInfoCollector.collect(accessToken)
-                .thenAcceptAsync(userInfoJson -> processUserInfo(userInfoJson, userId), dbExecContext);
+        if (knownUserIds.getIfPresent(userId) != null || userIdsWithoutVoter.getIfPresent(userId) != null) {
+            return completedFuture(null);
+        }
+
+        // Single flight: concurrent requests of the same user wait for the same collection.
+        CompletableFuture<Void> collection = new CompletableFuture<>();
+        CompletableFuture<Void> collectionInFlight = userInfoCollectionsInFlight.putIfAbsent(userId, collection);
+        if (collectionInFlight != null) {
+            return collectionInFlight;
+        }
 
-        CompletionStage<Void> doNothingStage = runAsync(() -> {
-        });
+        collectUserInfo(accessToken, userId)
+                .whenComplete((v, e) -> {
+                    userInfoCollectionsInFlight.remove(userId, collection);
 
-        return supplyAsync(() -> shouldNotCollectUserInfo(userId), dbExecContext)
-                .thenCompose(shouldNotCollect -> {
-                    if (shouldNotCollect) {
-                        logger.info("collectUserInfo(): Already have info for user: {}", userId);
-                        return doNothingStage;
+                    if (e == null) {
+                        collection.complete(null);
                     } else {
-                        logger.info("collectUserInfoIfNeeded(): collecting info for userId: {}", userId);
-                        return userInfoCollectStage;
+                        collection.completeExceptionally(e);
                     }
                 });
+
+        return collection;
     }
 
     public CompletionStage<Boolean> doesParticipateInVoting(String userId, Long votingId) {
@@ -51,9 +100,75 @@ public class VoterDbOperations {
         return supplyAsync(() -> repository.doesParticipateInVoting(userId, votingId), dbExecContext);
     }
 
+    /**
+     * Imports the emails of the file (one per line) as voters of the voting; the file is read while importing.
+     * Blank lines are skipped, invalid emails are counted, but not imported.
+     */
+    public CompletionStage<VotersImportResult> importVoters(Long votingId, Path emailsFile) {
+        logger.info("importVoters(): votingId = {}", votingId);
+        return supplyAsync(() -> {
+            Constraints.EmailValidator emailValidator = new Constraints.EmailValidator();
+            LongAdder numOfInvalidEmails = new LongAdder();
+
+            try (Stream<String> lines = Files.lines(emailsFile, StandardCharsets.UTF_8)) {
+                Iterator<String> emails = lines
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .filter(email -> {
+                            boolean isValid = emailValidator.isValid(email);
+                            if (!isValid) {
+                                numOfInvalidEmails.increment();
+                            }
+
+                            return isValid;
+                        })
+                        .iterator();
+
+                VotersImportResult result = repository.importVoters(votingId, emails);
+                result.invalidEmailsRead(numOfInvalidEmails.sum());
+                // Some of them might have a voter now.
+                userIdsWithoutVoter.invalidateAll();
+
+                logger.info("importVoters(): votingId = {}, result = {}", votingId, result);
+                return result;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, dbExecContext);
+    }
+
+    private CompletionStage<Void> collectUserInfo(String accessToken, String userId) {
+        return supplyAsync(() -> shouldNotCollectUserInfo(userId), dbExecContext)
+                .thenCompose(shouldNotCollect -> {
+                    if (shouldNotCollect) {
+                        logger.info("collectUserInfo(): Already have info for user: {}", userId);
+                        return completedFuture(null);
+                    } else {
+                        logger.info("collectUserInfoIfNeeded(): collecting info for userId: {}", userId);
+                        return userInfoCollector.collect(accessToken)
+                                .thenAcceptAsync(userInfoJson -> processUserInfo(userInfoJson, userId), dbExecContext);
+                    }
+                });
+    }
+
     private boolean shouldNotCollectUserInfo(String userId) {
         JpaVoter voter = repository.getVoterByUserId(userId);
-        return voter != null;
+        if (voter != null) {
+            knownUserIds.put(userId, true);
+            return true;
+        }
+
+        return false;
+    }
+
+    private void loadKnownUserIds(int maxNumOf) {
+        try {
+            List<String> userIds = repository.getUserIdsOfVoters(maxNumOf);
+            userIds.forEach(id -> knownUserIds.put(id, true));
+            logger.info("loadKnownUserIds(): loaded {} known user id(s)", userIds.size());
+        } catch (Exception e) {
+            logger.warn("loadKnownUserIds(): Failed to load known user ids; they will be looked up on demand.", e);
+        }
     }
 
     private void processUserInfo(JsonNode userInfoJson, String userId) {
@@ -62,6 +177,7 @@ public class VoterDbOperations {
             logger.info("collectUserInfo(): successfully collected info based on email!");
         } else {
             logger.warn("collectUserInfo(): failed to collect user info! userId = {}", userId);
+            userIdsWithoutVoter.put(userId, true);
         }
     }
 
@@ -74,9 +190,11 @@ public class VoterDbOperations {
             String emailInfo = String.format("email: %s, isVerified: %s", email, isVerified);
             logger.warn("tryAttachToEmail(): user email is not valid! {}", emailInfo);
             return false;
-        } else {
-            repository.setUserIdForEmail(email, userId);
+        } else if (repository.setUserIdForEmail(email, userId)) {
+            knownUserIds.put(userId, true);
             return true;
+        } else {
+            return false;
         }
     }
 }
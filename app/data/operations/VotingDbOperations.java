@@ -2,6 +2,7 @@ package data.operations;
 
 import data.entities.JpaVoting;
 import data.repositories.ChannelProgressRepository;
+import data.repositories.VotingFetchProfile;
 import data.repositories.VotingRepository;
 import executioncontexts.DatabaseExecutionContext;
 import play.Logger;
@@ -42,6 +43,13 @@ public class VotingDbOperations {
         }, dbExecContext);
     }
 
+    public CompletionStage<JpaVoting> single(Long id, VotingFetchProfile profile) {
+        return supplyAsync(() -> {
+            logger.info("single(): id = {}, profile = {}", id, profile);
+            return votingRepository.single(id, profile);
+        }, dbExecContext);
+    }
+
     private static String generateAssetCode(CreateVotingRequest request) {
         String titleBase;
         if (request.getTokenIdentifier() == null) {
@@ -0,0 +1,39 @@
+package data.repositories;
+
+import data.entities.JpaVoting;
+import data.entities.JpaVotingChannelAccount;
+
+/**
+ * A stored transaction reserved for a revealed signature, with what is needed to build the transaction; or the
+ * already built transaction, if the account creation was requested before.
+ */
+public class AccountCreationReservation {
+    public final Long storedTransactionId;
+    public final JpaVoting voting;
+    public final JpaVotingChannelAccount channelAccount;
+    public final String transaction;
+    // The channel was handed out before; the sequence number cached for it might be ahead of its account's.
+    public final boolean isChannelReused;
+
+    public AccountCreationReservation(Long storedTransactionId, JpaVoting voting, JpaVotingChannelAccount channelAccount,
+                                      String transaction, boolean isChannelReused) {
+        this.storedTransactionId = storedTransactionId;
+        this.voting = voting;
+        this.channelAccount = channelAccount;
+        this.transaction = transaction;
+        this.isChannelReused = isChannelReused;
+    }
+
+    public boolean isTransactionBuilt() {
+        return transaction != null;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountCreationReservation{" +
+                "storedTransactionId=" + storedTransactionId +
+                ", isTransactionBuilt=" + isTransactionBuilt() +
+                ", isChannelReused=" + isChannelReused +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package data.repositories;
+
+/**
+ * Everything the commission needs to know about a user and a voting before starting a session, fetched together.
+ */
+public class CommissionInitChecks {
+    public final boolean doesParticipate;
+    public final boolean isVotingInitializedProperly;
+    public final boolean doesSessionExist;
+
+    public CommissionInitChecks(boolean doesParticipate, boolean isVotingInitializedProperly, boolean doesSessionExist) {
+        this.doesParticipate = doesParticipate;
+        this.isVotingInitializedProperly = isVotingInitializedProperly;
+        this.doesSessionExist = doesSessionExist;
+    }
+
+    @Override
+    public String toString() {
+        return "CommissionInitChecks{" +
+                "doesParticipate=" + doesParticipate +
+                ", isVotingInitializedProperly=" + isVotingInitializedProperly +
+                ", doesSessionExist=" + doesSessionExist +
+                '}';
+    }
+}
@@ -0,0 +1,9 @@
+package data.repositories;
+
+/**
+ * One-off changes of the schema and the data which Ebean does not generate, run in the background after startup
+ * instead of on the request path. Each of them is idempotent, as every node runs them on every start.
+ */
+public interface DbUpgrades {
+    void run();
+}
@@ -5,6 +5,9 @@ import responses.Page;
 
 public interface PageOfVotingsRepository {
     Page<JpaVoting> pageOfPublic(int offset, int limit);
+    Page<JpaVoting> pageOfPublic(VotingsPageCursor cursor, int limit);
     Page<JpaVoting> votingsOfVoteCaller(int offset, int limit, String userId);
+    Page<JpaVoting> votingsOfVoteCaller(VotingsPageCursor cursor, int limit, String userId);
     Page<JpaVoting> votingsOfVoter(int offset, int limit, String userId);
+    Page<JpaVoting> votingsOfVoter(VotingsPageCursor cursor, int limit, String userId);
 }
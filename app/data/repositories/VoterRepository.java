@@ -2,8 +2,13 @@ package data.repositories;
 
 import data.entities.JpaVoter;
 
+import java.util.Iterator;
+import java.util.List;
+
 public interface VoterRepository {
-    void setUserIdForEmail(String email, String userId);
+    boolean setUserIdForEmail(String email, String userId);
     JpaVoter getVoterByUserId(String userId);
+    List<String> getUserIdsOfVoters(int maxNumOf);
     boolean doesParticipateInVoting(String userId, Long votingId);
+    VotersImportResult importVoters(Long votingId, Iterator<String> emails);
 }
@@ -0,0 +1,50 @@
+package data.repositories;
+
+public class VotersImportResult {
+    private long numOfEmails;
+    private long numOfInvalidEmails;
+    private long numOfNewVoters;
+    private long numOfNewParticipants;
+
+    public long getNumOfEmails() {
+        return numOfEmails;
+    }
+
+    public long getNumOfInvalidEmails() {
+        return numOfInvalidEmails;
+    }
+
+    public long getNumOfNewVoters() {
+        return numOfNewVoters;
+    }
+
+    public long getNumOfNewParticipants() {
+        return numOfNewParticipants;
+    }
+
+    public void emailsRead(long numOf) {
+        numOfEmails += numOf;
+    }
+
+    public void invalidEmailsRead(long numOf) {
+        numOfInvalidEmails += numOf;
+    }
+
+    public void votersCreated(long numOf) {
+        numOfNewVoters += numOf;
+    }
+
+    public void participantsAdded(long numOf) {
+        numOfNewParticipants += numOf;
+    }
+
+    @Override
+    public String toString() {
+        return "VotersImportResult{" +
+                "numOfEmails=" + numOfEmails +
+                ", numOfInvalidEmails=" + numOfInvalidEmails +
+                ", numOfNewVoters=" + numOfNewVoters +
+                ", numOfNewParticipants=" + numOfNewParticipants +
+                '}';
+    }
+}
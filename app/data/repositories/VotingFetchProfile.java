@@ -0,0 +1,16 @@
+package data.repositories;
+
+/**
+ * What is loaded together with a voting, so that each use of it gets its whole graph in one or two queries instead
+ * of lazy loading it piece by piece.
+ */
+public enum VotingFetchProfile {
+    // Polls and their options; 2 queries.
+    FOR_RESPONSE,
+
+    // Channel generators, polls and their options; 2 queries.
+    FOR_IPFS_EXPORT,
+
+    // Channel generators and their channel account progress; 1 query.
+    FOR_COMMISSION
+}
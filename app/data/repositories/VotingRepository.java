@@ -11,9 +11,9 @@ import java.util.List;
 public interface VotingRepository {
     Long initialize(CreateVotingRequest request, String assetCode, String userId);
     JpaVoting single(Long id);
+    JpaVoting single(Long id, VotingFetchProfile profile);
     void channelGeneratorsCreated(Long id, List<ChannelGenerator> channelGenerators);
-    void channelAccountCreated(Long id, List<Account> accounts);
+    void channelAccountsCreated(Long id, Long channelProgressId, List<Account> accounts);
     void distributionAndBallotAccountsCreated(Long id, DistributionAndBallotAccountOperation.TransactionResult transactionResult);
     void votingSavedToIpfs(Long id, String ipfsCid);
-    List<JpaVoting> notInitializedSampleOf(int size);
 }
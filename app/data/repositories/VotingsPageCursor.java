@@ -0,0 +1,25 @@
+package data.repositories;
+
+import java.time.Instant;
+
+/**
+ * Position in a page of votings ordered by creation time, then id (both descending); a page starting at the
+ * cursor contains the votings after it.
+ */
+public class VotingsPageCursor {
+    public final Instant createdAt;
+    public final Long id;
+
+    public VotingsPageCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return "VotingsPageCursor{" +
+                "createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package data.repositories;
+
+import data.entities.JpaWorkItem;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The methods changing a claimed item take the claim it was given ({@link JpaWorkItem#getClaimedBy()}), and return
+ * false without changing it, if the claim has been lost meanwhile (i.e. the lease expired, and it was claimed again).
+ */
+public interface WorkQueueRepository {
+    Optional<JpaWorkItem> claim(Duration lease);
+    boolean extendLease(Long id, String claimedBy, Duration lease);
+    boolean complete(Long id, String claimedBy);
+    // Out of attempts, the item is failed instead.
+    boolean retryLater(Long id, String claimedBy, Duration delay);
+    // Gives back a claimed item that was not processed; the claim does not count as an attempt.
+    boolean postpone(Long id, String claimedBy, Duration delay);
+    void enqueueUnfinishedWork();
+}
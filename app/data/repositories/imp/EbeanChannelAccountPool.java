@@ -0,0 +1,296 @@
+package data.repositories.imp;
+
+import com.typesafe.config.Config;
+import data.entities.JpaVoting;
+import data.entities.JpaVotingChannelAccount;
+import devote.blockchain.ReusableChannelAccounts;
+import io.ebean.ExpressionList;
+import io.ebean.EbeanServer;
+import io.ebean.Query;
+import io.ebean.Transaction;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out channel accounts of a voting from an in-memory queue of prefetched ids.
+ * <p>
+ * A refill reserves a batch of free channels of the voting with SELECT ... FOR UPDATE SKIP LOCKED, and marks the
+ * whole batch consumed in the same transaction. So a channel is written back as consumed once per batch, and it
+ * can never be handed out twice, neither by this node nor by another one.
+ * <p>
+ * A reservation expires (reserved_until) unless the channel gets used; so channels reserved by a node that stopped
+ * without releasing them are taken again by a later refill. A node hands out a reserved channel only well before its
+ * reservation expires, and forgets the votings it has no reserved channels for.
+ * <p>
+ * When channels of a voting are reused (decided when the voting was created, see {@link ReusableChannelAccounts}), a
+ * consumed channel is free again after its reusable_after passed. It is set when the channel is reserved (not before the reservation expires), when it gets
+ * used, and once more when its transaction was built, so a channel is not handed out again while its transaction
+ * might still get into a ledger. A channel handed out with reusable_after already set has been handed out before,
+ * so the sequence number cached for it might be ahead of its account's.
+ */
+@Singleton
+public class EbeanChannelAccountPool {
+    private final EbeanServer ebeanServer;
+    private final int batchSize;
+    private final boolean useSkipLocked;
+    private final Duration reservation;
+    private final ReusableChannelAccounts reusableChannelAccounts;
+
+    private final Map<Long, Queue<ReservedChannel>> reservedChannelsByVoting = new ConcurrentHashMap<>();
+    private final Map<Long, Object> refillLocksByVoting = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> channelReuseByVoting = new ConcurrentHashMap<>();
+
+    private static final Logger.ALogger logger = Logger.of(EbeanChannelAccountPool.class);
+
+    @Inject
+    public EbeanChannelAccountPool(EbeanServer ebeanServer, Config config, ApplicationLifecycle lifecycle,
+                                   ReusableChannelAccounts reusableChannelAccounts) {
+        this.ebeanServer = ebeanServer;
+        this.reusableChannelAccounts = reusableChannelAccounts;
+        batchSize = config.getInt("devote.commission.channel.pool.batch.size");
+        useSkipLocked = config.getBoolean("devote.db.skip.locked");
+        reservation = Duration.ofSeconds(config.getLong("devote.commission.channel.pool.reservation.sec"));
+
+        lifecycle.addStopHook(() -> {
+            releaseReservedChannels();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public Optional<ReservedChannel> take(Long votingId) {
+        Queue<ReservedChannel> reservedChannels = reservedChannelsByVoting.computeIfAbsent(votingId, id -> new ConcurrentLinkedQueue<>());
+
+        ReservedChannel reservedChannel = pollUnexpired(reservedChannels);
+        if (reservedChannel != null) {
+            return Optional.of(reservedChannel);
+        }
+
+        synchronized (refillLocksByVoting.computeIfAbsent(votingId, id -> new Object())) {
+            // Another thread might have refilled the queue (or evicted it) while waiting for the lock.
+            reservedChannels = reservedChannelsByVoting.computeIfAbsent(votingId, id -> new ConcurrentLinkedQueue<>());
+            reservedChannel = pollUnexpired(reservedChannels);
+            if (reservedChannel == null) {
+                reservedChannels.addAll(reserveBatch(votingId));
+                reservedChannel = pollUnexpired(reservedChannels);
+            }
+        }
+
+        evictIdleVotings();
+        return Optional.ofNullable(reservedChannel);
+    }
+
+    // For a channel taken, but not used after all.
+    public void giveBack(Long votingId, Long channelId) {
+        logger.info("giveBack(): votingId = {}, channelId = {}", votingId, channelId);
+        release(votingId, Collections.singletonList(channelId));
+    }
+
+    /**
+     * Ends the reservation of the channel, so it's not taken again when the reservation would expire. Should be called
+     * in the transaction storing what the channel was used for.
+     */
+    public void channelUsed(Long votingId, Long channelId) {
+        if (!isChannelReuseEnabledOf(votingId)) {
+            ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                    "update JpaVotingChannelAccount set reservedUntil = null where id = :id")
+                    .setParameter("id", channelId)
+                    .execute();
+            return;
+        }
+
+        // Keeps a reused channel out of the pool, even if its transaction never gets built.
+        ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                "update JpaVotingChannelAccount set reservedUntil = null, reusableAfter = :reusableAfter where id = :id")
+                .setParameter("reusableAfter", reusableChannelAccounts.reusableAfter())
+                .setParameter("id", channelId)
+                .execute();
+    }
+
+    // The time bounds of a transaction start when it's built; its channel is reused only after they expired.
+    public void transactionBuilt(Long storedTransactionId) {
+        ebeanServer.createSqlUpdate("update voting_channel_account " +
+                "set reusable_after = :reusableAfter " +
+                "where id = (select channel_account_id from stored_transaction where id = :storedTransactionId) " +
+                "and voting_id in (select id from voting where is_channel_reuse_enabled = true)")
+                .setParameter("reusableAfter", reusableChannelAccounts.reusableAfter())
+                .setParameter("storedTransactionId", storedTransactionId)
+                .execute();
+    }
+
+    private List<ReservedChannel> reserveBatch(Long votingId) {
+        boolean isChannelReuseEnabled = isChannelReuseEnabledOf(votingId);
+        Instant now = Instant.now();
+        Instant reservedUntil = now.plus(reservation);
+        // Not handed out close to the expiry, so that it's used before another node could take it again.
+        Instant handOutUntil = now.plus(reservation.multipliedBy(4).dividedBy(5));
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            ExpressionList<JpaVotingChannelAccount> isFree = ebeanServer.createQuery(JpaVotingChannelAccount.class)
+                    .select("id, reusableAfter")
+                    .where()
+                    .eq("voting.id", votingId)
+                    .or()
+                    .eq("isConsumed", false)
+                    .lt("reservedUntil", now);
+
+            if (isChannelReuseEnabled) {
+                isFree = isFree.lt("reusableAfter", now);
+            }
+
+            ExpressionList<JpaVotingChannelAccount> where = isFree.endOr();
+            Query<JpaVotingChannelAccount> query = where.setMaxRows(batchSize);
+
+            List<JpaVotingChannelAccount> channels = useSkipLocked ? query.forUpdateSkipLocked().findList() : query.forUpdate().findList();
+            List<Long> ids = channels.stream()
+                    .map(JpaVotingChannelAccount::getId)
+                    .collect(Collectors.toList());
+            reserve(ids, reservedUntil, isChannelReuseEnabled);
+
+            transaction.commit();
+
+            logger.info("reserveBatch(): votingId = {}, reserved {} channel(s)", votingId, ids.size());
+
+            List<ReservedChannel> reservedChannels = new ArrayList<>();
+            channels.forEach(c -> reservedChannels.add(new ReservedChannel(c.getId(), c.getReusableAfter() != null, handOutUntil)));
+            return reservedChannels;
+        }
+    }
+
+    // Channels of a batch are in the order they were reserved, so expired ones are at the head of the queue.
+    private static ReservedChannel pollUnexpired(Queue<ReservedChannel> reservedChannels) {
+        Instant now = Instant.now();
+
+        ReservedChannel reservedChannel;
+        while ((reservedChannel = reservedChannels.poll()) != null) {
+            if (reservedChannel.handOutUntil.isAfter(now)) {
+                return reservedChannel;
+            }
+        }
+
+        return null;
+    }
+
+    // Votings without reserved channels (e.g. ended, or all channels used) are forgotten; they are added again when
+    // a channel is taken for them.
+    private void evictIdleVotings() {
+        Instant now = Instant.now();
+
+        reservedChannelsByVoting.forEach((votingId, reservedChannels) -> {
+            Object refillLock = refillLocksByVoting.get(votingId);
+            if (refillLock == null) {
+                return;
+            }
+
+            synchronized (refillLock) {
+                reservedChannels.removeIf(c -> !c.handOutUntil.isAfter(now));
+                if (reservedChannels.isEmpty()) {
+                    reservedChannelsByVoting.remove(votingId, reservedChannels);
+                    refillLocksByVoting.remove(votingId, refillLock);
+                    channelReuseByVoting.remove(votingId);
+                }
+            }
+        });
+    }
+
+    private void releaseReservedChannels() {
+        reservedChannelsByVoting.forEach((votingId, reservedChannels) -> {
+            List<Long> unusedIds = new ArrayList<>();
+            ReservedChannel reservedChannel;
+            while ((reservedChannel = reservedChannels.poll()) != null) {
+                unusedIds.add(reservedChannel.id);
+            }
+
+            logger.info("releaseReservedChannels(): votingId = {}, releasing {} unused channel(s)", votingId, unusedIds.size());
+            release(votingId, unusedIds);
+        });
+    }
+
+    // Fixed when the voting is created, so it's remembered as long as the voting has reserved channels.
+    private boolean isChannelReuseEnabledOf(Long votingId) {
+        Boolean isChannelReuseEnabled = channelReuseByVoting.get(votingId);
+        if (isChannelReuseEnabled == null) {
+            isChannelReuseEnabled = Boolean.TRUE.equals(ebeanServer.createQuery(JpaVoting.class)
+                    .select("isChannelReuseEnabled")
+                    .where()
+                    .idEq(votingId)
+                    .findSingleAttribute());
+            channelReuseByVoting.put(votingId, isChannelReuseEnabled);
+        }
+
+        return isChannelReuseEnabled;
+    }
+
+    private void reserve(List<Long> ids, Instant reservedUntil, boolean isChannelReuseEnabled) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        if (!isChannelReuseEnabled) {
+            ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                    "update JpaVotingChannelAccount " +
+                    "set isConsumed = true, reservedUntil = :reservedUntil, reusableAfter = null " +
+                    "where id in (:ids)")
+                    .setParameter("reservedUntil", reservedUntil)
+                    .setParameter("ids", ids)
+                    .execute();
+            return;
+        }
+
+        // A reused channel whose reservation leaked (e.g. the node crashed) is free again after reusable_after; it's
+        // never before the reservation expires, so that the channel is not handed out by two nodes.
+        Instant reusableAfterUse = reusableChannelAccounts.reusableAfter();
+        Instant reusableAfter = reusableAfterUse.isAfter(reservedUntil) ? reusableAfterUse : reservedUntil;
+
+        ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                "update JpaVotingChannelAccount " +
+                "set isConsumed = true, reservedUntil = :reservedUntil, reusableAfter = :reusableAfter " +
+                "where id in (:ids)")
+                .setParameter("reservedUntil", reservedUntil)
+                .setParameter("reusableAfter", reusableAfter)
+                .setParameter("ids", ids)
+                .execute();
+    }
+
+    // When channels are reused, reusable_after is kept, as it tells that the channel was handed out before.
+    private void release(Long votingId, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        String clearReusableAfter = isChannelReuseEnabledOf(votingId) ? "" : ", reusableAfter = null";
+        ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                "update JpaVotingChannelAccount " +
+                "set isConsumed = false, reservedUntil = null" + clearReusableAfter + " " +
+                "where id in (:ids)")
+                .setParameter("ids", ids)
+                .execute();
+    }
+
+    public static class ReservedChannel {
+        public final Long id;
+        // Handed out before, so its previous transaction may or may not have been submitted.
+        public final boolean isReused;
+        public final Instant handOutUntil;
+
+        public ReservedChannel(Long id, boolean isReused, Instant handOutUntil) {
+            this.id = id;
+            this.isReused = isReused;
+            this.handOutUntil = handOutUntil;
+        }
+    }
+}
@@ -3,14 +3,19 @@ package data.repositories.imp;
 import data.entities.JpaChannelAccountProgress;
 import data.entities.JpaVoting;
 import data.entities.JpaChannelGeneratorAccount;
+import data.entities.WorkItemType;
 import data.repositories.ChannelProgressRepository;
 import io.ebean.EbeanServer;
+import io.ebean.Transaction;
 import play.Logger;
 
 import javax.inject.Inject;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static data.repositories.imp.EbeanRepositoryUtils.assertEntityExists;
+import static data.repositories.imp.EbeanWorkItems.push;
+
 public class EbeanChannelProgressRepository implements ChannelProgressRepository {
     private static final Logger.ALogger logger = Logger.of(EbeanChannelProgressRepository.class);
 
@@ -22,31 +27,10 @@ public class EbeanChannelProgressRepository implements ChannelProgressRepository
     }
 
     @Override
-    public void channelAccountsCreated(Long id, int numOfAccountsCreated) {
-        logger.info("channelAccountsCreated(): id = {}, numOfAccountsCreated = {}", id, numOfAccountsCreated);
-
-        JpaChannelAccountProgress channelProgress = ebeanServer.find(JpaChannelAccountProgress.class, id);
-
-        channelProgress.setNumOfAccountsLeftToCreate(
-                channelProgress.getNumOfAccountsLeftToCreate() - numOfAccountsCreated
-        );
-
-        if (channelProgress.getNumOfAccountsLeftToCreate() == 0) {
-            logger.info("channelAccountsCreated(): channel progress with id = {} finished!", id);
-        }
-
-        ebeanServer.update(channelProgress);
-    }
-
-    @Override
-    public List<JpaChannelAccountProgress> notFinishedSampleOf(int sampleSize) {
-        logger.info("notFinishedSampleOf(): sampleSize = {}", sampleSize);
-
-        return ebeanServer.createQuery(JpaChannelAccountProgress.class)
-                .where()
-                .gt("numOfAccountsLeftToCreate", 0)
-                .setMaxRows(sampleSize)
-                .findList();
+    public JpaChannelAccountProgress single(Long id) {
+        logger.info("single(): id = {}", id);
+        assertEntityExists(ebeanServer, JpaChannelAccountProgress.class, id);
+        return ebeanServer.find(JpaChannelAccountProgress.class, id);
     }
 
     @Override
@@ -66,7 +50,14 @@ public class EbeanChannelProgressRepository implements ChannelProgressRepository
                 .map(this::fromChannelGenerator)
                 .collect(Collectors.toList());
 
-        progresses.forEach(ebeanServer::save);
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            progresses.forEach(progress -> {
+                ebeanServer.save(progress);
+                push(ebeanServer, WorkItemType.CHANNEL_PROGRESS, progress.getId());
+            });
+
+            transaction.commit();
+        }
     }
 
     private JpaChannelAccountProgress fromChannelGenerator(JpaChannelGeneratorAccount channelGenerator) {
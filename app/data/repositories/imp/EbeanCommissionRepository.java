@@ -1,18 +1,27 @@
 package data.repositories.imp;
 
+import com.google.common.hash.Hashing;
 import data.entities.JpaChannelGeneratorAccount;
 import data.entities.JpaCommissionSession;
 import data.entities.JpaStoredTransaction;
 import data.entities.JpaVoter;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingChannelAccount;
+import data.repositories.AccountCreationReservation;
+import data.repositories.CommissionInitChecks;
 import data.repositories.CommissionRepository;
+import data.repositories.VotingFetchProfile;
 import exceptions.InternalErrorException;
 import exceptions.NotFoundException;
+import io.ebean.DuplicateKeyException;
 import io.ebean.EbeanServer;
+import io.ebean.ExpressionList;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
 import play.Logger;
 
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import static data.repositories.imp.EbeanRepositoryUtils.assertEntityExists;
@@ -21,12 +30,22 @@ import static utils.StringUtils.redactWithEllipsis;
 
 public class EbeanCommissionRepository implements CommissionRepository {
     private final EbeanServer ebeanServer;
+    private final EbeanChannelAccountPool channelAccountPool;
 
     private static final Logger.ALogger logger = Logger.of(EbeanCommissionRepository.class);
 
+    // Only the lengths of the public account ids are looked at; nothing is loaded from the voting.
+    private static final String IS_VOTING_INITIALIZED_PROPERLY =
+            "case when " +
+            "length(v.distribution_account_public) > 0 and " +
+            "length(v.issuer_account_public) > 0 and " +
+            "length(v.ballot_account_public) > 0 " +
+            "then 1 else 0 end";
+
     @Inject
-    public EbeanCommissionRepository(EbeanServer ebeanServer) {
+    public EbeanCommissionRepository(EbeanServer ebeanServer, EbeanChannelAccountPool channelAccountPool) {
         this.ebeanServer = ebeanServer;
+        this.channelAccountPool = channelAccountPool;
     }
 
     @Override
@@ -38,6 +57,16 @@ public class EbeanCommissionRepository implements CommissionRepository {
         return Optional.ofNullable(entity);
     }
 
+    @Override
+    public boolean doesSessionExist(Long votingId, String userId) {
+        logger.info("doesSessionExist(): votingId = {}, userId = {}", votingId, userId);
+
+        return !sessionsOf(userId, votingId)
+                .setMaxRows(1)
+                .findIds()
+                .isEmpty();
+    }
+
     @Override
     public JpaCommissionSession createSession(Long votingId, String userId) {
         logger.info("createSession(): votingId = {}, userId = {}", votingId, userId);
@@ -62,8 +91,11 @@ public class EbeanCommissionRepository implements CommissionRepository {
     public Boolean hasAlreadySignedAnEnvelope(String userId, Long votingId) {
         logger.info("hasAlreadySignedAnEnvelope(): votingId = {}, userId = {}", votingId, userId);
 
-        JpaCommissionSession commissionSession = find(userId, votingId);
-        boolean hasAlreadySigned = commissionSession.getEnvelopeSignature() != null;
+        boolean hasAlreadySigned = !sessionsOf(userId, votingId)
+                .isNotNull("envelopeSignature")
+                .setMaxRows(1)
+                .findIds()
+                .isEmpty();
 
         logger.info("hasAlreadySignedAnEnvelope(): User {} has {} already signed an envelope in voting {}",
                 userId, hasAlreadySigned ? "" : "not", votingId);
@@ -85,57 +117,84 @@ public class EbeanCommissionRepository implements CommissionRepository {
         ebeanServer.update(commissionSession);
     }
 
-    @Override
-    public JpaVotingChannelAccount consumeOneChannel(Long votingId) {
-        logger.info("consumeOneChannel(): votingId = {}", votingId);
-        Optional<JpaVotingChannelAccount> optionalJpaVotingChannelAccount = ebeanServer.createQuery(JpaVotingChannelAccount.class)
-                .where()
-                .eq("isConsumed", false)
-                .setMaxRows(1)
-                .findOneOrEmpty();
-
-        if (optionalJpaVotingChannelAccount.isPresent()) {
-            JpaVotingChannelAccount channelAccount = optionalJpaVotingChannelAccount.get();
-            channelAccount.setConsumed(true);
-            ebeanServer.update(channelAccount);
-
-            logger.info("consumeOneChannel(): successfully consumed a channel! id = {}", channelAccount.getId());
+    private EbeanChannelAccountPool.ReservedChannel takeOneChannel(Long votingId) {
+        Optional<EbeanChannelAccountPool.ReservedChannel> optionalReservedChannel = channelAccountPool.take(votingId);
 
-            return channelAccount;
+        if (optionalReservedChannel.isPresent()) {
+            return optionalReservedChannel.get();
         } else if (areAllChannelAccountsCreated(votingId)) {
             String errorMessage = "Could not find a free channel account!";
-            logger.warn("consumeOneChannel(): {}", errorMessage);
+            logger.warn("takeOneChannel(): {}", errorMessage);
             throw new InternalErrorException(errorMessage);
         } else {
             String errorMessage = "Could not find a free channel account! Please try again later!";
-            logger.warn("consumeOneChannel(): {}", errorMessage);
+            logger.warn("takeOneChannel(): {}", errorMessage);
             throw new InternalErrorException(errorMessage);
         }
     }
 
     @Override
-    public void storeTransactionForRevealedSignature(Long votingId, String signature, String transaction) {
-        String signatureToLog = redactWithEllipsis(signature, 5);
-        String transactionToLog = redactWithEllipsis(signature, 5);
-        logger.info("storeTransactionForRevealedSignature(): votingId = {}, signatureToLog = {}, transactionToLog = {}",
-                votingId, signatureToLog, transactionToLog);
+    public AccountCreationReservation reserveAccountCreation(Long votingId, String signature) {
+        logger.info("reserveAccountCreation(): votingId = {}, signature = {}", votingId, redactWithEllipsis(signature, 5));
 
-        JpaVoting voting = ebeanServer.getReference(JpaVoting.class, votingId);
+        JpaStoredTransaction storedTransaction = findStoredTransactionWithGraph(signature);
+        if (storedTransaction != null) {
+            logger.info("reserveAccountCreation(): account creation was requested before; id = {}", storedTransaction.getId());
+            return reservationOf(storedTransaction);
+        }
+
+        EbeanChannelAccountPool.ReservedChannel reservedChannel = takeOneChannel(votingId);
+        JpaVotingChannelAccount channelAccount = ebeanServer.find(JpaVotingChannelAccount.class, reservedChannel.id);
 
-        JpaStoredTransaction storedTransaction = new JpaStoredTransaction();
+        storedTransaction = new JpaStoredTransaction();
         storedTransaction.setSignature(signature);
-        storedTransaction.setSignatureFootPrint(toSignatureFootPrint(signature));
-        storedTransaction.setTransaction(transaction);
-        storedTransaction.setVoting(voting);
-        ebeanServer.save(storedTransaction);
+        storedTransaction.setSignatureDigest(toSignatureDigest(signature));
+        storedTransaction.setChannelAccount(channelAccount);
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            storedTransaction.setVoting(EbeanVotingGraphs.single(ebeanServer, votingId));
+            ebeanServer.save(storedTransaction);
+            channelAccountPool.channelUsed(votingId, channelAccount.getId());
+
+            transaction.commit();
+        } catch (DuplicateKeyException e) {
+            // An identical request got here first; the channel goes back to the pool, and that request's
+            // reservation is used.
+            logger.warn("reserveAccountCreation(): concurrent request for the same signature; using its reservation.");
+            channelAccountPool.giveBack(votingId, channelAccount.getId());
+
+            return reservationOf(findStoredTransactionWithGraph(signature));
+        } catch (RuntimeException e) {
+            channelAccountPool.giveBack(votingId, channelAccount.getId());
+            throw e;
+        }
+
+        logger.info("reserveAccountCreation(): reserved channel {} in stored transaction {}; reused: {}",
+                channelAccount.getId(), storedTransaction.getId(), reservedChannel.isReused);
+        return new AccountCreationReservation(storedTransaction.getId(), storedTransaction.getVoting(), channelAccount,
+                null, reservedChannel.isReused);
     }
 
     @Override
-    public boolean doesTransactionExistForSignature(String signature) {
-        Optional<JpaStoredTransaction> optionalJpaStoredTransaction = findStoredTransaction(signature);
-        logger.info("doesTransactionExistForSignature(): Transaction does {} exist for signature = {}",
-                optionalJpaStoredTransaction.isPresent() ? "" : "not", redactWithEllipsis(signature, 5));
-        return optionalJpaStoredTransaction.isPresent();
+    public String completeAccountCreation(Long storedTransactionId, String transaction) {
+        logger.info("completeAccountCreation(): storedTransactionId = {}, transaction = {}",
+                storedTransactionId, redactWithEllipsis(transaction, 5));
+
+        int numOfUpdated = ebeanServer.createSqlUpdate("update stored_transaction " +
+                "set transaction = :transaction " +
+                "where id = :id and transaction is null")
+                .setParameter("transaction", transaction)
+                .setParameter("id", storedTransactionId)
+                .execute();
+
+        if (numOfUpdated == 1) {
+            channelAccountPool.transactionBuilt(storedTransactionId);
+            return transaction;
+        }
+
+        // A replayed request built its transaction first; every request gets that one.
+        logger.info("completeAccountCreation(): transaction was already built for {}", storedTransactionId);
+        return ebeanServer.find(JpaStoredTransaction.class, storedTransactionId).getTransaction();
     }
 
     @Override
@@ -176,25 +235,68 @@ public class EbeanCommissionRepository implements CommissionRepository {
     public boolean isVotingInitializedProperly(Long votingId) {
         logger.info("isVotingInitializedProperly(): votingId = {}", votingId);
 
-        assertEntityExists(ebeanServer, JpaVoting.class, votingId);
-        JpaVoting voting = ebeanServer.find(JpaVoting.class, votingId);
+        SqlRow row = ebeanServer.createSqlQuery(
+                "select " + IS_VOTING_INITIALIZED_PROPERLY + " as is_initialized from voting v where v.id = :votingId")
+                .setParameter("votingId", votingId)
+                .findOne();
 
-        return voting.getDistributionAccountPublic() != null && voting.getDistributionAccountPublic().length() > 0 &&
-                voting.getIssuerAccountPublic() != null && voting.getIssuerAccountPublic().length() > 0 &&
-                voting.getBallotAccountPublic() != null && voting.getBallotAccountPublic().length() > 0;
+        if (row == null) {
+            String message = String.format("No such entity %s (%s) found!", JpaVoting.class.getName(), votingId);
+            throw new NotFoundException(message);
+        }
+
+        return row.getInteger("is_initialized") == 1;
+    }
+
+    @Override
+    public CommissionInitChecks checkInit(Long votingId, String userId) {
+        logger.info("checkInit(): votingId = {}, userId = {}", votingId, userId);
+
+        SqlRow row = ebeanServer.createSqlQuery(
+                "select " +
+                "  case when exists (" +
+                "    select 1 from votings_participants vp join voter p on p.id = vp.voter_id " +
+                "    where vp.voting_id = v.id and p.user_id = :userId" +
+                "  ) then 1 else 0 end as does_participate, " +
+                "  " + IS_VOTING_INITIALIZED_PROPERLY + " as is_initialized, " +
+                "  case when exists (" +
+                "    select 1 from commission_session cs join voter s on s.id = cs.voter_id " +
+                "    where cs.voting_id = v.id and s.user_id = :userId" +
+                "  ) then 1 else 0 end as does_session_exist " +
+                "from voting v where v.id = :votingId")
+                .setParameter("votingId", votingId)
+                .setParameter("userId", userId)
+                .findOne();
+
+        CommissionInitChecks checks;
+        if (row == null) {
+            // No such voting, so nobody participates in it.
+            checks = new CommissionInitChecks(false, false, false);
+        } else {
+            checks = new CommissionInitChecks(
+                    row.getInteger("does_participate") == 1,
+                    row.getInteger("is_initialized") == 1,
+                    row.getInteger("does_session_exist") == 1
+            );
+        }
+
+        logger.info("checkInit(): checks = {}", checks);
+        return checks;
     }
 
     private JpaCommissionSession find(String userId, Long votingId) {
+        return sessionsOf(userId, votingId).findOne();
+    }
+
+    private ExpressionList<JpaCommissionSession> sessionsOf(String userId, Long votingId) {
         return ebeanServer.createQuery(JpaCommissionSession.class)
                 .where()
                 .eq("voter.userId", userId)
-                .eq("voting.id", votingId)
-                .findOne();
+                .eq("voting.id", votingId);
     }
 
     private boolean areAllChannelAccountsCreated(Long votingId) {
-        assertEntityExists(ebeanServer, JpaVoting.class, votingId);
-        JpaVoting voting = ebeanServer.find(JpaVoting.class, votingId);
+        JpaVoting voting = EbeanVotingGraphs.single(ebeanServer, votingId, VotingFetchProfile.FOR_COMMISSION);
 
         for (JpaChannelGeneratorAccount channelGenerator : voting.getChannelGeneratorAccounts()) {
             if (channelGenerator.getChannelAccountProgress().getNumOfAccountsLeftToCreate() > 0) {
@@ -206,14 +308,55 @@ public class EbeanCommissionRepository implements CommissionRepository {
     }
 
     private Optional<JpaStoredTransaction> findStoredTransaction(String signature) {
-        return ebeanServer.createQuery(JpaStoredTransaction.class)
-                .where()
-                // Index on clob is not supported, so assume this condition helps to shrink the search space
-                .eq("signatureFootPrint", toSignatureFootPrint(signature))
-                .eq("signature", signature)
+        // Only built transactions; a reserved one is not there yet.
+        ExpressionList<JpaStoredTransaction> where = ebeanServer.createQuery(JpaStoredTransaction.class)
+                .orderBy("id")
+                .setMaxRows(1)
+                .where();
+
+        return whereSignatureIs(where, signature)
+                .isNotNull("transaction")
                 .findOneOrEmpty();
     }
 
+    private JpaStoredTransaction findStoredTransactionWithGraph(String signature) {
+        ExpressionList<JpaStoredTransaction> where = ebeanServer.createQuery(JpaStoredTransaction.class)
+                .fetch("voting")
+                .fetch("channelAccount")
+                .orderBy("id")
+                .setMaxRows(1)
+                .where();
+
+        return whereSignatureIs(where, signature)
+                .findOne();
+    }
+
+    // Transactions stored before digests were introduced are found by their (indexed) footprint until EbeanDbUpgrades
+    // gives them a digest. A signature stored more than once keeps its digest on the oldest row only, so the oldest
+    // wins.
+    private static ExpressionList<JpaStoredTransaction> whereSignatureIs(ExpressionList<JpaStoredTransaction> where, String signature) {
+        return where.or()
+                    .eq("signatureDigest", toSignatureDigest(signature))
+                    .and()
+                        .isNull("signatureDigest")
+                        .eq("signatureFootPrint", toSignatureFootPrint(signature))
+                        .eq("signature", signature)
+                    .endAnd()
+                .endOr();
+    }
+
+    // Requested before; whether the channel was handed out before that request is not known anymore, so it's taken
+    // as reused when channels of the voting are reused.
+    private AccountCreationReservation reservationOf(JpaStoredTransaction storedTransaction) {
+        return new AccountCreationReservation(storedTransaction.getId(), storedTransaction.getVoting(),
+                storedTransaction.getChannelAccount(), storedTransaction.getTransaction(),
+                storedTransaction.getVoting().isChannelReuseEnabled());
+    }
+
+    static String toSignatureDigest(String signature) {
+        return Hashing.sha256().hashString(signature, StandardCharsets.UTF_8).toString();
+    }
+
     private static String toSignatureFootPrint(String signature) {
         return redact(signature, 255);
     }
@@ -0,0 +1,137 @@
+package data.repositories.imp;
+
+import com.typesafe.config.Config;
+import data.entities.JpaStoredTransaction;
+import data.repositories.DbUpgrades;
+import io.ebean.EbeanServer;
+import io.ebean.Transaction;
+import play.Logger;
+
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class EbeanDbUpgrades implements DbUpgrades {
+    private final EbeanServer ebeanServer;
+    private final int backfillPageSize;
+
+    private static final Logger.ALogger logger = Logger.of(EbeanDbUpgrades.class);
+
+    @Inject
+    public EbeanDbUpgrades(EbeanServer ebeanServer, Config config) {
+        this.ebeanServer = ebeanServer;
+        backfillPageSize = config.getInt("devote.db.upgrades.backfill.page.size");
+    }
+
+    @Override
+    public void run() {
+        createParticipantsIndex();
+        createVoterEmailUniqueIndex();
+        backfillSignatureDigests();
+    }
+
+    // Indexes of a @JoinTable are not generated by Ebean. Participants are looked up by voting, then by voter.
+    private void createParticipantsIndex() {
+        ebeanServer.createSqlUpdate("create index if not exists ix_votings_participants_voting_voter " +
+                "on votings_participants (voting_id, voter_id)")
+                .execute();
+
+        logger.info("createParticipantsIndex(): ix_votings_participants_voting_voter is in place");
+    }
+
+    // Voters are inserted only if absent by email, which is decided by this index when the db supports ON CONFLICT.
+    // Voters created by earlier versions might share an email; then the index cannot be created until they are merged.
+    private void createVoterEmailUniqueIndex() {
+        try {
+            ebeanServer.createSqlUpdate("create unique index if not exists uq_voter_email on voter (email)")
+                    .execute();
+
+            logger.info("createVoterEmailUniqueIndex(): uq_voter_email is in place");
+        } catch (PersistenceException e) {
+            logger.warn("createVoterEmailUniqueIndex(): failed to create; voters sharing an email must be merged first.", e);
+        }
+    }
+
+    // Transactions stored before signature digests were introduced. The same signature might have been stored more
+    // than once back then; only its oldest row gets the digest, the rest are left without one and logged. Rows are
+    // backfilled a page at a time in the order of their ids, each page in its own transaction.
+    private void backfillSignatureDigests() {
+        Long lastId = 0L;
+        int numOfBackfilled = 0;
+
+        List<JpaStoredTransaction> page;
+        do {
+            page = ebeanServer.createQuery(JpaStoredTransaction.class)
+                    .select("id, signature")
+                    .where()
+                    .isNull("signatureDigest")
+                    .gt("id", lastId)
+                    .orderBy("id")
+                    .setMaxRows(backfillPageSize)
+                    .findList();
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            lastId = page.get(page.size() - 1).getId();
+
+            try {
+                numOfBackfilled += backfillSignatureDigestsOf(page);
+            } catch (PersistenceException e) {
+                logger.warn("backfillSignatureDigests(): failed to backfill; will be tried again on the next start.", e);
+                return;
+            }
+        } while (page.size() == backfillPageSize);
+
+        if (numOfBackfilled > 0) {
+            logger.info("backfillSignatureDigests(): backfilled {} signature digest(s)", numOfBackfilled);
+        }
+    }
+
+    private int backfillSignatureDigestsOf(List<JpaStoredTransaction> withoutDigest) {
+        Set<String> digests = takenDigestsOf(withoutDigest);
+        List<JpaStoredTransaction> toBackfill = new ArrayList<>();
+
+        withoutDigest.forEach(storedTransaction -> {
+            String digest = EbeanCommissionRepository.toSignatureDigest(storedTransaction.getSignature());
+
+            if (digests.add(digest)) {
+                storedTransaction.setSignatureDigest(digest);
+                toBackfill.add(storedTransaction);
+            } else {
+                logger.warn("backfillSignatureDigests(): stored transaction {} duplicates the signature of an " +
+                        "older one; leaving it without digest.", storedTransaction.getId());
+            }
+        });
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            transaction.setBatchMode(true);
+            toBackfill.forEach(ebeanServer::update);
+
+            transaction.commit();
+        }
+
+        return toBackfill.size();
+    }
+
+    // Digests of the signatures which are already taken by rows created since digests were introduced, or by
+    // backfilled pages.
+    private Set<String> takenDigestsOf(List<JpaStoredTransaction> withoutDigest) {
+        Set<String> digests = withoutDigest.stream()
+                .map(t -> EbeanCommissionRepository.toSignatureDigest(t.getSignature()))
+                .collect(Collectors.toSet());
+
+        List<String> takenDigests = ebeanServer.createQuery(JpaStoredTransaction.class)
+                .select("signatureDigest")
+                .where()
+                .in("signatureDigest", digests)
+                .findSingleAttributeList();
+
+        return new HashSet<>(takenDigests);
+    }
+}
@@ -3,6 +3,8 @@ package data.repositories.imp;
 import data.entities.JpaVoting;
 import data.entities.Visibility;
 import data.repositories.PageOfVotingsRepository;
+import data.repositories.VotingsPageCursor;
+import com.typesafe.config.Config;
 import io.ebean.EbeanServer;
 import io.ebean.Query;
 import responses.Page;
@@ -11,49 +13,128 @@ import javax.inject.Inject;
 
 public class EbeanPageOfVotingRepository implements PageOfVotingsRepository {
     private final EbeanServer ebeanServer;
+    private final boolean useTableLock;
 
     @Inject
-    public EbeanPageOfVotingRepository(EbeanServer ebeanServer) {
+    public EbeanPageOfVotingRepository(EbeanServer ebeanServer, Config config) {
         this.ebeanServer = ebeanServer;
+        useTableLock = config.getBoolean("devote.db.table.lock");
     }
 
     @Override
     public Page<JpaVoting> pageOfPublic(int offset, int limit) {
-        Query<JpaVoting> query = ebeanServer.createQuery(JpaVoting.class);
-
-        query.where().eq("visibility", Visibility.PUBLIC.name());
+        Query<JpaVoting> query = publicVotings();
         offsetAndLimit(query, offset, limit);
 
-        return toPage(query);
+        return toPage(query, countOf(EbeanVotingCounters.ofVisibility(Visibility.PUBLIC)));
     }
 
     @Override
-    public Page<JpaVoting> votingsOfVoteCaller(int offset, int limit, String userId) {
-        Query<JpaVoting> query = ebeanServer.createQuery(JpaVoting.class);
+    public Page<JpaVoting> pageOfPublic(VotingsPageCursor cursor, int limit) {
+        Query<JpaVoting> query = publicVotings();
+        afterAndLimit(query, cursor, limit);
 
-        query.where().eq("createdBy", userId);
+        return toPage(query, countOf(EbeanVotingCounters.ofVisibility(Visibility.PUBLIC)));
+    }
+
+    @Override
+    public Page<JpaVoting> votingsOfVoteCaller(int offset, int limit, String userId) {
+        Query<JpaVoting> query = votingsOfVoteCaller(userId);
         offsetAndLimit(query, offset, limit);
 
-        return toPage(query);
+        return toPage(query, countOf(EbeanVotingCounters.ofCreator(userId)));
+    }
+
+    @Override
+    public Page<JpaVoting> votingsOfVoteCaller(VotingsPageCursor cursor, int limit, String userId) {
+        Query<JpaVoting> query = votingsOfVoteCaller(userId);
+        afterAndLimit(query, cursor, limit);
+
+        return toPage(query, countOf(EbeanVotingCounters.ofCreator(userId)));
     }
 
     @Override
     public Page<JpaVoting> votingsOfVoter(int offset, int limit, String userId) {
-        Query<JpaVoting> query = ebeanServer.createQuery(JpaVoting.class);
+        Query<JpaVoting> query = votingsOfVoter(userId);
+        offsetAndLimit(query, offset, limit);
+
+        return toPage(query, countOfVoter(userId));
+    }
+
+    @Override
+    public Page<JpaVoting> votingsOfVoter(VotingsPageCursor cursor, int limit, String userId) {
+        Query<JpaVoting> query = votingsOfVoter(userId);
+        afterAndLimit(query, cursor, limit);
+
+        return toPage(query, countOfVoter(userId));
+    }
+
+    private Query<JpaVoting> publicVotings() {
+        Query<JpaVoting> query = projection();
+        query.where().eq("visibility", Visibility.PUBLIC.name());
+
+        return query;
+    }
+
+    private Query<JpaVoting> votingsOfVoteCaller(String userId) {
+        Query<JpaVoting> query = projection();
+        query.where().eq("createdBy", userId);
+
+        return query;
+    }
 
+    private Query<JpaVoting> votingsOfVoter(String userId) {
+        Query<JpaVoting> query = projection();
         query.where().eq("voters.userId", userId);
-        offsetAndLimit(query, offset, limit);
 
-        return toPage(query);
+        return query;
+    }
+
+    // Only what is needed for a page item, and for the cursor.
+    private Query<JpaVoting> projection() {
+        return ebeanServer.createQuery(JpaVoting.class)
+                .select("id, title, createdAt");
     }
 
+    // Offset pages keep their original order, from the oldest.
     private void offsetAndLimit(Query<JpaVoting> query, int offset, int limit) {
-        query.setFirstRow(offset).setMaxRows(limit);
+        query.orderBy("id asc")
+                .setFirstRow(offset)
+                .setMaxRows(limit);
+    }
+
+    // Cursor pages are from the newest.
+    private void afterAndLimit(Query<JpaVoting> query, VotingsPageCursor cursor, int limit) {
+        query.orderBy("createdAt desc, id desc");
+
+        if (cursor != null) {
+            query.where()
+                    .or()
+                        .lt("createdAt", cursor.createdAt)
+                        .and()
+                            .eq("createdAt", cursor.createdAt)
+                            .lt("id", cursor.id)
+                        .endAnd()
+                    .endOr();
+        }
+
+        query.setMaxRows(limit);
+    }
+
+    // The backfill marker is checked every time, so it is the db, not a node, that remembers the backfill.
+    private long countOf(String counterKey) {
+        EbeanVotingCounters.backfillIfNeeded(ebeanServer, useTableLock);
+        return EbeanVotingCounters.countOf(ebeanServer, counterKey);
+    }
+
+    private long countOfVoter(String userId) {
+        EbeanVotingCounters.backfillIfNeeded(ebeanServer, useTableLock);
+        return EbeanVotingCounters.countOfVoter(ebeanServer, userId);
     }
 
-    private Page<JpaVoting> toPage(Query<JpaVoting> query) {
+    private Page<JpaVoting> toPage(Query<JpaVoting> query, long totalCount) {
         Page<JpaVoting> page = new Page<>();
-        page.setTotalCount(query.findCount());
+        page.setTotalCount(totalCount);
         page.setItems(query.findList());
 
         return page;
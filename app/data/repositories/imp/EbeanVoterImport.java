@@ -0,0 +1,193 @@
+package data.repositories.imp;
+
+import data.entities.JpaVoter;
+import data.entities.JpaVoting;
+import data.repositories.VotersImportResult;
+import io.ebean.EbeanServer;
+import io.ebean.Transaction;
+import play.Logger;
+
+import javax.persistence.PersistenceException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adds voters of a voting by email, a batch of emails at a time, so that memory use does not depend on the number
+ * of emails.
+ * <p>
+ * For a batch, voters already existing with an email are reused, the missing ones are inserted, then the ones not
+ * yet participating are added to the voting, counting the voting for them; these go to the db as JDBC batches. A batch joins the caller's
+ * transaction if there is one, otherwise it is committed on its own.
+ * <p>
+ * Voters are inserted only if absent, as another import might insert the same email meanwhile; with
+ * {@code onConflictDoNothing} the unique index on the email decides, otherwise the insert checks for an existing voter.
+ * <p>
+ * A batch locks the voting's row before reading its participants, so concurrent imports into the same voting take
+ * turns, and a voter is added to the voting (and counted for it) only once.
+ */
+public class EbeanVoterImport {
+    private static final Logger.ALogger logger = Logger.of(EbeanVoterImport.class);
+
+    private static final String INSERT_VOTER_ON_CONFLICT_DO_NOTHING =
+            "insert into voter (email, num_of_votings) values (?, 0) on conflict do nothing";
+    private static final String INSERT_VOTER_IF_NOT_EXISTS =
+            "insert into voter (email, num_of_votings) select ?, 0 where not exists (select 1 from voter where email = ?)";
+
+    public static VotersImportResult importEmails(EbeanServer ebeanServer, Long votingId, Iterator<String> emails, int batchSize,
+                                                  boolean onConflictDoNothing) {
+        VotersImportResult result = new VotersImportResult();
+        Set<String> batch = new LinkedHashSet<>(batchSize);
+
+        while (emails.hasNext()) {
+            batch.add(emails.next());
+            result.emailsRead(1);
+
+            if (batch.size() == batchSize) {
+                importBatch(ebeanServer, votingId, batch, onConflictDoNothing, result);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            importBatch(ebeanServer, votingId, batch, onConflictDoNothing, result);
+        }
+
+        return result;
+    }
+
+    private static void importBatch(EbeanServer ebeanServer, Long votingId, Set<String> emails, boolean onConflictDoNothing,
+                                    VotersImportResult result) {
+        Transaction currentTransaction = ebeanServer.currentTransaction();
+        if (currentTransaction != null) {
+            importBatch(ebeanServer, currentTransaction, votingId, emails, onConflictDoNothing, result);
+        } else {
+            try (Transaction transaction = ebeanServer.beginTransaction()) {
+                importBatch(ebeanServer, transaction, votingId, emails, onConflictDoNothing, result);
+                transaction.commit();
+            }
+        }
+
+        logger.info("importBatch(): votingId = {}, progress: {}", votingId, result);
+    }
+
+    private static void importBatch(EbeanServer ebeanServer, Transaction transaction, Long votingId, Set<String> emails,
+                                    boolean onConflictDoNothing, VotersImportResult result) {
+        lockVoting(ebeanServer, votingId);
+
+        Map<String, Long> voterIdsByEmail = voterIdsOf(ebeanServer, emails);
+
+        List<String> newEmails = new ArrayList<>();
+        emails.stream()
+                .filter(e -> !voterIdsByEmail.containsKey(e))
+                .forEach(newEmails::add);
+
+        if (!newEmails.isEmpty()) {
+            int numOfInserted = onConflictDoNothing ?
+                    executeBatch(transaction, INSERT_VOTER_ON_CONFLICT_DO_NOTHING, newEmails,
+                            (statement, email) -> statement.setString(1, email)) :
+                    executeBatch(transaction, INSERT_VOTER_IF_NOT_EXISTS, newEmails,
+                            (statement, email) -> {
+                                statement.setString(1, email);
+                                statement.setString(2, email);
+                            });
+            voterIdsByEmail.putAll(voterIdsOf(ebeanServer, newEmails));
+            result.votersCreated(numOfInserted);
+        }
+
+        Set<Long> participantIds = participantIdsOf(ebeanServer, votingId, voterIdsByEmail.values());
+
+        List<Long> newParticipantIds = new ArrayList<>();
+        voterIdsByEmail.values().stream()
+                .filter(id -> !participantIds.contains(id))
+                .forEach(newParticipantIds::add);
+
+        if (!newParticipantIds.isEmpty()) {
+            executeBatch(transaction, "insert into votings_participants (voter_id, voting_id) values (?, ?)", newParticipantIds,
+                    (statement, voterId) -> {
+                        statement.setLong(1, voterId);
+                        statement.setLong(2, votingId);
+                    });
+            executeBatch(transaction, "update voter set num_of_votings = num_of_votings + 1 where id = ?", newParticipantIds,
+                    (statement, voterId) -> statement.setLong(1, voterId));
+            result.participantsAdded(newParticipantIds.size());
+        }
+    }
+
+    // Held until the batch's transaction ends.
+    private static void lockVoting(EbeanServer ebeanServer, Long votingId) {
+        JpaVoting voting = ebeanServer.createQuery(JpaVoting.class)
+                .select("id")
+                .where()
+                .idEq(votingId)
+                .forUpdate()
+                .findOne();
+
+        if (voting == null) {
+            throw new PersistenceException("Voting to import voters into is not found: " + votingId);
+        }
+    }
+
+    // Voters created by earlier versions might share an email; the first of them is used.
+    private static Map<String, Long> voterIdsOf(EbeanServer ebeanServer, Collection<String> emails) {
+        List<JpaVoter> voters = ebeanServer.createQuery(JpaVoter.class)
+                .select("id, email")
+                .where()
+                .in("email", emails)
+                .orderBy("id")
+                .findList();
+
+        Map<String, Long> voterIdsByEmail = new HashMap<>();
+        voters.forEach(v -> voterIdsByEmail.putIfAbsent(v.getEmail(), v.getId()));
+
+        return voterIdsByEmail;
+    }
+
+    private static Set<Long> participantIdsOf(EbeanServer ebeanServer, Long votingId, Collection<Long> voterIds) {
+        List<Long> participantIds = ebeanServer.createQuery(JpaVoter.class)
+                .where()
+                .eq("votings.id", votingId)
+                .in("id", voterIds)
+                .findIds();
+
+        return new HashSet<>(participantIds);
+    }
+
+    // Returns the number of affected rows, as far as the driver tells them.
+    private static <T> int executeBatch(Transaction transaction, String sql, List<T> items, StatementSetter<T> setter) {
+        Connection connection = transaction.getConnection();
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (T item : items) {
+                setter.set(statement, item);
+                statement.addBatch();
+            }
+
+            int numOfAffected = 0;
+            for (int count : statement.executeBatch()) {
+                numOfAffected += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+
+            return numOfAffected;
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to execute batch: " + sql, e);
+        }
+    }
+
+    private interface StatementSetter<T> {
+        void set(PreparedStatement statement, T item) throws SQLException;
+    }
+
+    private EbeanVoterImport() {
+    }
+}
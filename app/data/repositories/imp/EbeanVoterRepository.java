@@ -1,25 +1,33 @@
 package data.repositories.imp;
 
+import com.typesafe.config.Config;
 import data.entities.JpaVoter;
 import data.repositories.VoterRepository;
+import data.repositories.VotersImportResult;
 import exceptions.NotFoundException;
 import io.ebean.EbeanServer;
 import play.Logger;
 
 import javax.inject.Inject;
+import java.util.Iterator;
+import java.util.List;
 
 public class EbeanVoterRepository implements VoterRepository {
     private final EbeanServer ebeanServer;
+    private final int importBatchSize;
+    private final boolean useOnConflict;
 
     private static final Logger.ALogger logger = Logger.of(EbeanVoterRepository.class);
 
     @Inject
-    public EbeanVoterRepository(EbeanServer ebeanServer) {
+    public EbeanVoterRepository(EbeanServer ebeanServer, Config config) {
         this.ebeanServer = ebeanServer;
+        importBatchSize = config.getInt("devote.voters.import.batch.size");
+        useOnConflict = config.getBoolean("devote.db.on.conflict");
     }
 
     @Override
-    public void setUserIdForEmail(String email, String userId) {
+    public boolean setUserIdForEmail(String email, String userId) {
         logger.info("setUserIdForEmail(): email = {}, userId = {}", email, userId);
 
         JpaVoter voter = ebeanServer.createQuery(JpaVoter.class)
@@ -29,10 +37,12 @@ public class EbeanVoterRepository implements VoterRepository {
 
         if (voter == null) {
             logger.warn("setUserIdForEmail(): not found voter for email: {}!", email);
+            return false;
         } else {
             logger.info("setUserIdForEmail(): found voter for email: {}", email);
             voter.setUserId(userId);
             ebeanServer.update(voter);
+            return true;
         }
     }
 
@@ -45,16 +55,34 @@ public class EbeanVoterRepository implements VoterRepository {
                 .findOne();
     }
 
+    @Override
+    public List<String> getUserIdsOfVoters(int maxNumOf) {
+        logger.info("getUserIdsOfVoters(): maxNumOf = {}", maxNumOf);
+        return ebeanServer.createQuery(JpaVoter.class)
+                .select("userId")
+                .where()
+                .isNotNull("userId")
+                .setMaxRows(maxNumOf)
+                .findSingleAttributeList();
+    }
+
     @Override
     public boolean doesParticipateInVoting(String userId, Long votingId) {
         logger.info("doesParticipateInVoting(): userId = {}, votingId = {}", userId, votingId);
 
-        JpaVoter voter = ebeanServer.createQuery(JpaVoter.class)
+        List<Object> voterIds = ebeanServer.createQuery(JpaVoter.class)
                 .where()
                 .eq("userId", userId)
                 .eq("votings.id", votingId)
-                .findOne();
+                .setMaxRows(1)
+                .findIds();
 
-        return voter != null;
+        return !voterIds.isEmpty();
+    }
+
+    @Override
+    public VotersImportResult importVoters(Long votingId, Iterator<String> emails) {
+        logger.info("importVoters(): votingId = {}", votingId);
+        return EbeanVoterImport.importEmails(ebeanServer, votingId, emails, importBatchSize, useOnConflict);
     }
 }
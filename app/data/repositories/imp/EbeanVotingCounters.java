@@ -0,0 +1,147 @@
+package data.repositories.imp;
+
+import data.entities.JpaVoter;
+import data.entities.JpaVotingCounter;
+import data.entities.Visibility;
+import io.ebean.DuplicateKeyException;
+import io.ebean.EbeanServer;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import play.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Number of votings per visibility and per creator, maintained when a voting is created, so that pages of votings
+ * don't need to count rows. The number of votings of a voter is kept on the voter itself, maintained when it is
+ * added to a voting.
+ */
+public class EbeanVotingCounters {
+    private static final String BACKFILLED_MARKER = "backfilled";
+
+    private static final Logger.ALogger logger = Logger.of(EbeanVotingCounters.class);
+
+    public static String ofVisibility(Visibility visibility) {
+        return "visibility:" + visibility.name();
+    }
+
+    public static String ofCreator(String userId) {
+        return "creator:" + userId;
+    }
+
+    // Must be called outside of the caller's transaction, as a concurrent insert of the same counter fails it.
+    public static void ensureExists(EbeanServer ebeanServer, String counterKey) {
+        if (ebeanServer.find(JpaVotingCounter.class, counterKey) != null) {
+            return;
+        }
+
+        try {
+            ebeanServer.save(counterOf(counterKey, 0L));
+        } catch (DuplicateKeyException e) {
+            logger.info("ensureExists(): counter {} has just been created by someone else.", counterKey);
+        }
+    }
+
+    // Joins the transaction of the caller; the counter must exist.
+    public static void increment(EbeanServer ebeanServer, String counterKey) {
+        ebeanServer.createUpdate(JpaVotingCounter.class,
+                "update JpaVotingCounter set numOfVotings = numOfVotings + 1 where counterKey = :counterKey")
+                .setParameter("counterKey", counterKey)
+                .execute();
+    }
+
+    public static long countOf(EbeanServer ebeanServer, String counterKey) {
+        JpaVotingCounter counter = ebeanServer.find(JpaVotingCounter.class, counterKey);
+        return counter == null ? 0 : counter.getNumOfVotings();
+    }
+
+    public static long countOfVoter(EbeanServer ebeanServer, String userId) {
+        List<Long> numsOfVotings = ebeanServer.createQuery(JpaVoter.class)
+                .select("numOfVotings")
+                .where()
+                .eq("userId", userId)
+                .isNotNull("numOfVotings")
+                .findSingleAttributeList();
+
+        return numsOfVotings.stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Recounts all counters from the votings, unless that has already been done once by any node.
+     * <p>
+     * With lockTable, the voting and participant tables are locked against inserts for the recount, so a voting or
+     * participant added meanwhile is either counted here, or incremented on top of the recounted value. Counters are overwritten instead of deleted
+     * and recreated, so an increment never hits a missing counter.
+     */
+    public static void backfillIfNeeded(EbeanServer ebeanServer, boolean lockTable) {
+        if (isBackfilled(ebeanServer)) {
+            return;
+        }
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            if (lockTable) {
+                ebeanServer.createSqlUpdate("lock table voting, votings_participants in share row exclusive mode").execute();
+            }
+
+            if (isBackfilled(ebeanServer)) {
+                return;
+            }
+
+            logger.info("backfillIfNeeded(): backfilling voting counters");
+
+            List<JpaVotingCounter> counters = new ArrayList<>();
+
+            ebeanServer.createSqlQuery("select visibility, count(*) as num_of_votings from voting group by visibility")
+                    .findList()
+                    .forEach(r -> counters.add(counterOf(ofVisibility(Visibility.valueOf(r.getString("visibility"))), r)));
+
+            ebeanServer.createSqlQuery("select created_by, count(*) as num_of_votings from voting group by created_by")
+                    .findList()
+                    .forEach(r -> counters.add(counterOf(ofCreator(r.getString("created_by")), r)));
+
+            counters.forEach(c -> overwrite(ebeanServer, c));
+            ebeanServer.createSqlUpdate("update voter set num_of_votings = " +
+                    "(select count(*) from votings_participants vp where vp.voter_id = voter.id)")
+                    .execute();
+            ebeanServer.save(counterOf(BACKFILLED_MARKER, 0L));
+
+            transaction.commit();
+            logger.info("backfillIfNeeded(): backfilled {} voting counter(s)", counters.size());
+        } catch (DuplicateKeyException e) {
+            logger.info("backfillIfNeeded(): counters have just been backfilled by someone else.");
+        }
+    }
+
+    private static boolean isBackfilled(EbeanServer ebeanServer) {
+        return ebeanServer.find(JpaVotingCounter.class, BACKFILLED_MARKER) != null;
+    }
+
+    private static void overwrite(EbeanServer ebeanServer, JpaVotingCounter counter) {
+        int numOfUpdated = ebeanServer.createUpdate(JpaVotingCounter.class,
+                "update JpaVotingCounter set numOfVotings = :numOfVotings where counterKey = :counterKey")
+                .setParameter("numOfVotings", counter.getNumOfVotings())
+                .setParameter("counterKey", counter.getCounterKey())
+                .execute();
+
+        if (numOfUpdated == 0) {
+            ebeanServer.save(counter);
+        }
+    }
+
+    private static JpaVotingCounter counterOf(String counterKey, SqlRow row) {
+        return counterOf(counterKey, row.getLong("num_of_votings"));
+    }
+
+    private static JpaVotingCounter counterOf(String counterKey, Long numOfVotings) {
+        JpaVotingCounter counter = new JpaVotingCounter();
+        counter.setCounterKey(counterKey);
+        counter.setNumOfVotings(numOfVotings);
+        return counter;
+    }
+
+    private EbeanVotingCounters() {
+    }
+}
@@ -0,0 +1,63 @@
+package data.repositories.imp;
+
+import data.entities.JpaVoting;
+import data.repositories.VotingFetchProfile;
+import exceptions.NotFoundException;
+import io.ebean.EbeanServer;
+import io.ebean.Query;
+
+/**
+ * Queries of a voting together with the part of its graph needed by a {@link VotingFetchProfile}.
+ * <p>
+ * Only one to-many path can be joined in a query, so polls and their options are loaded in a secondary query
+ * (options joined to polls there).
+ */
+public class EbeanVotingGraphs {
+    public static JpaVoting single(EbeanServer ebeanServer, Long id) {
+        return findOne(ebeanServer.createQuery(JpaVoting.class), id);
+    }
+
+    public static JpaVoting single(EbeanServer ebeanServer, Long id, VotingFetchProfile profile) {
+        Query<JpaVoting> query = ebeanServer.createQuery(JpaVoting.class);
+
+        switch (profile) {
+            case FOR_RESPONSE:
+                query.fetch("polls")
+                        .fetchQuery("polls.options");
+                break;
+            case FOR_IPFS_EXPORT:
+                query.fetch("channelGeneratorAccounts")
+                        .fetchQuery("polls")
+                        .fetch("polls.options");
+                break;
+            case FOR_COMMISSION:
+                query.fetch("channelGeneratorAccounts")
+                        .fetch("channelGeneratorAccounts.channelAccountProgress");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown fetch profile: " + profile);
+        }
+
+        return findOne(query, id);
+    }
+
+    private static JpaVoting findOne(Query<JpaVoting> query, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id is null!");
+        }
+
+        JpaVoting voting = query.where()
+                .idEq(id)
+                .findOne();
+
+        if (voting == null) {
+            String message = String.format("No such entity %s (%s) found!", JpaVoting.class.getName(), id);
+            throw new NotFoundException(message);
+        }
+
+        return voting;
+    }
+
+    private EbeanVotingGraphs() {
+    }
+}
@@ -2,7 +2,6 @@ package data.repositories.imp;
 
 import crypto.EncryptedVoting;
 import data.entities.Authorization;
-import data.entities.JpaVoter;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingPoll;
 import data.entities.JpaVotingPollOption;
@@ -48,23 +47,12 @@ public class EbeanVotingInit {
         }
     }
 
+    // Voters of email authorization are added after the voting is saved, see EbeanVoterImport.
     private static void setAuthorization(CreateVotingRequest request, JpaVoting voting) {
-        if (request.getAuthorization() == CreateVotingRequest.Authorization.EMAILS) {
-            setAuthOptionEmails(request, voting);
-        }
-
         String authString = request.getAuthorization().name();
         voting.setAuthorization(Authorization.valueOf(authString));
     }
 
-    private static void setAuthOptionEmails(CreateVotingRequest request, JpaVoting voting) {
-        List<JpaVoter> voters = request.getAuthorizationEmailOptions().stream()
-                .map(EbeanVotingInit::emailToVoter)
-                .collect(Collectors.toList());
-
-        voting.setVoters(voters);
-    }
-
     public static JpaVotingPoll toVotingPoll(CreatePollRequest pollRequest) {
         JpaVotingPoll votingPoll = new JpaVotingPoll();
         votingPoll.setQuestion(pollRequest.getQuestion());
@@ -86,13 +74,6 @@ public class EbeanVotingInit {
         return pollOption;
     }
 
-    private static JpaVoter emailToVoter(String email) {
-        JpaVoter jpaVoter = new JpaVoter();
-        jpaVoter.setEmail(email);
-
-        return jpaVoter;
-    }
-
     private EbeanVotingInit() {
     }
 }
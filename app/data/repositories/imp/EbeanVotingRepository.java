@@ -3,29 +3,48 @@ package data.repositories.imp;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingChannelAccount;
 import data.entities.JpaChannelGeneratorAccount;
+import data.entities.WorkItemType;
+import data.repositories.VotingFetchProfile;
+import data.repositories.VotersImportResult;
 import data.repositories.VotingRepository;
 import devote.blockchain.api.ChannelGenerator;
 import devote.blockchain.api.DistributionAndBallotAccountOperation;
 import devote.blockchain.api.Account;
+import com.typesafe.config.Config;
 import io.ebean.EbeanServer;
+import io.ebean.Transaction;
 import play.Logger;
 import requests.CreateVotingRequest;
+import requests.StreamedEmails;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static data.repositories.imp.EbeanRepositoryUtils.assertEntityExists;
 import static data.repositories.imp.EbeanVotingInit.initVotingFrom;
+import static data.repositories.imp.EbeanWorkItems.push;
 
 public class EbeanVotingRepository implements VotingRepository {
     private static final Logger.ALogger logger = Logger.of(EbeanVotingRepository.class);
 
     private final EbeanServer ebeanServer;
+    private final int channelAccountsInsertBatchSize;
+    private final int votersImportBatchSize;
+    private final boolean useOnConflict;
+    private final boolean isChannelReuseEnabled;
 
     @Inject
-    public EbeanVotingRepository(EbeanServer ebeanServer) {
+    public EbeanVotingRepository(EbeanServer ebeanServer, Config config) {
         this.ebeanServer = ebeanServer;
+        channelAccountsInsertBatchSize = config.getInt("devote.channel.accounts.insert.batch.size");
+        votersImportBatchSize = config.getInt("devote.voters.import.batch.size");
+        useOnConflict = config.getBoolean("devote.db.on.conflict");
+        isChannelReuseEnabled = config.getBoolean("devote.commission.channel.reuse.enabled");
     }
 
     @Override
@@ -35,16 +54,36 @@ public class EbeanVotingRepository implements VotingRepository {
         JpaVoting voting = initVotingFrom(request);
         voting.setAssetCode(assetCode);
         voting.setCreatedBy(userId);
+        voting.setChannelReuseEnabled(isChannelReuseEnabled);
+
+        String visibilityCounter = EbeanVotingCounters.ofVisibility(voting.getVisibility());
+        String creatorCounter = EbeanVotingCounters.ofCreator(userId);
+        EbeanVotingCounters.ensureExists(ebeanServer, visibilityCounter);
+        EbeanVotingCounters.ensureExists(ebeanServer, creatorCounter);
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            ebeanServer.save(voting);
+            importVotersOf(request, voting.getId());
+            push(ebeanServer, WorkItemType.VOTING_INIT, voting.getId());
+            EbeanVotingCounters.increment(ebeanServer, visibilityCounter);
+            EbeanVotingCounters.increment(ebeanServer, creatorCounter);
+
+            transaction.commit();
+        }
 
-        ebeanServer.save(voting);
         return voting.getId();
     }
 
     @Override
     public JpaVoting single(Long id) {
         logger.info("single(): id = {}", id);
-        assertEntityExists(ebeanServer, JpaVoting.class, id);
-        return ebeanServer.find(JpaVoting.class, id);
+        return EbeanVotingGraphs.single(ebeanServer, id);
+    }
+
+    @Override
+    public JpaVoting single(Long id, VotingFetchProfile profile) {
+        logger.info("single(): id = {}, profile = {}", id, profile);
+        return EbeanVotingGraphs.single(ebeanServer, id, profile);
     }
 
     @Override
@@ -62,17 +101,34 @@ public class EbeanVotingRepository implements VotingRepository {
     }
 
     @Override
-    public void channelAccountCreated(Long id, List<Account> accounts) {
-        logger.info("channelAccountCreated(): id = {}, accounts size = {}", id, accounts.size());
-
-        JpaVoting voting = ebeanServer.find(JpaVoting.class, id);
-
-        List<JpaVotingChannelAccount> channelAccounts = accounts.stream()
-                .map(this::fromChannelKeyPair)
-                .collect(Collectors.toList());
-
-        voting.setChannelAccounts(channelAccounts);
-        ebeanServer.merge(voting);
+    public void channelAccountsCreated(Long id, Long channelProgressId, List<Account> accounts) {
+        logger.info("channelAccountsCreated(): id = {}, channelProgressId = {}, accounts size = {}",
+                id, channelProgressId, accounts.size());
+
+        // Voting is only referenced, so its graph is not loaded; accounts are sent to the db in JDBC batches.
+        JpaVoting voting = ebeanServer.getReference(JpaVoting.class, id);
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            transaction.setBatchMode(true);
+            transaction.setBatchSize(channelAccountsInsertBatchSize);
+            transaction.setGetGeneratedKeys(false);
+
+            accounts.stream()
+                    .map(this::fromChannelKeyPair)
+                    .forEach(channelAccount -> {
+                        channelAccount.setVoting(voting);
+                        ebeanServer.insert(channelAccount);
+                    });
+
+            ebeanServer.createSqlUpdate("update channel_account_progress " +
+                    "set num_of_accounts_left_to_create = num_of_accounts_left_to_create - :created " +
+                    "where id = :id")
+                    .setParameter("created", accounts.size())
+                    .setParameter("id", channelProgressId)
+                    .execute();
+
+            transaction.commit();
+        }
     }
 
     @Override
@@ -98,15 +154,25 @@ public class EbeanVotingRepository implements VotingRepository {
         ebeanServer.update(voting);
     }
 
-    @Override
-    public List<JpaVoting> notInitializedSampleOf(int size) {
-        logger.info("notInitializedSampleOf(): size = {}", size);
-
-        return ebeanServer.createQuery(JpaVoting.class)
-                .where()
-                .isNull("ipfsCid")
-                .setMaxRows(size)
-                .findList();
+    private void importVotersOf(CreateVotingRequest request, Long votingId) {
+        if (request.getAuthorization() != CreateVotingRequest.Authorization.EMAILS) {
+            return;
+        }
+
+        StreamedEmails streamedEmails = request.getStreamedAuthorizationEmails();
+        if (streamedEmails != null) {
+            try (Stream<String> emails = Files.lines(streamedEmails.file.path(), StandardCharsets.UTF_8)) {
+                VotersImportResult result = EbeanVoterImport.importEmails(ebeanServer, votingId,
+                        emails.iterator(), votersImportBatchSize, useOnConflict);
+                logger.info("importVotersOf(): votingId = {}, streamed result = {}", votingId, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            VotersImportResult result = EbeanVoterImport.importEmails(ebeanServer, votingId,
+                    request.getAuthorizationEmailOptions().iterator(), votersImportBatchSize, useOnConflict);
+            logger.info("importVotersOf(): votingId = {}, result = {}", votingId, result);
+        }
     }
 
     private JpaChannelGeneratorAccount fromChannelGenerator(ChannelGenerator channelGenerator) {
@@ -0,0 +1,23 @@
+package data.repositories.imp;
+
+import data.entities.JpaWorkItem;
+import data.entities.WorkItemType;
+import io.ebean.EbeanServer;
+
+import java.time.Instant;
+
+public class EbeanWorkItems {
+    // Joins the transaction of the caller, so the work item is only visible once the caller's changes are committed.
+    public static void push(EbeanServer ebeanServer, WorkItemType type, Long referenceId) {
+        JpaWorkItem workItem = new JpaWorkItem();
+        workItem.setType(type);
+        workItem.setReferenceId(referenceId);
+        workItem.setNotBefore(Instant.now());
+        workItem.setAttempts(0);
+
+        ebeanServer.save(workItem);
+    }
+
+    private EbeanWorkItems() {
+    }
+}
@@ -0,0 +1,194 @@
+package data.repositories.imp;
+
+import com.typesafe.config.Config;
+import data.entities.JpaChannelAccountProgress;
+import data.entities.JpaVoting;
+import data.entities.JpaWorkItem;
+import data.entities.WorkItemType;
+import data.repositories.WorkQueueRepository;
+import io.ebean.EbeanServer;
+import io.ebean.Query;
+import io.ebean.Transaction;
+import play.Logger;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static data.repositories.imp.EbeanWorkItems.push;
+
+public class EbeanWorkQueueRepository implements WorkQueueRepository {
+    private static final Logger.ALogger logger = Logger.of(EbeanWorkQueueRepository.class);
+
+    private final EbeanServer ebeanServer;
+    private final boolean useSkipLocked;
+    private final int maxAttempts;
+
+    @Inject
+    public EbeanWorkQueueRepository(EbeanServer ebeanServer, Config config) {
+        this.ebeanServer = ebeanServer;
+        useSkipLocked = config.getBoolean("devote.db.skip.locked");
+        maxAttempts = config.getInt("devote.tasks.max.attempts");
+    }
+
+    @Override
+    public Optional<JpaWorkItem> claim(Duration lease) {
+        Instant now = Instant.now();
+
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            // Items with an expired claim belong to a worker that died, so they can be claimed again.
+            Query<JpaWorkItem> query = ebeanServer.createQuery(JpaWorkItem.class)
+                    .where()
+                    .le("notBefore", now)
+                    .isNull("failedAt")
+                    .or()
+                    .isNull("claimedUntil")
+                    .lt("claimedUntil", now)
+                    .endOr()
+                    .orderBy("notBefore")
+                    .setMaxRows(1);
+
+            JpaWorkItem workItem = useSkipLocked ? query.forUpdateSkipLocked().findOne() : query.forUpdate().findOne();
+            if (workItem != null) {
+                workItem.setClaimedUntil(now.plus(lease));
+                workItem.setClaimedBy(UUID.randomUUID().toString());
+                workItem.setAttempts(workItem.getAttempts() + 1);
+                ebeanServer.update(workItem);
+
+                logger.info("claim(): claimed work item: id = {}, type = {}, referenceId = {}, attempt = {}",
+                        workItem.getId(), workItem.getType(), workItem.getReferenceId(), workItem.getAttempts());
+            }
+
+            transaction.commit();
+            return Optional.ofNullable(workItem);
+        }
+    }
+
+    @Override
+    public boolean extendLease(Long id, String claimedBy, Duration lease) {
+        logger.info("extendLease(): id = {}, lease = {}", id, lease);
+
+        int numOfUpdated = ebeanServer.createUpdate(JpaWorkItem.class,
+                "update JpaWorkItem set claimedUntil = :claimedUntil where id = :id and claimedBy = :claimedBy")
+                .setParameter("claimedUntil", Instant.now().plus(lease))
+                .setParameter("id", id)
+                .setParameter("claimedBy", claimedBy)
+                .execute();
+
+        return isStillClaimed("extendLease", id, numOfUpdated);
+    }
+
+    @Override
+    public boolean complete(Long id, String claimedBy) {
+        logger.info("complete(): id = {}", id);
+
+        int numOfDeleted = ebeanServer.createQuery(JpaWorkItem.class)
+                .where()
+                .idEq(id)
+                .eq("claimedBy", claimedBy)
+                .delete();
+
+        return isStillClaimed("complete", id, numOfDeleted);
+    }
+
+    @Override
+    public boolean retryLater(Long id, String claimedBy, Duration delay) {
+        int numOfFailed = ebeanServer.createUpdate(JpaWorkItem.class,
+                "update JpaWorkItem set claimedUntil = null, claimedBy = null, failedAt = :failedAt " +
+                        "where id = :id and claimedBy = :claimedBy and attempts >= :maxAttempts")
+                .setParameter("failedAt", Instant.now())
+                .setParameter("id", id)
+                .setParameter("claimedBy", claimedBy)
+                .setParameter("maxAttempts", maxAttempts)
+                .execute();
+        if (numOfFailed > 0) {
+            logger.error("retryLater(): work item {} is out of attempts ({}); it's failed, and won't be retried!",
+                    id, maxAttempts);
+            return true;
+        }
+
+        logger.info("retryLater(): id = {}, delay = {}", id, delay);
+
+        int numOfUpdated = ebeanServer.createUpdate(JpaWorkItem.class,
+                "update JpaWorkItem set claimedUntil = null, claimedBy = null, notBefore = :notBefore " +
+                        "where id = :id and claimedBy = :claimedBy")
+                .setParameter("notBefore", Instant.now().plus(delay))
+                .setParameter("id", id)
+                .setParameter("claimedBy", claimedBy)
+                .execute();
+
+        return isStillClaimed("retryLater", id, numOfUpdated);
+    }
+
+    // Claims add an attempt, so attempts is at least 1 here.
+    @Override
+    public boolean postpone(Long id, String claimedBy, Duration delay) {
+        logger.info("postpone(): id = {}, delay = {}", id, delay);
+
+        int numOfUpdated = ebeanServer.createUpdate(JpaWorkItem.class,
+                "update JpaWorkItem set claimedUntil = null, claimedBy = null, notBefore = :notBefore, " +
+                        "attempts = attempts - 1 where id = :id and claimedBy = :claimedBy")
+                .setParameter("notBefore", Instant.now().plus(delay))
+                .setParameter("id", id)
+                .setParameter("claimedBy", claimedBy)
+                .execute();
+
+        return isStillClaimed("postpone", id, numOfUpdated);
+    }
+
+    @Override
+    public void enqueueUnfinishedWork() {
+        try (Transaction transaction = ebeanServer.beginTransaction()) {
+            List<Long> notInitializedVotingIds = ebeanServer.createQuery(JpaVoting.class)
+                    .where()
+                    .isNull("ipfsCid")
+                    .findIds();
+            int votingInitsPushed = pushMissing(WorkItemType.VOTING_INIT, notInitializedVotingIds);
+
+            List<Long> notFinishedProgressIds = ebeanServer.createQuery(JpaChannelAccountProgress.class)
+                    .where()
+                    .gt("numOfAccountsLeftToCreate", 0)
+                    .findIds();
+            int channelProgressesPushed = pushMissing(WorkItemType.CHANNEL_PROGRESS, notFinishedProgressIds);
+
+            transaction.commit();
+
+            logger.info("enqueueUnfinishedWork(): pushed {} voting init(s), and {} channel progress(es)",
+                    votingInitsPushed, channelProgressesPushed);
+        }
+    }
+
+    private static boolean isStillClaimed(String operation, Long id, int numOfAffected) {
+        if (numOfAffected == 0) {
+            logger.warn("{}(): claim of work item {} was lost (its lease expired); leaving it to its new claim.",
+                    operation, id);
+            return false;
+        }
+
+        return true;
+    }
+
+    private int pushMissing(WorkItemType type, List<Long> referenceIds) {
+        List<Long> queuedReferenceIds = ebeanServer.createQuery(JpaWorkItem.class)
+                .select("referenceId")
+                .where()
+                .eq("type", type)
+                .findSingleAttributeList();
+        Set<Long> alreadyQueued = new HashSet<>(queuedReferenceIds);
+
+        int pushed = 0;
+        for (Long referenceId : referenceIds) {
+            if (!alreadyQueued.contains(referenceId)) {
+                push(ebeanServer, type, referenceId);
+                pushed++;
+            }
+        }
+
+        return pushed;
+    }
+}
@@ -11,13 +11,28 @@ import devote.blockchain.api.VoterAccountOperation;
 import org.reflections.Reflections;
 import play.Logger;
 
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static devote.blockchain.BlockchainUtils.findUniqueSubtypeOfOrNull;
 
+/**
+ * Creates the operations of a blockchain. Implementation classes are resolved, and their constructors looked up only
+ * once; operations are stateless after being initialized, so the shared ones (one for the main, and one for the test
+ * network) can be used concurrently.
+ */
 public class BlockchainFactory {
     private final String networkName;
     private final BlockchainConfiguration configuration;
     private final Reflections blockchainReflections;
 
+    private final Map<Class<?>, Class<?>> implementationClasses = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
+    private final Map<Class<?>, BlockchainOperation> mainNetOperations = new ConcurrentHashMap<>();
+    private final Map<Class<?>, BlockchainOperation> testNetOperations = new ConcurrentHashMap<>();
+
     private static final Logger.ALogger logger = Logger.of(BlockchainFactory.class);
 
     public BlockchainFactory(BlockchainConfiguration configuration, Reflections blockchainReflections) {
@@ -26,6 +41,21 @@ public class BlockchainFactory {
         this.networkName = configuration.getNetworkName();
     }
 
+    /**
+     * Resolves the implementation classes of the given operations up front.
+     *
+     * @return false, if there's no unique implementation for any of the operations.
+     */
+    public boolean resolveImplementationsOf(Set<Class<? extends BlockchainOperation>> blockchainOperationParentClasses) {
+        for (Class<? extends BlockchainOperation> parentClass : blockchainOperationParentClasses) {
+            if (implementationOf(parentClass) == null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public ChannelGeneratorAccountOperation createChannelGeneratorAccountOperation() {
         return createBlockchainOperation(ChannelGeneratorAccountOperation.class);
     }
@@ -46,14 +76,49 @@ public class BlockchainFactory {
         return createBlockchainOperation(FundingAccountOperation.class);
     }
 
+    public ChannelGeneratorAccountOperation channelGeneratorAccountOperation(boolean useTestNet) {
+        return sharedBlockchainOperation(ChannelGeneratorAccountOperation.class, useTestNet);
+    }
+
+    public ChannelAccountOperation channelAccountOperation(boolean useTestNet) {
+        return sharedBlockchainOperation(ChannelAccountOperation.class, useTestNet);
+    }
+
+    public DistributionAndBallotAccountOperation distributionAndBallotAccountOperation(boolean useTestNet) {
+        return sharedBlockchainOperation(DistributionAndBallotAccountOperation.class, useTestNet);
+    }
+
+    public VoterAccountOperation voterAccountOperation(boolean useTestNet) {
+        return sharedBlockchainOperation(VoterAccountOperation.class, useTestNet);
+    }
+
+    public FundingAccountOperation fundingAccountOperation(boolean useTestNet) {
+        return sharedBlockchainOperation(FundingAccountOperation.class, useTestNet);
+    }
+
+    private <T extends BlockchainOperation> T sharedBlockchainOperation(Class<T> blockChainOperationParentClass, boolean useTestNet) {
+        Map<Class<?>, BlockchainOperation> operations = useTestNet ? testNetOperations : mainNetOperations;
+
+        BlockchainOperation blockchainOperation = operations.computeIfAbsent(blockChainOperationParentClass, c -> {
+            T createdOperation = createBlockchainOperation(blockChainOperationParentClass);
+            if (useTestNet) {
+                createdOperation.useTestNet();
+            }
+
+            return createdOperation;
+        });
+
+        return blockChainOperationParentClass.cast(blockchainOperation);
+    }
+
     private <T extends BlockchainOperation> T createBlockchainOperation(Class<T> blockChainOperationParentClass) {
-        Class<? extends T> implementationClass = findUniqueSubtypeOfOrNull(blockChainOperationParentClass, blockchainReflections);
+        Class<? extends T> implementationClass = implementationOf(blockChainOperationParentClass);
+        if (implementationClass == null) {
+            throw new BlockchainException("Not found unique implementation of " + blockChainOperationParentClass.getName());
+        }
 
         try {
-            T blockchainOperation = implementationClass
-                    .getDeclaredConstructor()
-                    .newInstance();
-
+            T blockchainOperation = constructorOf(implementationClass).newInstance();
             blockchainOperation.init(configuration);
 
             return blockchainOperation;
@@ -63,6 +128,23 @@ public class BlockchainFactory {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> Class<? extends T> implementationOf(Class<T> blockChainOperationParentClass) {
+        return (Class<? extends T>) implementationClasses.computeIfAbsent(blockChainOperationParentClass,
+                c -> findUniqueSubtypeOfOrNull(blockChainOperationParentClass, blockchainReflections));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Constructor<T> constructorOf(Class<T> implementationClass) throws NoSuchMethodException {
+        Constructor<?> constructor = constructors.get(implementationClass);
+        if (constructor == null) {
+            constructor = implementationClass.getDeclaredConstructor();
+            constructors.put(implementationClass, constructor);
+        }
+
+        return (Constructor<T>) constructor;
+    }
+
     public String getNetworkName() {
         return networkName;
     }
@@ -13,8 +13,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
-import static devote.blockchain.BlockchainUtils.findUniqueSubtypeOfOrNull;
-
 public class Blockchains {
     private final Config config;
     private final Map<String, BlockchainFactory> factories = new HashMap<>();
@@ -88,25 +86,18 @@ public class Blockchains {
         String packageName = blockchainConfiguration.getClass().getPackage().getName();
         Reflections blockchainReflections = new Reflections(packageName);
 
-        if (doAllRequiredImplementationsExist(blockchainReflections)) {
+        BlockchainFactory blockchainFactory = new BlockchainFactory(blockchainConfiguration, blockchainReflections);
+
+        // Implementations are resolved here once, not on every operation created.
+        if (blockchainFactory.resolveImplementationsOf(requiredImplementationInterfaces)) {
             blockchainConfiguration.init(config.withOnlyPath(packageName));
-            return new BlockchainFactory(blockchainConfiguration, blockchainReflections);
+            return blockchainFactory;
         } else {
             logger.warn("createBlockchainFactory(): Could not find one or more required implementation classes in package: {}", packageName);
             return null;
         }
     }
 
-    private static boolean doAllRequiredImplementationsExist(Reflections blockchainReflections) {
-        for (Class<? extends BlockchainOperation> requiredImplementationInterface : requiredImplementationInterfaces) {
-            if (findUniqueSubtypeOfOrNull(requiredImplementationInterface, blockchainReflections) == null) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     private void putIfNotAlreadyThere(BlockchainFactory factory) {
         if (factories.containsKey(factory.getNetworkName())) {
             logger.warn("putIfNotAlreadyThere(): Already have a factory for network {}", factory.getNetworkName());
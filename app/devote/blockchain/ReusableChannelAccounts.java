@@ -0,0 +1,50 @@
+package devote.blockchain;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Instant;
+
+/**
+ * Whether channel accounts of votings are reused, instead of each being used by a single voter account transaction.
+ * <p>
+ * Reuse is time-based: a channel goes back to the pool of its voting {@code devote.commission.channel.reuse.after.sec}
+ * after its transaction was built, whether or not that transaction was ever submitted or got into a ledger. Its time
+ * bounds expire before that, so by then the transaction either got into a ledger, or can't get into one anymore. So a
+ * voting needs only as many channel accounts as the number of voter account transactions built (and waiting for
+ * submission) at the same time, and not one for each vote.
+ * <p>
+ * The setting applies to votings created from then on; each voting keeps the mode it was created (and funded) with.
+ */
+@Singleton
+public class ReusableChannelAccounts {
+    private final boolean isEnabled;
+    private final long poolSize;
+    private final long reusableAfterSec;
+
+    @Inject
+    public ReusableChannelAccounts(Config config) {
+        isEnabled = config.getBoolean("devote.commission.channel.reuse.enabled");
+        poolSize = config.getLong("devote.commission.channel.reuse.pool.size");
+        reusableAfterSec = config.getLong("devote.commission.channel.reuse.after.sec");
+    }
+
+    // For votings created from now on.
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public long numOfChannelAccountsFor(long votesCap) {
+        return numOfChannelAccountsFor(votesCap, isEnabled);
+    }
+
+    public long numOfChannelAccountsFor(long votesCap, boolean isEnabledForVoting) {
+        return isEnabledForVoting ? Math.min(votesCap, poolSize) : votesCap;
+    }
+
+    // When a channel used just now can be used again.
+    public Instant reusableAfter() {
+        return Instant.now().plusSeconds(reusableAfterSec);
+    }
+}
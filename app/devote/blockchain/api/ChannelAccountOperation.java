@@ -1,9 +1,22 @@
 package devote.blockchain.api;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 public interface ChannelAccountOperation extends BlockchainOperation {
     int maxNumOfAccountsToCreateInOneBatch();
 
     List<Account> create(ChannelGenerator channelGenerator, int numOfAccountsToCreate);
+
+    /**
+     * Same as {@link #create(ChannelGenerator, int)}, but blockchains able to submit asynchronously don't hold the
+     * calling thread while waiting for the accounts to get created. Blocking work needed meanwhile (e.g. picking a
+     * higher fee) runs on the given executor.
+     */
+    default CompletionStage<List<Account>> createAsync(ChannelGenerator channelGenerator, int numOfAccountsToCreate,
+                                                       Executor executor) {
+        return CompletableFuture.completedFuture(create(channelGenerator, numOfAccountsToCreate));
+    }
 }
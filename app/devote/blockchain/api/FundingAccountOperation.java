@@ -2,4 +2,9 @@ package devote.blockchain.api;
 
 public interface FundingAccountOperation extends BlockchainOperation {
     boolean doesNotHaveEnoughBalanceForVotesCap(String accountPublic, long votesCap);
+
+    // For votings whose channel accounts are reused, so there might be less of them than the votes cap.
+    default boolean doesNotHaveEnoughBalanceForVotesCap(String accountPublic, long votesCap, long numOfChannelAccounts) {
+        return doesNotHaveEnoughBalanceForVotesCap(accountPublic, votesCap);
+    }
 }
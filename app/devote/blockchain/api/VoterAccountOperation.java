@@ -13,6 +13,8 @@ public interface VoterAccountOperation extends BlockchainOperation {
         public long votesCap;
         public String voterAccountPublic;
         public boolean isOnTestNetwork;
+        // The channel might have been used by an earlier transaction, which may or may not have been submitted.
+        public boolean isChannelReused;
 
         @Override
         public String toString() {
@@ -24,6 +26,7 @@ public interface VoterAccountOperation extends BlockchainOperation {
                     ", votesCap=" + votesCap +
                     ", voterAccountPublic='" + redactWithEllipsis(voterAccountPublic, 5) + '\'' +
                     ", isOnTestNetwork='" + isOnTestNetwork + '\'' +
+                    ", isChannelReused='" + isChannelReused + '\'' +
                     '}';
         }
     }
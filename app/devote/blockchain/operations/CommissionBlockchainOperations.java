@@ -30,10 +30,7 @@ public class CommissionBlockchainOperations {
         logger.info("createTransaction(): network = {}, data = {}", network, data);
 
         BlockchainFactory blockchainFactory = blockchains.getFactoryByNetwork(network);
-        VoterAccountOperation voterAccountOperation = blockchainFactory.createVoterAccountOperation();
-        if(data.isOnTestNetwork) {
-            voterAccountOperation.useTestNet();
-        }
+        VoterAccountOperation voterAccountOperation = blockchainFactory.voterAccountOperation(data.isOnTestNetwork);
 
         return supplyAsync(() -> voterAccountOperation.createTransaction(data), blockchainExecContext);
     }
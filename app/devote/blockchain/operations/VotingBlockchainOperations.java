@@ -2,6 +2,7 @@ package devote.blockchain.operations;
 
 import devote.blockchain.BlockchainFactory;
 import devote.blockchain.Blockchains;
+import devote.blockchain.ReusableChannelAccounts;
 import devote.blockchain.api.Account;
 import devote.blockchain.api.BlockchainException;
 import devote.blockchain.api.ChannelGenerator;
@@ -26,6 +27,7 @@ import static utils.StringUtils.redactWithEllipsis;
 public class VotingBlockchainOperations {
     private final BlockchainExecutionContext blockchainExecContext;
     private final Blockchains blockchains;
+    private final ReusableChannelAccounts reusableChannelAccounts;
 
     private static final Logger.ALogger logger = Logger.of(VotingBlockchainOperations.class);
 
@@ -34,10 +36,12 @@ public class VotingBlockchainOperations {
     @Inject
     public VotingBlockchainOperations(
             BlockchainExecutionContext blockchainExecContext,
-            Blockchains blockchains
+            Blockchains blockchains,
+            ReusableChannelAccounts reusableChannelAccounts
     ) {
         this.blockchainExecContext = blockchainExecContext;
         this.blockchains = blockchains;
+        this.reusableChannelAccounts = reusableChannelAccounts;
     }
 
     public CompletionStage<Void> checkFundingAccountOf(CreateVotingRequest createVotingRequest) {
@@ -46,14 +50,13 @@ public class VotingBlockchainOperations {
             logger.info("checkFundingAccountOf(): checking {}", loggableAccount);
 
             BlockchainFactory blockchainFactory = blockchains.getFactoryByNetwork(createVotingRequest.getNetwork());
-            FundingAccountOperation fundingAccount = blockchainFactory.createFundingAccountOperation();
-            if (createVotingRequest.getUseTestnet() != null && createVotingRequest.getUseTestnet()) {
-                fundingAccount.useTestNet();
-            }
+            boolean useTestNet = createVotingRequest.getUseTestnet() != null && createVotingRequest.getUseTestnet();
+            FundingAccountOperation fundingAccount = blockchainFactory.fundingAccountOperation(useTestNet);
 
             String fundingAccountPublic = createVotingRequest.getFundingAccountPublic();
             long votesCap = createVotingRequest.getVotesCap();
-            if (fundingAccount.doesNotHaveEnoughBalanceForVotesCap(fundingAccountPublic, votesCap)) {
+            long numOfChannelAccounts = reusableChannelAccounts.numOfChannelAccountsFor(votesCap);
+            if (fundingAccount.doesNotHaveEnoughBalanceForVotesCap(fundingAccountPublic, votesCap, numOfChannelAccounts)) {
                 String message = String.format("%s does not have enough balance for votes cap %d", loggableAccount, votesCap);
 
                 logger.warn("checkFundingAccountOf(): {}", message);
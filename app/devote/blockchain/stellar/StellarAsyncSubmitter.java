@@ -0,0 +1,286 @@
+package devote.blockchain.stellar;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.RateLimiter;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.stellar.sdk.AbstractTransaction;
+import org.stellar.sdk.responses.GsonSingleton;
+import org.stellar.sdk.responses.SubmitTransactionResponse;
+import org.stellar.sdk.xdr.TransactionResult;
+import org.stellar.sdk.xdr.XdrDataInputStream;
+import play.Logger;
+import play.libs.Json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submits transactions without holding a thread while they are waiting to get into a ledger.
+ * <p>
+ * A transaction is sent to Horizon's async submission endpoint, which answers right away; then the transaction is
+ * polled by its hash until it's found in a ledger, or until it can't get into one anymore. HTTP calls are made
+ * asynchronously, and polls are scheduled on a single thread, so hundreds of transactions can be in flight with a
+ * handful of threads.
+ * <p>
+ * Nothing here waits on a thread: when the network's rate limiter has no permit left, or Horizon answers 429 or 503,
+ * the request is scheduled again a poll interval later instead.
+ * <p>
+ * The result is given as a {@link SubmitTransactionResponse} the same way as a synchronous submission would give it,
+ * including the transaction result code in case of a failure. If the outcome is not known (e.g. the transaction was
+ * not found until the deadline), the result is completed with an {@link IOException}.
+ */
+public class StellarAsyncSubmitter {
+    private static final String TX_STATUS_PENDING = "PENDING";
+    private static final String TX_STATUS_DUPLICATE = "DUPLICATE";
+    private static final String TX_STATUS_TRY_AGAIN_LATER = "TRY_AGAIN_LATER";
+    private static final String TX_STATUS_ERROR = "ERROR";
+
+    private final String name;
+    private final OkHttpClient httpClient;
+    private final HttpUrl horizonUrl;
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService scheduler;
+    private final long pollIntervalMillis;
+    private final long maxWaitMillis;
+
+    private final Map<String, PendingSubmission> pendingSubmissions = new ConcurrentHashMap<>();
+
+    private static final Logger.ALogger logger = Logger.of(StellarAsyncSubmitter.class);
+
+    /**
+     * @param httpClient  must not rate limit, or retry by itself, as it would block the threads of its dispatcher.
+     * @param rateLimiter can be null, if requests should not be limited.
+     */
+    public StellarAsyncSubmitter(String name, OkHttpClient httpClient, HttpUrl horizonUrl, RateLimiter rateLimiter,
+                                 ScheduledExecutorService scheduler, long pollIntervalMillis, long maxWaitMillis) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.horizonUrl = horizonUrl;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public CompletionStage<SubmitTransactionResponse> submit(AbstractTransaction transaction) {
+        PendingSubmission pendingSubmission = new PendingSubmission(transaction.hashHex(),
+                transaction.toEnvelopeXdrBase64(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+
+        PendingSubmission alreadyPending = pendingSubmissions.putIfAbsent(pendingSubmission.hash, pendingSubmission);
+        if (alreadyPending != null) {
+            logger.info("[STELLAR]: transaction {} is already pending on {}", pendingSubmission.hash, name);
+            return alreadyPending.result;
+        }
+
+        pendingSubmission.result.whenComplete((r, e) -> pendingSubmissions.remove(pendingSubmission.hash));
+        send(pendingSubmission);
+
+        return pendingSubmission.result;
+    }
+
+    public int getNumOfPending() {
+        return pendingSubmissions.size();
+    }
+
+    private void send(PendingSubmission pendingSubmission) {
+        if (!tryAcquirePermit()) {
+            scheduleIfNotLate(pendingSubmission, () -> send(pendingSubmission));
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(horizonUrl.newBuilder().addPathSegment("transactions_async").build())
+                .post(new FormBody.Builder().add("tx", pendingSubmission.envelopeXdr).build())
+                .build();
+
+        httpClient.newCall(request).enqueue(new PendingSubmissionCallback(pendingSubmission) {
+            @Override
+            void onResponse(Response response, JsonNode body) {
+                onSubmitted(pendingSubmission, response, body);
+            }
+
+            @Override
+            void onRetryableFailure() {
+                // Sending the same transaction again is safe; it's a duplicate at worst.
+                scheduleIfNotLate(pendingSubmission, () -> send(pendingSubmission));
+            }
+        });
+    }
+
+    private void onSubmitted(PendingSubmission pendingSubmission, Response response, JsonNode body) {
+        if (StellarHorizonInterceptor.isRetryable(response.code())) {
+            logger.warn("[STELLAR]: {} answered {} to submission of transaction {}; sending it again later",
+                    name, response.code(), pendingSubmission.hash);
+            scheduleIfNotLate(pendingSubmission, () -> send(pendingSubmission));
+            return;
+        }
+
+        String txStatus = body.path("tx_status").asText();
+
+        switch (txStatus) {
+            case TX_STATUS_PENDING:
+            case TX_STATUS_DUPLICATE:
+                scheduleIfNotLate(pendingSubmission, () -> poll(pendingSubmission));
+                break;
+            case TX_STATUS_TRY_AGAIN_LATER:
+                logger.warn("[STELLAR]: {} asked to submit transaction {} later", name, pendingSubmission.hash);
+                scheduleIfNotLate(pendingSubmission, () -> send(pendingSubmission));
+                break;
+            case TX_STATUS_ERROR:
+                pendingSubmission.result.complete(
+                        failedResponseOf(pendingSubmission, body.path("errorResultXdr").asText(null)));
+                break;
+            default:
+                pendingSubmission.result.completeExceptionally(new IOException(
+                        String.format("Unexpected answer to async submission from %s! status = %d, body = %s",
+                                name, response.code(), body)));
+        }
+    }
+
+    private void poll(PendingSubmission pendingSubmission) {
+        if (!tryAcquirePermit()) {
+            scheduleIfNotLate(pendingSubmission, () -> poll(pendingSubmission));
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(horizonUrl.newBuilder().addPathSegment("transactions").addPathSegment(pendingSubmission.hash).build())
+                .get()
+                .build();
+
+        httpClient.newCall(request).enqueue(new PendingSubmissionCallback(pendingSubmission) {
+            @Override
+            void onResponse(Response response, JsonNode body) {
+                onPolled(pendingSubmission, response, body);
+            }
+
+            @Override
+            void onRetryableFailure() {
+                scheduleIfNotLate(pendingSubmission, () -> poll(pendingSubmission));
+            }
+        });
+    }
+
+    private void onPolled(PendingSubmission pendingSubmission, Response response, JsonNode body) {
+        // Not found until it gets into a ledger.
+        if (!response.isSuccessful()) {
+            scheduleIfNotLate(pendingSubmission, () -> poll(pendingSubmission));
+        } else if (body.path("successful").asBoolean()) {
+            SubmitTransactionResponse submitResponse =
+                    GsonSingleton.getInstance().fromJson(body.toString(), SubmitTransactionResponse.class);
+            pendingSubmission.result.complete(submitResponse);
+        } else {
+            pendingSubmission.result.complete(failedResponseOf(pendingSubmission, body.path("result_xdr").asText(null)));
+        }
+    }
+
+    private boolean tryAcquirePermit() {
+        return rateLimiter == null || rateLimiter.tryAcquire();
+    }
+
+    private void scheduleIfNotLate(PendingSubmission pendingSubmission, Runnable runnable) {
+        if (System.nanoTime() - pendingSubmission.deadlineNanos > 0) {
+            pendingSubmission.result.completeExceptionally(new IOException(
+                    String.format("Transaction %s was not found in a ledger of %s in %d ms!",
+                            pendingSubmission.hash, name, maxWaitMillis)));
+        } else {
+            scheduler.schedule(runnable, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Same shape as the answer to a failed synchronous submission.
+    private static SubmitTransactionResponse failedResponseOf(PendingSubmission pendingSubmission, String resultXdr) {
+        ObjectNode resultCodes = Json.newObject();
+        resultCodes.put("transaction", transactionResultCodeOf(resultXdr));
+        resultCodes.putArray("operations");
+
+        ObjectNode extras = Json.newObject();
+        extras.put("envelope_xdr", pendingSubmission.envelopeXdr);
+        extras.put("result_xdr", resultXdr);
+        extras.set("result_codes", resultCodes);
+
+        ObjectNode response = Json.newObject();
+        response.put("hash", pendingSubmission.hash);
+        response.set("extras", extras);
+
+        return GsonSingleton.getInstance().fromJson(response.toString(), SubmitTransactionResponse.class);
+    }
+
+    // E.g. txBAD_SEQ -> tx_bad_seq, the same as Horizon gives it.
+    private static String transactionResultCodeOf(String resultXdr) {
+        if (resultXdr == null) {
+            return "unknown";
+        }
+
+        try {
+            byte[] resultBytes = Base64.getDecoder().decode(resultXdr);
+            TransactionResult transactionResult =
+                    TransactionResult.decode(new XdrDataInputStream(new ByteArrayInputStream(resultBytes)));
+            String code = transactionResult.getResult().getDiscriminant().name();
+
+            return "tx_" + code.substring(2).toLowerCase();
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("[STELLAR]: Failed to decode transaction result {}!", resultXdr, e);
+            return "unknown";
+        }
+    }
+
+    private static class PendingSubmission {
+        public final String hash;
+        public final String envelopeXdr;
+        public final long deadlineNanos;
+        public final CompletableFuture<SubmitTransactionResponse> result = new CompletableFuture<>();
+
+        public PendingSubmission(String hash, String envelopeXdr, long deadlineNanos) {
+            this.hash = hash;
+            this.envelopeXdr = envelopeXdr;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private abstract class PendingSubmissionCallback implements Callback {
+        private final PendingSubmission pendingSubmission;
+
+        public PendingSubmissionCallback(PendingSubmission pendingSubmission) {
+            this.pendingSubmission = pendingSubmission;
+        }
+
+        abstract void onResponse(Response response, JsonNode body);
+
+        abstract void onRetryableFailure();
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            logger.warn("[STELLAR]: request of transaction {} to {} failed!", pendingSubmission.hash, name, e);
+            onRetryableFailure();
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (ResponseBody responseBody = response.body()) {
+                String bodyString = responseBody == null ? "" : responseBody.string();
+                JsonNode body = bodyString.isEmpty() ? Json.newObject() : Json.parse(bodyString);
+
+                onResponse(response, body);
+            } catch (Exception e) {
+                logger.warn("[STELLAR]: failed to process answer of {} for transaction {}!", name, pendingSubmission.hash, e);
+                onRetryableFailure();
+            }
+        }
+    }
+}
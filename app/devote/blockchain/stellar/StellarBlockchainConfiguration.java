@@ -8,9 +8,9 @@ import org.stellar.sdk.Server;
 import play.Logger;
 
 public class StellarBlockchainConfiguration implements BlockchainConfiguration {
-    private Server server;
+    private StellarHorizonClient horizon;
     private Network network;
-    private Server testNetServer;
+    private StellarHorizonClient testNetHorizon;
     private Network testNetwork;
 
     private Config config;
@@ -31,7 +31,7 @@ public class StellarBlockchainConfiguration implements BlockchainConfiguration {
 
     public Server getServer() {
         initServerAndNetworkIfNeeded();
-        return server;
+        return horizon.getServer();
     }
 
     public Network getNetwork() {
@@ -41,7 +41,27 @@ public class StellarBlockchainConfiguration implements BlockchainConfiguration {
 
     public Server getTestNetServer() {
         initServerAndNetworkIfNeeded();
-        return testNetServer;
+        return testNetHorizon.getServer();
+    }
+
+    public StellarAsyncSubmitter getAsyncSubmitter() {
+        initServerAndNetworkIfNeeded();
+        return horizon.getAsyncSubmitter();
+    }
+
+    public StellarAsyncSubmitter getTestNetAsyncSubmitter() {
+        initServerAndNetworkIfNeeded();
+        return testNetHorizon.getAsyncSubmitter();
+    }
+
+    public StellarFeeStrategy getFeeStrategy() {
+        initServerAndNetworkIfNeeded();
+        return horizon.getFeeStrategy();
+    }
+
+    public StellarFeeStrategy getTestNetFeeStrategy() {
+        initServerAndNetworkIfNeeded();
+        return testNetHorizon.getFeeStrategy();
     }
 
     public Network getTestNetwork() {
@@ -53,16 +73,21 @@ public class StellarBlockchainConfiguration implements BlockchainConfiguration {
         return config.getLong("devote.blockchain.stellar.votebuckets");
     }
 
-    private void initServerAndNetworkIfNeeded() {
-        if (server == null) {
+    public boolean shouldUseVoterTransactionTemplates() {
+        return config.getBoolean("devote.blockchain.stellar.voter.tx.templates");
+    }
+
+    // Operations are shared across threads, so the clients must be created only once.
+    private synchronized void initServerAndNetworkIfNeeded() {
+        if (horizon == null) {
             String horizonUrl = config.getString("devote.blockchain.stellar.url");
-            String horizonTestNetUrl = config.getString("devote.blockchain.stellar.url");
+            String horizonTestNetUrl = config.getString("devote.blockchain.stellar.testnet.url");
 
             logger.info("[STELLAR]: horizon url = {}", horizonUrl);
             logger.info("[STELLAR]: horizon testnet url = {}", horizonTestNetUrl);
 
-            server = new Server(horizonUrl);
-            testNetServer = new Server(horizonTestNetUrl);
+            horizon = StellarHorizonClient.create("public", horizonUrl, config);
+            testNetHorizon = StellarHorizonClient.create("testnet", horizonTestNetUrl, config);
 
             network = Network.PUBLIC;
             testNetwork = Network.TESTNET;
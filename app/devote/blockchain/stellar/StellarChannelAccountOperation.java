@@ -9,13 +9,16 @@ import org.stellar.sdk.AccountRequiresMemoException;
 import org.stellar.sdk.CreateAccountOperation;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
+import org.stellar.sdk.responses.SubmitTransactionResponse;
 import play.Logger;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static devote.blockchain.stellar.StellarUtils.fromAccount;
@@ -54,7 +57,8 @@ public class StellarChannelAccountOperation implements ChannelAccountOperation {
             Transaction.Builder txBuilder = prepareTransaction(channelGeneratorKeyPair.getAccountId());
             List<KeyPair> channels = prepareChannelsCreationOn(txBuilder, numOfAccountsToCreate);
 
-            submitTransaction(txBuilder, channelGeneratorKeyPair);
+            SubmitTransactionResponse response = submitTransaction(txBuilder, channelGeneratorKeyPair);
+            primeSequenceNumbersOf(channels, response.getLedger());
 
             return channels.stream()
                     .map(StellarUtils::toAccount)
@@ -65,11 +69,37 @@ public class StellarChannelAccountOperation implements ChannelAccountOperation {
         }
     }
 
-    private Transaction.Builder prepareTransaction(String channelGeneratorAccountId) throws IOException {
-        Server server = serverAndNetwork.getServer();
-        Network network = serverAndNetwork.getNetwork();
+    @Override
+    public CompletionStage<List<Account>> createAsync(ChannelGenerator channelGenerator, int numOfAccountsToCreate,
+                                                      Executor executor) {
+        try {
+            KeyPair channelGeneratorKeyPair = fromAccount(channelGenerator.account);
 
-        return StellarUtils.createTransactionBuilder(server, network, channelGeneratorAccountId);
+            Transaction.Builder txBuilder = prepareTransaction(channelGeneratorKeyPair.getAccountId());
+            List<KeyPair> channels = prepareChannelsCreationOn(txBuilder, numOfAccountsToCreate);
+
+            Transaction transaction = txBuilder.build();
+            transaction.sign(channelGeneratorKeyPair);
+
+            return StellarSubmitTransaction.submitAsync("channel account", transaction, channelGeneratorKeyPair, serverAndNetwork, executor)
+                    .thenApply(response -> {
+                        primeSequenceNumbersOf(channels, response.getLedger());
+
+                        return channels.stream()
+                                .map(StellarUtils::toAccount)
+                                .collect(Collectors.toList());
+                    });
+        } catch (IOException e) {
+            logger.warn("[STELLAR]: Failed to create channel account!", e);
+
+            CompletableFuture<List<Account>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new BlockchainException("[STELLAR]: Failed to create channel account!", e));
+            return failed;
+        }
+    }
+
+    private Transaction.Builder prepareTransaction(String channelGeneratorAccountId) throws IOException {
+        return StellarUtils.createTransactionBuilder(serverAndNetwork, channelGeneratorAccountId);
     }
 
     private List<KeyPair> prepareChannelsCreationOn(Transaction.Builder txBuilder, int numOfAccountsToCreate) {
@@ -97,11 +127,21 @@ public class StellarChannelAccountOperation implements ChannelAccountOperation {
         txBuilder.addOperation(createAccount);
     }
 
-    private void submitTransaction(Transaction.Builder txBuilder, KeyPair channel) throws AccountRequiresMemoException, IOException {
+    private SubmitTransactionResponse submitTransaction(Transaction.Builder txBuilder, KeyPair channel) throws AccountRequiresMemoException, IOException {
         Transaction transaction = txBuilder.build();
         transaction.sign(channel);
 
-        Server server = serverAndNetwork.getServer();
-        StellarSubmitTransaction.submit("channel account", transaction, server);
+        return StellarSubmitTransaction.submit("channel account", transaction, channel, serverAndNetwork);
+    }
+
+    private void primeSequenceNumbersOf(List<KeyPair> channels, Long ledger) {
+        if (ledger == null) {
+            return;
+        }
+
+        // A new account starts with the sequence number of the ledger it was created in, shifted by 32 bits.
+        long startingSequenceNumber = ledger << 32;
+        Network network = serverAndNetwork.getNetwork();
+        channels.forEach(c -> StellarUtils.sequenceNumbers().prime(network, c.getAccountId(), startingSequenceNumber));
     }
 }
@@ -8,8 +8,6 @@ import devote.blockchain.api.Account;
 import org.stellar.sdk.AccountRequiresMemoException;
 import org.stellar.sdk.CreateAccountOperation;
 import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
 import play.Logger;
 import utils.StringUtils;
@@ -76,10 +74,7 @@ public class StellarChannelGeneratorAccountOperation implements ChannelGenerator
     }
 
     private Transaction.Builder prepareTransaction(Account funding) throws IOException {
-        Server server = serverAndNetwork.getServer();
-        Network network = serverAndNetwork.getNetwork();
-
-        return StellarUtils.createTransactionBuilder(server, network, funding.publik);
+        return StellarUtils.createTransactionBuilder(serverAndNetwork, funding.publik);
     }
 
     private KeyPair prepareAccountCreationOn(Transaction.Builder txBuilder, long votesCapPerAccount) {
@@ -107,8 +102,7 @@ public class StellarChannelGeneratorAccountOperation implements ChannelGenerator
 
         transaction.sign(funding);
 
-        Server server = serverAndNetwork.getServer();
-        StellarSubmitTransaction.submit("channel generator", transaction, server);
+        StellarSubmitTransaction.submit("channel generator", transaction, funding, serverAndNetwork);
     }
 
     private ChannelGenerator toChannelGenerator(KeyPair keyPair, long votesCapPerAccount) {
@@ -6,8 +6,6 @@ import devote.blockchain.api.BlockchainException;
 import devote.blockchain.api.DistributionAndBallotAccountOperation;
 import org.stellar.sdk.AccountRequiresMemoException;
 import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
 import play.Logger;
 
@@ -54,17 +52,14 @@ public class StellarDistributionAndBallotAccountOperation implements Distributio
     }
 
     private Transaction.Builder prepareTransaction(KeyPair funding) throws IOException {
-        Server server = serverAndNetwork.getServer();
-        Network network = serverAndNetwork.getNetwork();
-
-        return StellarUtils.createTransactionBuilder(server, network, funding.getAccountId());
+        return StellarUtils.createTransactionBuilder(serverAndNetwork, funding.getAccountId());
     }
 
-    private void submitTransaction(Transaction.Builder txBuilder, KeyPair... signers) throws AccountRequiresMemoException, IOException {
+    private void submitTransaction(Transaction.Builder txBuilder, KeyPair funding, KeyPair... otherSigners) throws AccountRequiresMemoException, IOException {
         Transaction transaction = txBuilder.build();
-        Arrays.stream(signers).forEach(transaction::sign);
+        transaction.sign(funding);
+        Arrays.stream(otherSigners).forEach(transaction::sign);
 
-        Server server = serverAndNetwork.getServer();
-        StellarSubmitTransaction.submit("distribution and ballot", transaction, server);
+        StellarSubmitTransaction.submit("distribution and ballot", transaction, funding, serverAndNetwork);
     }
 }
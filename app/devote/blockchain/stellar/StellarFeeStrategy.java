@@ -0,0 +1,141 @@
+package devote.blockchain.stellar;
+
+import org.stellar.sdk.Server;
+import org.stellar.sdk.responses.FeeDistribution;
+import org.stellar.sdk.responses.FeeStatsResponse;
+import play.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static devote.blockchain.stellar.StellarUtils.STELLAR_MIN_BASE_FEE;
+import static org.stellar.sdk.AbstractTransaction.MIN_BASE_FEE;
+
+/**
+ * Picks the base fee (per operation, in stroops) of the transactions of one network, so that they get into a ledger
+ * at the first try even when the network is surge pricing.
+ * <p>
+ * The base fee is the configured percentile of the fees charged in the recent ledgers, as given by Horizon's
+ * fee_stats, but never more than the configured cap. Fee stats are cached for a while, so that they are not requested
+ * for every transaction. If they can't be loaded, the last known base fee is used ({@link StellarUtils#STELLAR_MIN_BASE_FEE}
+ * at first).
+ * <p>
+ * When a transaction was rejected for its fee anyway, it can be wrapped in a fee-bump offering
+ * {@link #bumpedBaseFeeOf(long)}.
+ */
+public class StellarFeeStrategy {
+    private final String name;
+    private final Server server;
+    private final int percentile;
+    private final long maxBaseFee;
+    private final long cacheTtlNanos;
+
+    private volatile long baseFee = STELLAR_MIN_BASE_FEE;
+    private volatile long sampledAtNanos;
+    private volatile boolean isSampled = false;
+
+    private final LongAdder numOfFeeBumps = new LongAdder();
+
+    private static final Logger.ALogger logger = Logger.of(StellarFeeStrategy.class);
+
+    /**
+     * @param percentile one of 10, 20, ..., 90, 95 and 99.
+     */
+    public StellarFeeStrategy(String name, Server server, int percentile, long maxBaseFee, long cacheTtlMillis) {
+        if (!isSupported(percentile)) {
+            throw new IllegalArgumentException("Unsupported fee percentile: " + percentile + "!");
+        }
+
+        this.name = name;
+        this.server = server;
+        this.percentile = percentile;
+        this.maxBaseFee = maxBaseFee;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis);
+    }
+
+    public long baseFee() {
+        sampleIfStale();
+        return baseFee;
+    }
+
+    /**
+     * The base fee of a fee-bump, for a transaction rejected with the given base fee; at least double of it, but not
+     * more than the cap. If it's not more than the given base fee, the fee can't be bumped. Fee stats are sampled again,
+     * if the rejected base fee was not less than the cached one.
+     */
+    public long bumpedBaseFeeOf(long rejectedBaseFee) {
+        numOfFeeBumps.increment();
+        sampleIfRejected(rejectedBaseFee);
+
+        long bumpedBaseFee = Math.max(baseFee, rejectedBaseFee * 2);
+        return Math.min(bumpedBaseFee, Math.max(maxBaseFee, MIN_BASE_FEE));
+    }
+
+    public long getNumOfFeeBumps() {
+        return numOfFeeBumps.sum();
+    }
+
+    private void sampleIfStale() {
+        if (isSampled && System.nanoTime() - sampledAtNanos < cacheTtlNanos) {
+            return;
+        }
+
+        synchronized (this) {
+            // Another thread might have sampled while this one was waiting.
+            if (isSampled && System.nanoTime() - sampledAtNanos < cacheTtlNanos) {
+                return;
+            }
+
+            sample();
+        }
+    }
+
+    // The cached base fee is evidently out of date if it got rejected; unless another thread sampled since.
+    private synchronized void sampleIfRejected(long rejectedBaseFee) {
+        if (!isSampled || baseFee <= rejectedBaseFee) {
+            sample();
+        }
+    }
+
+    private synchronized void sample() {
+        try {
+            FeeStatsResponse feeStats = server.feeStats().execute();
+            long networkBaseFee = feeStats.getLastLedgerBaseFee() != null ? feeStats.getLastLedgerBaseFee() : MIN_BASE_FEE;
+            long chargedFee = percentileOf(feeStats.getFeeCharged());
+
+            baseFee = Math.max(networkBaseFee, Math.min(chargedFee, maxBaseFee));
+            logger.info("[STELLAR]: base fee of {} is {}; p{} of charged fees = {}, network base fee = {}",
+                    name, baseFee, percentile, chargedFee, networkBaseFee);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("[STELLAR]: Failed to get fee stats of {}; keeping base fee of {}", name, baseFee, e);
+        }
+
+        // Failures are not retried until the cache expires either, not to add to the load of a struggling Horizon.
+        sampledAtNanos = System.nanoTime();
+        isSampled = true;
+    }
+
+    private long percentileOf(FeeDistribution feeDistribution) {
+        Long fee;
+        switch (percentile) {
+            case 10: fee = feeDistribution.getP10(); break;
+            case 20: fee = feeDistribution.getP20(); break;
+            case 30: fee = feeDistribution.getP30(); break;
+            case 40: fee = feeDistribution.getP40(); break;
+            case 50: fee = feeDistribution.getP50(); break;
+            case 60: fee = feeDistribution.getP60(); break;
+            case 70: fee = feeDistribution.getP70(); break;
+            case 80: fee = feeDistribution.getP80(); break;
+            case 90: fee = feeDistribution.getP90(); break;
+            case 95: fee = feeDistribution.getP95(); break;
+            default: fee = feeDistribution.getP99();
+        }
+
+        return fee != null ? fee : MIN_BASE_FEE;
+    }
+
+    private static boolean isSupported(int percentile) {
+        return (percentile >= 10 && percentile <= 90 && percentile % 10 == 0) || percentile == 95 || percentile == 99;
+    }
+}
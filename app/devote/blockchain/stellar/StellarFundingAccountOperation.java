@@ -31,6 +31,11 @@ public class StellarFundingAccountOperation implements FundingAccountOperation {
 
     @Override
     public boolean doesNotHaveEnoughBalanceForVotesCap(String accountPublic, long votesCap) {
+        return doesNotHaveEnoughBalanceForVotesCap(accountPublic, votesCap, votesCap);
+    }
+
+    @Override
+    public boolean doesNotHaveEnoughBalanceForVotesCap(String accountPublic, long votesCap, long numOfChannelAccounts) {
         Server server = serverAndNetwork.getServer();
 
         try {
@@ -42,7 +47,9 @@ public class StellarFundingAccountOperation implements FundingAccountOperation {
             BigDecimal xlmBalance = findXlmBalance(accountResponse.getBalances());
             logger.info("[STELLAR]: Funding account balance: {} XLM", xlmBalance);
 
-            long minRequiredBalance = 4 * votesCap + 10 * StellarChannelGeneratorAccountOperation.calcNumOfAccountNeededBasedOn(configuration) + 50;
+            // 2 XLM for each voter account, and 2 XLM for each channel account.
+            long minRequiredBalance = 2 * votesCap + 2 * numOfChannelAccounts +
+                    10 * StellarChannelGeneratorAccountOperation.calcNumOfAccountNeededBasedOn(configuration) + 50;
             logger.info("[STELLAR]: The minimum required balance for funding account is: {} XLM", minRequiredBalance);
 
             return xlmBalance.compareTo(new BigDecimal(minRequiredBalance)) < 0;
@@ -0,0 +1,121 @@
+package devote.blockchain.stellar;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.stellar.sdk.Server;
+import play.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Horizon of one network, with a long living HTTP client: connections are pooled, and kept alive (with pings,
+ * if the connection is HTTP/2), and all requests to the network are rate limited, so that Horizon's per IP limit is not
+ * hit even when a lot of operations run in parallel.
+ * <p>
+ * Transactions are submitted with a client sharing the same connection pool and limits, but with a longer read
+ * timeout, as Horizon waits for the transaction to get into a ledger before answering; or asynchronously with
+ * {@link #getAsyncSubmitter()}.
+ * <p>
+ * The base fee of the transactions is picked by the network's {@link StellarFeeStrategy}.
+ */
+public class StellarHorizonClient {
+    private final Server server;
+    private final StellarAsyncSubmitter asyncSubmitter;
+    private final StellarFeeStrategy feeStrategy;
+
+    private static final Logger.ALogger logger = Logger.of(StellarHorizonClient.class);
+
+    public static StellarHorizonClient create(String name, String horizonUrl, Config config) {
+        double maxRequestsPerSec = config.getDouble("devote.blockchain.stellar.horizon.max.requests.per.sec");
+        int maxConnections = config.getInt("devote.blockchain.stellar.horizon.max.connections");
+
+        logger.info("[STELLAR]: creating client of {} horizon; url = {}, max requests per sec = {}, max connections = {}",
+                name, horizonUrl, maxRequestsPerSec, maxConnections);
+
+        StellarHorizonMetrics metrics = new StellarHorizonMetrics();
+        RateLimiter rateLimiter = maxRequestsPerSec > 0 ? RateLimiter.create(maxRequestsPerSec) : null;
+        StellarHorizonInterceptor interceptor = new StellarHorizonInterceptor(name, rateLimiter, metrics,
+                config.getInt("devote.blockchain.stellar.horizon.retry.max.retries"),
+                config.getLong("devote.blockchain.stellar.horizon.retry.base.delay.millis"),
+                config.getLong("devote.blockchain.stellar.horizon.retry.max.delay.millis"));
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConnections);
+        dispatcher.setMaxRequestsPerHost(maxConnections);
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxConnections,
+                        config.getLong("devote.blockchain.stellar.horizon.keep.alive.sec"), TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .pingInterval(config.getLong("devote.blockchain.stellar.horizon.ping.interval.sec"), TimeUnit.SECONDS)
+                .connectTimeout(config.getLong("devote.blockchain.stellar.horizon.connect.timeout.sec"), TimeUnit.SECONDS)
+                .readTimeout(config.getLong("devote.blockchain.stellar.horizon.read.timeout.sec"), TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .addInterceptor(interceptor)
+                .build();
+
+        OkHttpClient submitHttpClient = httpClient.newBuilder()
+                .readTimeout(config.getLong("devote.blockchain.stellar.horizon.submit.timeout.sec"), TimeUnit.SECONDS)
+                .build();
+
+        // Async calls run on the dispatcher's threads, so they are only measured here; the submitter limits and
+        // retries them without blocking.
+        OkHttpClient.Builder asyncHttpClientBuilder = httpClient.newBuilder();
+        asyncHttpClientBuilder.interceptors().clear();
+        OkHttpClient asyncHttpClient = asyncHttpClientBuilder
+                .addInterceptor(new StellarHorizonInterceptor(name, null, metrics, 0, 0, 0))
+                .build();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("stellar-" + name + "-horizon-%d")
+                        .setDaemon(true)
+                        .build());
+        StellarAsyncSubmitter asyncSubmitter = new StellarAsyncSubmitter(name, asyncHttpClient,
+                HttpUrl.get(horizonUrl), rateLimiter, scheduler,
+                config.getLong("devote.blockchain.stellar.horizon.async.submit.poll.interval.millis"),
+                TimeUnit.SECONDS.toMillis(config.getLong("devote.blockchain.stellar.horizon.async.submit.max.wait.sec")));
+
+        Server server = new Server(horizonUrl, httpClient, submitHttpClient);
+        StellarFeeStrategy feeStrategy = new StellarFeeStrategy(name, server,
+                config.getInt("devote.blockchain.stellar.fee.percentile"),
+                config.getLong("devote.blockchain.stellar.fee.max.base.fee"),
+                TimeUnit.SECONDS.toMillis(config.getLong("devote.blockchain.stellar.fee.stats.cache.sec")));
+
+        long metricsLogIntervalSec = config.getLong("devote.blockchain.stellar.horizon.metrics.log.interval.sec");
+        if (metricsLogIntervalSec > 0) {
+            scheduler.scheduleAtFixedRate(() -> logger.info("[STELLAR]: {} horizon: {}", name, metrics),
+                    metricsLogIntervalSec, metricsLogIntervalSec, TimeUnit.SECONDS);
+        }
+
+        return new StellarHorizonClient(server, asyncSubmitter, feeStrategy);
+    }
+
+    public StellarHorizonClient(Server server, StellarAsyncSubmitter asyncSubmitter, StellarFeeStrategy feeStrategy) {
+        this.server = server;
+        this.asyncSubmitter = asyncSubmitter;
+        this.feeStrategy = feeStrategy;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public StellarAsyncSubmitter getAsyncSubmitter() {
+        return asyncSubmitter;
+    }
+
+    public StellarFeeStrategy getFeeStrategy() {
+        return feeStrategy;
+    }
+}
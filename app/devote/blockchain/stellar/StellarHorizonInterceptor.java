@@ -0,0 +1,123 @@
+package devote.blockchain.stellar;
+
+import com.google.common.util.concurrent.RateLimiter;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import play.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every request sent to a Horizon goes through here: it waits for the network's rate limiter, it's retried with
+ * jittered exponential backoff when Horizon answers 429 (rate limited) or 503 (unavailable), and it's measured.
+ * <p>
+ * Retrying a transaction submission is safe; a transaction can't be applied twice, as its sequence number is used up
+ * by the first one.
+ * <p>
+ * Waiting for the rate limiter and between retries blocks the calling thread, so it's only meant for synchronous
+ * calls. Asynchronous calls must be made with no rate limiter and no retries (only measured), as they would block a
+ * thread of the HTTP client's dispatcher otherwise; {@link StellarAsyncSubmitter} limits and retries them itself.
+ */
+public class StellarHorizonInterceptor implements Interceptor {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final String name;
+    private final RateLimiter rateLimiter;
+    private final StellarHorizonMetrics metrics;
+    private final int maxRetries;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+
+    private static final Logger.ALogger logger = Logger.of(StellarHorizonInterceptor.class);
+
+    /**
+     * @param rateLimiter can be null, if requests should not be limited.
+     */
+    public StellarHorizonInterceptor(String name, RateLimiter rateLimiter, StellarHorizonMetrics metrics,
+                                     int maxRetries, long retryBaseDelayMillis, long retryMaxDelayMillis) {
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.maxRetries = maxRetries;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = endpointOf(request);
+
+        for (int attempt = 0; ; attempt++) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+
+            Response response = proceedMeasured(chain, request, endpoint);
+            if (!isRetryable(response.code()) || attempt >= maxRetries) {
+                return response;
+            }
+
+            long delayMillis = retryDelayMillisOf(response, attempt);
+            response.close();
+            metrics.retried();
+
+            logger.warn("[STELLAR]: {} answered {} to {}; retrying in {} ms ({}/{})",
+                    name, response.code(), endpoint, delayMillis, attempt + 1, maxRetries);
+            sleep(delayMillis);
+        }
+    }
+
+    private Response proceedMeasured(Chain chain, Request request, String endpoint) throws IOException {
+        metrics.requestStarted();
+        long startedAt = System.nanoTime();
+
+        try {
+            return chain.proceed(request);
+        } finally {
+            metrics.requestFinished(endpoint, System.nanoTime() - startedAt);
+        }
+    }
+
+    private long retryDelayMillisOf(Response response, int attempt) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter != null) {
+            try {
+                long retryAfterMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+                return Math.min(retryAfterMillis, retryMaxDelayMillis);
+            } catch (NumberFormatException e) {
+                // Could be an HTTP date; the backoff below is good enough then.
+            }
+        }
+
+        // Full jitter, so that the clients rejected together don't come back together.
+        long backoffMillis = Math.min(retryMaxDelayMillis, retryBaseDelayMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+    }
+
+    static boolean isRetryable(int code) {
+        return code == TOO_MANY_REQUESTS || code == SERVICE_UNAVAILABLE;
+    }
+
+    private static String endpointOf(Request request) {
+        List<String> pathSegments = request.url().pathSegments();
+        String firstSegment = pathSegments.isEmpty() || pathSegments.get(0).isEmpty() ? "/" : pathSegments.get(0);
+
+        return request.method() + " " + firstSegment;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry Horizon request!");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package devote.blockchain.stellar;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests in flight, retries, and latency per endpoint (method and first path segment, e.g. "GET accounts") of the
+ * requests sent to a Horizon. Logged periodically by the Horizon's client.
+ */
+public class StellarHorizonMetrics {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder numOfRetries = new LongAdder();
+    private final Map<String, EndpointLatency> latencies = new ConcurrentHashMap<>();
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestFinished(String endpoint, long latencyNanos) {
+        inFlight.decrementAndGet();
+        latencies.computeIfAbsent(endpoint, e -> new EndpointLatency()).record(latencyNanos);
+    }
+
+    public void retried() {
+        numOfRetries.increment();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getNumOfRetries() {
+        return numOfRetries.sum();
+    }
+
+    public Set<String> getEndpoints() {
+        return latencies.keySet();
+    }
+
+    public long getNumOfRequests(String endpoint) {
+        EndpointLatency latency = latencies.get(endpoint);
+        return latency == null ? 0 : latency.numOfRequests.sum();
+    }
+
+    public double getAverageLatencyMillis(String endpoint) {
+        long numOfRequests = getNumOfRequests(endpoint);
+        if (numOfRequests == 0) {
+            return 0;
+        }
+
+        return latencies.get(endpoint).totalLatencyNanos.sum() / (double) numOfRequests / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis(String endpoint) {
+        EndpointLatency latency = latencies.get(endpoint);
+        return latency == null ? 0 : latency.maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder endpoints = new StringBuilder();
+        for (String endpoint : getEndpoints()) {
+            endpoints.append(String.format(", %s: n = %d avg = %.1f ms max = %.1f ms", endpoint,
+                    getNumOfRequests(endpoint), getAverageLatencyMillis(endpoint), getMaxLatencyMillis(endpoint)));
+        }
+
+        return "StellarHorizonMetrics{" +
+                "inFlight=" + getInFlight() +
+                ", numOfRetries=" + getNumOfRetries() +
+                endpoints +
+                '}';
+    }
+
+    private static class EndpointLatency {
+        public final LongAdder numOfRequests = new LongAdder();
+        public final LongAdder totalLatencyNanos = new LongAdder();
+        public final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+
+        public void record(long latencyNanos) {
+            numOfRequests.increment();
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulate(latencyNanos);
+        }
+    }
+}
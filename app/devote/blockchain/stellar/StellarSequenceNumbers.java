@@ -0,0 +1,87 @@
+package devote.blockchain.stellar;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.Server;
+import org.stellar.sdk.responses.AccountResponse;
+import play.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local cache of the last used sequence number of accounts, so that building a transaction does not need a
+ * round trip to Horizon. Sequence numbers are fetched from Horizon only on a cache miss, or after a resync.
+ */
+public class StellarSequenceNumbers {
+    private final Cache<String, AtomicLong> sequenceNumbers;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final Logger.ALogger logger = Logger.of(StellarSequenceNumbers.class);
+
+    public StellarSequenceNumbers(long maxNumOfAccounts) {
+        sequenceNumbers = CacheBuilder.newBuilder()
+                .maximumSize(maxNumOfAccounts)
+                .build();
+    }
+
+    /**
+     * Reserves the next sequence number of the account.
+     *
+     * @return the sequence number preceding the reserved one, i.e. what should be given to a transaction builder.
+     */
+    public long reserveNext(Server server, Network network, String accountId) throws IOException {
+        AtomicLong sequenceNumber = sequenceNumbers.getIfPresent(keyOf(network, accountId));
+
+        if (sequenceNumber == null) {
+            misses.increment();
+            sequenceNumber = load(server, network, accountId);
+        } else {
+            hits.increment();
+        }
+
+        return sequenceNumber.getAndIncrement();
+    }
+
+    public void prime(Network network, String accountId, long sequenceNumber) {
+        sequenceNumbers.put(keyOf(network, accountId), new AtomicLong(sequenceNumber));
+    }
+
+    public void resync(Network network, String accountId) {
+        logger.info("[STELLAR]: Resyncing sequence number of account {}. Sequence number cache hits = {}, misses = {}",
+                accountId, getHits(), getMisses());
+        sequenceNumbers.invalidate(keyOf(network, accountId));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private AtomicLong load(Server server, Network network, String accountId) throws IOException {
+        try {
+            // Concurrent misses on the same account wait for a single Horizon request.
+            return sequenceNumbers.get(keyOf(network, accountId), () -> {
+                AccountResponse accountResponse = server.accounts().account(accountId);
+                return new AtomicLong(accountResponse.getSequenceNumber());
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException("Failed to get sequence number of account " + accountId, e.getCause());
+        }
+    }
+
+    private static String keyOf(Network network, String accountId) {
+        return network.getNetworkPassphrase() + "|" + accountId;
+    }
+}
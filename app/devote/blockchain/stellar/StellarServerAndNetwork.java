@@ -31,6 +31,22 @@ public class StellarServerAndNetwork {
         return configuration.getServer();
     }
 
+    public StellarAsyncSubmitter getAsyncSubmitter() {
+        if (shouldUseTestNet) {
+            return configuration.getTestNetAsyncSubmitter();
+        }
+
+        return configuration.getAsyncSubmitter();
+    }
+
+    public StellarFeeStrategy getFeeStrategy() {
+        if (shouldUseTestNet) {
+            return configuration.getTestNetFeeStrategy();
+        }
+
+        return configuration.getFeeStrategy();
+    }
+
     public StellarServerAndNetwork(StellarBlockchainConfiguration configuration, boolean shouldUseTestNet) {
         this.configuration = configuration;
         this.shouldUseTestNet = shouldUseTestNet;
@@ -2,6 +2,8 @@ package devote.blockchain.stellar;
 
 import devote.blockchain.api.BlockchainException;
 import org.stellar.sdk.AccountRequiresMemoException;
+import org.stellar.sdk.FeeBumpTransaction;
+import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Operation;
 import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
@@ -10,23 +12,155 @@ import play.Logger;
 
 import java.io.IOException;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class StellarSubmitTransaction {
     private static final Logger.ALogger logger = Logger.of(StellarSubmitTransaction.class);
 
-    public static void submit(String name, Transaction transaction, Server server) throws AccountRequiresMemoException, IOException {
+    private static final String TX_BAD_SEQ = "tx_bad_seq";
+    private static final String TX_INSUFFICIENT_FEE = "tx_insufficient_fee";
+
+    public static SubmitTransactionResponse submit(String name, Transaction transaction, Server server) throws AccountRequiresMemoException, IOException {
+        return submit(name, transaction, server, null, null);
+    }
+
+    /**
+     * Same as {@link #submit(String, Transaction, Server)}, but if the transaction is rejected for its fee, it's
+     * submitted again wrapped in a fee-bump paid by the fee account, instead of failing.
+     */
+    public static SubmitTransactionResponse submit(String name, Transaction transaction, KeyPair feeAccount,
+                                                   StellarServerAndNetwork serverAndNetwork) throws AccountRequiresMemoException, IOException {
+        return submit(name, transaction, serverAndNetwork.getServer(), feeAccount, serverAndNetwork.getFeeStrategy());
+    }
+
+    /**
+     * Same as {@link #submit(String, Transaction, Server)}, but the calling thread is not held while the
+     * transaction is waiting to get into a ledger.
+     */
+    public static CompletionStage<SubmitTransactionResponse> submitAsync(String name, Transaction transaction, StellarAsyncSubmitter submitter) {
+        return submitAsync(name, transaction, submitter, null, null, null);
+    }
+
+    /**
+     * Same as {@link #submit(String, Transaction, KeyPair, StellarServerAndNetwork)}, but the calling thread is not
+     * held while the transaction is waiting to get into a ledger. The fee-bump is picked on the given executor, as
+     * picking it might wait for fee stats.
+     */
+    public static CompletionStage<SubmitTransactionResponse> submitAsync(String name, Transaction transaction, KeyPair feeAccount,
+                                                                         StellarServerAndNetwork serverAndNetwork, Executor executor) {
+        return submitAsync(name, transaction, serverAndNetwork.getAsyncSubmitter(), feeAccount, serverAndNetwork.getFeeStrategy(), executor);
+    }
+
+    private static SubmitTransactionResponse submit(String name, Transaction transaction, Server server,
+                                                    KeyPair feeAccount, StellarFeeStrategy feeStrategy) throws AccountRequiresMemoException, IOException {
         logger.info("[STELLAR]: Submitting {} transaction with operations: {}", name, collectionOperationsOf(transaction));
-        SubmitTransactionResponse response = server.submitTransaction(transaction);
+        SubmitTransactionResponse response = submitToServer(transaction, null, server);
 
+        FeeBumpTransaction feeBump = feeBumpIfRejectedForFee(name, response, transaction, feeAccount, feeStrategy);
+        if (feeBump != null) {
+            response = submitToServer(transaction, feeBump, server);
+        }
+
+        return checkResponse(response, transaction);
+    }
+
+    private static CompletionStage<SubmitTransactionResponse> submitAsync(String name, Transaction transaction, StellarAsyncSubmitter submitter,
+                                                                          KeyPair feeAccount, StellarFeeStrategy feeStrategy,
+                                                                          Executor executor) {
+        logger.info("[STELLAR]: Submitting {} transaction asynchronously with operations: {}", name, collectionOperationsOf(transaction));
+        CompletionStage<SubmitTransactionResponse> submitted = submitter.submit(transaction);
+
+        // The submitter completes on the HTTP client's threads, which must not wait for fee stats.
+        if (feeAccount != null) {
+            submitted = submitted.thenComposeAsync(response -> {
+                FeeBumpTransaction feeBump = feeBumpIfRejectedForFee(name, response, transaction, feeAccount, feeStrategy);
+                return feeBump == null ? completedFuture(response) : submitter.submit(feeBump);
+            }, executor);
+        }
+
+        return submitted
+                .handle((response, error) -> {
+                    if (error != null) {
+                        // Not known whether the sequence number got consumed.
+                        resyncSequenceNumberOf(transaction);
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        throw new BlockchainException("[STELLAR]: Failed to submit transaction!", cause);
+                    }
+
+                    return checkResponse(response, transaction);
+                });
+    }
+
+    private static SubmitTransactionResponse submitToServer(Transaction transaction, FeeBumpTransaction feeBump, Server server)
+            throws AccountRequiresMemoException, IOException {
+        try {
+            return feeBump == null ? server.submitTransaction(transaction) : server.submitTransaction(feeBump);
+        } catch (IOException e) {
+            // Not known whether the sequence number got consumed.
+            resyncSequenceNumberOf(transaction);
+            throw e;
+        }
+    }
+
+    // The sequence number is not consumed by a transaction rejected for its fee, so the same transaction can be
+    // wrapped; there's no need to build and sign it again.
+    private static FeeBumpTransaction feeBumpIfRejectedForFee(String name, SubmitTransactionResponse response, Transaction transaction,
+                                                              KeyPair feeAccount, StellarFeeStrategy feeStrategy) {
+        if (feeAccount == null || response.isSuccess() || !hasTransactionResultCode(response, TX_INSUFFICIENT_FEE)) {
+            return null;
+        }
+
+        long rejectedBaseFee = transaction.getFee() / Math.max(1, transaction.getOperations().length);
+        long bumpedBaseFee = feeStrategy.bumpedBaseFeeOf(rejectedBaseFee);
+        if (bumpedBaseFee <= rejectedBaseFee) {
+            logger.warn("[STELLAR]: Fee of {} transaction can't be bumped; base fee of {} is already at the cap", name, rejectedBaseFee);
+            return null;
+        }
+
+        logger.info("[STELLAR]: Base fee of {} of {} transaction is not enough; submitting it with fee-bump of base fee {}",
+                rejectedBaseFee, name, bumpedBaseFee);
+        FeeBumpTransaction feeBump = new FeeBumpTransaction.Builder(transaction)
+                .setBaseFee(bumpedBaseFee)
+                .setFeeAccount(feeAccount.getAccountId())
+                .build();
+        feeBump.sign(feeAccount);
+
+        return feeBump;
+    }
+
+    private static SubmitTransactionResponse checkResponse(SubmitTransactionResponse response, Transaction transaction) {
         if (response.isSuccess()) {
             logger.info("[STELLAR]: Successfully submitted transaction!");
+            return response;
         } else {
+            if (isBadSequence(response)) {
+                resyncSequenceNumberOf(transaction);
+            }
+
             String logMessage = String.format("[STELLAR]: Failed to submit transaction! %s", StellarUtils.resultCodesOf(response));
             logger.error(logMessage);
             throw new BlockchainException(logMessage);
         }
     }
 
+    private static boolean isBadSequence(SubmitTransactionResponse response) {
+        return hasTransactionResultCode(response, TX_BAD_SEQ);
+    }
+
+    private static boolean hasTransactionResultCode(SubmitTransactionResponse response, String resultCode) {
+        return response.getExtras() != null &&
+                response.getExtras().getResultCodes() != null &&
+                resultCode.equals(response.getExtras().getResultCodes().getTransactionResultCode());
+    }
+
+    private static void resyncSequenceNumberOf(Transaction transaction) {
+        StellarUtils.sequenceNumbers().resync(transaction.getNetwork(), transaction.getSourceAccount());
+    }
+
     private static String collectionOperationsOf(Transaction transaction) {
         StringJoiner joiner = new StringJoiner(", ");
         for (Operation operation : transaction.getOperations()) {
@@ -3,23 +3,35 @@ package devote.blockchain.stellar;
 import devote.blockchain.api.Account;
 import org.stellar.sdk.KeyPair;
 import org.stellar.sdk.Network;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
-import org.stellar.sdk.responses.AccountResponse;
+import org.stellar.sdk.Util;
 import org.stellar.sdk.responses.SubmitTransactionResponse;
+import org.stellar.sdk.xdr.EnvelopeType;
+import org.stellar.sdk.xdr.XdrDataOutputStream;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 
 import static org.stellar.sdk.AbstractTransaction.MIN_BASE_FEE;
 
 public class StellarUtils {
+    // Base fee until the fee strategy got the fee stats of the network.
     public static final int STELLAR_MIN_BASE_FEE = MIN_BASE_FEE * 3;
     public static final int STELLAR_TIMEOUT_SECONDS = 30;
 
+    private static final long MAX_NUM_OF_CACHED_SEQUENCE_NUMBERS = 200_000;
+    private static final StellarSequenceNumbers sequenceNumbers = new StellarSequenceNumbers(MAX_NUM_OF_CACHED_SEQUENCE_NUMBERS);
+
     public static String resultCodesOf(SubmitTransactionResponse response) {
+        // E.g. Horizon answered with an error other than a failed transaction.
+        if (response.getExtras() == null || response.getExtras().getResultCodes() == null) {
+            return "TX result: unknown";
+        }
+
         List<String> operationResultCodes = response.getExtras().getResultCodes().getOperationsResultCodes();
         if (operationResultCodes == null) {
             operationResultCodes = Collections.emptyList();
@@ -29,14 +41,34 @@ public class StellarUtils {
         return "TX result: " + transactionResultCode + ", OPs results: " + String.join(", ", operationResultCodes);
     }
 
-    public static Transaction.Builder createTransactionBuilder(Server server, Network network, String accountId)
+    public static Transaction.Builder createTransactionBuilder(StellarServerAndNetwork serverAndNetwork, String accountId)
             throws IOException {
-        AccountResponse accountResponse = server.accounts().account(accountId);
-        return new Transaction.Builder(accountResponse, network)
-                .setBaseFee(STELLAR_MIN_BASE_FEE)
+        Network network = serverAndNetwork.getNetwork();
+        long sequenceNumber = sequenceNumbers.reserveNext(serverAndNetwork.getServer(), network, accountId);
+        org.stellar.sdk.Account sourceAccount = new org.stellar.sdk.Account(accountId, sequenceNumber);
+        return new Transaction.Builder(sourceAccount, network)
+                .setBaseFee(serverAndNetwork.getFeeStrategy().baseFee())
                 .setTimeout(STELLAR_TIMEOUT_SECONDS);
     }
 
+    /**
+     * Same as {@link Transaction#hash()}, but with the network id (the hash of the network's passphrase) given, as
+     * the SDK hashes the passphrase again for every transaction.
+     */
+    public static byte[] hashOf(Transaction transaction, byte[] networkId) throws IOException {
+        ByteArrayOutputStream signatureBase = new ByteArrayOutputStream();
+        signatureBase.write(networkId);
+        signatureBase.write(ByteBuffer.allocate(4).putInt(EnvelopeType.ENVELOPE_TYPE_TX.getValue()).array());
+        org.stellar.sdk.xdr.Transaction.encode(new XdrDataOutputStream(signatureBase),
+                transaction.toEnvelopeXdr().getV1().getTx());
+
+        return Util.hash(signatureBase.toByteArray());
+    }
+
+    public static StellarSequenceNumbers sequenceNumbers() {
+        return sequenceNumbers;
+    }
+
     public static KeyPair fromAccount(Account account) {
         return KeyPair.fromSecretSeed(account.secret);
     }
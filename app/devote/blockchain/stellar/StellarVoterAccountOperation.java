@@ -1,5 +1,7 @@
 package devote.blockchain.stellar;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import devote.blockchain.api.BlockchainConfiguration;
 import devote.blockchain.api.BlockchainException;
 import devote.blockchain.api.VoterAccountOperation;
@@ -7,14 +9,13 @@ import org.stellar.sdk.Asset;
 import org.stellar.sdk.ChangeTrustAsset;
 import org.stellar.sdk.ChangeTrustOperation;
 import org.stellar.sdk.KeyPair;
-import org.stellar.sdk.Network;
 import org.stellar.sdk.PaymentOperation;
-import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
 import play.Logger;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
 
 import static devote.blockchain.stellar.StellarUtils.toAssetAmount;
 
@@ -25,6 +26,11 @@ public class StellarVoterAccountOperation implements VoterAccountOperation {
     private static final Logger.ALogger logger = Logger.of(StellarVoterAccountOperation.class);
     private static final String UNIT_TOKEN_AMOUNT = unitTokenAmount();
 
+    private static final int MAX_NUM_OF_CACHED_TEMPLATES = 1000;
+    private static final Cache<String, StellarVoterTransactionTemplate> templates = CacheBuilder.newBuilder()
+            .maximumSize(MAX_NUM_OF_CACHED_TEMPLATES)
+            .build();
+
     @Override
     public void init(BlockchainConfiguration configuration) {
         this.configuration = (StellarBlockchainConfiguration) configuration;
@@ -38,10 +44,14 @@ public class StellarVoterAccountOperation implements VoterAccountOperation {
 
     @Override
     public String createTransaction(CreateTransactionParams params) {
+        if (configuration.shouldUseVoterTransactionTemplates()) {
+            return createTransactionFromTemplate(params);
+        }
+
         KeyPair channel = StellarUtils.fromAccount(params.channel);
 
         try {
-            Transaction.Builder txBuilder = prepareTransaction(channel);
+            Transaction.Builder txBuilder = prepareTransaction(channel, params);
             allowVoterToHaveVoteToken(txBuilder, params);
             sendTheTokenToVoter(txBuilder, params);
 
@@ -53,11 +63,51 @@ public class StellarVoterAccountOperation implements VoterAccountOperation {
         }
     }
 
-    private Transaction.Builder prepareTransaction(KeyPair channel) throws IOException {
-        Server server = serverAndNetwork.getServer();
-        Network network = serverAndNetwork.getNetwork();
+    private String createTransactionFromTemplate(CreateTransactionParams params) {
+        StellarVoterTransactionTemplate template = templateOf(params);
+        KeyPair channel = StellarUtils.fromAccount(params.channel);
+
+        try {
+            ChangeTrustOperation changeTrust = new ChangeTrustOperation.Builder(template.changeTrustAsset, template.limit)
+                    .setSourceAccount(params.voterAccountPublic)
+                    .build();
+            PaymentOperation payment = new PaymentOperation.Builder(params.voterAccountPublic, template.asset, UNIT_TOKEN_AMOUNT)
+                    .setSourceAccount(template.distribution.getAccountId())
+                    .build();
+
+            Transaction transaction = prepareTransaction(channel, params)
+                    .addOperation(changeTrust)
+                    .addOperation(payment)
+                    .build();
+
+            // Both signatures are over the same hash, so it's computed only once.
+            byte[] hash = StellarUtils.hashOf(transaction, template.networkId);
+            transaction.addSignature(channel.signDecorated(hash));
+            transaction.addSignature(template.distribution.signDecorated(hash));
+
+            return transaction.toEnvelopeXdrBase64();
+        } catch (IOException e) {
+            logger.warn("[STELLAR]: Failed to create voter account transaction!", e);
+            throw new BlockchainException("[STELLAR]: Failed to create voter account transaction!", e);
+        }
+    }
+
+    private StellarVoterTransactionTemplate templateOf(CreateTransactionParams params) {
+        try {
+            return templates.get(StellarVoterTransactionTemplate.keyOf(params),
+                    () -> new StellarVoterTransactionTemplate(params, serverAndNetwork.getNetwork()));
+        } catch (ExecutionException e) {
+            throw new BlockchainException("[STELLAR]: Failed to create voter transaction template!", e.getCause());
+        }
+    }
+
+    private Transaction.Builder prepareTransaction(KeyPair channel, CreateTransactionParams params) throws IOException {
+        if (params.isChannelReused) {
+            // The cached sequence number is ahead of the channel's, if its previous transaction was never submitted.
+            StellarUtils.sequenceNumbers().resync(serverAndNetwork.getNetwork(), channel.getAccountId());
+        }
 
-        return StellarUtils.createTransactionBuilder(server, network, channel.getAccountId());
+        return StellarUtils.createTransactionBuilder(serverAndNetwork, channel.getAccountId());
     }
 
     private void allowVoterToHaveVoteToken(Transaction.Builder txBuilder, CreateTransactionParams params) {
@@ -0,0 +1,34 @@
+package devote.blockchain.stellar;
+
+import devote.blockchain.api.VoterAccountOperation;
+import org.stellar.sdk.Asset;
+import org.stellar.sdk.ChangeTrustAsset;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+import static devote.blockchain.stellar.StellarUtils.toAssetAmount;
+
+/**
+ * The voter independent parts of a voter account transaction of a voting.
+ */
+public class StellarVoterTransactionTemplate {
+    public final Asset asset;
+    public final ChangeTrustAsset changeTrustAsset;
+    public final String limit;
+    public final KeyPair distribution;
+    // Hash of the network's passphrase, the first part of what the transactions' hash is computed from.
+    public final byte[] networkId;
+
+    public StellarVoterTransactionTemplate(VoterAccountOperation.CreateTransactionParams params, Network network) {
+        asset = Asset.create(null, params.assetCode, params.issuerAccountPublic);
+        changeTrustAsset = ChangeTrustAsset.create(asset);
+        limit = toAssetAmount(params.votesCap);
+        distribution = StellarUtils.fromAccount(params.distribution);
+        networkId = network.getNetworkId();
+    }
+
+    public static String keyOf(VoterAccountOperation.CreateTransactionParams params) {
+        // The distribution account is unique to a voting, and the network is decided by the test network flag.
+        return params.distribution.publik + "|" + params.isOnTestNetwork;
+    }
+}
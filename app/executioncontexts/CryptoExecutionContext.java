@@ -0,0 +1,13 @@
+package executioncontexts;
+
+import akka.actor.ActorSystem;
+import play.libs.concurrent.CustomExecutionContext;
+
+import javax.inject.Inject;
+
+public class CryptoExecutionContext extends CustomExecutionContext {
+    @Inject
+    public CryptoExecutionContext(ActorSystem actorSystem) {
+        super(actorSystem, "crypto.dispatcher");
+    }
+}
@@ -1,5 +1,6 @@
 package requests;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.typesafe.config.Config;
 import play.data.validation.Constraints;
 import utils.StringUtils;
@@ -43,6 +44,10 @@ public class CreateVotingRequest implements ValidatableWithConfig<String> {
 
     private List<@Constraints.Email String> authorizationEmailOptions;
 
+    // Set when the email options are streamed to a file instead of being bound; never read from the request body.
+    @JsonIgnore
+    private StreamedEmails streamedAuthorizationEmails;
+
     @Constraints.Required
     @Valid
     @Size(min = 1)
@@ -170,7 +175,8 @@ public class CreateVotingRequest implements ValidatableWithConfig<String> {
 
     private boolean isAuthorizationNotValid() {
         if (authorization == Authorization.EMAILS &&
-                (authorizationEmailOptions == null || authorizationEmailOptions.isEmpty())) {
+                (authorizationEmailOptions == null || authorizationEmailOptions.isEmpty()) &&
+                (streamedAuthorizationEmails == null || streamedAuthorizationEmails.numOfEmails == 0)) {
             return true;
         }
 
@@ -187,6 +193,14 @@ public class CreateVotingRequest implements ValidatableWithConfig<String> {
         return gapMillis < minTimeIntervalMillis;
     }
 
+    public StreamedEmails getStreamedAuthorizationEmails() {
+        return streamedAuthorizationEmails;
+    }
+
+    public void setStreamedAuthorizationEmails(StreamedEmails streamedAuthorizationEmails) {
+        this.streamedAuthorizationEmails = streamedAuthorizationEmails;
+    }
+
     public List<CreatePollRequest> getPolls() {
         return polls;
     }
@@ -231,6 +245,7 @@ public class CreateVotingRequest implements ValidatableWithConfig<String> {
                 ", endDate=" + endDate +
                 ", authorization=" + authorization +
                 ", authorizationEmailOptions=" + authorizationEmailOptions +
+                ", streamedAuthorizationEmails=" + streamedAuthorizationEmails +
                 ", polls=" + polls +
                 ", visibility=" + visibility +
                 ", fundingAccountPublic='" + StringUtils.redactWithEllipsis(fundingAccountPublic, 5) + '\'' +
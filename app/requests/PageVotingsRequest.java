@@ -10,6 +10,9 @@ public class PageVotingsRequest {
     @Constraints.Min(5)
     private Integer limit;
 
+    @Constraints.MaxLength(64)
+    private String cursor;
+
     public Integer getOffset() {
         return offset;
     }
@@ -26,11 +29,20 @@ public class PageVotingsRequest {
         this.limit = limit;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     @Override
     public String toString() {
         return "PageOfVotingsRequest{" +
                 "offset=" + offset +
                 ", limit=" + limit +
+                ", cursor='" + cursor + '\'' +
                 '}';
     }
 }
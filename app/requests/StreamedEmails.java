@@ -0,0 +1,21 @@
+package requests;
+
+import play.libs.Files;
+
+public class StreamedEmails {
+    // One email per line.
+    public final Files.TemporaryFile file;
+    public final long numOfEmails;
+
+    public StreamedEmails(Files.TemporaryFile file, long numOfEmails) {
+        this.file = file;
+        this.numOfEmails = numOfEmails;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamedEmails{" +
+                "numOfEmails=" + numOfEmails +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 public class Page<T> {
     private long totalCount;
     private List<T> items;
+    private String nextCursor;
 
     public long getTotalCount() {
         return totalCount;
@@ -21,4 +22,12 @@ public class Page<T> {
     public void setItems(List<T> items) {
         this.items = items;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,27 @@
+package responses;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A voting as returned to a single request: the voting response shared between requests, plus its decryption key,
+ * once it may be disclosed.
+ */
+public class SingleVotingResponse {
+    @JsonUnwrapped
+    private final VotingResponse voting;
+
+    private final String decryptionKey;
+
+    public SingleVotingResponse(VotingResponse voting, String decryptionKey) {
+        this.voting = voting;
+        this.decryptionKey = decryptionKey;
+    }
+
+    public VotingResponse getVoting() {
+        return voting;
+    }
+
+    public String getDecryptionKey() {
+        return decryptionKey;
+    }
+}
@@ -0,0 +1,40 @@
+package responses;
+
+public class VotersImportResponse {
+    private Long numOfEmails;
+    private Long numOfInvalidEmails;
+    private Long numOfNewVoters;
+    private Long numOfNewParticipants;
+
+    public Long getNumOfEmails() {
+        return numOfEmails;
+    }
+
+    public void setNumOfEmails(Long numOfEmails) {
+        this.numOfEmails = numOfEmails;
+    }
+
+    public Long getNumOfInvalidEmails() {
+        return numOfInvalidEmails;
+    }
+
+    public void setNumOfInvalidEmails(Long numOfInvalidEmails) {
+        this.numOfInvalidEmails = numOfInvalidEmails;
+    }
+
+    public Long getNumOfNewVoters() {
+        return numOfNewVoters;
+    }
+
+    public void setNumOfNewVoters(Long numOfNewVoters) {
+        this.numOfNewVoters = numOfNewVoters;
+    }
+
+    public Long getNumOfNewParticipants() {
+        return numOfNewParticipants;
+    }
+
+    public void setNumOfNewParticipants(Long numOfNewParticipants) {
+        this.numOfNewParticipants = numOfNewParticipants;
+    }
+}
@@ -11,7 +11,6 @@ public class VotingResponse {
     private List<VotingPollResponse> polls;
     private Instant createdAt;
     private Instant encryptedUntil;
-    private String decryptionKey;
     private Instant startDate;
     private Instant endDate;
     private String distributionAccountId;
@@ -140,12 +139,4 @@ public class VotingResponse {
     public void setAssetCode(String assetCode) {
         this.assetCode = assetCode;
     }
-
-    public String getDecryptionKey() {
-        return decryptionKey;
-    }
-
-    public void setDecryptionKey(String decryptionKey) {
-        this.decryptionKey = decryptionKey;
-    }
 }
@@ -3,23 +3,26 @@ package responses;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingPoll;
 import data.entities.JpaVotingPollOption;
-import play.Logger;
 import services.Base62Conversions;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class VotingResponseFromJpaVoting {
-    private static final Logger.ALogger logger = Logger.of(VotingResponseFromJpaVoting.class);
-
-    public VotingResponse convert(JpaVoting jpaVoting) {
+    public VotingResponseSnapshot snapshotOf(JpaVoting jpaVoting) {
         VotingResponse votingResponse = new VotingResponse();
 
         setBasicData(votingResponse, jpaVoting);
         setPollData(votingResponse, jpaVoting);
 
-        return votingResponse;
+        return new VotingResponseSnapshot(
+                jpaVoting.getId(),
+                jpaVoting.getVisibility(),
+                jpaVoting.getCreatedBy(),
+                votingResponse,
+                jpaVoting.getEncryptedUntil(),
+                jpaVoting.getEncryptionKey()
+        );
     }
 
     private void setBasicData(VotingResponse votingResponse, JpaVoting jpaVoting) {
@@ -36,7 +39,6 @@ public class VotingResponseFromJpaVoting {
         votingResponse.setVisibility(jpaVoting.getVisibility().name());
         votingResponse.setIssuerAccountId(jpaVoting.getIssuerAccountPublic());
         votingResponse.setAssetCode(jpaVoting.getAssetCode());
-        setDecryptionKeyIfNeeded(votingResponse, jpaVoting);
     }
 
     private void setDistributionAndBallotAccountId(VotingResponse ipfsVoting, JpaVoting jpaVoting) {
@@ -75,11 +77,4 @@ public class VotingResponseFromJpaVoting {
 
         return votingPollOptionResponse;
     }
-
-    private static void setDecryptionKeyIfNeeded(VotingResponse votingResponse, JpaVoting jpaVoting) {
-        if(jpaVoting.getEncryptedUntil().compareTo(Instant.now()) <= 0) {
-            logger.info("Encrypted until expired for voting {}, giving decryption key in response.", jpaVoting.getId());
-            votingResponse.setDecryptionKey(jpaVoting.getEncryptionKey());
-        }
-    }
 }
@@ -0,0 +1,47 @@
+package responses;
+
+import data.entities.Visibility;
+import play.Logger;
+
+import java.time.Instant;
+
+/**
+ * The response of a voting, plus what is needed to decide per request who may view the voting, and whether its
+ * decryption key can be disclosed.
+ */
+public class VotingResponseSnapshot {
+    public final Long votingId;
+    public final Visibility visibility;
+    public final String createdBy;
+
+    // Shared between requests, so it must never be modified.
+    private final VotingResponse response;
+    private final Instant encryptedUntil;
+    private final String encryptionKey;
+
+    private static final Logger.ALogger logger = Logger.of(VotingResponseSnapshot.class);
+
+    public VotingResponseSnapshot(
+            Long votingId,
+            Visibility visibility,
+            String createdBy,
+            VotingResponse response,
+            Instant encryptedUntil,
+            String encryptionKey) {
+        this.votingId = votingId;
+        this.visibility = visibility;
+        this.createdBy = createdBy;
+        this.response = response;
+        this.encryptedUntil = encryptedUntil;
+        this.encryptionKey = encryptionKey;
+    }
+
+    public SingleVotingResponse toResponse() {
+        if (encryptedUntil.compareTo(Instant.now()) <= 0) {
+            logger.info("Encrypted until expired for voting {}, giving decryption key in response.", votingId);
+            return new SingleVotingResponse(response, encryptionKey);
+        }
+
+        return new SingleVotingResponse(response, null);
+    }
+}
@@ -2,29 +2,60 @@ package security;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import com.typesafe.config.Config;
 import play.Logger;
 import play.libs.F;
 import security.jwtverification.JwtVerification;
 
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 public class JwtCenter {
     private final JwtVerification jwtVerification;
     private final Config config;
 
+    // Keyed by the hash of the token; an entry is used only until the token expires.
+    private final Cache<String, CachedJwt> verifiedJwts;
+
     private static final Logger.ALogger logger = Logger.of(JwtCenter.class);
 
     @Inject
     public JwtCenter(JwtVerification jwtVerification, Config config) {
         this.jwtVerification = jwtVerification;
         this.config = config;
+
+        verifiedJwts = CacheBuilder.newBuilder()
+                .maximumSize(config.getLong("devote.jwt.verified.cache.max.size"))
+                .expireAfterWrite(config.getLong("devote.jwt.verified.cache.max.age.min"), TimeUnit.MINUTES)
+                .build();
     }
 
     public F.Either<Error, VerifiedJwt> verify(String token) {
+        String tokenHash = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+
+        CachedJwt cachedJwt = verifiedJwts.getIfPresent(tokenHash);
+        if (cachedJwt != null) {
+            if (cachedJwt.expiresAt.isAfter(Instant.now())) {
+                return F.Either.Right(cachedJwt.verifiedJwt);
+            }
+
+            verifiedJwts.invalidate(tokenHash);
+        }
+
         try {
             DecodedJWT jwt = jwtVerification.verify(token);
-            return F.Either.Right(new VerifiedJwt(jwt, token, config));
+            VerifiedJwt verifiedJwt = new VerifiedJwt(jwt, token, config);
+
+            if (jwt.getExpiresAt() != null) {
+                verifiedJwts.put(tokenHash, new CachedJwt(verifiedJwt, jwt.getExpiresAt().toInstant()));
+            }
+
+            return F.Either.Right(verifiedJwt);
         } catch (JWTVerificationException e) {
             logger.warn("Failed to verify token!", e);
             return F.Either.Left(Error.ERR_INVALID_SIGNATURE_OR_CLAIM);
@@ -34,4 +65,14 @@ public class JwtCenter {
     public enum Error {
         ERR_INVALID_SIGNATURE_OR_CLAIM
     }
+
+    private static class CachedJwt {
+        public final VerifiedJwt verifiedJwt;
+        public final Instant expiresAt;
+
+        public CachedJwt(VerifiedJwt verifiedJwt, Instant expiresAt) {
+            this.verifiedJwt = verifiedJwt;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
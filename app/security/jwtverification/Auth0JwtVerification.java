@@ -7,15 +7,25 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.typesafe.config.Config;
 
 import javax.inject.Inject;
 import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.ExecutionException;
 
 public class Auth0JwtVerification implements JwtVerification {
     private final JwkProvider jwkProvider;
     private final String issuer;
 
+    // Verifiers are thread safe, so one per key is enough. They are keyed by the JWK instance the provider serves,
+    // so a key that is dropped or replaced by a JWKS refresh is never verified with again.
+    private final Cache<Jwk, JWTVerifier> verifiersByJwk = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(100)
+            .build();
+
     @Inject
     public Auth0JwtVerification(Config config, JwkProvider jwkProvider) {
         this.jwkProvider = jwkProvider;
@@ -24,20 +34,28 @@ public class Auth0JwtVerification implements JwtVerification {
 
     @Override
     public DecodedJWT verify(String token) {
-        try {
-            DecodedJWT jwt = JWT.decode(token);
-            Jwk jwk = jwkProvider.get(jwt.getKeyId());
-            Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) jwk.getPublicKey(), null);
+        DecodedJWT jwt = JWT.decode(token);
+        verifierOf(jwt.getKeyId()).verify(jwt);
 
-            JWTVerifier jwtVerifier = JWT.require(algorithm)
-                    .withIssuer(issuer)
-                    .build();
-
-            jwtVerifier.verify(jwt);
+        return jwt;
+    }
 
-            return jwt;
+    private JWTVerifier verifierOf(String keyId) {
+        try {
+            Jwk jwk = jwkProvider.get(keyId);
+            return verifiersByJwk.get(jwk, () -> createVerifier(jwk));
         } catch (JwkException e) {
             throw new RuntimeException("Failed to verify jwt with auth0", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to verify jwt with auth0", e.getCause());
         }
     }
+
+    private JWTVerifier createVerifier(Jwk jwk) throws JwkException {
+        Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) jwk.getPublicKey(), null);
+
+        return JWT.require(algorithm)
+                .withIssuer(issuer)
+                .build();
+    }
 }
@@ -2,10 +2,14 @@ package security.jwtverification;
 
 import com.auth0.jwk.JwkProvider;
 import com.auth0.jwk.UrlJwkProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.Config;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class JwkProviderProvider implements Provider<JwkProvider> {
     private final Config config;
@@ -18,6 +22,16 @@ public class JwkProviderProvider implements Provider<JwkProvider> {
     @Override
     public JwkProvider get() {
         String issuer = config.getString("devote.jwt.issuer");
-        return new UrlJwkProvider(issuer);
+        Duration refreshAfter = Duration.ofMinutes(config.getLong("devote.jwt.jwks.refresh.after.min"));
+        Duration minRefetchInterval = Duration.ofSeconds(config.getLong("devote.jwt.jwks.min.refetch.interval.sec"));
+
+        // The refresh is a blocking HTTP call, so it gets a thread of its own.
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("jwks-refresh-%d")
+                        .setDaemon(true)
+                        .build());
+
+        return new RefreshAheadJwkProvider(new UrlJwkProvider(issuer), refreshAfter, minRefetchInterval, refreshExecutor);
     }
 }
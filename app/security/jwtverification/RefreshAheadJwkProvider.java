@@ -0,0 +1,125 @@
+package security.jwtverification;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwk.JwkProvider;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwk.UrlJwkProvider;
+import play.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves JWKs from memory. Known keys are refreshed in the background once they get old, so requests never wait
+ * for the JWKS endpoint because of a refresh; the refresh runs on the given executor. An unknown key id triggers a
+ * refetch (the keys might have been rotated). Neither a refresh nor a refetch is attempted more than once per the given
+ * interval, so neither tokens with made up key ids nor an unavailable endpoint cause a flood of fetches.
+ * <p>
+ * Like {@link UrlJwkProvider}, a token without a key id is verified with the only key of the JWKS, if there is
+ * exactly one.
+ */
+public class RefreshAheadJwkProvider implements JwkProvider {
+    private final UrlJwkProvider urlJwkProvider;
+    private final Duration refreshAfter;
+    private final Duration minRefetchInterval;
+    private final Executor refreshExecutor;
+
+    private volatile Map<String, Jwk> jwksByKeyId = Collections.emptyMap();
+    private volatile Instant fetchedAt = Instant.EPOCH;
+    private volatile Instant lastFetchAttemptAt = Instant.EPOCH;
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+
+    private static final Logger.ALogger logger = Logger.of(RefreshAheadJwkProvider.class);
+
+    public RefreshAheadJwkProvider(UrlJwkProvider urlJwkProvider, Duration refreshAfter, Duration minRefetchInterval,
+                                   Executor refreshExecutor) {
+        this.urlJwkProvider = urlJwkProvider;
+        this.refreshAfter = refreshAfter;
+        this.minRefetchInterval = minRefetchInterval;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        Jwk jwk = jwkOf(keyId);
+        if (jwk != null) {
+            if (fetchedAt.plus(refreshAfter).isBefore(Instant.now())) {
+                refreshInBackground();
+            }
+
+            return jwk;
+        }
+
+        refetchRateLimited();
+
+        jwk = jwkOf(keyId);
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found with kid " + keyId, null);
+        }
+
+        return jwk;
+    }
+
+    private Jwk jwkOf(String keyId) {
+        Map<String, Jwk> jwks = jwksByKeyId;
+        if (keyId == null) {
+            return jwks.size() == 1 ? jwks.values().iterator().next() : null;
+        }
+
+        return jwks.get(keyId);
+    }
+
+    private synchronized void refetchRateLimited() throws JwkException {
+        if (wasFetchAttemptedRecently()) {
+            logger.warn("refetchRateLimited(): JWKS was fetched less than {} ago; not fetching again.", minRefetchInterval);
+            return;
+        }
+
+        fetch();
+    }
+
+    private void refreshInBackground() {
+        if (wasFetchAttemptedRecently() || !isRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        refreshExecutor.execute(() -> {
+            try {
+                synchronized (this) {
+                    // Fetched (or attempted) by a refetch while this refresh was waiting.
+                    if (!wasFetchAttemptedRecently()) {
+                        fetch();
+                    }
+                }
+            } catch (JwkException e) {
+                logger.warn("refreshInBackground(): Failed to refresh JWKS; keeping the current keys.", e);
+            } finally {
+                isRefreshing.set(false);
+            }
+        });
+    }
+
+    private boolean wasFetchAttemptedRecently() {
+        return lastFetchAttemptAt.plus(minRefetchInterval).isAfter(Instant.now());
+    }
+
+    private void fetch() throws JwkException {
+        lastFetchAttemptAt = Instant.now();
+
+        List<Jwk> jwks = urlJwkProvider.getAll();
+        Map<String, Jwk> fetchedJwksByKeyId = new HashMap<>();
+        jwks.forEach(j -> fetchedJwksByKeyId.put(j.getId(), j));
+
+        jwksByKeyId = fetchedJwksByKeyId;
+        fetchedAt = Instant.now();
+
+        logger.info("fetch(): fetched {} JWK(s)", jwks.size());
+    }
+}
@@ -4,7 +4,6 @@ import crypto.EncryptedVoting;
 import crypto.RsaKeyUtils;
 import data.entities.JpaVoting;
 import data.operations.CommissionDbOperations;
-import data.operations.VoterDbOperations;
 import data.operations.VotingDbOperations;
 import devote.blockchain.operations.CommissionBlockchainOperations;
 import exceptions.BusinessLogicViolationException;
@@ -25,6 +24,8 @@ import services.commissionsubs.CommissionCreateAccountSubService;
 import services.commissionsubs.CommissionInitSubService;
 import services.commissionsubs.CommissionSignEnvelopeSubService;
 import services.commissionsubs.CommissionStoredDataSubService;
+import services.signatures.EnvelopeSigner;
+import services.signatures.SignatureVerifier;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -49,11 +50,12 @@ public class CommissionService {
             CommissionDbOperations commissionDbOperations,
             VotingDbOperations votingDbOperations,
             CommissionBlockchainOperations commissionBlockchainOperations,
-            VoterDbOperations voterDbOperations
+            EnvelopeSigner envelopeSigner,
+            SignatureVerifier signatureVerifier
     ) {
-        initSubService = new CommissionInitSubService(publicKeyToPemString(envelopeKeyPair), commissionDbOperations, voterDbOperations);
-        signEnvelopeSubService = new CommissionSignEnvelopeSubService(envelopeKeyPair, commissionDbOperations);
-        createAccountSubService = new CommissionCreateAccountSubService(commissionDbOperations, votingDbOperations, commissionBlockchainOperations, envelopeKeyPair);
+        initSubService = new CommissionInitSubService(publicKeyToPemString(envelopeKeyPair), commissionDbOperations);
+        signEnvelopeSubService = new CommissionSignEnvelopeSubService(envelopeSigner, commissionDbOperations);
+        createAccountSubService = new CommissionCreateAccountSubService(commissionDbOperations, commissionBlockchainOperations, signatureVerifier);
         storedDataSubService = new CommissionStoredDataSubService(commissionDbOperations);
         this.votingDbOperations = votingDbOperations;
     }
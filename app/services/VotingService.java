@@ -1,22 +1,34 @@
 package services;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.typesafe.config.Config;
+import data.entities.Authorization;
 import data.entities.JpaVoting;
 import data.entities.Visibility;
 import data.operations.VoterDbOperations;
 import data.operations.VotingDbOperations;
+import data.repositories.VotersImportResult;
+import data.repositories.VotingFetchProfile;
 import devote.blockchain.api.ChannelGenerator;
 import devote.blockchain.operations.VotingBlockchainOperations;
 import exceptions.ForbiddenException;
 import play.Logger;
 import requests.CreateVotingRequest;
-import responses.VotingResponse;
+import responses.VotersImportResponse;
+import responses.SingleVotingResponse;
 import responses.VotingResponseFromJpaVoting;
+import responses.VotingResponseSnapshot;
 import security.VerifiedJwt;
+import tasks.TasksOrganizer;
 
 import javax.inject.Inject;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
@@ -26,6 +38,10 @@ public class VotingService {
     private final VoterDbOperations voterDbOperations;
     private final VotingBlockchainOperations votingBlockchainOperations;
     private final VotingResponseFromJpaVoting votingResponseFromJpaVoting;
+    private final TasksOrganizer tasksOrganizer;
+
+    // Initialized votings never change, so their responses can be reused; keyed by voting id.
+    private final Cache<Long, VotingResponseSnapshot> initializedVotings;
 
     private static final Logger.ALogger logger = Logger.of(VotingService.class);
 
@@ -33,12 +49,19 @@ public class VotingService {
     public VotingService(
             VotingDbOperations votingDbOperations,
             VotingBlockchainOperations votingBlockchainOperations,
-            VoterDbOperations voterDbOperations
+            VoterDbOperations voterDbOperations,
+            TasksOrganizer tasksOrganizer,
+            Config config
     ) {
         this.votingDbOperations = votingDbOperations;
         this.votingBlockchainOperations = votingBlockchainOperations;
         this.voterDbOperations = voterDbOperations;
+        this.tasksOrganizer = tasksOrganizer;
         votingResponseFromJpaVoting = new VotingResponseFromJpaVoting();
+
+        initializedVotings = CacheBuilder.newBuilder()
+                .maximumSize(config.getLong("devote.voting.response.cache.max.size"))
+                .build();
     }
 
     public CompletionStage<String> create(CreateVotingRequest request, VerifiedJwt jwt) {
@@ -49,29 +72,58 @@ public class VotingService {
                 .thenCompose(v -> votingBlockchainOperations.checkFundingAccountOf(request))
                 .thenCompose(v -> votingDbOperations.initialize(request, jwt.getUserId()))
                 .thenAccept(createdVotingData::setId)
+                .thenRun(tasksOrganizer::workAvailable)
                 .thenApply(v -> createdVotingData.encodedId);
     }
 
-    public CompletionStage<VotingResponse> single(String id) {
-        logger.info("single(): id = {}", id);
+    public CompletionStage<VotersImportResponse> importVoters(String id, Path emailsFile, VerifiedJwt jwt) {
+        logger.info("importVoters(): id = {}, userId = {}", id, jwt.getUserId());
 
         return Base62Conversions.decodeAsStage(id)
                 .thenCompose(votingDbOperations::single)
+                .thenApply(voting -> checkIfUserIsAllowedToImportVoters(voting, jwt))
+                .thenCompose(votingId -> voterDbOperations.importVoters(votingId, emailsFile))
+                .thenApply(VotingService::toVotersImportResponse);
+    }
+
+    public CompletionStage<SingleVotingResponse> single(String id) {
+        logger.info("single(): id = {}", id);
+
+        return Base62Conversions.decodeAsStage(id)
+                .thenCompose(this::snapshotOf)
                 .thenCompose(this::checkIfUnauthenticatedUserAllowedToViewSingleVote)
-                .thenApply(votingResponseFromJpaVoting::convert);
+                .thenApply(VotingResponseSnapshot::toResponse);
     }
 
-    public CompletionStage<VotingResponse> single(String id, VerifiedJwt jwt) {
+    public CompletionStage<SingleVotingResponse> single(String id, VerifiedJwt jwt) {
         return Base62Conversions.decodeAsStage(id)
-                .thenCompose(votingDbOperations::single)
+                .thenCompose(this::snapshotOf)
                 .thenCompose(voting -> checkIfUserIsAllowedToViewSingleVote(voting, jwt))
-                .thenApply(votingResponseFromJpaVoting::convert);
+                .thenApply(VotingResponseSnapshot::toResponse);
+    }
+
+    private CompletionStage<VotingResponseSnapshot> snapshotOf(Long id) {
+        VotingResponseSnapshot cachedSnapshot = initializedVotings.getIfPresent(id);
+        if (cachedSnapshot != null) {
+            return completedFuture(cachedSnapshot);
+        }
+
+        return votingDbOperations.single(id, VotingFetchProfile.FOR_RESPONSE)
+                .thenApply(voting -> {
+                    VotingResponseSnapshot snapshot = votingResponseFromJpaVoting.snapshotOf(voting);
+
+                    if (voting.getIpfsCid() != null) {
+                        initializedVotings.put(id, snapshot);
+                    }
+
+                    return snapshot;
+                });
     }
 
-    private CompletionStage<JpaVoting> checkIfUnauthenticatedUserAllowedToViewSingleVote(JpaVoting voting) {
+    private CompletionStage<VotingResponseSnapshot> checkIfUnauthenticatedUserAllowedToViewSingleVote(VotingResponseSnapshot voting) {
         return supplyAsync(() -> {
-            if(voting.getVisibility() == Visibility.PRIVATE) {
-                String message = String.format("Voting %s is private, unauthenticated user is not allowed to view it!", voting.getId());
+            if(voting.visibility == Visibility.PRIVATE) {
+                String message = String.format("Voting %s is private, unauthenticated user is not allowed to view it!", voting.votingId);
                 logger.warn("checkIfUnauthenticatedUserAllowedToViewSingleVote(): {}", message);
                 throw new ForbiddenException(message);
             }
@@ -90,25 +142,57 @@ public class VotingService {
         });
     }
 
-    private CompletionStage<JpaVoting> checkIfUserIsAllowedToViewSingleVote(JpaVoting voting, VerifiedJwt jwt) {
-        CompletionStage<Boolean> participationCheckStage = voterDbOperations.doesParticipateInVoting(jwt.getUserId(), voting.getId());
-        CompletionStage<JpaVoting> justTheVoteStage = supplyAsync(() -> voting);
+    private Long checkIfUserIsAllowedToImportVoters(JpaVoting voting, VerifiedJwt jwt) {
+        if (!jwt.getUserId().equals(voting.getCreatedBy())) {
+            String message = String.format("User %s is not the creator of voting %d; not allowed to import voters.",
+                    jwt.getUserId(), voting.getId());
+            logger.warn("checkIfUserIsAllowedToImportVoters(): {}", message);
+            throw new ForbiddenException(message);
+        }
+
+        if (voting.getAuthorization() != Authorization.EMAILS) {
+            String message = String.format("Voting %d is not authorized by emails; voters can't be imported.", voting.getId());
+            logger.warn("checkIfUserIsAllowedToImportVoters(): {}", message);
+            throw new ForbiddenException(message);
+        }
+
+        if (!voting.getStartDate().isAfter(Instant.now())) {
+            String message = String.format("Voting %d has already started; voters can't be imported.", voting.getId());
+            logger.warn("checkIfUserIsAllowedToImportVoters(): {}", message);
+            throw new ForbiddenException(message);
+        }
+
+        return voting.getId();
+    }
+
+    private static VotersImportResponse toVotersImportResponse(VotersImportResult result) {
+        VotersImportResponse response = new VotersImportResponse();
+        response.setNumOfEmails(result.getNumOfEmails());
+        response.setNumOfInvalidEmails(result.getNumOfInvalidEmails());
+        response.setNumOfNewVoters(result.getNumOfNewVoters());
+        response.setNumOfNewParticipants(result.getNumOfNewParticipants());
+
+        return response;
+    }
+
+    private CompletionStage<VotingResponseSnapshot> checkIfUserIsAllowedToViewSingleVote(VotingResponseSnapshot voting, VerifiedJwt jwt) {
+        CompletionStage<VotingResponseSnapshot> justTheVoteStage = completedFuture(voting);
 
-        if (voting.getVisibility() != Visibility.PRIVATE) {
+        if (voting.visibility != Visibility.PRIVATE) {
             logger.info("checkIfUserIsAllowedToViewSingleVote(): Voting {} is not private, user {} is allowed to view",
-                    voting.getId(), jwt.getUserId());
+                    voting.votingId, jwt.getUserId());
             return justTheVoteStage;
         } else if(!jwt.hasVoterRole() && !jwt.hasVoteCallerRole()) {
-            String message = String.format("User %s has no proper role; not allowed to view voting %s", jwt.getUserId(), voting.getId());
+            String message = String.format("User %s has no proper role; not allowed to view voting %s", jwt.getUserId(), voting.votingId);
             logger.warn("checkIfUserIsAllowedToViewSingleVote(): {}", message);
             return supplyAsync(() -> {
                 throw new ForbiddenException(message);
             });
-        } else if (voting.getCreatedBy().equals(jwt.getUserId())) {
+        } else if (voting.createdBy.equals(jwt.getUserId())) {
             return justTheVoteStage;
         } else {
-            return participationCheckStage
-                    .thenAccept(doesParticipate -> evaluateParticipation(doesParticipate, jwt.getUserId(), voting.getId()))
+            return voterDbOperations.doesParticipateInVoting(jwt.getUserId(), voting.votingId)
+                    .thenAccept(doesParticipate -> evaluateParticipation(doesParticipate, jwt.getUserId(), voting.votingId))
                     .thenCompose(v -> justTheVoteStage);
         }
     }
@@ -0,0 +1,62 @@
+package services;
+
+import data.repositories.VotingsPageCursor;
+import io.seruco.encoding.base62.Base62;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+/**
+ * Converts cursors of voting pages to and from opaque Base62 strings.
+ */
+public class VotingsPageCursorConversions {
+    // Epoch seconds, nanos, id
+    private static final int CURSOR_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static Base62 base62 = Base62.createInstance();
+
+    public static String encode(VotingsPageCursor cursor) {
+        ByteBuffer cursorBytes = ByteBuffer.allocate(CURSOR_BYTES);
+        cursorBytes.putLong(cursor.createdAt.getEpochSecond());
+        cursorBytes.putInt(cursor.createdAt.getNano());
+        cursorBytes.putLong(cursor.id);
+
+        return new String(base62.encode(cursorBytes.array()));
+    }
+
+    public static VotingsPageCursor decode(String value) {
+        if (!value.matches("[0-9A-Za-z]+")) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+
+        byte[] decodedBytes;
+        try {
+            decodedBytes = base62.decode(value.getBytes());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+
+        if (decodedBytes.length > CURSOR_BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+
+        ByteBuffer cursorBytes = ByteBuffer.allocate(CURSOR_BYTES);
+        cursorBytes.put(new byte[CURSOR_BYTES - decodedBytes.length]);
+        cursorBytes.put(decodedBytes);
+        cursorBytes.flip();
+
+        long epochSecond = cursorBytes.getLong();
+        int nanos = cursorBytes.getInt();
+        long id = cursorBytes.getLong();
+
+        try {
+            return new VotingsPageCursor(Instant.ofEpochSecond(epochSecond, nanos), id);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    private VotingsPageCursorConversions() {
+    }
+}
@@ -2,6 +2,7 @@ package services;
 
 import data.entities.JpaVoting;
 import data.operations.PageOfVotingsDbOperations;
+import data.repositories.VotingsPageCursor;
 import exceptions.ForbiddenException;
 import play.Logger;
 import requests.PageVotingsRequest;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
 
 public class VotingsPagingService {
@@ -29,38 +31,64 @@ public class VotingsPagingService {
     public CompletionStage<Page<PageVotingResponse>> publicVotings(PageVotingsRequest request) {
         logger.info("publicVotings(): request = {}", request);
 
-        return pageOfVotingsDbOperations.pageOfPublic(getOffsetOrDefault(request), getLimitOrDefault(request))
-                .thenApply(this::toPageOfPageVotingResponse);
+        int limit = getLimitOrDefault(request);
+
+        return completedFuture(request)
+                .thenCompose(r -> {
+                    if (isOffsetBased(r)) {
+                        return pageOfVotingsDbOperations.pageOfPublic(r.getOffset(), limit);
+                    } else {
+                        return pageOfVotingsDbOperations.pageOfPublic(decodeCursorOrNull(r), limit);
+                    }
+                })
+                .thenApply(p -> toPageOfPageVotingResponse(p, limit));
     }
 
     public CompletionStage<Page<PageVotingResponse>> votingsOfVoteCaller(PageVotingsRequest request, VerifiedJwt jwt) {
         logger.info("votingsOfVoteCaller(): userId = {}, request = {}", jwt.getUserId(), request);
 
-        int offset = getOffsetOrDefault(request);
         int limit = getLimitOrDefault(request);
+        String userId = jwt.getUserId();
 
         return checkIfUserIsAllowedToPageVotingsOfVoteCallers(jwt)
-                .thenCompose(v -> pageOfVotingsDbOperations.votingsOfVoteCaller(offset, limit, jwt.getUserId()))
-                .thenApply(this::toPageOfPageVotingResponse);
+                .thenCompose(v -> {
+                    if (isOffsetBased(request)) {
+                        return pageOfVotingsDbOperations.votingsOfVoteCaller(request.getOffset(), limit, userId);
+                    } else {
+                        return pageOfVotingsDbOperations.votingsOfVoteCaller(decodeCursorOrNull(request), limit, userId);
+                    }
+                })
+                .thenApply(p -> toPageOfPageVotingResponse(p, limit));
     }
 
     public CompletionStage<Page<PageVotingResponse>> votingsOfVoter(PageVotingsRequest request, VerifiedJwt jwt) {
         logger.info("votingsOfVoter(): userId = {}, request = {}", jwt.getUserId(), request);
 
-        int offset = getOffsetOrDefault(request);
         int limit = getLimitOrDefault(request);
+        String userId = jwt.getUserId();
 
         return checkIfUserIsAllowedToPageVotingsOfVoters(jwt)
-                .thenCompose(v -> pageOfVotingsDbOperations.votingsOfVoter(offset, limit, jwt.getUserId()))
-                .thenApply(this::toPageOfPageVotingResponse);
+                .thenCompose(v -> {
+                    if (isOffsetBased(request)) {
+                        return pageOfVotingsDbOperations.votingsOfVoter(request.getOffset(), limit, userId);
+                    } else {
+                        return pageOfVotingsDbOperations.votingsOfVoter(decodeCursorOrNull(request), limit, userId);
+                    }
+                })
+                .thenApply(p -> toPageOfPageVotingResponse(p, limit));
+    }
+
+    // A cursor takes precedence over an offset; without both the first page is returned.
+    private boolean isOffsetBased(PageVotingsRequest request) {
+        return request.getCursor() == null && request.getOffset() != null;
     }
 
-    private int getOffsetOrDefault(PageVotingsRequest request) {
-        if (request.getOffset() == null) {
-            return 0;
+    private VotingsPageCursor decodeCursorOrNull(PageVotingsRequest request) {
+        if (request.getCursor() == null) {
+            return null;
         }
 
-        return request.getOffset();
+        return VotingsPageCursorConversions.decode(request.getCursor());
     }
 
     private int getLimitOrDefault(PageVotingsRequest request) {
@@ -71,8 +99,9 @@ public class VotingsPagingService {
         return request.getLimit();
     }
 
-    private Page<PageVotingResponse> toPageOfPageVotingResponse(Page<JpaVoting> jpaVotingPage) {
-        List<PageVotingResponse> pageVotingResponses = jpaVotingPage.getItems().stream()
+    private Page<PageVotingResponse> toPageOfPageVotingResponse(Page<JpaVoting> jpaVotingPage, int limit) {
+        List<JpaVoting> jpaVotings = jpaVotingPage.getItems();
+        List<PageVotingResponse> pageVotingResponses = jpaVotings.stream()
                 .map(this::toPageVotingResponse)
                 .collect(Collectors.toList());
 
@@ -80,6 +109,12 @@ public class VotingsPagingService {
         result.setItems(pageVotingResponses);
         result.setTotalCount(jpaVotingPage.getTotalCount());
 
+        // A full page might be followed by more votings.
+        if (jpaVotings.size() == limit) {
+            JpaVoting last = jpaVotings.get(jpaVotings.size() - 1);
+            result.setNextCursor(VotingsPageCursorConversions.encode(new VotingsPageCursor(last.getCreatedAt(), last.getId())));
+        }
+
         return result;
     }
 
@@ -3,42 +3,35 @@ package services.commissionsubs;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingChannelAccount;
 import data.operations.CommissionDbOperations;
-import data.operations.VotingDbOperations;
+import data.repositories.AccountCreationReservation;
 import devote.blockchain.api.Account;
 import devote.blockchain.api.VoterAccountOperation;
 import devote.blockchain.operations.CommissionBlockchainOperations;
 import exceptions.ForbiddenException;
-import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
-import org.bouncycastle.crypto.engines.RSAEngine;
 import play.Logger;
 import requests.CommissionAccountCreationRequest;
 import responses.CommissionAccountCreationResponse;
 import services.Base62Conversions;
+import services.signatures.SignatureVerifier;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.Base64;
 import java.util.concurrent.CompletionStage;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class CommissionCreateAccountSubService {
     private final CommissionDbOperations commissionDbOperations;
-    private final VotingDbOperations votingDbOperations;
     private final CommissionBlockchainOperations commissionBlockchainOperations;
-    private final AsymmetricCipherKeyPair envelopeKeyPair;
+    private final SignatureVerifier signatureVerifier;
 
     public CommissionCreateAccountSubService(
             CommissionDbOperations commissionDbOperations,
-            VotingDbOperations votingDbOperations,
             CommissionBlockchainOperations commissionBlockchainOperations,
-            AsymmetricCipherKeyPair envelopeKeyPair
+            SignatureVerifier signatureVerifier
     ) {
         this.commissionDbOperations = commissionDbOperations;
-        this.votingDbOperations = votingDbOperations;
         this.commissionBlockchainOperations = commissionBlockchainOperations;
-        this.envelopeKeyPair = envelopeKeyPair;
+        this.signatureVerifier = signatureVerifier;
     }
 
     private static final Logger.ALogger logger = Logger.of(CommissionCreateAccountSubService.class);
@@ -46,85 +39,60 @@ public class CommissionCreateAccountSubService {
     public CompletionStage<CommissionAccountCreationResponse> createAccount(CommissionAccountCreationRequest request) {
         logger.info("createAccount(): request = {}", request);
         ParsedMessage parsedMessage = new ParsedMessage(request.getMessage());
-
         Long votingId = Base62Conversions.decode(parsedMessage.votingId);
-        AccountCreationCollectedData accountCreationData = new AccountCreationCollectedData();
-        accountCreationData.voterPublic = parsedMessage.voterPublic;
 
         return verifySignatureOfRequest(request)
-                .thenCompose(v -> checkIfAlreadyRequestedAccount(request))
-                .thenCompose(v -> consumeChannel(votingId, accountCreationData))
-                .thenCompose(v -> retrieveVoting(votingId, accountCreationData))
-                .thenApply(v -> prepareForBlockchainOperation(accountCreationData))
-                .thenCompose(c -> commissionBlockchainOperations.createTransaction(accountCreationData.voting.getNetwork(), c))
-                .thenCompose(tx -> storeTransaction(accountCreationData.voting.getId(), request.getRevealedSignatureBase64(), tx))
+                .thenCompose(v -> commissionDbOperations.reserveAccountCreation(votingId, request.getRevealedSignatureBase64()))
+                .thenCompose(reservation -> createTransactionIfNeeded(reservation, parsedMessage.voterPublic))
                 .thenApply(CommissionCreateAccountSubService::toResponse);
     }
 
     private CompletionStage<Void> verifySignatureOfRequest(CommissionAccountCreationRequest request) {
-        return runAsync(() -> {
-            RSAEngine rsaEngine = new RSAEngine();
-            rsaEngine.init(false, envelopeKeyPair.getPublic());
-
-            byte[] revealedSignatureBytes = Base64.getDecoder().decode(request.getRevealedSignatureBase64());
-            byte[] revealedMessageBytes = request.getMessage().getBytes();
-
-            byte[] signatureDecrypted = rsaEngine.processBlock(revealedSignatureBytes, 0, revealedSignatureBytes.length);
-            try {
-                byte[] messageHashed = MessageDigest.getInstance("SHA-256").digest(revealedMessageBytes);
-                if(Arrays.equals(messageHashed, signatureDecrypted)) {
-                    logger.info("verifySignatureOfRequest(): signature is valid for request: {}.", request.toString());
-                } else {
-                    logger.warn("verifySignatureOfRequest(): Signature for message is not valid!");
-                    throw new ForbiddenException("Signature for message is not valid!");
-                }
-            } catch (NoSuchAlgorithmException e) {
-                throw new RuntimeException(e);
-            }
-        });
-    }
-
-    private CompletionStage<Void> checkIfAlreadyRequestedAccount(CommissionAccountCreationRequest request) {
-        return commissionDbOperations.doesTransactionExistForSignature(request.getRevealedSignatureBase64())
-                .thenAccept(doesExist -> {
-                    if(doesExist) {
-                        throw new ForbiddenException("Account was requested before!");
+        return completedFuture(request)
+                .thenCompose(r -> {
+                    byte[] revealedSignatureBytes = Base64.getDecoder().decode(r.getRevealedSignatureBase64());
+                    byte[] revealedMessageBytes = r.getMessage().getBytes();
+                    return signatureVerifier.isValid(revealedMessageBytes, revealedSignatureBytes);
+                })
+                .thenAccept(isValid -> {
+                    if (isValid) {
+                        logger.info("verifySignatureOfRequest(): signature is valid for request: {}.", request.toString());
+                    } else {
+                        logger.warn("verifySignatureOfRequest(): Signature for message is not valid!");
+                        throw new ForbiddenException("Signature for message is not valid!");
                     }
                 });
     }
 
-    private CompletionStage<Void> consumeChannel(Long votingId, AccountCreationCollectedData collectedData) {
-        return commissionDbOperations.consumeOneChannel(votingId)
-                .thenAccept(c -> collectedData.channelAccount = c);
-    }
+    // A replayed request gets the transaction built for the first one.
+    private CompletionStage<String> createTransactionIfNeeded(AccountCreationReservation reservation, String voterPublic) {
+        if (reservation.isTransactionBuilt()) {
+            logger.info("createTransactionIfNeeded(): Account was requested before; returning its transaction.");
+            return completedFuture(reservation.transaction);
+        }
 
-    private CompletionStage<Void> retrieveVoting(Long votingId, AccountCreationCollectedData collectedData) {
-        return votingDbOperations.single(votingId)
-                .thenAccept(v -> collectedData.voting = v);
+        VoterAccountOperation.CreateTransactionParams params = prepareForBlockchainOperation(reservation, voterPublic);
+        return commissionBlockchainOperations.createTransaction(reservation.voting.getNetwork(), params)
+                .thenCompose(tx -> commissionDbOperations.completeAccountCreation(reservation.storedTransactionId, tx));
     }
 
-    private VoterAccountOperation.CreateTransactionParams prepareForBlockchainOperation(AccountCreationCollectedData accountCreationData) {
+    private VoterAccountOperation.CreateTransactionParams prepareForBlockchainOperation(AccountCreationReservation reservation, String voterPublic) {
+        JpaVoting voting = reservation.voting;
+        JpaVotingChannelAccount channelAccount = reservation.channelAccount;
+
         VoterAccountOperation.CreateTransactionParams params = new VoterAccountOperation.CreateTransactionParams();
-        params.issuerAccountPublic = accountCreationData.voting.getIssuerAccountPublic();
-        params.assetCode = accountCreationData.voting.getAssetCode();
-        params.votesCap = accountCreationData.voting.getVotesCap();
-        params.channel = new Account(
-                accountCreationData.channelAccount.getAccountSecret(), accountCreationData.channelAccount.getAccountPublic()
-        );
-        params.voterAccountPublic = accountCreationData.voterPublic;
-        params.distribution = new Account(
-                accountCreationData.voting.getDistributionAccountSecret(), accountCreationData.voting.getDistributionAccountPublic()
-        );
-        params.isOnTestNetwork = accountCreationData.voting.getOnTestNetwork() != null && accountCreationData.voting.getOnTestNetwork();
+        params.issuerAccountPublic = voting.getIssuerAccountPublic();
+        params.assetCode = voting.getAssetCode();
+        params.votesCap = voting.getVotesCap();
+        params.channel = new Account(channelAccount.getAccountSecret(), channelAccount.getAccountPublic());
+        params.voterAccountPublic = voterPublic;
+        params.distribution = new Account(voting.getDistributionAccountSecret(), voting.getDistributionAccountPublic());
+        params.isOnTestNetwork = voting.getOnTestNetwork() != null && voting.getOnTestNetwork();
+        params.isChannelReused = reservation.isChannelReused;
 
         return params;
     }
 
-    private CompletionStage<String> storeTransaction(Long votingId, String signature, String transaction) {
-        return commissionDbOperations.storeTransaction(votingId, signature, transaction)
-                .thenApply(v -> transaction);
-    }
-
     private static CommissionAccountCreationResponse toResponse(String transaction) {
         CommissionAccountCreationResponse response = new CommissionAccountCreationResponse();
         response.setTransaction(transaction);
@@ -142,10 +110,4 @@ public class CommissionCreateAccountSubService {
             voterPublic = parts[1];
         }
     }
-
-    private static class AccountCreationCollectedData {
-        public JpaVotingChannelAccount channelAccount;
-        public JpaVoting voting;
-        public String voterPublic;
-    }
 }
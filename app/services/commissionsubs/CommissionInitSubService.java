@@ -2,7 +2,6 @@ package services.commissionsubs;
 
 import data.entities.JpaCommissionSession;
 import data.operations.CommissionDbOperations;
-import data.operations.VoterDbOperations;
 import exceptions.ForbiddenException;
 import play.Logger;
 import requests.CommissionInitRequest;
@@ -17,33 +16,34 @@ import static java.util.concurrent.CompletableFuture.runAsync;
 public class CommissionInitSubService {
     private final String envelopePublicKeyPem;
     private final CommissionDbOperations commissionDbOperations;
-    private final VoterDbOperations voterDbOperations;
 
     private static final Logger.ALogger logger = Logger.of(CommissionInitSubService.class);
 
-    public CommissionInitSubService(String envelopePublicKeyPem, CommissionDbOperations commissionDbOperations, VoterDbOperations voterDbOperations) {
+    public CommissionInitSubService(String envelopePublicKeyPem, CommissionDbOperations commissionDbOperations) {
         this.envelopePublicKeyPem = envelopePublicKeyPem;
         this.commissionDbOperations = commissionDbOperations;
-        this.voterDbOperations = voterDbOperations;
     }
 
     public CompletionStage<CommissionInitResponse> init(CommissionInitRequest request, VerifiedJwt jwt) {
         logger.info("init(): request = {}, userId = {}", request.toString(), jwt.getUserId());
         return Base62Conversions.decodeAsStage(request.getVotingId())
-                .thenCompose(decodedVotingId -> checkIfUserIsAllowedToParticipateInVoting(decodedVotingId, jwt))
-                .thenCompose(this::checkIfVotingIsInitializedProperly)
-                .thenCompose(decodedVotingId -> checkIfUserIsAuthorizedToInitSession(decodedVotingId, jwt.getUserId()))
+                .thenCompose(decodedVotingId -> checkIfUserIsAllowedToInitSession(decodedVotingId, jwt))
                 .thenCompose(votingId -> commissionDbOperations.createSession(votingId, jwt.getUserId()))
                 .thenApply(this::toInitResponse);
     }
 
-    private CompletionStage<Long> checkIfUserIsAllowedToParticipateInVoting(Long votingId, VerifiedJwt jwt) {
-        logger.info("checkIfUserIsAllowedToParticipateInVoting(): votingId = {}, userId = {}", votingId, jwt.getUserId());
+    // Participation, initialization of the voting and an existing session are all checked in one round trip.
+    private CompletionStage<Long> checkIfUserIsAllowedToInitSession(Long votingId, VerifiedJwt jwt) {
+        logger.info("checkIfUserIsAllowedToInitSession(): votingId = {}, userId = {}", votingId, jwt.getUserId());
 
         return checkVoterRole(jwt)
-                .thenCompose(v -> voterDbOperations.doesParticipateInVoting(jwt.getUserId(), votingId))
-                .thenCompose(doesParticipate -> checkIfDoesParticipate(doesParticipate, jwt.getUserId(), votingId))
-                .thenApply(v -> votingId);
+                .thenCompose(v -> commissionDbOperations.checkInit(votingId, jwt.getUserId()))
+                .thenApply(checks -> {
+                    checkIfDoesParticipate(checks.doesParticipate, jwt.getUserId(), votingId);
+                    checkIfVotingIsInitializedProperly(checks.isVotingInitializedProperly, votingId);
+                    checkIfUserIsAuthorizedToInitSession(checks.doesSessionExist, votingId, jwt.getUserId());
+                    return votingId;
+                });
     }
 
     private CompletionStage<Void> checkVoterRole(VerifiedJwt jwt) {
@@ -56,29 +56,32 @@ public class CommissionInitSubService {
         });
     }
 
-    private CompletionStage<Void> checkIfDoesParticipate(boolean doesParticipate, String userId, Long votingId) {
-        return runAsync(() -> {
-            if(!doesParticipate) {
-                String message = String.format("User %s does not participate in voting %d!", userId, votingId);
-                logger.warn("checkIfUserIsAllowedToParticipateInVoting(): {}", message);
-                throw new ForbiddenException(message);
-            }
-        });
+    private void checkIfDoesParticipate(boolean doesParticipate, String userId, Long votingId) {
+        if(!doesParticipate) {
+            String message = String.format("User %s does not participate in voting %d!", userId, votingId);
+            logger.warn("checkIfDoesParticipate(): {}", message);
+            throw new ForbiddenException(message);
+        }
     }
 
-    private CompletionStage<Long> checkIfUserIsAuthorizedToInitSession(Long votingId, String userId) {
-        logger.info("checkIfUserIsAuthorizedToInitSession(): votingId = {}, userId = {}", votingId, userId);
-        return commissionDbOperations.doesSessionExistForUserInVoting(votingId, userId)
-                .thenApply(doesExist -> {
-                    if (doesExist) {
-                        String message = "User " + userId + " has already started a session in voting " + votingId;
-                        logger.warn("checkIfUserIsAuthorizedToInitSession(): " + message);
-                        throw new ForbiddenException(message);
-                    } else {
-                        logger.info("checkIfUserIsAuthorizedToInitSession(): User is authorized.");
-                        return votingId;
-                    }
-                });
+    private void checkIfVotingIsInitializedProperly(boolean isProperlyInitialized, Long votingId) {
+        if (isProperlyInitialized) {
+            logger.info("checkIfVotingIsInitializedProperly(): Voting is initialized properly.");
+        } else {
+            String message = String.format("Voting %d is not initialized properly.", votingId);
+            logger.warn("checkIfVotingIsInitializedProperly(): {}", message);
+            throw new ForbiddenException(message);
+        }
+    }
+
+    private void checkIfUserIsAuthorizedToInitSession(boolean doesSessionExist, Long votingId, String userId) {
+        if (doesSessionExist) {
+            String message = "User " + userId + " has already started a session in voting " + votingId;
+            logger.warn("checkIfUserIsAuthorizedToInitSession(): " + message);
+            throw new ForbiddenException(message);
+        } else {
+            logger.info("checkIfUserIsAuthorizedToInitSession(): User is authorized.");
+        }
     }
 
     private CommissionInitResponse toInitResponse(JpaCommissionSession votingSession) {
@@ -87,17 +90,4 @@ public class CommissionInitSubService {
 
         return initResponse;
     }
-
-    private CompletionStage<Long> checkIfVotingIsInitializedProperly(Long votingId) {
-        return commissionDbOperations.isVotingInitializedProperly(votingId).thenApply(isProperlyInitialized -> {
-            if (isProperlyInitialized) {
-                logger.info("checkIfVotingIsInitializedProperly(): Voting is initialized properly.");
-                return votingId;
-            } else {
-                String message = String.format("Voting %d is not initialized properly.", votingId);
-                logger.warn("checkIfVotingIsInitializedProperly(): {}", message);
-                throw new ForbiddenException(message);
-            }
-        });
-    }
 }
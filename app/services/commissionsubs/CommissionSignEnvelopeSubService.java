@@ -3,25 +3,24 @@ package services.commissionsubs;
 import data.operations.CommissionDbOperations;
 import exceptions.BusinessLogicViolationException;
 import exceptions.ForbiddenException;
-import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
-import org.bouncycastle.crypto.engines.RSAEngine;
 import play.Logger;
 import requests.CommissionSignEnvelopeRequest;
 import responses.CommissionSignEnvelopeResponse;
 import security.VerifiedJwt;
 import services.Base62Conversions;
+import services.signatures.EnvelopeSigner;
 
 import java.util.Base64;
 import java.util.concurrent.CompletionStage;
 
 public class CommissionSignEnvelopeSubService {
-    private final AsymmetricCipherKeyPair envelopeKeyPair;
+    private final EnvelopeSigner envelopeSigner;
     private final CommissionDbOperations commissionDbOperations;
 
     private static final Logger.ALogger logger = Logger.of(CommissionSignEnvelopeSubService.class);
 
-    public CommissionSignEnvelopeSubService(AsymmetricCipherKeyPair envelopeKeyPair, CommissionDbOperations commissionDbOperations) {
-        this.envelopeKeyPair = envelopeKeyPair;
+    public CommissionSignEnvelopeSubService(EnvelopeSigner envelopeSigner, CommissionDbOperations commissionDbOperations) {
+        this.envelopeSigner = envelopeSigner;
         this.commissionDbOperations = commissionDbOperations;
     }
 
@@ -37,12 +36,10 @@ public class CommissionSignEnvelopeSubService {
                 .thenApply(this::createResponse);
     }
 
-    private String signEnvelope(CommissionSignEnvelopeRequest request) {
+    private CompletionStage<String> signEnvelope(CommissionSignEnvelopeRequest request) {
         byte[] messageBytes = Base64.getDecoder().decode(request.getEnvelopeBase64());
-        RSAEngine engine = new RSAEngine();
-        engine.init(true, envelopeKeyPair.getPrivate());
-        byte[] signatureBytes = engine.processBlock(messageBytes, 0, messageBytes.length);
-        return Base64.getEncoder().encodeToString(signatureBytes);
+        return envelopeSigner.sign(messageBytes)
+                .thenApply(signatureBytes -> Base64.getEncoder().encodeToString(signatureBytes));
     }
 
     private void forbidIfUserAlreadySignedAnEnvelope(String userId, Long votingId, Boolean hasAlreadySigned) {
@@ -59,8 +56,8 @@ public class CommissionSignEnvelopeSubService {
             CommissionSignEnvelopeRequest request,
             String userId,
             Long votingId) {
-        String envelopeSignatureBase64 = signEnvelope(request);
-        return commissionDbOperations.storeEnvelopeSignature(userId, votingId, envelopeSignatureBase64);
+        return signEnvelope(request)
+                .thenCompose(envelopeSignatureBase64 -> commissionDbOperations.storeEnvelopeSignature(userId, votingId, envelopeSignatureBase64));
     }
 
     private CommissionSignEnvelopeResponse createResponse(String signature) {
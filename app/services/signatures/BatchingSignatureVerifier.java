@@ -0,0 +1,143 @@
+package services.signatures;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import crypto.RsaBlindSignature;
+import exceptions.ServiceUnavailableException;
+import executioncontexts.CryptoExecutionContext;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.engines.RSAEngine;
+import play.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects verification requests for a short window, then verifies them in batches, the batches running in
+ * parallel on the crypto dispatcher.
+ * <p>
+ * The number of requests queued or being verified is bounded; above that, requests are rejected right away with
+ * {@link ServiceUnavailableException} instead of piling up.
+ */
+@Singleton
+public class BatchingSignatureVerifier implements SignatureVerifier {
+    private final ActorSystem actorSystem;
+    private final CryptoExecutionContext cryptoExecContext;
+    private final Duration batchWindow;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ThreadLocal<RSAEngine> engines;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(RsaBlindSignature::createSha256Digest);
+
+    private final Queue<PendingVerification> pendingVerifications = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numOfPending = new AtomicInteger();
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean();
+
+    private static final Logger.ALogger logger = Logger.of(BatchingSignatureVerifier.class);
+
+    @Inject
+    public BatchingSignatureVerifier(
+            @Named("envelope") AsymmetricCipherKeyPair envelopeKeyPair,
+            ActorSystem actorSystem,
+            CryptoExecutionContext cryptoExecContext,
+            Config config) {
+        this.actorSystem = actorSystem;
+        this.cryptoExecContext = cryptoExecContext;
+        batchWindow = Duration.ofMillis(config.getLong("devote.commission.signature.verification.window.millis"));
+        batchSize = config.getInt("devote.commission.signature.verification.batch.size");
+        maxPending = config.getInt("devote.commission.signature.verification.max.pending");
+
+        CipherParameters publicKey = envelopeKeyPair.getPublic();
+        engines = ThreadLocal.withInitial(() -> {
+            RSAEngine engine = new RSAEngine();
+            engine.init(false, publicKey);
+            return engine;
+        });
+    }
+
+    @Override
+    public CompletionStage<Boolean> isValid(byte[] message, byte[] revealedSignature) {
+        if (numOfPending.incrementAndGet() > maxPending) {
+            numOfPending.decrementAndGet();
+            logger.warn("isValid(): Too many pending signature verifications (max = {}); rejecting request.", maxPending);
+
+            CompletableFuture<Boolean> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new ServiceUnavailableException("Too many requests; try again later!"));
+            return rejected;
+        }
+
+        PendingVerification pendingVerification = new PendingVerification(message, revealedSignature);
+        pendingVerifications.add(pendingVerification);
+
+        if (isFlushScheduled.compareAndSet(false, true)) {
+            actorSystem.scheduler().scheduleOnce(batchWindow, this::flush, cryptoExecContext);
+        }
+
+        return pendingVerification.result;
+    }
+
+    public int getNumOfPending() {
+        return numOfPending.get();
+    }
+
+    private void flush() {
+        // Requests queued from now on schedule the next flush; the ones queued before are drained here.
+        isFlushScheduled.set(false);
+
+        List<PendingVerification> batch = new ArrayList<>(batchSize);
+        PendingVerification pendingVerification;
+        while ((pendingVerification = pendingVerifications.poll()) != null) {
+            batch.add(pendingVerification);
+
+            if (batch.size() == batchSize) {
+                verifyAsync(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            verifyAsync(batch);
+        }
+    }
+
+    private void verifyAsync(List<PendingVerification> batch) {
+        logger.debug("verifyAsync(): verifying {} signature(s); pending = {}", batch.size(), getNumOfPending());
+        cryptoExecContext.execute(() -> batch.forEach(this::verify));
+    }
+
+    private void verify(PendingVerification pendingVerification) {
+        try {
+            boolean isValid = RsaBlindSignature.isValid(engines.get(), digests.get(),
+                    pendingVerification.message, pendingVerification.revealedSignature);
+            pendingVerification.result.complete(isValid);
+        } catch (Exception e) {
+            pendingVerification.result.completeExceptionally(e);
+        } finally {
+            numOfPending.decrementAndGet();
+        }
+    }
+
+    private static class PendingVerification {
+        public final byte[] message;
+        public final byte[] revealedSignature;
+        public final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        public PendingVerification(byte[] message, byte[] revealedSignature) {
+            this.message = message;
+            this.revealedSignature = revealedSignature;
+        }
+    }
+}
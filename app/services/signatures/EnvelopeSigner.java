@@ -0,0 +1,120 @@
+package services.signatures;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+import executioncontexts.CryptoExecutionContext;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.engines.RSAEngine;
+import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
+import play.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Blind signs envelopes with the commission's envelope key on the crypto dispatcher.
+ * <p>
+ * Every crypto thread keeps its own RSA engine, initialized once with the private key, so a signature costs only the
+ * private key operation itself. With CRT parameters (p, q, dP, dQ, qInv) that operation is done on half sized
+ * numbers, which is several times faster than a plain modular exponentiation with d.
+ * <p>
+ * Queue depth and latency are kept in {@link EnvelopeSignerMetrics}, and logged periodically.
+ */
+@Singleton
+public class EnvelopeSigner {
+    private final CryptoExecutionContext cryptoExecContext;
+    private final ThreadLocal<RSAEngine> engines;
+
+    private final EnvelopeSignerMetrics metrics = new EnvelopeSignerMetrics();
+
+    private static final Logger.ALogger logger = Logger.of(EnvelopeSigner.class);
+
+    @Inject
+    public EnvelopeSigner(@Named("envelope") AsymmetricCipherKeyPair envelopeKeyPair, CryptoExecutionContext cryptoExecContext,
+                          Config config) {
+        this.cryptoExecContext = cryptoExecContext;
+
+        CipherParameters privateKey = envelopeKeyPair.getPrivate();
+        if (!(privateKey instanceof RSAPrivateCrtKeyParameters)) {
+            logger.warn("EnvelopeSigner(): envelope private key has no CRT parameters; signing will be slow!");
+        }
+
+        engines = ThreadLocal.withInitial(() -> {
+            RSAEngine engine = new RSAEngine();
+            engine.init(true, privateKey);
+            return engine;
+        });
+
+        long metricsLogIntervalSec = config.getLong("devote.commission.envelope.signer.metrics.log.interval.sec");
+        if (metricsLogIntervalSec > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("envelope-signer-metrics-%d")
+                            .setDaemon(true)
+                            .build());
+            scheduler.scheduleAtFixedRate(this::logMetrics,
+                    metricsLogIntervalSec, metricsLogIntervalSec, TimeUnit.SECONDS);
+        }
+    }
+
+    public CompletionStage<byte[]> sign(byte[] envelope) {
+        long enqueuedAt = System.nanoTime();
+        metrics.taskEnqueued();
+
+        return supplyAsync(() -> {
+            metrics.taskStarted();
+            byte[] signature = signOnCurrentThread(envelope);
+            recordLatency(enqueuedAt, 1);
+
+            return signature;
+        }, cryptoExecContext);
+    }
+
+    /**
+     * Signs the envelopes in one go on a single crypto thread; the signatures are in the order of the envelopes.
+     */
+    public CompletionStage<List<byte[]>> signAll(List<byte[]> envelopes) {
+        long enqueuedAt = System.nanoTime();
+        metrics.taskEnqueued();
+
+        return supplyAsync(() -> {
+            metrics.taskStarted();
+
+            List<byte[]> signatures = new ArrayList<>(envelopes.size());
+            envelopes.forEach(e -> signatures.add(signOnCurrentThread(e)));
+            recordLatency(enqueuedAt, envelopes.size());
+
+            return signatures;
+        }, cryptoExecContext);
+    }
+
+    public EnvelopeSignerMetrics getMetrics() {
+        return metrics;
+    }
+
+    private byte[] signOnCurrentThread(byte[] envelope) {
+        return engines.get().processBlock(envelope, 0, envelope.length);
+    }
+
+    private void logMetrics() {
+        logger.info("logMetrics(): {}", metrics);
+    }
+
+    private void recordLatency(long enqueuedAt, int numOfSigned) {
+        long latencyNanos = System.nanoTime() - enqueuedAt;
+        metrics.signed(numOfSigned, latencyNanos);
+
+        logger.debug("recordLatency(): signed {} envelope(s) in {} ms; queue depth = {}",
+                numOfSigned, TimeUnit.NANOSECONDS.toMillis(latencyNanos), metrics.getQueueDepth());
+    }
+}
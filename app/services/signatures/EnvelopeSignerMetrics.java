@@ -0,0 +1,69 @@
+package services.signatures;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Signing tasks waiting for a crypto thread, and the latency (from being enqueued until signed) of the envelopes
+ * signed by the {@link EnvelopeSigner}. Logged periodically by the signer.
+ */
+public class EnvelopeSignerMetrics {
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder numOfSignatures = new LongAdder();
+    private final LongAdder numOfBatches = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+
+    public void taskEnqueued() {
+        queueDepth.incrementAndGet();
+    }
+
+    public void taskStarted() {
+        queueDepth.decrementAndGet();
+    }
+
+    // Every envelope of a batch is taken as signed with the latency of the whole batch.
+    public void signed(int numOfEnvelopes, long latencyNanos) {
+        numOfSignatures.add(numOfEnvelopes);
+        numOfBatches.increment();
+        totalLatencyNanos.add(latencyNanos * numOfEnvelopes);
+        maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getNumOfSignatures() {
+        return numOfSignatures.sum();
+    }
+
+    public long getNumOfBatches() {
+        return numOfBatches.sum();
+    }
+
+    public double getAverageLatencyMillis() {
+        long numOfSignatures = getNumOfSignatures();
+        if (numOfSignatures == 0) {
+            return 0;
+        }
+
+        return totalLatencyNanos.sum() / (double) numOfSignatures / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "EnvelopeSignerMetrics{" +
+                "queueDepth=" + getQueueDepth() +
+                ", numOfSignatures=" + getNumOfSignatures() +
+                ", numOfBatches=" + getNumOfBatches() +
+                String.format(", avg = %.1f ms max = %.1f ms", getAverageLatencyMillis(), getMaxLatencyMillis()) +
+                '}';
+    }
+}
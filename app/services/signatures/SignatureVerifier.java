@@ -0,0 +1,14 @@
+package services.signatures;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Verifies revealed blind signatures of the commission against the signed messages.
+ */
+public interface SignatureVerifier {
+    /**
+     * @return a stage completing with whether the signature is valid, or failing with
+     * {@link exceptions.ServiceUnavailableException} when the verifier is saturated.
+     */
+    CompletionStage<Boolean> isValid(byte[] message, byte[] revealedSignature);
+}
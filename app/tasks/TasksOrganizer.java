@@ -1,11 +1,9 @@
 package tasks;
 
-import akka.actor.ActorSystem;
 import com.typesafe.config.Config;
+import data.repositories.DbUpgrades;
 import play.Logger;
-import scala.concurrent.ExecutionContext;
-import tasks.channelaccounts.ChannelAccountBuilderTask;
-import tasks.channelaccounts.ChannelAccountBuilderTaskContext;
+import tasks.channelaccounts.ChannelAccountBuildingEngine;
 import tasks.votingblockchaininit.VotingBlockchainInitTask;
 import tasks.votingblockchaininit.VotingBlockchainInitTaskContext;
 
@@ -15,64 +13,67 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class TasksOrganizer {
-    private final ActorSystem actorSystem;
-    private final ExecutionContext executionContext;
     private final int numberOfWorkers;
-    private final ChannelAccountBuilderTaskContext channelContext;
+    private final WorkQueueContext workQueueContext;
+    private final ChannelAccountBuildingEngine channelAccountBuildingEngine;
     private final VotingBlockchainInitTaskContext votingInitContext;
+    private final DbUpgrades dbUpgrades;
+    private final List<WorkQueueWorker> workers = new ArrayList<>();
 
     private static final Logger.ALogger logger = Logger.of(TasksOrganizer.class);
 
     private static final int INITIAL_DELAY_SEC = 5;
-    private static final int CHANNEL_TASK_INTERVAL_SEC = 7;
-    private static final int VOTING_INIT_TASK_INTERVAL_SEC = 11;
 
     @Inject
     public TasksOrganizer(
             Config config,
-            ActorSystem actorSystem,
-            ExecutionContext executionContext,
-            ChannelAccountBuilderTaskContext channelContext,
-            VotingBlockchainInitTaskContext votingInitContext) {
-        this.actorSystem = actorSystem;
-        this.executionContext = executionContext;
-        this.channelContext = channelContext;
+            WorkQueueContext workQueueContext,
+            ChannelAccountBuildingEngine channelAccountBuildingEngine,
+            VotingBlockchainInitTaskContext votingInitContext,
+            DbUpgrades dbUpgrades) {
+        this.workQueueContext = workQueueContext;
+        this.channelAccountBuildingEngine = channelAccountBuildingEngine;
         this.votingInitContext = votingInitContext;
+        this.dbUpgrades = dbUpgrades;
         numberOfWorkers = config.getInt("devote.vote.buckets");
 
-        initializeChannelBuilderTasks();
-        initializeVotingInitTasks();
+        scheduleStartupWork();
+        initializeWorkers();
     }
 
-    private void initializeChannelBuilderTasks() {
-        List<Runnable> channelTasks = new ArrayList<>();
-        for (int i = 0; i < numberOfWorkers; i++) {
-            channelTasks.add(new ChannelAccountBuilderTask(i, channelContext));
-        }
-
-        initialize(channelTasks, "channel builder", CHANNEL_TASK_INTERVAL_SEC);
+    public void workAvailable() {
+        workers.forEach(WorkQueueWorker::wakeUp);
     }
 
-    private void initializeVotingInitTasks() {
-        List<Runnable> votingInitTasks = new ArrayList<>();
-        for (int i = 0; i < numberOfWorkers; i++) {
-            votingInitTasks.add(new VotingBlockchainInitTask(i, votingInitContext));
-        }
+    private void scheduleStartupWork() {
+        scheduleOnStartup(dbUpgrades::run);
 
-        initialize(votingInitTasks, "voting init", VOTING_INIT_TASK_INTERVAL_SEC);
+        // Work left behind by a version without the work queue.
+        scheduleOnStartup(workQueueContext.workQueueRepository::enqueueUnfinishedWork);
     }
 
-    private void initialize(List<Runnable> tasks, String name, long intervalSecs) {
-        logger.info("initialize(): creating {} workers for {}", tasks.size(), name);
+    // Not done right away, as the db might not be ready yet.
+    private void scheduleOnStartup(Runnable runnable) {
+        workQueueContext.actorSystem.scheduler().scheduleOnce(
+                Duration.ofSeconds(INITIAL_DELAY_SEC),
+                runnable,
+                workQueueContext.executionContext
+        );
+    }
+
+    private void initializeWorkers() {
+        logger.info("initializeWorkers(): creating {} workers", numberOfWorkers);
+
+        for (int i = 0; i < numberOfWorkers; i++) {
+            WorkQueueWorker worker = new WorkQueueWorker(
+                    i,
+                    workQueueContext,
+                    new VotingBlockchainInitTask(i, votingInitContext),
+                    channelAccountBuildingEngine
+            );
 
-        for (Runnable task : tasks) {
-            this.actorSystem.scheduler()
-                    .scheduleAtFixedRate(
-                            Duration.ofSeconds(INITIAL_DELAY_SEC),
-                            Duration.ofSeconds(intervalSecs),
-                            task,
-                            executionContext
-                    );
+            workers.add(worker);
+            worker.start(Duration.ofSeconds(INITIAL_DELAY_SEC));
         }
     }
 }
@@ -0,0 +1,42 @@
+package tasks;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import data.repositories.WorkQueueRepository;
+import scala.concurrent.ExecutionContext;
+
+import javax.inject.Inject;
+import java.time.Duration;
+
+public class WorkQueueContext {
+    public final ActorSystem actorSystem;
+    public final ExecutionContext executionContext;
+    public final WorkQueueRepository workQueueRepository;
+    public final Duration lease;
+    public final Duration minPollBackoff;
+    public final Duration maxPollBackoff;
+    public final Duration retryBaseDelay;
+    public final Duration retryMaxDelay;
+
+    @Inject
+    public WorkQueueContext(
+            ActorSystem actorSystem,
+            ExecutionContext executionContext,
+            WorkQueueRepository workQueueRepository,
+            Config config) {
+        this.actorSystem = actorSystem;
+        this.executionContext = executionContext;
+        this.workQueueRepository = workQueueRepository;
+        lease = Duration.ofSeconds(config.getLong("devote.tasks.lease.sec"));
+        minPollBackoff = Duration.ofMillis(config.getLong("devote.tasks.poll.min.backoff.millis"));
+        maxPollBackoff = Duration.ofMillis(config.getLong("devote.tasks.poll.max.backoff.millis"));
+        retryBaseDelay = Duration.ofSeconds(config.getLong("devote.tasks.retry.base.delay.sec"));
+        retryMaxDelay = Duration.ofSeconds(config.getLong("devote.tasks.retry.max.delay.sec"));
+    }
+
+    public Duration retryDelayOf(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 16);
+        Duration delay = retryBaseDelay.multipliedBy(1L << exponent);
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+}
@@ -0,0 +1,140 @@
+package tasks;
+
+import akka.actor.Cancellable;
+import data.entities.JpaWorkItem;
+import data.entities.WorkItemType;
+import play.Logger;
+import tasks.channelaccounts.ChannelAccountBuildingEngine;
+import tasks.votingblockchaininit.VotingBlockchainInitTask;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Processes work items of the queue one after another. When the queue is empty, polls with an exponential
+ * backoff, unless woken up because new work has been pushed.
+ */
+public class WorkQueueWorker implements Runnable {
+    private final int workerId;
+    private final WorkQueueContext context;
+    private final VotingBlockchainInitTask votingInitTask;
+    private final ChannelAccountBuildingEngine channelAccountBuildingEngine;
+
+    private Duration pollBackoff;
+    private Cancellable scheduledRun;
+    private boolean isRunning;
+    private boolean isWakeUpRequested;
+
+    private static final Logger.ALogger logger = Logger.of(WorkQueueWorker.class);
+
+    public WorkQueueWorker(
+            int workerId,
+            WorkQueueContext context,
+            VotingBlockchainInitTask votingInitTask,
+            ChannelAccountBuildingEngine channelAccountBuildingEngine) {
+        this.workerId = workerId;
+        this.context = context;
+        this.votingInitTask = votingInitTask;
+        this.channelAccountBuildingEngine = channelAccountBuildingEngine;
+        pollBackoff = context.minPollBackoff;
+    }
+
+    public synchronized void start(Duration initialDelay) {
+        schedule(initialDelay);
+    }
+
+    public synchronized void wakeUp() {
+        if (isRunning) {
+            isWakeUpRequested = true;
+        } else if (scheduledRun != null && scheduledRun.cancel()) {
+            pollBackoff = context.minPollBackoff;
+            schedule(Duration.ZERO);
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            isRunning = true;
+            isWakeUpRequested = false;
+        }
+
+        boolean hasProcessedWork = false;
+        try {
+            hasProcessedWork = processNext();
+        } catch (Exception e) {
+            logger.error("[WORKER-{}]: run(): Failed to process work queue!", workerId, e);
+        } finally {
+            scheduleNext(hasProcessedWork);
+        }
+    }
+
+    private synchronized void scheduleNext(boolean hasProcessedWork) {
+        isRunning = false;
+
+        if (hasProcessedWork || isWakeUpRequested) {
+            pollBackoff = context.minPollBackoff;
+            schedule(Duration.ZERO);
+        } else {
+            schedule(pollBackoff);
+
+            Duration doubledBackoff = pollBackoff.multipliedBy(2);
+            pollBackoff = doubledBackoff.compareTo(context.maxPollBackoff) > 0 ? context.maxPollBackoff : doubledBackoff;
+        }
+    }
+
+    private void schedule(Duration delay) {
+        scheduledRun = context.actorSystem.scheduler().scheduleOnce(delay, this, context.executionContext);
+    }
+
+    private boolean processNext() {
+        Optional<JpaWorkItem> optionalWorkItem = context.workQueueRepository.claim(context.lease);
+        if (!optionalWorkItem.isPresent()) {
+            return false;
+        }
+
+        JpaWorkItem workItem = optionalWorkItem.get();
+        if (workItem.getType() == WorkItemType.CHANNEL_PROGRESS) {
+            startBuildingChannelAccounts(workItem);
+            return true;
+        }
+
+        try {
+            process(workItem);
+            context.workQueueRepository.complete(workItem.getId(), workItem.getClaimedBy());
+        } catch (Exception e) {
+            Duration retryDelay = context.retryDelayOf(workItem.getAttempts());
+            logger.warn("[WORKER-{}]: processNext(): Failed to process work item {}! Retrying in {}.",
+                    workerId, workItem.getId(), retryDelay, e);
+            context.workQueueRepository.retryLater(workItem.getId(), workItem.getClaimedBy(), retryDelay);
+        }
+
+        return true;
+    }
+
+    // The engine builds the channel accounts in the background, and takes care of the work item once started.
+    private void startBuildingChannelAccounts(JpaWorkItem workItem) {
+        ChannelAccountBuildingEngine.StartResult startResult = channelAccountBuildingEngine.tryStart(workItem);
+
+        if (startResult == ChannelAccountBuildingEngine.StartResult.AT_CONCURRENCY_LIMIT) {
+            logger.info("[WORKER-{}]: processNext(): Channel building engine is busy, postponing work item {}.",
+                    workerId, workItem.getId());
+            context.workQueueRepository.postpone(workItem.getId(), workItem.getClaimedBy(), context.maxPollBackoff);
+        } else if (startResult == ChannelAccountBuildingEngine.StartResult.ALREADY_STARTED) {
+            // The run in flight extends the lease (or completes the item) when its current batch is done.
+            logger.info("[WORKER-{}]: processNext(): Channel accounts of work item {} are already being built.",
+                    workerId, workItem.getId());
+            context.workQueueRepository.postpone(workItem.getId(), workItem.getClaimedBy(), context.lease);
+        }
+    }
+
+    private void process(JpaWorkItem workItem) {
+        switch (workItem.getType()) {
+            case VOTING_INIT:
+                votingInitTask.initialize(workItem.getReferenceId());
+                break;
+            default:
+                throw new IllegalStateException("Unknown work item type: " + workItem.getType());
+        }
+    }
+}
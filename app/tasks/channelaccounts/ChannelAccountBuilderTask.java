@@ -2,6 +2,7 @@ package tasks.channelaccounts;
 
 import data.entities.JpaChannelAccountProgress;
 import data.entities.JpaChannelGeneratorAccount;
+import data.entities.JpaVoting;
 import devote.blockchain.BlockchainFactory;
 import devote.blockchain.api.Account;
 import devote.blockchain.api.ChannelAccountOperation;
@@ -9,39 +10,50 @@ import devote.blockchain.api.ChannelGenerator;
 import play.Logger;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
-public class ChannelAccountBuilderTask implements Runnable {
-    private final int taskId;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+public class ChannelAccountBuilderTask {
+    private final Long taskId;
     private final ChannelAccountBuilderTaskContext context;
 
     private static final Logger.ALogger logger = Logger.of(ChannelAccountBuilderTask.class);
 
-    public ChannelAccountBuilderTask(int taskId, ChannelAccountBuilderTaskContext context) {
-        this.taskId = taskId;
+    public ChannelAccountBuilderTask(Long channelProgressId, ChannelAccountBuilderTaskContext context) {
+        this.taskId = channelProgressId;
         this.context = context;
 
-        logger.info("ChannelAccountBuilderTask(): created task with id = {}", taskId);
+        logger.info("ChannelAccountBuilderTask(): created task for channel progress with id = {}", taskId);
     }
 
-    @Override
-    public void run() {
-        JpaChannelAccountProgress channelProgress = getAChannelAccountProgress();
-        if (channelProgress == null) {
-            logger.info("[CHANNEL-TASK-{}]: run(): No suitable channel progress found.", taskId);
-            return;
-        }
-
-        List<Account> channelAccountAccounts = createChannelAccounts(channelProgress);
-        channelAccountsCreated(channelProgress, channelAccountAccounts);
+    /**
+     * Creates the next batch of channel accounts of the channel progress. Database work runs on the given executor;
+     * no thread is held while the accounts are being created on the blockchain.
+     */
+    public CompletionStage<BatchResult> buildNextBatch(Executor executor) {
+        return supplyAsync(() -> context.channelProgressRepository.single(taskId), executor)
+                .thenCompose(channelProgress -> {
+                    if (channelProgress.getNumOfAccountsLeftToCreate() <= 0) {
+                        logger.info("[CHANNEL-TASK-{}]: buildNextBatch(): Channel progress is already finished.", taskId);
+                        return completedFuture(new BatchResult(0, true));
+                    }
+
+                    return createChannelAccounts(channelProgress, executor)
+                            .thenApplyAsync(channelAccountAccounts -> {
+                                channelAccountsCreated(channelProgress, channelAccountAccounts);
+
+                                boolean isProgressFinished = channelProgress.getNumOfAccountsLeftToCreate() - channelAccountAccounts.size() <= 0;
+                                return new BatchResult(channelAccountAccounts.size(), isProgressFinished);
+                            }, executor);
+                });
     }
 
-    private List<Account> createChannelAccounts(JpaChannelAccountProgress channelProgress) {
+    private CompletionStage<List<Account>> createChannelAccounts(JpaChannelAccountProgress channelProgress, Executor executor) {
         JpaChannelGeneratorAccount channelGeneratorEntity = channelProgress.getChannelGenerator();
         ChannelAccountOperation channelAccountOperation = getChannelAccountOperation(channelGeneratorEntity);
-        if(channelProgress.getChannelGenerator().getVoting().getOnTestNetwork()) {
-            channelAccountOperation.useTestNet();
-        }
 
         int numOfAccountsToCreateInOneBatch = determineNumOfAccountsToCreateInOneBatch(channelProgress, channelAccountOperation);
         logger.info("[CHANNEL-TASK-{}]: createChannelAccounts(): about to create {} channel accounts on blockchain {} for progress {}",
@@ -50,46 +62,26 @@ public class ChannelAccountBuilderTask implements Runnable {
         Account channelAccount = new Account(channelProgress.getChannelGenerator().getAccountSecret(), channelProgress.getChannelGenerator().getAccountPublic());
         ChannelGenerator channelGenerator = new ChannelGenerator(channelAccount, channelProgress.getNumOfAccountsToCreate());
 
-        List<Account> createdAccounts = channelAccountOperation.create(channelGenerator, numOfAccountsToCreateInOneBatch);
-        logger.info("[CHANNEL-TASK-{}]: createChannelAccounts(): successfully created {} channel accounts on blockchain {}",
-                taskId, createdAccounts.size(), channelGeneratorEntity.getVoting().getNetwork());
+        String network = channelGeneratorEntity.getVoting().getNetwork();
+        return channelAccountOperation.createAsync(channelGenerator, numOfAccountsToCreateInOneBatch, executor)
+                .thenApply(createdAccounts -> {
+                    logger.info("[CHANNEL-TASK-{}]: createChannelAccounts(): successfully created {} channel accounts on blockchain {}",
+                            taskId, createdAccounts.size(), network);
 
-        return createdAccounts;
+                    return createdAccounts;
+                });
     }
 
     private void channelAccountsCreated(JpaChannelAccountProgress channelProgress, List<Account> channelAccounts) {
         Long votingId = channelProgress.getChannelGenerator().getVoting().getId();
 
-        context.votingRepository.channelAccountCreated(votingId, channelAccounts);
-        context.channelProgressRepository.channelAccountsCreated(channelProgress.getId(), channelAccounts.size());
+        context.votingRepository.channelAccountsCreated(votingId, channelProgress.getId(), channelAccounts);
     }
 
     private ChannelAccountOperation getChannelAccountOperation(JpaChannelGeneratorAccount channelGeneratorAccount) {
-        String network = channelGeneratorAccount.getVoting().getNetwork();
-        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(network);
-        return blockchainFactory.createChannelAccountOperation();
-    }
-
-    private JpaChannelAccountProgress getAChannelAccountProgress() {
-        List<JpaChannelAccountProgress> sampleProgresses =
-                context.channelProgressRepository.notFinishedSampleOf(context.voteBuckets);
-
-        for (JpaChannelAccountProgress candidate : sampleProgresses) {
-            if (candidate.getId() % context.voteBuckets == taskId) {
-                return candidate;
-            }
-        }
-
-        if (sampleProgresses.size() > 0) {
-            List<Long> progressIds = sampleProgresses.stream()
-                    .map(JpaChannelAccountProgress::getId)
-                    .collect(Collectors.toList());
-
-            logger.warn("[CHANNEL-TASK-{}]: getAChannelAccountProgress(): could not find a suitable channel progress! progress ids = {}",
-                    taskId, progressIds);
-        }
-
-        return null;
+        JpaVoting voting = channelGeneratorAccount.getVoting();
+        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(voting.getNetwork());
+        return blockchainFactory.channelAccountOperation(voting.getOnTestNetwork());
     }
 
     private static int determineNumOfAccountsToCreateInOneBatch(JpaChannelAccountProgress progress, ChannelAccountOperation channelAccountOperation) {
@@ -99,4 +91,14 @@ public class ChannelAccountBuilderTask implements Runnable {
             return progress.getNumOfAccountsLeftToCreate().intValue();
         }
     }
+
+    public static class BatchResult {
+        public final int numOfAccountsCreated;
+        public final boolean isProgressFinished;
+
+        public BatchResult(int numOfAccountsCreated, boolean isProgressFinished) {
+            this.numOfAccountsCreated = numOfAccountsCreated;
+            this.isProgressFinished = isProgressFinished;
+        }
+    }
 }
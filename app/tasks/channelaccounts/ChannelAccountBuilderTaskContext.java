@@ -1,6 +1,5 @@
 package tasks.channelaccounts;
 
-import com.typesafe.config.Config;
 import data.repositories.ChannelProgressRepository;
 import data.repositories.VotingRepository;
 import devote.blockchain.Blockchains;
@@ -11,17 +10,14 @@ public class ChannelAccountBuilderTaskContext {
     public final Blockchains blockchains;
     public final VotingRepository votingRepository;
     public final ChannelProgressRepository channelProgressRepository;
-    public final int voteBuckets;
 
     @Inject
     public ChannelAccountBuilderTaskContext(
             Blockchains blockchains,
             VotingRepository votingRepository,
-            ChannelProgressRepository channelProgressRepository,
-            Config config) {
+            ChannelProgressRepository channelProgressRepository) {
         this.blockchains = blockchains;
         this.votingRepository = votingRepository;
         this.channelProgressRepository = channelProgressRepository;
-        this.voteBuckets = config.getInt("devote.vote.buckets");
     }
 }
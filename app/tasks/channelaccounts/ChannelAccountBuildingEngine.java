@@ -0,0 +1,144 @@
+package tasks.channelaccounts;
+
+import com.typesafe.config.Config;
+import data.entities.JpaWorkItem;
+import executioncontexts.BlockchainExecutionContext;
+import play.Logger;
+import tasks.WorkQueueContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates the channel accounts of channel progresses (i.e. of channel generators) in parallel. The batches of a
+ * progress run back to back, but never concurrently, so only one transaction of a channel generator is in flight.
+ * Blockchains submitting asynchronously don't hold a blockchain thread while a batch is waiting to get into a ledger.
+ */
+@Singleton
+public class ChannelAccountBuildingEngine {
+    private final ChannelAccountBuilderTaskContext builderContext;
+    private final WorkQueueContext workQueueContext;
+    private final BlockchainExecutionContext blockchainExecContext;
+    private final Semaphore runPermits;
+    private final Set<Long> progressesInFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder totalAccountsCreated = new LongAdder();
+
+    private static final Logger.ALogger logger = Logger.of(ChannelAccountBuildingEngine.class);
+
+    @Inject
+    public ChannelAccountBuildingEngine(
+            ChannelAccountBuilderTaskContext builderContext,
+            WorkQueueContext workQueueContext,
+            BlockchainExecutionContext blockchainExecContext,
+            Config config) {
+        this.builderContext = builderContext;
+        this.workQueueContext = workQueueContext;
+        this.blockchainExecContext = blockchainExecContext;
+        runPermits = new Semaphore(config.getInt("devote.channel.building.max.parallel.generators"));
+    }
+
+    public enum StartResult {
+        STARTED,
+        // E.g. the lease of the work item expired while its batch was waiting to get into a ledger.
+        ALREADY_STARTED,
+        AT_CONCURRENCY_LIMIT
+    }
+
+    /**
+     * Starts building the channel accounts of the progress referenced by the work item. If started, the work item is
+     * completed, or scheduled for a retry by the engine; otherwise it's up to the caller.
+     */
+    public StartResult tryStart(JpaWorkItem workItem) {
+        Long progressId = workItem.getReferenceId();
+        if (!progressesInFlight.add(progressId)) {
+            logger.warn("tryStart(): channel progress {} is already being built.", progressId);
+            return StartResult.ALREADY_STARTED;
+        }
+
+        if (!runPermits.tryAcquire()) {
+            progressesInFlight.remove(progressId);
+            return StartResult.AT_CONCURRENCY_LIMIT;
+        }
+
+        logger.info("tryStart(): starting to build channel accounts of progress {}", progressId);
+
+        Run run = new Run(workItem, new ChannelAccountBuilderTask(progressId, builderContext));
+        buildNextBatchOf(run);
+        return StartResult.STARTED;
+    }
+
+    private void buildNextBatchOf(Run run) {
+        run.task.buildNextBatch(blockchainExecContext)
+                .whenCompleteAsync((result, error) -> {
+                    try {
+                        if (error != null) {
+                            failed(run, error);
+                        } else {
+                            batchDone(run, result);
+                        }
+                    } catch (Exception e) {
+                        logger.error("buildNextBatchOf(): unexpected error while building progress {}!", run.progressId, e);
+                        stopped(run);
+                    }
+                }, blockchainExecContext);
+    }
+
+    private void batchDone(Run run, ChannelAccountBuilderTask.BatchResult result) {
+        run.accountsCreated += result.numOfAccountsCreated;
+        totalAccountsCreated.add(result.numOfAccountsCreated);
+        logger.info("batchDone(): progress {}: {} accounts created so far, {} accounts/sec; total accounts created: {}",
+                run.progressId, run.accountsCreated, String.format("%.2f", run.accountsPerSecond()), totalAccountsCreated.sum());
+
+        if (result.isProgressFinished) {
+            workQueueContext.workQueueRepository.complete(run.workItemId, run.claimedBy);
+            stopped(run);
+        } else if (workQueueContext.workQueueRepository.extendLease(run.workItemId, run.claimedBy, workQueueContext.lease)) {
+            buildNextBatchOf(run);
+        } else {
+            // Whoever claimed the item since then builds the rest.
+            logger.warn("batchDone(): lost the work item of progress {}; stopping.", run.progressId);
+            stopped(run);
+        }
+    }
+
+    private void failed(Run run, Throwable error) {
+        Duration retryDelay = workQueueContext.retryDelayOf(run.attempts);
+        logger.warn("failed(): failed to build channel accounts of progress {}! Retrying in {}.", run.progressId, retryDelay, error);
+
+        stopped(run);
+        workQueueContext.workQueueRepository.retryLater(run.workItemId, run.claimedBy, retryDelay);
+    }
+
+    private void stopped(Run run) {
+        progressesInFlight.remove(run.progressId);
+        runPermits.release();
+    }
+
+    private static class Run {
+        public final Long workItemId;
+        public final String claimedBy;
+        public final Long progressId;
+        public final int attempts;
+        public final ChannelAccountBuilderTask task;
+        public final long startedAtNanos = System.nanoTime();
+        public long accountsCreated;
+
+        public Run(JpaWorkItem workItem, ChannelAccountBuilderTask task) {
+            workItemId = workItem.getId();
+            claimedBy = workItem.getClaimedBy();
+            progressId = workItem.getReferenceId();
+            attempts = workItem.getAttempts();
+            this.task = task;
+        }
+
+        public double accountsPerSecond() {
+            double elapsedSeconds = (System.nanoTime() - startedAtNanos) / 1e9;
+            return elapsedSeconds > 0 ? accountsCreated / elapsedSeconds : 0;
+        }
+    }
+}
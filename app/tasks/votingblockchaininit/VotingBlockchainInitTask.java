@@ -2,6 +2,7 @@ package tasks.votingblockchaininit;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import data.entities.JpaVoting;
+import data.repositories.VotingFetchProfile;
 import devote.blockchain.BlockchainFactory;
 import devote.blockchain.api.Account;
 import devote.blockchain.api.ChannelGenerator;
@@ -13,9 +14,8 @@ import play.Logger;
 import play.libs.Json;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
-public class VotingBlockchainInitTask implements Runnable {
+public class VotingBlockchainInitTask {
     private final int taskId;
     private final VotingBlockchainInitTaskContext context;
     private final IpfsVotingFromJpaVoting ipfsVotingFromJpaVoting;
@@ -30,36 +30,16 @@ public class VotingBlockchainInitTask implements Runnable {
         logger.info("VotingInitTask(): created task with id = {}", taskId);
     }
 
-    @Override
-    public void run() {
-        JpaVoting voting = getANotFullyInitializedVoting();
-        if (voting == null) {
-            logger.info("[VOTING-BC-INIT-TASK-{}]: Could not find a voting to init.", taskId);
+    public void initialize(Long votingId) {
+        JpaVoting voting = context.votingRepository.single(votingId, VotingFetchProfile.FOR_IPFS_EXPORT);
+        if (voting.getIpfsCid() != null) {
+            logger.info("[VOTING-BC-INIT-TASK-{}]: Voting {} is already initialized.", taskId, votingId);
             return;
         }
 
         initializeOnBlockchain(voting);
     }
 
-    private JpaVoting getANotFullyInitializedVoting() {
-        List<JpaVoting> notInitializedVotings = context.votingRepository.notInitializedSampleOf(context.voteBuckets);
-
-        for (JpaVoting candidate : notInitializedVotings) {
-            if (candidate.getId() % context.voteBuckets == taskId) {
-                return candidate;
-            }
-        }
-
-        if (notInitializedVotings.size() > 0) {
-            List<Long> notInitializedVotingIds = notInitializedVotings.stream()
-                    .map(JpaVoting::getId)
-                    .collect(Collectors.toList());
-            logger.warn("[VOTING-BC-INIT-TASK-{}]: Could not find suitable voting! voting ids in sample = {}", taskId, notInitializedVotingIds);
-        }
-
-        return null;
-    }
-
     private void initializeOnBlockchain(JpaVoting voting) {
         createChannelGeneratorAccountsIfNeeded(voting);
         createDistributionAndBallotAccountsIfNeeded(voting);
@@ -76,12 +56,13 @@ public class VotingBlockchainInitTask implements Runnable {
 
         logger.info("[VOTING-BC-INIT-TASK-{}]: creating channel generators for voting {}", taskId, voting.getId());
 
-        ChannelGeneratorAccountOperation channelGeneratorAccountOperation = getChannelGeneratorOperation(voting.getNetwork());
-        if(voting.getOnTestNetwork()) {
-            channelGeneratorAccountOperation.useTestNet();
-        }
+        ChannelGeneratorAccountOperation channelGeneratorAccountOperation = getChannelGeneratorOperation(voting);
 
-        List<ChannelGenerator> channelGenerators = channelGeneratorAccountOperation.create(voting.getVotesCap(), getFundingOf(voting));
+        // Channel generators (and the channel progresses) are sized for the channel accounts, which are less than the
+        // votes cap when they are reused.
+        long numOfChannelAccounts = context.reusableChannelAccounts.numOfChannelAccountsFor(voting.getVotesCap(),
+                voting.isChannelReuseEnabled());
+        List<ChannelGenerator> channelGenerators = channelGeneratorAccountOperation.create(numOfChannelAccounts, getFundingOf(voting));
         context.votingRepository.channelGeneratorsCreated(voting.getId(), channelGenerators);
         context.channelProgressRepository.channelGeneratorsCreated(voting.getId());
     }
@@ -94,10 +75,7 @@ public class VotingBlockchainInitTask implements Runnable {
 
         logger.info("[VOTING-BC-INIT-TASK-{}]: creating ballot and distribution generators for voting {}", taskId, voting.getId());
 
-        DistributionAndBallotAccountOperation distributionAndBallotAccountOperation = getDistributionAndBallotOperation(voting.getNetwork());
-        if(voting.getOnTestNetwork()) {
-            distributionAndBallotAccountOperation.useTestNet();
-        }
+        DistributionAndBallotAccountOperation distributionAndBallotAccountOperation = getDistributionAndBallotOperation(voting);
 
         DistributionAndBallotAccountOperation.TransactionResult transactionResult =
                 distributionAndBallotAccountOperation.create(getFundingOf(voting), voting.getAssetCode(), voting.getVotesCap());
@@ -116,17 +94,17 @@ public class VotingBlockchainInitTask implements Runnable {
         context.votingRepository.votingSavedToIpfs(voting.getId(), cid);
     }
 
-    private ChannelGeneratorAccountOperation getChannelGeneratorOperation(String network) {
-        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(network);
-        return blockchainFactory.createChannelGeneratorAccountOperation();
+    private ChannelGeneratorAccountOperation getChannelGeneratorOperation(JpaVoting voting) {
+        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(voting.getNetwork());
+        return blockchainFactory.channelGeneratorAccountOperation(voting.getOnTestNetwork());
     }
 
     private Account getFundingOf(JpaVoting voting) {
         return new Account(voting.getFundingAccountSecret(), voting.getFundingAccountPublic());
     }
 
-    private DistributionAndBallotAccountOperation getDistributionAndBallotOperation(String network) {
-        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(network);
-        return blockchainFactory.createDistributionAndBallotAccountOperation();
+    private DistributionAndBallotAccountOperation getDistributionAndBallotOperation(JpaVoting voting) {
+        BlockchainFactory blockchainFactory = context.blockchains.getFactoryByNetwork(voting.getNetwork());
+        return blockchainFactory.distributionAndBallotAccountOperation(voting.getOnTestNetwork());
     }
 }
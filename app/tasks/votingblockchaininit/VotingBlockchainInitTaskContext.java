@@ -1,9 +1,9 @@
 package tasks.votingblockchaininit;
 
-import com.typesafe.config.Config;
 import data.repositories.ChannelProgressRepository;
 import data.repositories.VotingRepository;
 import devote.blockchain.Blockchains;
+import devote.blockchain.ReusableChannelAccounts;
 import ipfs.api.IpfsApi;
 
 import javax.inject.Inject;
@@ -11,16 +11,18 @@ import javax.inject.Inject;
 public class VotingBlockchainInitTaskContext {
     public final Blockchains blockchains;
     public final VotingRepository votingRepository;
-    public final int voteBuckets;
     public final IpfsApi ipfsApi;
     public final ChannelProgressRepository channelProgressRepository;
+    public final ReusableChannelAccounts reusableChannelAccounts;
 
     @Inject
-    public VotingBlockchainInitTaskContext(Blockchains blockchains, VotingRepository votingRepository, Config config, IpfsApi ipfsApi, ChannelProgressRepository channelProgressRepository) {
+    public VotingBlockchainInitTaskContext(Blockchains blockchains, VotingRepository votingRepository, IpfsApi ipfsApi,
+                                           ChannelProgressRepository channelProgressRepository,
+                                           ReusableChannelAccounts reusableChannelAccounts) {
         this.blockchains = blockchains;
         this.votingRepository = votingRepository;
-        this.voteBuckets = config.getInt("devote.vote.buckets");
         this.ipfsApi = ipfsApi;
         this.channelProgressRepository = channelProgressRepository;
+        this.reusableChannelAccounts = reusableChannelAccounts;
     }
 }
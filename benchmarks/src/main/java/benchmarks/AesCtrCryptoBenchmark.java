@@ -0,0 +1,33 @@
+package benchmarks;
+
+import crypto.AesCtrCrypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encryption of option codes of encrypted votings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesCtrCryptoBenchmark {
+    private final byte[] key = AesCtrCrypto.generateKey();
+    private final byte[] optionCode = Integer.toString(42).getBytes();
+
+    @Benchmark
+    public byte[] encrypt() {
+        return AesCtrCrypto.encrypt(key, optionCode);
+    }
+}
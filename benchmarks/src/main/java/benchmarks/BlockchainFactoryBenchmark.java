@@ -0,0 +1,53 @@
+package benchmarks;
+
+import com.typesafe.config.ConfigFactory;
+import devote.blockchain.BlockchainFactory;
+import devote.blockchain.Blockchains;
+import devote.blockchain.api.VoterAccountOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a blockchain operation from the factory: a new instance created with the cached constructor,
+ * versus the shared instance, which is what the commission and the background tasks use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockchainFactoryBenchmark {
+    private BlockchainFactory blockchainFactory;
+
+    @Setup
+    public void setup() {
+        Blockchains blockchains = new Blockchains(ConfigFactory.empty());
+        blockchainFactory = blockchains.getFactoryByNetwork("mockblockchain");
+    }
+
+    @Benchmark
+    public VoterAccountOperation createdOperation() {
+        return blockchainFactory.createVoterAccountOperation();
+    }
+
+    @Benchmark
+    public VoterAccountOperation sharedOperation() {
+        return blockchainFactory.voterAccountOperation(false);
+    }
+
+    @Benchmark
+    public VoterAccountOperation sharedTestNetOperation() {
+        return blockchainFactory.voterAccountOperation(true);
+    }
+}
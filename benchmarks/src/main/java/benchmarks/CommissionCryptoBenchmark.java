@@ -0,0 +1,96 @@
+package benchmarks;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import crypto.RsaBlindSignature;
+import executioncontexts.CryptoExecutionContext;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.signatures.EnvelopeSigner;
+import units.crypto.RsaEnvelope;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blind signing of envelopes by the {@link EnvelopeSigner} on the crypto dispatcher (sign envelope step), one by one
+ * and in batches, and verification of revealed signatures (create account step) of the cast vote flow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommissionCryptoBenchmark {
+    private static final int ENVELOPE_KEY_SIZE = 4096;
+    private static final int BATCH_SIZE = 16;
+
+    private AsymmetricCipherKeyPair envelopeKeyPair;
+    private ActorSystem actorSystem;
+    private EnvelopeSigner envelopeSigner;
+    private byte[] message;
+    private byte[] envelope;
+    private byte[] revealedSignature;
+    private List<byte[]> envelopes;
+
+    @Setup
+    public void setup() {
+        RSAKeyPairGenerator generator = new RSAKeyPairGenerator();
+        generator.init(new RSAKeyGenerationParameters(BigInteger.valueOf(65537), new SecureRandom(), ENVELOPE_KEY_SIZE, 80));
+        envelopeKeyPair = generator.generateKeyPair();
+
+        message = "aVotingId|GBZXN7PIRZGNMHGA7MUUUF4GWPY5AYPV6LY4UV2GL6VJGIQRXFDNMADI".getBytes();
+
+        RsaEnvelope rsaEnvelope = new RsaEnvelope((RSAKeyParameters) envelopeKeyPair.getPublic());
+        envelope = rsaEnvelope.create(message);
+        revealedSignature = rsaEnvelope.revealedSignature(RsaBlindSignature.sign(envelopeKeyPair.getPrivate(), envelope));
+        envelopes = Collections.nCopies(BATCH_SIZE, envelope);
+
+        // The crypto dispatcher as configured for the application.
+        Config config = ConfigFactory.parseResources("application-common.conf").resolve();
+        actorSystem = ActorSystem.create("crypto-benchmark", config);
+        envelopeSigner = new EnvelopeSigner(envelopeKeyPair, new CryptoExecutionContext(actorSystem), config
+                .withValue("devote.commission.envelope.signer.metrics.log.interval.sec", ConfigValueFactory.fromAnyRef(0)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        actorSystem.terminate();
+    }
+
+    @Benchmark
+    public byte[] signEnvelope() {
+        return envelopeSigner.sign(envelope).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<byte[]> signEnvelopesInBatch() {
+        return envelopeSigner.signAll(envelopes).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public boolean verifyRevealedSignature() {
+        return RsaBlindSignature.isValid(envelopeKeyPair.getPublic(), message, revealedSignature);
+    }
+}
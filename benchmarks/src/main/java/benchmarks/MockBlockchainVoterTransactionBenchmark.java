@@ -0,0 +1,54 @@
+package benchmarks;
+
+import com.typesafe.config.ConfigFactory;
+import devote.blockchain.BlockchainFactory;
+import devote.blockchain.Blockchains;
+import devote.blockchain.api.Account;
+import devote.blockchain.api.VoterAccountOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating the voter account transaction the way the commission does, against the mock blockchain. As the mock
+ * transaction itself is trivial, this mostly measures the blockchain abstraction's overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MockBlockchainVoterTransactionBenchmark {
+    private Blockchains blockchains;
+    private VoterAccountOperation.CreateTransactionParams params;
+
+    @Setup
+    public void setup() {
+        blockchains = new Blockchains(ConfigFactory.empty());
+
+        params = new VoterAccountOperation.CreateTransactionParams();
+        params.channel = new Account("channelSecret", "channelPublic");
+        params.distribution = new Account("distributionSecret", "distributionPublic");
+        params.issuerAccountPublic = "issuerPublic";
+        params.assetCode = "BENCH";
+        params.votesCap = 100_000;
+        params.voterAccountPublic = "voterPublic";
+    }
+
+    @Benchmark
+    public String createTransaction() {
+        BlockchainFactory blockchainFactory = blockchains.getFactoryByNetwork("mockblockchain");
+        VoterAccountOperation voterAccountOperation = blockchainFactory.voterAccountOperation(false);
+        return voterAccountOperation.createTransaction(params);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import devote.blockchain.api.Account;
+import devote.blockchain.api.ChannelGenerator;
+import devote.blockchain.fakehorizon.FakeHorizon;
+import devote.blockchain.stellar.StellarBlockchainConfiguration;
+import devote.blockchain.stellar.StellarChannelAccountOperation;
+import devote.blockchain.stellar.StellarUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a batch of channel accounts against a fake Horizon (closing a ledger every 100 ms), synchronously and
+ * asynchronously, with and without network latency. The client's rate limit is turned off, so that the cost of
+ * the client itself is measured. Each thread has its own channel generator, as transactions of one source account
+ * must arrive in sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(1)
+public class StellarChannelAccountBenchmark {
+    private static final int NUM_OF_ACCOUNTS_IN_BATCH = 50;
+
+    @Param({"0", "50"})
+    public long latencyMillis;
+
+    private FakeHorizon fakeHorizon;
+    private StellarChannelAccountOperation operation;
+
+    @Setup
+    public void setup() throws IOException {
+        fakeHorizon = new FakeHorizon(Network.PUBLIC)
+                .withLatency(latencyMillis)
+                .withLedgerCloseInterval(100)
+                .start();
+
+        Config config = fakeHorizon.stellarConfig()
+                .withValue("devote.blockchain.stellar.horizon.max.requests.per.sec", ConfigValueFactory.fromAnyRef(0))
+                .withValue("devote.blockchain.stellar.horizon.async.submit.poll.interval.millis", ConfigValueFactory.fromAnyRef(50));
+
+        StellarBlockchainConfiguration configuration = new StellarBlockchainConfiguration();
+        configuration.init(config);
+
+        operation = new StellarChannelAccountOperation();
+        operation.init(configuration);
+    }
+
+    @TearDown
+    public void teardown() {
+        fakeHorizon.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ChannelGeneratorState {
+        private ChannelGenerator channelGenerator;
+
+        @Setup(Level.Iteration)
+        public void setup(StellarChannelAccountBenchmark benchmark) {
+            KeyPair channelGeneratorKeyPair = benchmark.fakeHorizon.createAccount(new BigDecimal(1_000_000_000));
+            channelGenerator = new ChannelGenerator(StellarUtils.toAccount(channelGeneratorKeyPair), NUM_OF_ACCOUNTS_IN_BATCH);
+        }
+    }
+
+    @Benchmark
+    public List<Account> createBatch(ChannelGeneratorState state) {
+        return operation.create(state.channelGenerator, NUM_OF_ACCOUNTS_IN_BATCH);
+    }
+
+    @Benchmark
+    public List<Account> createBatchAsync(ChannelGeneratorState state) {
+        return operation.createAsync(state.channelGenerator, NUM_OF_ACCOUNTS_IN_BATCH, ForkJoinPool.commonPool())
+                .toCompletableFuture()
+                .join();
+    }
+}
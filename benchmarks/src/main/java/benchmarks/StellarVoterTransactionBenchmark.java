@@ -0,0 +1,82 @@
+package benchmarks;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import devote.blockchain.api.VoterAccountOperation;
+import devote.blockchain.stellar.StellarBlockchainConfiguration;
+import devote.blockchain.stellar.StellarUtils;
+import devote.blockchain.stellar.StellarVoterAccountOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of creating a voter account transaction, with and without voter transaction templates.
+ * No request goes to Horizon, as the sequence number of the channel is primed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StellarVoterTransactionBenchmark {
+    @Param({"false", "true"})
+    public boolean useTemplates;
+
+    private StellarVoterAccountOperation operation;
+    private VoterAccountOperation.CreateTransactionParams params;
+
+    @Setup
+    public void setup() {
+        StellarBlockchainConfiguration configuration = new StellarBlockchainConfiguration();
+        configuration.init(createConfig());
+
+        operation = new StellarVoterAccountOperation();
+        operation.init(configuration);
+        operation.useTestNet();
+
+        params = new VoterAccountOperation.CreateTransactionParams();
+        params.channel = StellarUtils.toAccount(KeyPair.random());
+        params.distribution = StellarUtils.toAccount(KeyPair.random());
+        params.issuerAccountPublic = KeyPair.random().getAccountId();
+        params.assetCode = "BENCH";
+        params.votesCap = 100_000;
+        params.voterAccountPublic = KeyPair.random().getAccountId();
+        params.isOnTestNetwork = true;
+
+        StellarUtils.sequenceNumbers().prime(Network.TESTNET, params.channel.publik, 1L << 32);
+    }
+
+    @Benchmark
+    public String createTransaction() {
+        return operation.createTransaction(params);
+    }
+
+    private Config createConfig() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("devote.blockchain.stellar.url", "https://horizon.stellar.org");
+        values.put("devote.blockchain.stellar.testnet.url", "https://horizon-testnet.stellar.org");
+        values.put("devote.blockchain.stellar.votebuckets", 5);
+        values.put("devote.blockchain.stellar.voter.tx.templates", useTemplates);
+
+        return ConfigFactory.parseMap(values)
+                .withFallback(ConfigFactory.parseResources("application-common.conf")
+                        .withOnlyPath("devote.blockchain.stellar"))
+                .resolve();
+    }
+}
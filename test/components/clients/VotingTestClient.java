@@ -1,5 +1,6 @@
 package components.clients;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import controllers.routes;
 import requests.CreateVotingRequest;
 import play.Application;
@@ -19,10 +20,14 @@ public class VotingTestClient extends TestClient {
     }
 
     public Result createVoting(CreateVotingRequest votingRequest, String userId) {
+        return createVoting(Json.toJson(votingRequest), userId);
+    }
+
+    public Result createVoting(JsonNode votingRequest, String userId) {
         UserInfoCollectorForTest.setReturnValueFor(userId);
         Http.RequestBuilder httpRequest = new Http.RequestBuilder()
                 .method(POST)
-                .bodyJson(Json.toJson(votingRequest))
+                .bodyJson(votingRequest)
                 .header(CONTENT_TYPE, Http.MimeTypes.JSON)
                 .uri(routes.VotingController.create().url());
 
@@ -32,6 +37,19 @@ public class VotingTestClient extends TestClient {
         return route(application, httpRequest, 75 * 1000);
     }
 
+    public Result importVoters(String votingId, String emails, String userId) {
+        Http.RequestBuilder httpRequest = new Http.RequestBuilder()
+                .method(POST)
+                .bodyText(emails)
+                .header(CONTENT_TYPE, Http.MimeTypes.TEXT)
+                .uri(routes.VotingController.importVoters(votingId).url());
+
+        String jwt = jwtTestUtils.createToken(userId);
+        addJwtTokenTo(httpRequest, jwt);
+
+        return route(application, httpRequest);
+    }
+
     public Result single(String votingId) {
         Http.RequestBuilder httpRequest = new Http.RequestBuilder()
                 .method(GET)
@@ -24,6 +24,18 @@ public class VotingsPagingTestClient extends TestClient {
         return route(application, httpRequest);
     }
 
+    public Result publicVotingsAfter(String cursor, int limit) {
+        String queryParams = cursor == null ?
+                String.format("limit=%d", limit) :
+                String.format("cursor=%s&limit=%d", cursor, limit);
+
+        Http.RequestBuilder httpRequest = new Http.RequestBuilder()
+                .method(GET)
+                .uri(routes.VotingsPagingController.publicVotings().url() + "?" + queryParams);
+
+        return route(application, httpRequest);
+    }
+
     public Result votingsOfVoteCaller(int offset, int limit, String userId) {
         Http.RequestBuilder httpRequest = votingsOfVoteCallerBase(offset, limit);
 
@@ -266,7 +266,9 @@ public class CommissionControllerTest {
         Result secondAccountCreationRequestResult = testClient.requestAccountCreation(accountCreationRequest);
 
         // Then
-        assertThat(statusOf(secondAccountCreationRequestResult), equalTo(FORBIDDEN));
+        assertThat(statusOf(secondAccountCreationRequestResult), equalTo(OK));
+        assertThat(accountCreationTransactionOf(secondAccountCreationRequestResult),
+                equalTo(accountCreationTransactionOf(accountCreationRequestResult)));
     }
 
     @Test
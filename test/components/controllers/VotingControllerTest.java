@@ -2,6 +2,7 @@ package components.controllers;
 
 import asserts.IpfsAsserts;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import components.clients.VotingTestClient;
 import io.ipfs.api.IPFS;
 import ipfs.api.IpfsApi;
@@ -16,6 +17,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
 import play.inject.guice.GuiceApplicationBuilder;
+import play.libs.Json;
 import play.mvc.Result;
 import requests.CreateVotingRequest;
 import rules.RuleChainForTests;
@@ -106,6 +108,80 @@ public class VotingControllerTest {
         assertChannelProgressCompletedFor(votingId);
     }
 
+    @Test
+    public void testImportVoters() {
+        // Given
+        CreateVotingRequest createVotingRequest = createValidVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setAuthorizationEmailOptions(Arrays.asList("john@mail.com", "doe@where.de", "some@one.com"));
+        createVotingRequest.setStartDate(Instant.now().plus(Duration.ofHours(1)));
+
+        Result createResult = client.createVoting(createVotingRequest, "Alice");
+        assertThat(statusOf(createResult), equalTo(CREATED));
+
+        String locationUrl = createResult.headers().get(LOCATION);
+        String votingId = locationUrl.substring(locationUrl.lastIndexOf('/') + 1);
+
+        String emails = "doe@where.de\nnew@one.com\nnot-an-email\n\nnew@one.com\n";
+
+        // When
+        Result result = client.importVoters(votingId, emails, "Alice");
+
+        // Then
+        assertThat(statusOf(result), equalTo(OK));
+
+        JsonNode importJson = jsonOf(result);
+        assertThat(importJson.get("numOfEmails").asLong(), equalTo(3L));
+        assertThat(importJson.get("numOfInvalidEmails").asLong(), equalTo(1L));
+        assertThat(importJson.get("numOfNewVoters").asLong(), equalTo(1L));
+        assertThat(importJson.get("numOfNewParticipants").asLong(), equalTo(1L));
+
+        assertAuthorizationEmailsSavedInDb(Base62Conversions.decode(votingId),
+                "john@mail.com", "doe@where.de", "some@one.com", "new@one.com");
+    }
+
+    @Test
+    public void testImportVotersAfterStartIsRejected() {
+        // Given
+        CreateVotingRequest createVotingRequest = createValidVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setAuthorizationEmailOptions(Arrays.asList("john@mail.com", "doe@where.de", "some@one.com"));
+
+        Result createResult = client.createVoting(createVotingRequest, "Alice");
+        assertThat(statusOf(createResult), equalTo(CREATED));
+
+        String locationUrl = createResult.headers().get(LOCATION);
+        String votingId = locationUrl.substring(locationUrl.lastIndexOf('/') + 1);
+
+        // When
+        Result result = client.importVoters(votingId, "new@one.com", "Alice");
+
+        // Then
+        assertThat(statusOf(result), equalTo(FORBIDDEN));
+        assertAuthorizationEmailsSavedInDb(Base62Conversions.decode(votingId),
+                "john@mail.com", "doe@where.de", "some@one.com");
+    }
+
+    @Test
+    public void testImportVotersByNotTheCreator() {
+        // Given
+        CreateVotingRequest createVotingRequest = createValidVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setAuthorizationEmailOptions(Arrays.asList("john@mail.com", "doe@where.de", "some@one.com"));
+
+        Result createResult = client.createVoting(createVotingRequest, "Alice");
+        assertThat(statusOf(createResult), equalTo(CREATED));
+
+        String locationUrl = createResult.headers().get(LOCATION);
+        String votingId = locationUrl.substring(locationUrl.lastIndexOf('/') + 1);
+
+        // When
+        Result result = client.importVoters(votingId, "new@one.com", "Bob");
+
+        // Then
+        assertThat(statusOf(result), equalTo(FORBIDDEN));
+    }
+
     @Test
     public void testBadRequestReturnedWhenCreatingVoteWithInvalidRequest() {
         // Given
@@ -123,6 +199,27 @@ public class VotingControllerTest {
         assertThat(statusOf(result), equalTo(BAD_REQUEST));
     }
 
+    @Test
+    public void testBadRequestOfUnboundFieldDoesNotTellAboutClasses() {
+        // Given
+        CreateVotingRequest createVotingRequest = createValidVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setAuthorizationEmailOptions(Arrays.asList("john@mail.com", "doe@where.de", "some@one.com"));
+
+        ObjectNode createVotingJson = (ObjectNode) Json.toJson(createVotingRequest);
+        createVotingJson.put("votesCap", "notANumber");
+
+        // When
+        Result result = client.createVoting(createVotingJson, "Alice");
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+
+        JsonNode errorsJson = jsonOf(result);
+        assertTrue(errorsJson.has("votesCap"));
+        assertThat(errorsJson.toString().contains("java."), equalTo(false));
+    }
+
     @Test
     public void testWithInvalidOptions() {
         // Given
@@ -327,4 +424,19 @@ public class VotingControllerTest {
         // Then
         assertThat(statusOf(result), equalTo(BAD_REQUEST));
     }
+
+    @Test
+    public void testWithInvalidAuthorizationEmail() {
+        // Given
+        CreateVotingRequest createVotingRequest = createValidVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setAuthorizationEmailOptions(Arrays.asList("bob@mail.com", "not an email", "some@one.com"));
+
+        // When
+        Result result = client.createVoting(createVotingRequest, "Alice");
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+        assertTrue(jsonOf(result).has("authorizationEmailOptions[1]"));
+    }
 }
@@ -24,12 +24,18 @@ import units.ipfs.api.imp.MockIpfsProvider;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 import static components.extractors.GenericDataFromResult.statusOf;
+import static components.extractors.VotingPagingResponseFromResult.nextCursorOf;
+import static components.extractors.VotingPagingResponseFromResult.totalCountOf;
 import static components.extractors.VotingPagingResponseFromResult.votingIdsOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static play.inject.Bindings.bind;
+import static play.mvc.Http.Status.BAD_REQUEST;
 import static play.mvc.Http.Status.FORBIDDEN;
 import static play.mvc.Http.Status.OK;
 
@@ -70,6 +76,41 @@ public class VotingsPagingTest {
         assertThat(votingIdsOf(result).size(), equalTo(11));
     }
 
+    @Test
+    @DataSet(value = "datasets/yml/votings-paging.yml", disableConstraints = true, cleanBefore = true)
+    public void testGetPublicVotingsPaging_WithCursor() {
+        // Given
+        List<String> votingIds = new ArrayList<>();
+
+        // When
+        Result firstResult = client.publicVotingsAfter(null, 10);
+        assertThat(statusOf(firstResult), equalTo(OK));
+        votingIds.addAll(votingIdsOf(firstResult));
+
+        String cursor = nextCursorOf(firstResult);
+        while (cursor != null) {
+            Result result = client.publicVotingsAfter(cursor, 10);
+            assertThat(statusOf(result), equalTo(OK));
+            votingIds.addAll(votingIdsOf(result));
+            cursor = nextCursorOf(result);
+        }
+
+        // Then
+        assertThat((long) votingIds.size(), equalTo(totalCountOf(firstResult)));
+        assertThat(new HashSet<>(votingIds).size(), equalTo(votingIds.size()));
+    }
+
+    @Test
+    @DataSet(value = "datasets/yml/votings-paging.yml", disableConstraints = true, cleanBefore = true)
+    public void testGetPublicVotingsPaging_InvalidCursor() {
+        // Given
+        // When
+        Result result = client.publicVotingsAfter("not-a-cursor", 10);
+
+        // Then
+        assertThat(statusOf(result), equalTo(BAD_REQUEST));
+    }
+
     @Test
     @DataSet(value = "datasets/yml/votings-paging.yml", disableConstraints = true, cleanBefore = true)
     public void testGetVotingsOfVoterPaging() {
@@ -14,6 +14,11 @@ public class VotingPagingResponseFromResult {
         return resultJson.get("totalCount").asLong();
     }
 
+    public static String nextCursorOf(Result result) {
+        JsonNode nextCursor = jsonOf(result).get("nextCursor");
+        return nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText();
+    }
+
     public static List<String> votingIdsOf(Result result) {
         JsonNode resultJson = jsonOf(result);
         List<String> ids = new ArrayList<>();
@@ -0,0 +1,286 @@
+package components.repositories;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import data.entities.Authorization;
+import data.entities.JpaVoting;
+import data.entities.JpaVotingChannelAccount;
+import data.entities.Visibility;
+import data.repositories.imp.EbeanChannelAccountPool;
+import data.repositories.imp.EbeanChannelAccountPool.ReservedChannel;
+import devote.blockchain.ReusableChannelAccounts;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ipfs.api.IPFS;
+import ipfs.api.IpfsApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.mockito.Mockito;
+import play.inject.ApplicationLifecycle;
+import play.inject.guice.GuiceApplicationBuilder;
+import rules.RuleChainForTests;
+import units.ipfs.api.imp.MockIpfsApi;
+import units.ipfs.api.imp.MockIpfsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static play.inject.Bindings.bind;
+
+public class EbeanChannelAccountPoolTest {
+    private static final int NUM_OF_CHANNELS = 5;
+
+    private final RuleChainForTests ruleChainForTests;
+
+    @Rule
+    public RuleChain chain;
+
+    private EbeanServer ebeanServer;
+    private Config config;
+
+    private Long votingId;
+
+    public EbeanChannelAccountPoolTest() {
+        GuiceApplicationBuilder applicationBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(IpfsApi.class).to(MockIpfsApi.class))
+                .overrides(bind(IPFS.class).toProvider(MockIpfsProvider.class));
+
+        ruleChainForTests = new RuleChainForTests(applicationBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        ebeanServer = ruleChainForTests.getApplication().injector().instanceOf(EbeanServer.class);
+        config = ruleChainForTests.getApplication().config()
+                .withValue("devote.commission.channel.pool.batch.size", ConfigValueFactory.fromAnyRef(3));
+
+        votingId = seedVotingWithChannels();
+    }
+
+    @Test
+    public void testTakeRefillsFromDb() {
+        // Given
+        EbeanChannelAccountPool pool = createPool();
+
+        // When
+        Set<Long> takenIds = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            takenIds.add(pool.take(votingId).get().id);
+        }
+
+        // Then
+        assertThat(takenIds, hasSize(4));
+        assertThat(numOfConsumedChannels(), equalTo(NUM_OF_CHANNELS));
+    }
+
+    @Test
+    public void testGiveBack() {
+        // Given
+        EbeanChannelAccountPool pool = createPool();
+        Long channelId = pool.take(votingId).get().id;
+
+        // When
+        pool.giveBack(votingId, channelId);
+
+        // Then
+        JpaVotingChannelAccount channelAccount = ebeanServer.find(JpaVotingChannelAccount.class, channelId);
+        assertThat(channelAccount.isConsumed(), equalTo(false));
+        assertThat(channelAccount.getReservedUntil(), nullValue());
+    }
+
+    @Test
+    public void testNoDoubleHandOutAcrossPools() {
+        // Given
+        EbeanChannelAccountPool aPool = createPool();
+        EbeanChannelAccountPool anotherPool = createPool();
+
+        // When
+        List<Long> takenIds = new ArrayList<>();
+        takeAll(aPool, anotherPool, takenIds);
+
+        // Then
+        assertThat(takenIds, hasSize(NUM_OF_CHANNELS));
+        assertThat(new HashSet<>(takenIds), hasSize(NUM_OF_CHANNELS));
+        assertThat(aPool.take(votingId), equalTo(Optional.empty()));
+        assertThat(anotherPool.take(votingId), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testExpiredReservationIsTakenByAnotherPool() {
+        // Given
+        EbeanChannelAccountPool crashedPool = createPool();
+        Long usedChannelId = crashedPool.take(votingId).get().id;
+        crashedPool.channelUsed(votingId, usedChannelId);
+        expireReservations();
+
+        EbeanChannelAccountPool anotherPool = createPool();
+
+        // When
+        List<Long> takenIds = new ArrayList<>();
+        Optional<ReservedChannel> reservedChannel;
+        while ((reservedChannel = anotherPool.take(votingId)).isPresent()) {
+            takenIds.add(reservedChannel.get().id);
+        }
+
+        // Then
+        assertThat(takenIds, hasSize(NUM_OF_CHANNELS - 1));
+        assertThat(takenIds, not(hasItem(usedChannelId)));
+    }
+
+    @Test
+    public void testReservationOfReusedChannelExpiresAfterReservation() {
+        // Given
+        enableReuse();
+        EbeanChannelAccountPool pool = createPool();
+
+        // When
+        ReservedChannel reservedChannel = pool.take(votingId).get();
+
+        // Then
+        assertThat(reservedChannel.isReused, equalTo(false));
+
+        JpaVotingChannelAccount channelAccount = ebeanServer.find(JpaVotingChannelAccount.class, reservedChannel.id);
+        assertThat(channelAccount.getReusableAfter(), notNullValue());
+        assertThat(channelAccount.getReusableAfter(), greaterThanOrEqualTo(channelAccount.getReservedUntil()));
+    }
+
+    @Test
+    public void testReusableChannelsAndLeakedReservationsAreTakenAgain() {
+        // Given
+        enableReuse();
+        EbeanChannelAccountPool crashedPool = createPool();
+        Long usedChannelId = crashedPool.take(votingId).get().id;
+        crashedPool.channelUsed(votingId, usedChannelId);
+        Long leakedChannelId = crashedPool.take(votingId).get().id;
+        expireReservations();
+        expireReusableAfters();
+
+        EbeanChannelAccountPool anotherPool = createPool();
+
+        // When
+        List<ReservedChannel> reservedChannels = new ArrayList<>();
+        Optional<ReservedChannel> reservedChannel;
+        while ((reservedChannel = anotherPool.take(votingId)).isPresent()) {
+            reservedChannels.add(reservedChannel.get());
+        }
+
+        // Then
+        assertThat(reservedChannels, hasSize(NUM_OF_CHANNELS));
+
+        Set<Long> reusedIds = new HashSet<>();
+        reservedChannels.stream()
+                .filter(c -> c.isReused)
+                .forEach(c -> reusedIds.add(c.id));
+        // The whole first batch was reserved, so the one never taken from it is also treated as reused.
+        assertThat(reusedIds, hasSize(3));
+        assertThat(reusedIds, hasItems(usedChannelId, leakedChannelId));
+    }
+
+    @Test
+    public void testVotingCreatedWithoutReuseKeepsOneChannelPerVote() {
+        // Given
+        enableReuseInConfig();
+        EbeanChannelAccountPool pool = createPool();
+        Long usedChannelId = pool.take(votingId).get().id;
+        pool.channelUsed(votingId, usedChannelId);
+        Long givenBackChannelId = pool.take(votingId).get().id;
+
+        // When
+        pool.giveBack(votingId, givenBackChannelId);
+
+        // Then
+        JpaVotingChannelAccount usedChannelAccount = ebeanServer.find(JpaVotingChannelAccount.class, usedChannelId);
+        assertThat(usedChannelAccount.isConsumed(), equalTo(true));
+        assertThat(usedChannelAccount.getReusableAfter(), nullValue());
+
+        JpaVotingChannelAccount givenBackChannelAccount = ebeanServer.find(JpaVotingChannelAccount.class, givenBackChannelId);
+        assertThat(givenBackChannelAccount.isConsumed(), equalTo(false));
+        assertThat(givenBackChannelAccount.getReusableAfter(), nullValue());
+    }
+
+    private EbeanChannelAccountPool createPool() {
+        return new EbeanChannelAccountPool(ebeanServer, config, Mockito.mock(ApplicationLifecycle.class),
+                new ReusableChannelAccounts(config));
+    }
+
+    private void takeAll(EbeanChannelAccountPool aPool, EbeanChannelAccountPool anotherPool, List<Long> takenIds) {
+        boolean isAnyTaken = true;
+        while (isAnyTaken) {
+            Optional<ReservedChannel> aReservedChannel = aPool.take(votingId);
+            Optional<ReservedChannel> anotherReservedChannel = anotherPool.take(votingId);
+
+            aReservedChannel.ifPresent(c -> takenIds.add(c.id));
+            anotherReservedChannel.ifPresent(c -> takenIds.add(c.id));
+            isAnyTaken = aReservedChannel.isPresent() || anotherReservedChannel.isPresent();
+        }
+    }
+
+    private Long seedVotingWithChannels() {
+        JpaVoting voting = new JpaVoting();
+        voting.setTitle("Channel pool voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy("Walter");
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap((long) NUM_OF_CHANNELS);
+        voting.setCreatedAt(Instant.now().minus(Duration.ofDays(1)));
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        Ebean.save(voting);
+
+        for (int i = 0; i < NUM_OF_CHANNELS; i++) {
+            JpaVotingChannelAccount channelAccount = new JpaVotingChannelAccount();
+            channelAccount.setAccountSecret("secret" + i);
+            channelAccount.setAccountPublic("public" + i);
+            channelAccount.setVoting(voting);
+            Ebean.save(channelAccount);
+        }
+
+        return voting.getId();
+    }
+
+    private int numOfConsumedChannels() {
+        return ebeanServer.createQuery(JpaVotingChannelAccount.class)
+                .where()
+                .eq("voting.id", votingId)
+                .eq("isConsumed", true)
+                .findCount();
+    }
+
+    private void enableReuse() {
+        enableReuseInConfig();
+        ebeanServer.createUpdate(JpaVoting.class, "update JpaVoting set isChannelReuseEnabled = true where id = :id")
+                .setParameter("id", votingId)
+                .execute();
+    }
+
+    private void enableReuseInConfig() {
+        config = config
+                .withValue("devote.commission.channel.reuse.enabled", ConfigValueFactory.fromAnyRef(true))
+                .withValue("devote.commission.channel.reuse.after.sec", ConfigValueFactory.fromAnyRef(60));
+    }
+
+    private void expireReusableAfters() {
+        ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                "update JpaVotingChannelAccount set reusableAfter = :reusableAfter where reusableAfter is not null")
+                .setParameter("reusableAfter", Instant.now().minusSeconds(1))
+                .execute();
+    }
+
+    private void expireReservations() {
+        ebeanServer.createUpdate(JpaVotingChannelAccount.class,
+                "update JpaVotingChannelAccount set reservedUntil = :reservedUntil where reservedUntil is not null")
+                .setParameter("reservedUntil", Instant.now().minusSeconds(1))
+                .execute();
+    }
+}
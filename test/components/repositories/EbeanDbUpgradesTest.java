@@ -0,0 +1,208 @@
+package components.repositories;
+
+import com.google.common.hash.Hashing;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import data.entities.Authorization;
+import data.entities.JpaStoredTransaction;
+import data.entities.JpaVoter;
+import data.entities.JpaVoting;
+import data.entities.Visibility;
+import data.repositories.CommissionRepository;
+import data.repositories.DbUpgrades;
+import data.repositories.VotersImportResult;
+import data.repositories.imp.EbeanDbUpgrades;
+import data.repositories.imp.EbeanVoterImport;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ipfs.api.IPFS;
+import ipfs.api.IpfsApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.mockito.Mockito;
+import play.inject.guice.GuiceApplicationBuilder;
+import rules.RuleChainForTests;
+import tasks.TasksOrganizer;
+import units.ipfs.api.imp.MockIpfsApi;
+import units.ipfs.api.imp.MockIpfsProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static play.inject.Bindings.bind;
+
+public class EbeanDbUpgradesTest {
+    private final RuleChainForTests ruleChainForTests;
+
+    @Rule
+    public RuleChain chain;
+
+    private EbeanServer ebeanServer;
+    private DbUpgrades dbUpgrades;
+
+    public EbeanDbUpgradesTest() {
+        // The upgrades are run by the tests, not on startup.
+        GuiceApplicationBuilder applicationBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(IpfsApi.class).to(MockIpfsApi.class))
+                .overrides(bind(IPFS.class).toProvider(MockIpfsProvider.class))
+                .overrides(bind(TasksOrganizer.class).toInstance(Mockito.mock(TasksOrganizer.class)));
+
+        ruleChainForTests = new RuleChainForTests(applicationBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        ebeanServer = ruleChainForTests.getApplication().injector().instanceOf(EbeanServer.class);
+        dbUpgrades = ruleChainForTests.getApplication().injector().instanceOf(DbUpgrades.class);
+    }
+
+    @Test
+    public void testParticipantsIndexIsCreated() {
+        // Given
+        // When
+        dbUpgrades.run();
+        dbUpgrades.run();
+
+        // Then
+        assertThat(columnsOfIndex("IX_VOTINGS_PARTICIPANTS_VOTING_VOTER"), contains("VOTING_ID", "VOTER_ID"));
+    }
+
+    @Test
+    public void testVoterEmailUniqueIndexIsCreatedAndImportsInsertOnlyAbsentVoters() {
+        // Given
+        dbUpgrades.run();
+        dbUpgrades.run();
+        JpaVoting voting = seedVoting();
+
+        // When
+        VotersImportResult firstResult = EbeanVoterImport.importEmails(ebeanServer, voting.getId(),
+                Arrays.asList("jesse@mail.com", "skyler@mail.com").iterator(), 10, false);
+        VotersImportResult secondResult = EbeanVoterImport.importEmails(ebeanServer, voting.getId(),
+                Arrays.asList("jesse@mail.com", "hank@mail.com").iterator(), 10, false);
+
+        // Then
+        assertThat(columnsOfIndex("UQ_VOTER_EMAIL"), contains("EMAIL"));
+        assertThat(firstResult.getNumOfNewVoters(), equalTo(2L));
+        assertThat(secondResult.getNumOfNewVoters(), equalTo(1L));
+        assertThat(ebeanServer.find(JpaVoter.class).findCount(), equalTo(3));
+    }
+
+    @Test
+    public void testSignatureDigestIsBackfilledOnlyForOldestOfDuplicates() {
+        // Given
+        JpaVoting voting = seedVoting();
+        Long oldestId = seedStoredTransaction(voting, "sameSignature", "oldestTransaction");
+        Long duplicateId = seedStoredTransaction(voting, "sameSignature", "duplicateTransaction");
+        Long otherId = seedStoredTransaction(voting, "otherSignature", "otherTransaction");
+
+        // When
+        dbUpgrades.run();
+        dbUpgrades.run();
+
+        // Then
+        assertThat(digestOf(oldestId), equalTo(sha256Of("sameSignature")));
+        assertThat(digestOf(duplicateId), nullValue());
+        assertThat(digestOf(otherId), equalTo(sha256Of("otherSignature")));
+
+        CommissionRepository commissionRepository =
+                ruleChainForTests.getApplication().injector().instanceOf(CommissionRepository.class);
+        assertThat(commissionRepository.getTransaction("sameSignature").getId(), equalTo(oldestId));
+    }
+
+    @Test
+    public void testSignatureDigestIsBackfilledInPages() {
+        // Given
+        JpaVoting voting = seedVoting();
+        Long oldestId = seedStoredTransaction(voting, "sameSignature", "oldestTransaction");
+        Long otherId = seedStoredTransaction(voting, "otherSignature", "otherTransaction");
+        Long duplicateId = seedStoredTransaction(voting, "sameSignature", "duplicateTransaction");
+        Long lastId = seedStoredTransaction(voting, "lastSignature", "lastTransaction");
+
+        // A page size which does not divide the number of rows, and a duplicate on another page than its original.
+        Config config = ruleChainForTests.getApplication().config()
+                .withValue("devote.db.upgrades.backfill.page.size", ConfigValueFactory.fromAnyRef(2));
+        DbUpgrades pagedDbUpgrades = new EbeanDbUpgrades(ebeanServer, config);
+
+        // When
+        pagedDbUpgrades.run();
+
+        // Then
+        assertThat(digestOf(oldestId), equalTo(sha256Of("sameSignature")));
+        assertThat(digestOf(otherId), equalTo(sha256Of("otherSignature")));
+        assertThat(digestOf(duplicateId), nullValue());
+        assertThat(digestOf(lastId), equalTo(sha256Of("lastSignature")));
+    }
+
+    @Test
+    public void testTransactionWithoutDigestIsFoundBeforeBackfill() {
+        // Given
+        JpaVoting voting = seedVoting();
+        Long storedTransactionId = seedStoredTransaction(voting, "someSignature", "someTransaction");
+
+        CommissionRepository commissionRepository =
+                ruleChainForTests.getApplication().injector().instanceOf(CommissionRepository.class);
+
+        // When
+        JpaStoredTransaction storedTransaction = commissionRepository.getTransaction("someSignature");
+
+        // Then
+        assertThat(storedTransaction.getId(), equalTo(storedTransactionId));
+    }
+
+    private static JpaVoting seedVoting() {
+        JpaVoting voting = new JpaVoting();
+        voting.setTitle("Upgraded voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy("Walter");
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap(42L);
+        voting.setCreatedAt(Instant.now().minus(Duration.ofDays(1)));
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        Ebean.save(voting);
+
+        return voting;
+    }
+
+    // As stored before signature digests were introduced.
+    private static Long seedStoredTransaction(JpaVoting voting, String signature, String transaction) {
+        JpaStoredTransaction storedTransaction = new JpaStoredTransaction();
+        storedTransaction.setVoting(voting);
+        storedTransaction.setSignature(signature);
+        storedTransaction.setSignatureFootPrint(signature);
+        storedTransaction.setTransaction(transaction);
+        Ebean.save(storedTransaction);
+
+        return storedTransaction.getId();
+    }
+
+    private String digestOf(Long storedTransactionId) {
+        return ebeanServer.find(JpaStoredTransaction.class, storedTransactionId).getSignatureDigest();
+    }
+
+    private static String sha256Of(String signature) {
+        return Hashing.sha256().hashString(signature, StandardCharsets.UTF_8).toString();
+    }
+
+    private List<String> columnsOfIndex(String indexName) {
+        return ebeanServer.createSqlQuery("select column_name from information_schema.indexes " +
+                "where index_name = :indexName order by ordinal_position")
+                .setParameter("indexName", indexName)
+                .findList()
+                .stream()
+                .map(r -> r.getString("column_name"))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,175 @@
+package components.repositories;
+
+import data.entities.Authorization;
+import data.entities.JpaVoter;
+import data.entities.JpaVoting;
+import data.entities.Visibility;
+import data.repositories.imp.EbeanPageOfVotingRepository;
+import data.repositories.imp.EbeanVoterImport;
+import data.repositories.imp.EbeanVotingCounters;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ipfs.api.IPFS;
+import ipfs.api.IpfsApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import play.inject.guice.GuiceApplicationBuilder;
+import responses.Page;
+import rules.RuleChainForTests;
+import units.ipfs.api.imp.MockIpfsApi;
+import units.ipfs.api.imp.MockIpfsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.equalTo;
+import static play.inject.Bindings.bind;
+
+public class EbeanPageOfVotingRepositoryTest {
+    private final RuleChainForTests ruleChainForTests;
+
+    @Rule
+    public RuleChain chain;
+
+    private EbeanServer ebeanServer;
+    private EbeanPageOfVotingRepository repository;
+
+    public EbeanPageOfVotingRepositoryTest() {
+        GuiceApplicationBuilder applicationBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(IpfsApi.class).to(MockIpfsApi.class))
+                .overrides(bind(IPFS.class).toProvider(MockIpfsProvider.class));
+
+        ruleChainForTests = new RuleChainForTests(applicationBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        ebeanServer = ruleChainForTests.getApplication().injector().instanceOf(EbeanServer.class);
+        repository = new EbeanPageOfVotingRepository(ebeanServer, ruleChainForTests.getApplication().config());
+    }
+
+    @Test
+    public void testBackfillOverwritesCountersCreatedBeforeIt() {
+        // Given
+        seedVoting("Walter", Instant.now().minus(Duration.ofDays(2)));
+        seedVoting("Walter", Instant.now().minus(Duration.ofDays(1)));
+
+        // A voting being created while the counters are not yet backfilled.
+        String creatorCounter = EbeanVotingCounters.ofCreator("Walter");
+        EbeanVotingCounters.ensureExists(ebeanServer, creatorCounter);
+        EbeanVotingCounters.increment(ebeanServer, creatorCounter);
+
+        // When
+        Page<JpaVoting> page = repository.votingsOfVoteCaller(0, 10, "Walter");
+        EbeanVotingCounters.increment(ebeanServer, creatorCounter);
+
+        // Then
+        assertThat(page.getTotalCount(), equalTo(2L));
+        assertThat(EbeanVotingCounters.countOf(ebeanServer, creatorCounter), equalTo(3L));
+    }
+
+    @Test
+    public void testOffsetPageIsFromOldestAndCursorPageIsFromNewest() {
+        // Given
+        Long olderId = seedVoting("Walter", Instant.now().minus(Duration.ofDays(2)));
+        Long newerId = seedVoting("Walter", Instant.now().minus(Duration.ofDays(1)));
+
+        // When
+        Page<JpaVoting> offsetPage = repository.votingsOfVoteCaller(0, 10, "Walter");
+        Page<JpaVoting> cursorPage = repository.votingsOfVoteCaller(null, 10, "Walter");
+
+        // Then
+        assertThat(idsOf(offsetPage), contains(olderId, newerId));
+        assertThat(idsOf(cursorPage), contains(newerId, olderId));
+    }
+
+    @Test
+    public void testVotingsOfVoterAreCounted() {
+        // Given
+        Long aVotingId = seedVoting("Walter", Instant.now().minus(Duration.ofDays(2)));
+        EbeanVoterImport.importEmails(ebeanServer, aVotingId, Arrays.asList("jesse@mail.com", "skyler@mail.com").iterator(), 10, false);
+        repository.votingsOfVoter(0, 10, "Jesse");
+
+        Long anotherVotingId = seedVoting("Walter", Instant.now().minus(Duration.ofDays(1)));
+        EbeanVoterImport.importEmails(ebeanServer, anotherVotingId, Arrays.asList("jesse@mail.com").iterator(), 10, false);
+
+        ebeanServer.createUpdate(JpaVoter.class, "update JpaVoter set userId = :userId where email = :email")
+                .setParameter("userId", "Jesse")
+                .setParameter("email", "jesse@mail.com")
+                .execute();
+
+        // When
+        Page<JpaVoting> page = repository.votingsOfVoter(0, 10, "Jesse");
+
+        // Then
+        assertThat(page.getTotalCount(), equalTo(2L));
+        assertThat(page.getItems().size(), equalTo(2));
+    }
+
+    @Test
+    public void testConcurrentImportsAddParticipantOnce() throws Exception {
+        // Given
+        Long votingId = seedVoting("Walter", Instant.now().minus(Duration.ofDays(1)));
+        List<String> emails = IntStream.range(0, 20)
+                .mapToObj(i -> "voter" + i + "@mail.com")
+                .collect(Collectors.toList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        try {
+            CompletableFuture<?>[] imports = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.runAsync(
+                            () -> EbeanVoterImport.importEmails(ebeanServer, votingId, emails.iterator(), 5, false),
+                            executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(imports).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        List<JpaVoter> participants = ebeanServer.createQuery(JpaVoter.class)
+                .where()
+                .eq("votings.id", votingId)
+                .findList();
+        assertThat(participants.size(), equalTo(20));
+        assertThat(participants.stream().map(JpaVoter::getNumOfVotings).collect(Collectors.toList()),
+                everyItem(equalTo(1L)));
+    }
+
+    private static Long seedVoting(String createdBy, Instant createdAt) {
+        JpaVoting voting = new JpaVoting();
+        voting.setTitle("Paged voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy(createdBy);
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap(42L);
+        voting.setCreatedAt(createdAt);
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        Ebean.save(voting);
+
+        return voting.getId();
+    }
+
+    private static List<Long> idsOf(Page<JpaVoting> page) {
+        return page.getItems().stream()
+                .map(JpaVoting::getId)
+                .collect(Collectors.toList());
+    }
+}
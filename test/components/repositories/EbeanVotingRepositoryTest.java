@@ -0,0 +1,217 @@
+package components.repositories;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import data.entities.Authorization;
+import data.entities.JpaChannelAccountProgress;
+import data.entities.JpaChannelGeneratorAccount;
+import data.entities.JpaVoting;
+import data.entities.JpaVotingChannelAccount;
+import data.entities.JpaVotingPoll;
+import data.entities.JpaVotingPollOption;
+import data.entities.Visibility;
+import data.repositories.ChannelProgressRepository;
+import data.repositories.VotingFetchProfile;
+import data.repositories.VotingRepository;
+import data.repositories.imp.EbeanVotingRepository;
+import devote.blockchain.api.Account;
+import devote.blockchain.api.ChannelGenerator;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ebean.LoggedSql;
+import io.ipfs.api.IPFS;
+import ipfs.api.IpfsApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.mockito.Mockito;
+import play.inject.guice.GuiceApplicationBuilder;
+import rules.RuleChainForTests;
+import tasks.TasksOrganizer;
+import units.ipfs.api.imp.MockIpfsApi;
+import units.ipfs.api.imp.MockIpfsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static play.inject.Bindings.bind;
+
+public class EbeanVotingRepositoryTest {
+    private final RuleChainForTests ruleChainForTests;
+
+    @Rule
+    public RuleChain chain;
+
+    private EbeanServer ebeanServer;
+    private VotingRepository votingRepository;
+
+    public EbeanVotingRepositoryTest() {
+        // Workers of the application would run queries of their own while the SQL of the tests is logged.
+        GuiceApplicationBuilder applicationBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(IpfsApi.class).to(MockIpfsApi.class))
+                .overrides(bind(IPFS.class).toProvider(MockIpfsProvider.class))
+                .overrides(bind(TasksOrganizer.class).toInstance(Mockito.mock(TasksOrganizer.class)));
+
+        ruleChainForTests = new RuleChainForTests(applicationBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        ebeanServer = ruleChainForTests.getApplication().injector().instanceOf(EbeanServer.class);
+
+        // A batch size which does not divide the number of accounts, so the last batch is a partial one.
+        Config config = ruleChainForTests.getApplication().config()
+                .withValue("devote.channel.accounts.insert.batch.size", ConfigValueFactory.fromAnyRef(3));
+        votingRepository = new EbeanVotingRepository(ebeanServer, config);
+    }
+
+    @Test
+    public void testChannelAccountsCreated() {
+        // Given
+        Long votingId = seedVoting(10);
+        votingRepository.channelGeneratorsCreated(votingId,
+                Collections.singletonList(new ChannelGenerator(new Account("generatorSecret", "generatorPublic"), 10)));
+        ruleChainForTests.getApplication().injector().instanceOf(ChannelProgressRepository.class)
+                .channelGeneratorsCreated(votingId);
+
+        Long channelProgressId = channelProgressOf(votingId).getId();
+
+        // When
+        votingRepository.channelAccountsCreated(votingId, channelProgressId, createAccounts(7));
+
+        // Then
+        int numOfChannelAccounts = ebeanServer.createQuery(JpaVotingChannelAccount.class)
+                .where()
+                .eq("voting.id", votingId)
+                .findCount();
+        assertThat(numOfChannelAccounts, equalTo(7));
+
+        JpaChannelAccountProgress channelProgress = ebeanServer.find(JpaChannelAccountProgress.class, channelProgressId);
+        assertThat(channelProgress.getNumOfAccountsToCreate(), equalTo(10L));
+        assertThat(channelProgress.getNumOfAccountsLeftToCreate(), equalTo(3L));
+    }
+
+    @Test
+    public void testSingleForResponseRunsTwoQueries() {
+        // Given
+        Long votingId = seedVotingGraph();
+
+        // When
+        LoggedSql.start();
+        JpaVoting voting = votingRepository.single(votingId, VotingFetchProfile.FOR_RESPONSE);
+        touchPollsOf(voting);
+        List<String> executedSql = LoggedSql.stop();
+
+        // Then
+        assertThat(executedSql, hasSize(2));
+    }
+
+    @Test
+    public void testSingleForIpfsExportRunsTwoQueries() {
+        // Given
+        Long votingId = seedVotingGraph();
+
+        // When
+        LoggedSql.start();
+        JpaVoting voting = votingRepository.single(votingId, VotingFetchProfile.FOR_IPFS_EXPORT);
+        touchPollsOf(voting);
+        voting.getChannelGeneratorAccounts().forEach(JpaChannelGeneratorAccount::getAccountPublic);
+        List<String> executedSql = LoggedSql.stop();
+
+        // Then
+        assertThat(executedSql, hasSize(2));
+    }
+
+    @Test
+    public void testSingleForCommissionRunsOneQuery() {
+        // Given
+        Long votingId = seedVotingGraph();
+
+        // When
+        LoggedSql.start();
+        JpaVoting voting = votingRepository.single(votingId, VotingFetchProfile.FOR_COMMISSION);
+        voting.getChannelGeneratorAccounts()
+                .forEach(g -> g.getChannelAccountProgress().getNumOfAccountsLeftToCreate());
+        List<String> executedSql = LoggedSql.stop();
+
+        // Then
+        assertThat(executedSql, hasSize(1));
+    }
+
+    // A voting with 2 polls of 2 options each, and 2 channel generators with their progress.
+    private Long seedVotingGraph() {
+        Long votingId = seedVoting(10);
+        JpaVoting voting = ebeanServer.find(JpaVoting.class, votingId);
+
+        for (int i = 0; i < 2; i++) {
+            JpaVotingPoll poll = new JpaVotingPoll();
+            poll.setQuestion("Question " + i);
+            poll.setVoting(voting);
+            Ebean.save(poll);
+
+            for (int j = 0; j < 2; j++) {
+                JpaVotingPollOption option = new JpaVotingPollOption();
+                option.setName("Option " + j);
+                option.setCode(j);
+                option.setPoll(poll);
+                Ebean.save(option);
+            }
+        }
+
+        votingRepository.channelGeneratorsCreated(votingId, Arrays.asList(
+                new ChannelGenerator(new Account("aGeneratorSecret", "aGeneratorPublic"), 5),
+                new ChannelGenerator(new Account("anotherGeneratorSecret", "anotherGeneratorPublic"), 5)));
+        ruleChainForTests.getApplication().injector().instanceOf(ChannelProgressRepository.class)
+                .channelGeneratorsCreated(votingId);
+
+        return votingId;
+    }
+
+    private static void touchPollsOf(JpaVoting voting) {
+        voting.getPolls().forEach(p -> {
+            p.getQuestion();
+            p.getOptions().forEach(JpaVotingPollOption::getName);
+        });
+    }
+
+    private static Long seedVoting(long votesCap) {
+        JpaVoting voting = new JpaVoting();
+        voting.setTitle("Repository voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy("Walter");
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap(votesCap);
+        voting.setCreatedAt(Instant.now().minus(Duration.ofDays(1)));
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        Ebean.save(voting);
+
+        return voting.getId();
+    }
+
+    private JpaChannelAccountProgress channelProgressOf(Long votingId) {
+        return ebeanServer.createQuery(JpaChannelAccountProgress.class)
+                .where()
+                .eq("channelGenerator.voting.id", votingId)
+                .findOne();
+    }
+
+    private static List<Account> createAccounts(int numOfAccounts) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < numOfAccounts; i++) {
+            accounts.add(new Account("secret" + i, "public" + i));
+        }
+
+        return accounts;
+    }
+}
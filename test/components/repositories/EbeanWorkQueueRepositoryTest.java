@@ -0,0 +1,281 @@
+package components.repositories;
+
+import data.entities.Authorization;
+import data.entities.JpaVoting;
+import data.entities.JpaWorkItem;
+import data.entities.Visibility;
+import data.entities.WorkItemType;
+import data.repositories.imp.EbeanWorkQueueRepository;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ipfs.api.IPFS;
+import ipfs.api.IpfsApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.mockito.Mockito;
+import play.inject.guice.GuiceApplicationBuilder;
+import rules.RuleChainForTests;
+import tasks.TasksOrganizer;
+import units.ipfs.api.imp.MockIpfsApi;
+import units.ipfs.api.imp.MockIpfsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static data.repositories.imp.EbeanWorkItems.push;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static play.inject.Bindings.bind;
+
+/**
+ * H2 has no SELECT ... FOR UPDATE SKIP LOCKED, so claims run with FOR UPDATE here (devote.db.skip.locked = false);
+ * the lease and retry logic is the same either way.
+ */
+public class EbeanWorkQueueRepositoryTest {
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final RuleChainForTests ruleChainForTests;
+
+    @Rule
+    public RuleChain chain;
+
+    private EbeanServer ebeanServer;
+    private EbeanWorkQueueRepository repository;
+
+    public EbeanWorkQueueRepositoryTest() {
+        // Workers of the application would claim the items of the tests.
+        GuiceApplicationBuilder applicationBuilder = new GuiceApplicationBuilder()
+                .overrides(bind(IpfsApi.class).to(MockIpfsApi.class))
+                .overrides(bind(IPFS.class).toProvider(MockIpfsProvider.class))
+                .overrides(bind(TasksOrganizer.class).toInstance(Mockito.mock(TasksOrganizer.class)));
+
+        ruleChainForTests = new RuleChainForTests(applicationBuilder);
+        chain = ruleChainForTests.getRuleChain();
+    }
+
+    @Before
+    public void setup() {
+        ebeanServer = ruleChainForTests.getApplication().injector().instanceOf(EbeanServer.class);
+        repository = new EbeanWorkQueueRepository(ebeanServer, ruleChainForTests.getApplication().config());
+    }
+
+    @Test
+    public void testClaim() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        push(ebeanServer, WorkItemType.VOTING_INIT, 2L);
+
+        // When
+        Instant claimedAt = Instant.now();
+        JpaWorkItem aWorkItem = repository.claim(LEASE).get();
+        JpaWorkItem anotherWorkItem = repository.claim(LEASE).get();
+        Optional<JpaWorkItem> noWorkItem = repository.claim(LEASE);
+
+        // Then
+        assertThat(new HashSet<>(Arrays.asList(aWorkItem.getReferenceId(), anotherWorkItem.getReferenceId())),
+                containsInAnyOrder(1L, 2L));
+        assertThat(noWorkItem.isPresent(), equalTo(false));
+
+        JpaWorkItem storedWorkItem = ebeanServer.find(JpaWorkItem.class, aWorkItem.getId());
+        assertThat(storedWorkItem.getAttempts(), equalTo(1));
+        assertThat(storedWorkItem.getClaimedUntil(), greaterThan(claimedAt.plus(LEASE).minusSeconds(1)));
+    }
+
+    @Test
+    public void testItemIsNotClaimedBeforeItsTime() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        ebeanServer.createUpdate(JpaWorkItem.class, "update JpaWorkItem set notBefore = :notBefore")
+                .setParameter("notBefore", Instant.now().plus(Duration.ofHours(1)))
+                .execute();
+
+        // When
+        Optional<JpaWorkItem> workItem = repository.claim(LEASE);
+
+        // Then
+        assertThat(workItem.isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void testExpiredLeaseIsReclaimed() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        JpaWorkItem claimedWorkItem = repository.claim(LEASE).get();
+
+        Optional<JpaWorkItem> claimWhileLeased = repository.claim(LEASE);
+        expireLeaseOf(claimedWorkItem.getId());
+
+        // When
+        Optional<JpaWorkItem> reclaimedWorkItem = repository.claim(LEASE);
+
+        // Then
+        assertThat(claimWhileLeased.isPresent(), equalTo(false));
+        assertThat(reclaimedWorkItem.isPresent(), equalTo(true));
+        assertThat(reclaimedWorkItem.get().getId(), equalTo(claimedWorkItem.getId()));
+        assertThat(reclaimedWorkItem.get().getAttempts(), equalTo(2));
+    }
+
+    @Test
+    public void testExtendLease() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        JpaWorkItem claimedWorkItem = repository.claim(LEASE).get();
+        expireLeaseOf(claimedWorkItem.getId());
+
+        // When
+        boolean isExtended = repository.extendLease(claimedWorkItem.getId(), claimedWorkItem.getClaimedBy(), LEASE);
+
+        // Then
+        assertThat(isExtended, equalTo(true));
+        assertThat(repository.claim(LEASE).isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void testRetryLater() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        JpaWorkItem firstClaim = repository.claim(LEASE).get();
+
+        // When
+        repository.retryLater(firstClaim.getId(), firstClaim.getClaimedBy(), Duration.ZERO);
+        JpaWorkItem secondClaim = repository.claim(LEASE).get();
+
+        repository.retryLater(secondClaim.getId(), secondClaim.getClaimedBy(), Duration.ofHours(1));
+        Optional<JpaWorkItem> claimBeforeRetryDelay = repository.claim(LEASE);
+
+        // Then
+        assertThat(firstClaim.getAttempts(), equalTo(1));
+        assertThat(secondClaim.getAttempts(), equalTo(2));
+        assertThat(claimBeforeRetryDelay.isPresent(), equalTo(false));
+
+        JpaWorkItem storedWorkItem = ebeanServer.find(JpaWorkItem.class, firstClaim.getId());
+        assertThat(storedWorkItem.getAttempts(), equalTo(2));
+        assertThat(storedWorkItem.getClaimedUntil(), nullValue());
+        assertThat(storedWorkItem.getClaimedBy(), nullValue());
+    }
+
+    @Test
+    public void testItemOutOfAttemptsIsFailed() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        ebeanServer.createUpdate(JpaWorkItem.class, "update JpaWorkItem set attempts = :attempts")
+                .setParameter("attempts", maxAttempts() - 1)
+                .execute();
+        JpaWorkItem lastClaim = repository.claim(LEASE).get();
+
+        // When
+        boolean isClaimed = repository.retryLater(lastClaim.getId(), lastClaim.getClaimedBy(), Duration.ZERO);
+        Optional<JpaWorkItem> claimAfterFailure = repository.claim(LEASE);
+
+        // Then
+        assertThat(isClaimed, equalTo(true));
+        assertThat(claimAfterFailure.isPresent(), equalTo(false));
+
+        JpaWorkItem storedWorkItem = ebeanServer.find(JpaWorkItem.class, lastClaim.getId());
+        assertThat(storedWorkItem.getAttempts(), equalTo(maxAttempts()));
+        assertThat(storedWorkItem.getFailedAt(), notNullValue());
+    }
+
+    @Test
+    public void testLostClaimDoesNotChangeItem() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        JpaWorkItem staleClaim = repository.claim(LEASE).get();
+        expireLeaseOf(staleClaim.getId());
+        JpaWorkItem currentClaim = repository.claim(LEASE).get();
+
+        // When
+        boolean isExtended = repository.extendLease(staleClaim.getId(), staleClaim.getClaimedBy(), LEASE);
+        boolean isRetried = repository.retryLater(staleClaim.getId(), staleClaim.getClaimedBy(), Duration.ZERO);
+        boolean isPostponed = repository.postpone(staleClaim.getId(), staleClaim.getClaimedBy(), Duration.ZERO);
+        boolean isCompleted = repository.complete(staleClaim.getId(), staleClaim.getClaimedBy());
+
+        // Then
+        assertThat(isExtended, equalTo(false));
+        assertThat(isRetried, equalTo(false));
+        assertThat(isPostponed, equalTo(false));
+        assertThat(isCompleted, equalTo(false));
+
+        JpaWorkItem storedWorkItem = ebeanServer.find(JpaWorkItem.class, currentClaim.getId());
+        assertThat(storedWorkItem.getClaimedBy(), equalTo(currentClaim.getClaimedBy()));
+        assertThat(storedWorkItem.getClaimedUntil(), notNullValue());
+        assertThat(storedWorkItem.getAttempts(), equalTo(2));
+    }
+
+    @Test
+    public void testPostponeDoesNotCountAsAttempt() {
+        // Given
+        push(ebeanServer, WorkItemType.CHANNEL_PROGRESS, 1L);
+        JpaWorkItem firstClaim = repository.claim(LEASE).get();
+
+        // When
+        repository.postpone(firstClaim.getId(), firstClaim.getClaimedBy(), Duration.ZERO);
+        JpaWorkItem secondClaim = repository.claim(LEASE).get();
+
+        // Then
+        assertThat(secondClaim.getId(), equalTo(firstClaim.getId()));
+        assertThat(secondClaim.getAttempts(), equalTo(1));
+    }
+
+    @Test
+    public void testComplete() {
+        // Given
+        push(ebeanServer, WorkItemType.VOTING_INIT, 1L);
+        JpaWorkItem claimedWorkItem = repository.claim(LEASE).get();
+
+        // When
+        repository.complete(claimedWorkItem.getId(), claimedWorkItem.getClaimedBy());
+
+        // Then
+        assertThat(ebeanServer.find(JpaWorkItem.class, claimedWorkItem.getId()), nullValue());
+    }
+
+    @Test
+    public void testEnqueueUnfinishedWork() {
+        // Given
+        Long votingId = seedNotInitializedVoting();
+
+        // When
+        repository.enqueueUnfinishedWork();
+        repository.enqueueUnfinishedWork();
+
+        // Then
+        List<JpaWorkItem> workItems = ebeanServer.createQuery(JpaWorkItem.class).findList();
+        assertThat(workItems, hasSize(1));
+        assertThat(workItems.get(0).getType(), equalTo(WorkItemType.VOTING_INIT));
+        assertThat(workItems.get(0).getReferenceId(), equalTo(votingId));
+    }
+
+    private int maxAttempts() {
+        return ruleChainForTests.getApplication().config().getInt("devote.tasks.max.attempts");
+    }
+
+    private void expireLeaseOf(Long id) {
+        ebeanServer.createUpdate(JpaWorkItem.class, "update JpaWorkItem set claimedUntil = :claimedUntil where id = :id")
+                .setParameter("claimedUntil", Instant.now().minusSeconds(1))
+                .setParameter("id", id)
+                .execute();
+    }
+
+    private static Long seedNotInitializedVoting() {
+        JpaVoting voting = new JpaVoting();
+        voting.setTitle("Not initialized voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy("Walter");
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap(42L);
+        voting.setCreatedAt(Instant.now().minus(Duration.ofDays(1)));
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        Ebean.save(voting);
+
+        return voting.getId();
+    }
+}
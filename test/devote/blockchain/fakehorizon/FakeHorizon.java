@@ -0,0 +1,477 @@
+package devote.blockchain.fakehorizon;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import devote.blockchain.fakehorizon.FakeHorizonLedger.AppliedTransaction;
+import devote.blockchain.fakehorizon.FakeHorizonLedger.FakeAccount;
+import org.stellar.sdk.AbstractTransaction;
+import org.stellar.sdk.FeeBumpTransaction;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.Transaction;
+import org.stellar.sdk.xdr.Int64;
+import org.stellar.sdk.xdr.OperationResult;
+import org.stellar.sdk.xdr.TransactionResult;
+import org.stellar.sdk.xdr.TransactionResultCode;
+import org.stellar.sdk.xdr.XdrDataOutputStream;
+import play.Logger;
+import play.libs.Json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A stand-in for Horizon, so that the Stellar blockchain layer can be load tested without touching a real network.
+ * <p>
+ * It's an embeddable HTTP server with in memory ledgers, serving the endpoints the blockchain layer uses: loading
+ * accounts, submitting transactions (synchronously and asynchronously) and getting a transaction by its hash.
+ * Ledgers are closed periodically; a synchronous submission is answered once the ledger of the transaction closed, the
+ * same way as Horizon does it. Sequence numbers, fees and XLM balances are checked, and the usual result codes are
+ * given (e.g. tx_bad_seq, tx_insufficient_fee, op_underfunded). Fee-bumps are accepted, and fee stats are given with
+ * every fee charged being the minimum base fee, which can be raised while running to simulate surge pricing. Signatures
+ * are not verified.
+ * <p>
+ * Latency can be added to every request, and a given ratio of requests can be failed (e.g. with 429 or 503) to see
+ * how the client copes with an overloaded Horizon.
+ * <p>
+ * Usage: start it, create (fund) the accounts the test starts from, and point {@code devote.blockchain.stellar.url}
+ * (and {@code devote.blockchain.stellar.testnet.url}) at {@link #getUrl()}; or use {@link #stellarConfig()}. Hashes are
+ * computed with the network given to the constructor, so use the operations of that network.
+ */
+public class FakeHorizon implements AutoCloseable {
+    private final Network network;
+    private final FakeHorizonLedger ledger = new FakeHorizonLedger();
+    private final LongAdder numOfRequests = new LongAdder();
+    private final LongAdder numOfInjectedFailures = new LongAdder();
+
+    private long latencyMillis = 0;
+    private double failureRate = 0;
+    private int failureStatus = 503;
+    private long ledgerCloseIntervalMillis = 1000;
+
+    private HttpServer httpServer;
+    private ExecutorService requestExecutor;
+    private ScheduledExecutorService ledgerCloser;
+
+    private static final Logger.ALogger logger = Logger.of(FakeHorizon.class);
+
+    public FakeHorizon(Network network) {
+        this.network = network;
+    }
+
+    public FakeHorizon withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param failureRate ratio of requests to fail, between 0 and 1.
+     * @param failureStatus HTTP status of the failed requests, e.g. 429 or 503.
+     */
+    public FakeHorizon withFailures(double failureRate, int failureStatus) {
+        this.failureRate = failureRate;
+        this.failureStatus = failureStatus;
+        return this;
+    }
+
+    /**
+     * @param minBaseFee the minimum fee per operation (in stroops) a transaction must offer to be accepted. Can be
+     *                   changed while running.
+     */
+    public FakeHorizon withMinBaseFee(long minBaseFee) {
+        ledger.setMinBaseFee(minBaseFee);
+        return this;
+    }
+
+    public FakeHorizon withLedgerCloseInterval(long ledgerCloseIntervalMillis) {
+        this.ledgerCloseIntervalMillis = ledgerCloseIntervalMillis;
+        return this;
+    }
+
+    public FakeHorizon start() throws IOException {
+        requestExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("fake-horizon-%d")
+                .setDaemon(true)
+                .build());
+        ledgerCloser = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("fake-horizon-ledger-closer")
+                .setDaemon(true)
+                .build());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(requestExecutor);
+        httpServer.start();
+
+        ledgerCloser.scheduleAtFixedRate(ledger::closeLedger,
+                ledgerCloseIntervalMillis, ledgerCloseIntervalMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("[FAKE HORIZON]: started at {}", getUrl());
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * The Stellar configuration of application-common.conf, pointing at this Horizon with both networks.
+     */
+    public Config stellarConfig() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("devote.blockchain.stellar.url", getUrl());
+        values.put("devote.blockchain.stellar.testnet.url", getUrl());
+
+        return ConfigFactory.parseMap(values)
+                .withFallback(ConfigFactory.parseResources("application-common.conf")
+                        .withOnlyPath("devote.blockchain.stellar"))
+                .resolve();
+    }
+
+    public KeyPair createAccount(BigDecimal balance) {
+        KeyPair account = KeyPair.random();
+        createAccount(account.getAccountId(), balance);
+        return account;
+    }
+
+    public void createAccount(String accountId, BigDecimal balance) {
+        ledger.createAccount(accountId, balance);
+    }
+
+    public boolean exists(String accountId) {
+        return ledger.account(accountId) != null;
+    }
+
+    public long sequenceOf(String accountId) {
+        return ledger.account(accountId).sequence;
+    }
+
+    public BigDecimal balanceOf(String accountId) {
+        return ledger.account(accountId).balance;
+    }
+
+    public long getCurrentLedger() {
+        return ledger.getCurrentLedger();
+    }
+
+    public int getNumOfTransactions() {
+        return ledger.getNumOfTransactions();
+    }
+
+    public long getNumOfRequests() {
+        return numOfRequests.sum();
+    }
+
+    public long getNumOfInjectedFailures() {
+        return numOfInjectedFailures.sum();
+    }
+
+    @Override
+    public void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            requestExecutor.shutdownNow();
+            ledgerCloser.shutdownNow();
+            logger.info("[FAKE HORIZON]: stopped");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        numOfRequests.increment();
+
+        try {
+            sleep(latencyMillis);
+
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                numOfInjectedFailures.increment();
+                respond(exchange, failureStatus, problem(failureStatus, "Injected failure"));
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+
+            if ("GET".equals(method) && path.length == 3 && "accounts".equals(path[1])) {
+                handleGetAccount(exchange, path[2]);
+            } else if ("POST".equals(method) && path.length == 2 && "transactions".equals(path[1])) {
+                handleSubmit(exchange);
+            } else if ("POST".equals(method) && path.length == 2 && "transactions_async".equals(path[1])) {
+                handleSubmitAsync(exchange);
+            } else if ("GET".equals(method) && path.length == 3 && "transactions".equals(path[1])) {
+                handleGetTransaction(exchange, path[2]);
+            } else if ("GET".equals(method) && path.length == 2 && "fee_stats".equals(path[1])) {
+                handleGetFeeStats(exchange);
+            } else {
+                respond(exchange, 404, problem(404, "Resource Missing"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, problem(503, "Service Unavailable"));
+        } catch (RuntimeException e) {
+            logger.warn("[FAKE HORIZON]: failed to handle {}", exchange.getRequestURI(), e);
+            respond(exchange, 500, problem(500, "Internal Server Error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleGetAccount(HttpExchange exchange, String accountId) throws IOException {
+        FakeAccount account = ledger.account(accountId);
+        if (account == null) {
+            respond(exchange, 404, problem(404, "Resource Missing"));
+            return;
+        }
+
+        ObjectNode body = Json.newObject();
+        body.put("id", account.accountId);
+        body.put("account_id", account.accountId);
+        body.put("sequence", Long.toString(account.sequence));
+        body.put("subentry_count", 0);
+        body.putObject("thresholds")
+                .put("low_threshold", 0)
+                .put("med_threshold", 0)
+                .put("high_threshold", 0);
+        body.putObject("flags")
+                .put("auth_required", false)
+                .put("auth_revocable", false)
+                .put("auth_immutable", false);
+        body.putArray("balances").addObject()
+                .put("asset_type", "native")
+                .put("balance", account.balance.toPlainString());
+        body.putArray("signers").addObject()
+                .put("key", account.accountId)
+                .put("weight", 1)
+                .put("type", "ed25519_public_key");
+        body.putObject("data");
+
+        respond(exchange, 200, body);
+    }
+
+    private void handleSubmit(HttpExchange exchange) throws IOException, InterruptedException {
+        AppliedTransaction applied = apply(exchange);
+        if (applied == null) {
+            return;
+        }
+
+        if (!applied.isSuccess()) {
+            respond(exchange, 400, failedTransaction(applied));
+            return;
+        }
+
+        // Horizon answers when the transaction got into a ledger.
+        ledger.awaitClosed(applied.ledger);
+        respond(exchange, 200, successfulTransaction(applied));
+    }
+
+    private void handleSubmitAsync(HttpExchange exchange) throws IOException {
+        AppliedTransaction applied = apply(exchange);
+        if (applied == null) {
+            return;
+        }
+
+        ObjectNode body = Json.newObject();
+        body.put("hash", applied.hash);
+
+        if (applied.isSuccess()) {
+            body.put("tx_status", "PENDING");
+            respond(exchange, 201, body);
+        } else {
+            body.put("tx_status", "ERROR");
+            body.put("errorResultXdr", transactionResultXdrOf(applied));
+            respond(exchange, 400, body);
+        }
+    }
+
+    private void handleGetTransaction(HttpExchange exchange, String hash) throws IOException {
+        AppliedTransaction applied = ledger.transaction(hash);
+        if (applied == null) {
+            respond(exchange, 404, problem(404, "Resource Missing"));
+        } else {
+            respond(exchange, 200, successfulTransaction(applied));
+        }
+    }
+
+    private void handleGetFeeStats(HttpExchange exchange) throws IOException {
+        String minBaseFee = Long.toString(ledger.getMinBaseFee());
+
+        ObjectNode body = Json.newObject();
+        body.put("last_ledger", Long.toString(ledger.getCurrentLedger()));
+        body.put("last_ledger_base_fee", Long.toString(AbstractTransaction.MIN_BASE_FEE));
+        body.put("ledger_capacity_usage", "0.5");
+        for (String distribution : new String[]{"fee_charged", "max_fee"}) {
+            ObjectNode fees = body.putObject(distribution);
+            for (String stat : new String[]{"max", "min", "mode", "p10", "p20", "p30", "p40", "p50", "p60", "p70", "p80", "p90", "p95", "p99"}) {
+                fees.put(stat, minBaseFee);
+            }
+        }
+
+        respond(exchange, 200, body);
+    }
+
+    // Returns null when the request could not be taken as a transaction; it's answered then.
+    private AppliedTransaction apply(HttpExchange exchange) throws IOException {
+        String envelopeXdr = formParamOf(exchange, "tx");
+        if (envelopeXdr == null) {
+            respond(exchange, 400, problem(400, "Transaction Missing"));
+            return null;
+        }
+
+        AbstractTransaction transaction;
+        try {
+            transaction = AbstractTransaction.fromEnvelopeXdr(envelopeXdr, network);
+        } catch (IOException | RuntimeException e) {
+            respond(exchange, 400, problem(400, "Transaction Malformed"));
+            return null;
+        }
+
+        if (transaction instanceof FeeBumpTransaction) {
+            FeeBumpTransaction feeBump = (FeeBumpTransaction) transaction;
+            Transaction inner = feeBump.getInnerTransaction();
+
+            return ledger.apply(inner, feeBump.hashHex(), envelopeXdr,
+                    feeBump.getFee(), feeBump.getFeeAccount(), inner.getOperations().length + 1);
+        }
+
+        Transaction tx = (Transaction) transaction;
+        return ledger.apply(tx, tx.hashHex(), envelopeXdr, tx.getFee(), tx.getSourceAccount(), tx.getOperations().length);
+    }
+
+    private ObjectNode successfulTransaction(AppliedTransaction applied) {
+        ObjectNode body = Json.newObject();
+        body.put("id", applied.hash);
+        body.put("hash", applied.hash);
+        body.put("ledger", applied.ledger);
+        body.put("successful", true);
+        body.put("envelope_xdr", applied.envelopeXdr);
+        body.put("result_xdr", transactionResultXdrOf(applied));
+
+        return body;
+    }
+
+    private ObjectNode failedTransaction(AppliedTransaction applied) {
+        ObjectNode resultCodes = Json.newObject();
+        resultCodes.put("transaction", applied.transactionResultCode);
+        applied.operationResultCodes.forEach(resultCodes.putArray("operations")::add);
+
+        ObjectNode body = problem(400, "Transaction Failed");
+        body.putObject("extras")
+                .put("envelope_xdr", applied.envelopeXdr)
+                .put("result_xdr", transactionResultXdrOf(applied))
+                .set("result_codes", resultCodes);
+
+        return body;
+    }
+
+    private static ObjectNode problem(int status, String title) {
+        ObjectNode body = Json.newObject();
+        body.put("type", "https://stellar.org/horizon-errors/" + title.toLowerCase().replace(' ', '_'));
+        body.put("title", title);
+        body.put("status", status);
+
+        return body;
+    }
+
+    private static String transactionResultXdrOf(AppliedTransaction applied) {
+        Int64 feeCharged = new Int64();
+        feeCharged.setInt64(0L);
+
+        TransactionResult.TransactionResultResult result = new TransactionResult.TransactionResultResult();
+        result.setDiscriminant(transactionResultCodeOf(applied.transactionResultCode));
+        if (result.getDiscriminant() == TransactionResultCode.txSUCCESS ||
+                result.getDiscriminant() == TransactionResultCode.txFAILED) {
+            result.setResults(new OperationResult[0]);
+        }
+
+        TransactionResult.TransactionResultExt ext = new TransactionResult.TransactionResultExt();
+        ext.setDiscriminant(0);
+
+        TransactionResult transactionResult = new TransactionResult();
+        transactionResult.setFeeCharged(feeCharged);
+        transactionResult.setResult(result);
+        transactionResult.setExt(ext);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            TransactionResult.encode(new XdrDataOutputStream(bytes), transactionResult);
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode transaction result!", e);
+        }
+    }
+
+    // E.g. tx_bad_seq -> txBAD_SEQ
+    private static TransactionResultCode transactionResultCodeOf(String horizonResultCode) {
+        if (horizonResultCode == null) {
+            return TransactionResultCode.txSUCCESS;
+        }
+
+        if ("tx_no_source_account".equals(horizonResultCode)) {
+            return TransactionResultCode.txNO_ACCOUNT;
+        }
+
+        return TransactionResultCode.valueOf("tx" + horizonResultCode.substring(3).toUpperCase());
+    }
+
+    private static String formParamOf(HttpExchange exchange, String name) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(readAll(in), StandardCharsets.UTF_8);
+        }
+
+        for (String param : body.split("&")) {
+            String[] nameAndValue = param.split("=", 2);
+            if (nameAndValue.length == 2 && name.equals(nameAndValue[0])) {
+                return URLDecoder.decode(nameAndValue[1], StandardCharsets.UTF_8.name());
+            }
+        }
+
+        return null;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package devote.blockchain.fakehorizon;
+
+import org.stellar.sdk.CreateAccountOperation;
+import org.stellar.sdk.Operation;
+import org.stellar.sdk.PaymentOperation;
+import org.stellar.sdk.AssetTypeNative;
+import org.stellar.sdk.Transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory state of the fake Horizon: accounts with their sequence numbers and XLM balances, and the transactions
+ * applied so far. Only what the blockchain layer needs is modelled: signatures are not checked, and operations other
+ * than account creation and XLM payment are accepted without any effect.
+ */
+class FakeHorizonLedger {
+    private static final BigDecimal STROOPS_PER_XLM = new BigDecimal(10_000_000);
+
+    private final Map<String, FakeAccount> accounts = new HashMap<>();
+    private final Map<String, AppliedTransaction> transactions = new HashMap<>();
+    private long currentLedger = 1000;
+    private long minBaseFee = 100;
+
+    synchronized void createAccount(String accountId, BigDecimal balance) {
+        accounts.put(accountId, new FakeAccount(accountId, currentLedger << 32, balance));
+    }
+
+    synchronized FakeAccount account(String accountId) {
+        FakeAccount account = accounts.get(accountId);
+        return account == null ? null : account.copy();
+    }
+
+    synchronized AppliedTransaction transaction(String hash) {
+        AppliedTransaction transaction = transactions.get(hash);
+        if (transaction == null || transaction.ledger > currentLedger) {
+            // Not closed yet.
+            return null;
+        }
+
+        return transaction;
+    }
+
+    synchronized long closeLedger() {
+        currentLedger++;
+        notifyAll();
+        return currentLedger;
+    }
+
+    synchronized void awaitClosed(long ledger) throws InterruptedException {
+        while (currentLedger < ledger) {
+            wait();
+        }
+    }
+
+    synchronized long getCurrentLedger() {
+        return currentLedger;
+    }
+
+    synchronized void setMinBaseFee(long minBaseFee) {
+        this.minBaseFee = minBaseFee;
+    }
+
+    synchronized long getMinBaseFee() {
+        return minBaseFee;
+    }
+
+    synchronized int getNumOfTransactions() {
+        return transactions.size();
+    }
+
+    /**
+     * Applies the transaction to the ledger being built, i.e. the next one to be closed.
+     *
+     * @param hash         hash of the transaction, or of the fee-bump wrapping it.
+     * @param offeredFee   fee of the transaction, or of the fee-bump wrapping it.
+     * @param feeAccountId account paying the fee; the source of the transaction, or the fee account of the fee-bump.
+     * @param numOfFeeOps  number of operations the fee is for; a fee-bump counts as one more operation.
+     */
+    synchronized AppliedTransaction apply(Transaction transaction, String hash, String envelopeXdr,
+                                          long offeredFee, String feeAccountId, int numOfFeeOps) {
+        AppliedTransaction alreadyApplied = transactions.get(hash);
+        if (alreadyApplied != null) {
+            return alreadyApplied;
+        }
+
+        FakeAccount source = accounts.get(transaction.getSourceAccount());
+        FakeAccount feeAccount = accounts.get(feeAccountId);
+        if (source == null || feeAccount == null) {
+            return AppliedTransaction.failed(hash, envelopeXdr, "tx_no_source_account");
+        }
+
+        if (transaction.getSequenceNumber() != source.sequence + 1) {
+            return AppliedTransaction.failed(hash, envelopeXdr, "tx_bad_seq");
+        }
+
+        long feeCharged = minBaseFee * numOfFeeOps;
+        if (offeredFee < feeCharged) {
+            return AppliedTransaction.failed(hash, envelopeXdr, "tx_insufficient_fee");
+        }
+
+        Operation[] operations = transaction.getOperations();
+
+        List<String> operationResults = new ArrayList<>();
+        boolean areAllOperationsValid = true;
+        for (Operation operation : operations) {
+            String result = check(operation, transaction.getSourceAccount());
+            operationResults.add(result);
+            areAllOperationsValid &= "op_success".equals(result);
+        }
+
+        // A failed transaction still uses up its sequence number, and its fee is charged.
+        source.sequence++;
+        feeAccount.balance = feeAccount.balance.subtract(toXlm(feeCharged));
+
+        if (!areAllOperationsValid) {
+            return AppliedTransaction.failed(hash, envelopeXdr, "tx_failed", operationResults);
+        }
+
+        for (Operation operation : operations) {
+            applyOperation(operation, transaction.getSourceAccount());
+        }
+
+        AppliedTransaction applied = new AppliedTransaction(hash, envelopeXdr, currentLedger + 1, null, operationResults);
+        transactions.put(hash, applied);
+        return applied;
+    }
+
+    private String check(Operation operation, String transactionSource) {
+        FakeAccount source = accounts.get(sourceOf(operation, transactionSource));
+
+        if (operation instanceof CreateAccountOperation) {
+            CreateAccountOperation createAccount = (CreateAccountOperation) operation;
+            if (accounts.containsKey(createAccount.getDestination())) {
+                return "op_already_exists";
+            }
+
+            if (source == null || source.balance.compareTo(new BigDecimal(createAccount.getStartingBalance())) < 0) {
+                return "op_underfunded";
+            }
+        } else if (operation instanceof PaymentOperation && ((PaymentOperation) operation).getAsset() instanceof AssetTypeNative) {
+            PaymentOperation payment = (PaymentOperation) operation;
+            if (source == null || source.balance.compareTo(new BigDecimal(payment.getAmount())) < 0) {
+                return "op_underfunded";
+            }
+        }
+
+        return "op_success";
+    }
+
+    private void applyOperation(Operation operation, String transactionSource) {
+        FakeAccount source = accounts.get(sourceOf(operation, transactionSource));
+
+        if (operation instanceof CreateAccountOperation) {
+            CreateAccountOperation createAccount = (CreateAccountOperation) operation;
+            BigDecimal startingBalance = new BigDecimal(createAccount.getStartingBalance());
+
+            source.balance = source.balance.subtract(startingBalance);
+            accounts.put(createAccount.getDestination(),
+                    new FakeAccount(createAccount.getDestination(), (currentLedger + 1) << 32, startingBalance));
+        } else if (operation instanceof PaymentOperation && ((PaymentOperation) operation).getAsset() instanceof AssetTypeNative) {
+            PaymentOperation payment = (PaymentOperation) operation;
+            BigDecimal amount = new BigDecimal(payment.getAmount());
+            FakeAccount destination = accounts.get(payment.getDestination());
+
+            source.balance = source.balance.subtract(amount);
+            if (destination != null) {
+                destination.balance = destination.balance.add(amount);
+            }
+        }
+    }
+
+    private static String sourceOf(Operation operation, String transactionSource) {
+        return operation.getSourceAccount() != null ? operation.getSourceAccount() : transactionSource;
+    }
+
+    private static BigDecimal toXlm(long stroops) {
+        return new BigDecimal(stroops).divide(STROOPS_PER_XLM);
+    }
+
+    static class FakeAccount {
+        final String accountId;
+        long sequence;
+        BigDecimal balance;
+
+        FakeAccount(String accountId, long sequence, BigDecimal balance) {
+            this.accountId = accountId;
+            this.sequence = sequence;
+            this.balance = balance;
+        }
+
+        FakeAccount copy() {
+            return new FakeAccount(accountId, sequence, balance);
+        }
+    }
+
+    static class AppliedTransaction {
+        final String hash;
+        final String envelopeXdr;
+        final long ledger;
+        final String transactionResultCode;
+        final List<String> operationResultCodes;
+
+        AppliedTransaction(String hash, String envelopeXdr, long ledger, String transactionResultCode,
+                           List<String> operationResultCodes) {
+            this.hash = hash;
+            this.envelopeXdr = envelopeXdr;
+            this.ledger = ledger;
+            this.transactionResultCode = transactionResultCode;
+            this.operationResultCodes = operationResultCodes;
+        }
+
+        static AppliedTransaction failed(String hash, String envelopeXdr, String transactionResultCode) {
+            return failed(hash, envelopeXdr, transactionResultCode, new ArrayList<>());
+        }
+
+        static AppliedTransaction failed(String hash, String envelopeXdr, String transactionResultCode,
+                                         List<String> operationResultCodes) {
+            return new AppliedTransaction(hash, envelopeXdr, 0, transactionResultCode, operationResultCodes);
+        }
+
+        boolean isSuccess() {
+            return transactionResultCode == null;
+        }
+    }
+}
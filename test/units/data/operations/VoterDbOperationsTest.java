@@ -0,0 +1,161 @@
+package units.data.operations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import data.entities.JpaVoter;
+import data.operations.VoterDbOperations;
+import data.repositories.VoterRepository;
+import data.repositories.VotersImportResult;
+import executioncontexts.DatabaseExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import play.libs.Json;
+import services.commissionsubs.userinfo.UserInfoCollector;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VoterDbOperationsTest {
+    @Mock
+    private VoterRepository mockVoterRepository;
+
+    @Mock
+    private UserInfoCollector mockUserInfoCollector;
+
+    @Mock
+    private DatabaseExecutionContext mockDbExecContext;
+
+    @Mock
+    private Config mockConfig;
+
+    private VoterDbOperations voterDbOperations;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(mockDbExecContext).execute(any(Runnable.class));
+
+        when(mockConfig.getInt("devote.voters.known.users.cache.size")).thenReturn(10);
+        when(mockConfig.getLong("devote.voters.unknown.users.cache.sec")).thenReturn(60L);
+        when(mockVoterRepository.getUserIdsOfVoters(anyInt())).thenReturn(Collections.singletonList("Bob"));
+
+        voterDbOperations = new VoterDbOperations(mockVoterRepository, mockUserInfoCollector, mockDbExecContext, mockConfig);
+    }
+
+    @Test
+    public void testKnownUserOnStartupIsNotLookedUp() {
+        // Given
+        // When
+        CompletionStage<Void> result = voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Bob");
+
+        // Then
+        assertThat(result.toCompletableFuture().isDone(), equalTo(true));
+        verify(mockVoterRepository, never()).getVoterByUserId(anyString());
+        verify(mockUserInfoCollector, never()).collect(anyString());
+    }
+
+    @Test
+    public void testConcurrentRequestsOfNewUserCollectOnce() {
+        // Given
+        CompletableFuture<JsonNode> userInfo = new CompletableFuture<>();
+        when(mockUserInfoCollector.collect(anyString())).thenReturn(userInfo);
+        when(mockVoterRepository.setUserIdForEmail("alice@mail.com", "Alice")).thenReturn(true);
+
+        // When
+        CompletionStage<Void> firstResult = voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Alice");
+        CompletionStage<Void> secondResult = voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Alice");
+        userInfo.complete(userInfoOf("Alice", "alice@mail.com"));
+        CompletionStage<Void> laterResult = voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Alice");
+
+        // Then
+        assertThat(firstResult.toCompletableFuture().isDone(), equalTo(true));
+        assertThat(secondResult.toCompletableFuture().isDone(), equalTo(true));
+        assertThat(laterResult.toCompletableFuture().isDone(), equalTo(true));
+        verify(mockVoterRepository, times(1)).getVoterByUserId("Alice");
+        verify(mockUserInfoCollector, times(1)).collect("someAccessToken");
+    }
+
+    @Test
+    public void testUserLinkedInDbIsRemembered() {
+        // Given
+        when(mockVoterRepository.getVoterByUserId("Charlie")).thenReturn(new JpaVoter());
+
+        // When
+        voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Charlie");
+        voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Charlie");
+
+        // Then
+        verify(mockVoterRepository, times(1)).getVoterByUserId("Charlie");
+        verify(mockUserInfoCollector, never()).collect(anyString());
+    }
+
+    @Test
+    public void testUserWithoutVoterIsRemembered() {
+        // Given
+        when(mockUserInfoCollector.collect(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(userInfoOf("Dave", "dave@mail.com")));
+        when(mockVoterRepository.setUserIdForEmail("dave@mail.com", "Dave")).thenReturn(false);
+
+        // When
+        voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Dave");
+        CompletionStage<Void> laterResult = voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Dave");
+
+        // Then
+        assertThat(laterResult.toCompletableFuture().isDone(), equalTo(true));
+        verify(mockVoterRepository, times(1)).getVoterByUserId("Dave");
+        verify(mockUserInfoCollector, times(1)).collect("someAccessToken");
+    }
+
+    @Test
+    public void testUserWithoutVoterIsLookedUpAgainAfterImport() throws Exception {
+        // Given
+        when(mockUserInfoCollector.collect(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(userInfoOf("Dave", "dave@mail.com")));
+        when(mockVoterRepository.setUserIdForEmail("dave@mail.com", "Dave")).thenReturn(false);
+        when(mockVoterRepository.importVoters(anyLong(), any())).thenReturn(new VotersImportResult());
+
+        Path emailsFile = Files.createTempFile("voters", ".txt");
+        Files.write(emailsFile, Collections.singletonList("dave@mail.com"));
+
+        voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Dave");
+
+        // When
+        voterDbOperations.importVoters(42L, emailsFile);
+        voterDbOperations.collectUserInfoIfNeeded("someAccessToken", "Dave");
+
+        // Then
+        verify(mockVoterRepository, times(2)).getVoterByUserId("Dave");
+        Files.delete(emailsFile);
+    }
+
+    private static JsonNode userInfoOf(String userId, String email) {
+        ObjectNode userInfo = Json.newObject();
+        userInfo.put("sub", userId);
+        userInfo.put("email", email);
+        userInfo.put("email_verified", true);
+        return userInfo;
+    }
+}
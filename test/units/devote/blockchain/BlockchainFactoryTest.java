@@ -17,9 +17,14 @@ import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BlockchainFactoryTest {
@@ -55,6 +60,51 @@ public class BlockchainFactoryTest {
         assertThat(exception.getMessage(), containsString("Failed to create instance of"));
     }
 
+    @Test
+    public void testSharedOperationIsCreatedOncePerNetwork() {
+        // Given
+        Set<Class<?>> mockIssuerClassSet = new HashSet<>();
+        mockIssuerClassSet.add(SomeMockChannelGeneratorOperation.class);
+
+        when(mockReflections.getSubTypesOf(any())).thenReturn(mockIssuerClassSet);
+
+        // When
+        ChannelGeneratorAccountOperation mainNetOperation = blockchainFactory.channelGeneratorAccountOperation(false);
+        ChannelGeneratorAccountOperation testNetOperation = blockchainFactory.channelGeneratorAccountOperation(true);
+
+        // Then
+        assertThat(blockchainFactory.channelGeneratorAccountOperation(false), sameInstance(mainNetOperation));
+        assertThat(blockchainFactory.channelGeneratorAccountOperation(true), sameInstance(testNetOperation));
+        assertThat(testNetOperation, not(sameInstance(mainNetOperation)));
+        assertThat(((SomeMockChannelGeneratorOperation) testNetOperation).isOnTestNet, equalTo(true));
+        assertThat(((SomeMockChannelGeneratorOperation) mainNetOperation).isOnTestNet, equalTo(false));
+        verify(mockReflections, times(1)).getSubTypesOf(ChannelGeneratorAccountOperation.class);
+    }
+
+    public static class SomeMockChannelGeneratorOperation implements ChannelGeneratorAccountOperation {
+        public boolean isOnTestNet = false;
+
+        @Override
+        public void init(BlockchainConfiguration configuration) {
+
+        }
+
+        @Override
+        public void useTestNet() {
+            isOnTestNet = true;
+        }
+
+        @Override
+        public List<ChannelGenerator> create(long totalVotesCap, Account funding) {
+            return null;
+        }
+
+        @Override
+        public long calcNumOfAccountsNeeded(long totalVotesCap) {
+            return 0L;
+        }
+    }
+
     private static class SomeMockChannelGeneratorClassWithNoDefaultCtorOperation implements ChannelGeneratorAccountOperation {
         public SomeMockChannelGeneratorClassWithNoDefaultCtorOperation(int someArg) {
         }
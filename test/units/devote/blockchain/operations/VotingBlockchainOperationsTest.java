@@ -2,6 +2,7 @@ package units.devote.blockchain.operations;
 
 import devote.blockchain.BlockchainFactory;
 import devote.blockchain.Blockchains;
+import devote.blockchain.ReusableChannelAccounts;
 import devote.blockchain.api.Account;
 import devote.blockchain.api.ChannelGenerator;
 import devote.blockchain.api.ChannelGeneratorAccountOperation;
@@ -39,6 +40,9 @@ public class VotingBlockchainOperationsTest {
     @Mock
     private BlockchainFactory mockBlockchainFactory;
 
+    @Mock
+    private ReusableChannelAccounts mockReusableChannelAccounts;
+
     @Mock
     private ChannelGeneratorAccountOperation mockChannelGeneratorAccountOperation;
 
@@ -54,13 +58,13 @@ public class VotingBlockchainOperationsTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
 
-        operations = new VotingBlockchainOperations(mockExecutionContext, mockBlockchains);
+        operations = new VotingBlockchainOperations(mockExecutionContext, mockBlockchains, mockReusableChannelAccounts);
 
         executeRunnableOnMockExecContext();
 
         when(mockBlockchains.getFactoryByNetwork(anyString())).thenReturn(mockBlockchainFactory);
-        when(mockBlockchainFactory.createChannelGeneratorAccountOperation()).thenReturn(mockChannelGeneratorAccountOperation);
-        when(mockBlockchainFactory.createDistributionAndBallotAccountOperation()).thenReturn(mockDistributionAndBallotAccountOperation);
+        when(mockBlockchainFactory.channelGeneratorAccountOperation(anyBoolean())).thenReturn(mockChannelGeneratorAccountOperation);
+        when(mockBlockchainFactory.distributionAndBallotAccountOperation(anyBoolean())).thenReturn(mockDistributionAndBallotAccountOperation);
         when(mockChannelGeneratorAccountOperation.calcNumOfAccountsNeeded(anyLong())).thenReturn(3L);
         when(mockChannelGeneratorAccountOperation.create(anyLong(), any(Account.class))).thenReturn(
                 Arrays.asList(
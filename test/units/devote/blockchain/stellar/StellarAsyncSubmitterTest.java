@@ -0,0 +1,366 @@
+package units.devote.blockchain.stellar;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.RateLimiter;
+import devote.blockchain.stellar.StellarAsyncSubmitter;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.stellar.sdk.CreateAccountOperation;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.Transaction;
+import org.stellar.sdk.responses.SubmitTransactionResponse;
+import org.stellar.sdk.xdr.Int64;
+import org.stellar.sdk.xdr.OperationResult;
+import org.stellar.sdk.xdr.TransactionResult;
+import org.stellar.sdk.xdr.TransactionResultCode;
+import org.stellar.sdk.xdr.XdrDataOutputStream;
+import play.libs.Json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class StellarAsyncSubmitterTest {
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private ScriptedHorizon scriptedHorizon;
+    private ScheduledExecutorService scheduler;
+    private Transaction transaction;
+
+    @Before
+    public void setup() {
+        scriptedHorizon = new ScriptedHorizon();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        KeyPair source = KeyPair.random();
+        transaction = new Transaction.Builder(new org.stellar.sdk.Account(source.getAccountId(), 1L), Network.TESTNET)
+                .addOperation(new CreateAccountOperation.Builder(KeyPair.random().getAccountId(), "2").build())
+                .setBaseFee(100)
+                .setTimeout(30)
+                .build();
+        transaction.sign(source);
+    }
+
+    @After
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPendingIsPolledUntilInLedger() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(notFound());
+        scriptedHorizon.pollAnswers.add(notFound());
+        scriptedHorizon.pollAnswers.add(inLedger(true, resultXdrOf(TransactionResultCode.txSUCCESS)));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(true));
+        assertThat(response.getHash(), equalTo(transaction.hashHex()));
+        assertThat(scriptedHorizon.numOfSubmits.get(), equalTo(1));
+        assertThat(scriptedHorizon.numOfPolls.get(), equalTo(3));
+    }
+
+    @Test
+    public void testDuplicateIsPolled() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(409, "DUPLICATE"));
+        scriptedHorizon.pollAnswers.add(inLedger(true, resultXdrOf(TransactionResultCode.txSUCCESS)));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(true));
+        assertThat(scriptedHorizon.numOfSubmits.get(), equalTo(1));
+    }
+
+    @Test
+    public void testTryAgainLaterIsSentAgain() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(503, "TRY_AGAIN_LATER"));
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(inLedger(true, resultXdrOf(TransactionResultCode.txSUCCESS)));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(true));
+        assertThat(scriptedHorizon.numOfSubmits.get(), equalTo(2));
+    }
+
+    @Test
+    public void testRateLimitedSubmissionIsSentAgain() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(answer(429, Json.newObject()));
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(inLedger(true, resultXdrOf(TransactionResultCode.txSUCCESS)));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(true));
+        assertThat(scriptedHorizon.numOfSubmits.get(), equalTo(2));
+    }
+
+    @Test
+    public void testNoPermitLeftDefersRequestWithoutBlocking() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(inLedger(true, resultXdrOf(TransactionResultCode.txSUCCESS)));
+
+        RateLimiter rateLimiter = RateLimiter.create(20);
+        rateLimiter.acquire(20);
+
+        // When
+        long startedAt = System.nanoTime();
+        CompletionStage<SubmitTransactionResponse> result = createSubmitter(5000, rateLimiter).submit(transaction);
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        // Then
+        assertThat(submitMillis < 500, equalTo(true));
+        assertThat(resultOf(result).isSuccess(), equalTo(true));
+        assertThat(scriptedHorizon.numOfSubmits.get(), equalTo(1));
+    }
+
+    @Test
+    public void testErrorIsDecodedToResultCode() throws Exception {
+        // Given
+        ObjectNode errorAnswer = Json.newObject();
+        errorAnswer.put("hash", transaction.hashHex());
+        errorAnswer.put("tx_status", "ERROR");
+        errorAnswer.put("errorResultXdr", resultXdrOf(TransactionResultCode.txBAD_SEQ));
+        scriptedHorizon.submitAnswers.add(answer(400, errorAnswer));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(false));
+        assertThat(response.getExtras().getResultCodes().getTransactionResultCode(), equalTo("tx_bad_seq"));
+        assertThat(response.getExtras().getEnvelopeXdr(), equalTo(transaction.toEnvelopeXdrBase64()));
+        assertThat(scriptedHorizon.numOfPolls.get(), equalTo(0));
+    }
+
+    @Test
+    public void testFailedInLedgerIsDecodedToResultCode() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(inLedger(false, resultXdrOf(TransactionResultCode.txFAILED)));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.isSuccess(), equalTo(false));
+        assertThat(response.getExtras().getResultCodes().getTransactionResultCode(), equalTo("tx_failed"));
+    }
+
+    @Test
+    public void testUndecodableResultIsUnknown() throws Exception {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(inLedger(false, "notAnXdr"));
+
+        // When
+        SubmitTransactionResponse response = resultOf(createSubmitter(5000).submit(transaction));
+
+        // Then
+        assertThat(response.getExtras().getResultCodes().getTransactionResultCode(), equalTo("unknown"));
+    }
+
+    @Test
+    public void testNotFoundUntilDeadlineFails() {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(notFound());
+
+        StellarAsyncSubmitter submitter = createSubmitter(50);
+
+        // When
+        CompletionStage<SubmitTransactionResponse> result = submitter.submit(transaction);
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> resultOf(result));
+        assertThat(exception.getCause(), instanceOf(IOException.class));
+        assertThat(submitter.getNumOfPending(), equalTo(0));
+    }
+
+    @Test
+    public void testUnexpectedAnswerFails() {
+        // Given
+        scriptedHorizon.submitAnswers.add(answer(500, Json.newObject()));
+
+        // When
+        CompletionStage<SubmitTransactionResponse> result = createSubmitter(5000).submit(transaction);
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> resultOf(result));
+        assertThat(exception.getCause(), instanceOf(IOException.class));
+    }
+
+    @Test
+    public void testPendingTransactionIsSubmittedOnce() {
+        // Given
+        scriptedHorizon.submitAnswers.add(asyncAnswer(201, "PENDING"));
+        scriptedHorizon.pollAnswers.add(notFound());
+
+        StellarAsyncSubmitter submitter = createSubmitter(5000);
+        CompletionStage<SubmitTransactionResponse> firstResult = submitter.submit(transaction);
+
+        // When
+        CompletionStage<SubmitTransactionResponse> secondResult = submitter.submit(transaction);
+
+        // Then
+        assertThat(secondResult, sameInstance(firstResult));
+        assertThat(submitter.getNumOfPending(), equalTo(1));
+    }
+
+    private StellarAsyncSubmitter createSubmitter(long maxWaitMillis) {
+        return createSubmitter(maxWaitMillis, null);
+    }
+
+    private StellarAsyncSubmitter createSubmitter(long maxWaitMillis, RateLimiter rateLimiter) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(scriptedHorizon)
+                .build();
+
+        return new StellarAsyncSubmitter("mock", httpClient, HttpUrl.get("https://mock-horizon.stellar.org"),
+                rateLimiter, scheduler, 1, maxWaitMillis);
+    }
+
+    private static SubmitTransactionResponse resultOf(CompletionStage<SubmitTransactionResponse> result)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return result.toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private Answer asyncAnswer(int code, String txStatus) {
+        ObjectNode body = Json.newObject();
+        body.put("hash", transaction.hashHex());
+        body.put("tx_status", txStatus);
+
+        return answer(code, body);
+    }
+
+    private Answer inLedger(boolean successful, String resultXdr) {
+        ObjectNode body = Json.newObject();
+        body.put("id", transaction.hashHex());
+        body.put("hash", transaction.hashHex());
+        body.put("ledger", 42);
+        body.put("successful", successful);
+        body.put("envelope_xdr", transaction.toEnvelopeXdrBase64());
+        body.put("result_xdr", resultXdr);
+
+        return answer(200, body);
+    }
+
+    private static Answer notFound() {
+        ObjectNode body = Json.newObject();
+        body.put("status", 404);
+        body.put("title", "Resource Missing");
+
+        return answer(404, body);
+    }
+
+    private static Answer answer(int code, ObjectNode body) {
+        return new Answer(code, body.toString());
+    }
+
+    private static String resultXdrOf(TransactionResultCode code) throws IOException {
+        Int64 feeCharged = new Int64();
+        feeCharged.setInt64(100L);
+
+        TransactionResult.TransactionResultResult result = new TransactionResult.TransactionResultResult();
+        result.setDiscriminant(code);
+        if (code == TransactionResultCode.txSUCCESS || code == TransactionResultCode.txFAILED) {
+            result.setResults(new OperationResult[0]);
+        }
+
+        TransactionResult.TransactionResultExt ext = new TransactionResult.TransactionResultExt();
+        ext.setDiscriminant(0);
+
+        TransactionResult transactionResult = new TransactionResult();
+        transactionResult.setFeeCharged(feeCharged);
+        transactionResult.setResult(result);
+        transactionResult.setExt(ext);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TransactionResult.encode(new XdrDataOutputStream(bytes), transactionResult);
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private static class Answer {
+        public final int code;
+        public final String body;
+
+        public Answer(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    // Answers the submissions and the polls in order, without sending anything; the last answer is repeated.
+    private static class ScriptedHorizon implements Interceptor {
+        public final Queue<Answer> submitAnswers = new ConcurrentLinkedQueue<>();
+        public final Queue<Answer> pollAnswers = new ConcurrentLinkedQueue<>();
+        public final AtomicInteger numOfSubmits = new AtomicInteger();
+        public final AtomicInteger numOfPolls = new AtomicInteger();
+
+        @Override
+        public Response intercept(Chain chain) {
+            Request request = chain.request();
+            boolean isSubmit = "POST".equals(request.method());
+
+            Answer answer;
+            if (isSubmit) {
+                numOfSubmits.incrementAndGet();
+                answer = nextOf(submitAnswers);
+            } else {
+                numOfPolls.incrementAndGet();
+                answer = nextOf(pollAnswers);
+            }
+
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(answer.code)
+                    .message("mock")
+                    .body(ResponseBody.create(answer.body, JSON))
+                    .build();
+        }
+
+        private static synchronized Answer nextOf(Queue<Answer> answers) {
+            return answers.size() > 1 ? answers.poll() : answers.peek();
+        }
+    }
+}
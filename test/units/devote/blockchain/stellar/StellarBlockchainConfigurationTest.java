@@ -10,7 +10,9 @@ import org.stellar.sdk.Network;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.when;
 
 public class StellarBlockchainConfigurationTest {
@@ -20,13 +22,19 @@ public class StellarBlockchainConfigurationTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+
+        when(mockConfig.getDouble("devote.blockchain.stellar.horizon.max.requests.per.sec")).thenReturn(10.0);
+        when(mockConfig.getInt("devote.blockchain.stellar.horizon.max.connections")).thenReturn(4);
+        when(mockConfig.getLong("devote.blockchain.stellar.horizon.keep.alive.sec")).thenReturn(60L);
+        when(mockConfig.getLong("devote.blockchain.stellar.horizon.submit.timeout.sec")).thenReturn(65L);
+        when(mockConfig.getInt("devote.blockchain.stellar.fee.percentile")).thenReturn(70);
+        when(mockConfig.getString("devote.blockchain.stellar.url")).thenReturn("https://mock-horizon.stellar.org");
+        when(mockConfig.getString("devote.blockchain.stellar.testnet.url")).thenReturn("https://mock-horizon-testnet.stellar.org");
     }
 
     @Test
     public void testGetNonTestServer() {
         // Given
-        when(mockConfig.getString("devote.blockchain.stellar.url")).thenReturn("https://mock-horizon.stellar.org");
-
         // When
         StellarBlockchainConfiguration configuration = new StellarBlockchainConfiguration();
         configuration.init(mockConfig);
@@ -39,14 +47,13 @@ public class StellarBlockchainConfigurationTest {
     @Test
     public void testGetTestServer() {
         // Given
-        when(mockConfig.getString("devote.blockchain.stellar.url")).thenReturn("https://mock-horizon-testnet.stellar.org");
-
         // When
         StellarBlockchainConfiguration configuration = new StellarBlockchainConfiguration();
         configuration.init(mockConfig);
 
         // Then
         assertThat(configuration.getTestNetServer(), notNullValue());
+        assertThat(configuration.getTestNetServer(), not(sameInstance(configuration.getServer())));
         assertThat(configuration.getTestNetwork(), equalTo(Network.TESTNET));
     }
 
@@ -0,0 +1,121 @@
+package units.devote.blockchain.stellar;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import devote.blockchain.api.Account;
+import devote.blockchain.api.BlockchainException;
+import devote.blockchain.api.ChannelGenerator;
+import devote.blockchain.fakehorizon.FakeHorizon;
+import devote.blockchain.stellar.StellarBlockchainConfiguration;
+import devote.blockchain.stellar.StellarChannelAccountOperation;
+import devote.blockchain.stellar.StellarUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+public class StellarChannelAccountOperationFakeHorizonTest {
+    private FakeHorizon fakeHorizon;
+
+    private StellarBlockchainConfiguration configuration;
+    private StellarChannelAccountOperation operation;
+
+    @Before
+    public void setup() throws IOException {
+        fakeHorizon = new FakeHorizon(Network.PUBLIC)
+                .withLedgerCloseInterval(50)
+                .start();
+
+        Config config = fakeHorizon.stellarConfig()
+                .withValue("devote.blockchain.stellar.horizon.async.submit.poll.interval.millis",
+                        ConfigValueFactory.fromAnyRef(50));
+
+        configuration = new StellarBlockchainConfiguration();
+        configuration.init(config);
+
+        operation = new StellarChannelAccountOperation();
+        operation.init(configuration);
+    }
+
+    @After
+    public void teardown() {
+        fakeHorizon.close();
+    }
+
+    @Test
+    public void testCreate() {
+        // Given
+        KeyPair channelGeneratorKeyPair = fakeHorizon.createAccount(new BigDecimal(100));
+        ChannelGenerator channelGenerator = new ChannelGenerator(StellarUtils.toAccount(channelGeneratorKeyPair), 10);
+
+        // When
+        List<Account> channelAccounts = operation.create(channelGenerator, 10);
+
+        // Then
+        assertThat(channelAccounts, hasSize(10));
+        channelAccounts.forEach(c -> assertThat(fakeHorizon.exists(c.publik), is(true)));
+        assertThat(fakeHorizon.balanceOf(channelGeneratorKeyPair.getAccountId()), lessThan(new BigDecimal(80)));
+    }
+
+    @Test
+    public void testCreateAsync() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        KeyPair channelGeneratorKeyPair = fakeHorizon.createAccount(new BigDecimal(100));
+        ChannelGenerator channelGenerator = new ChannelGenerator(StellarUtils.toAccount(channelGeneratorKeyPair), 10);
+
+        // When
+        List<Account> channelAccounts = operation.createAsync(channelGenerator, 10, ForkJoinPool.commonPool())
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(channelAccounts, hasSize(10));
+        channelAccounts.forEach(c -> assertThat(fakeHorizon.exists(c.publik), is(true)));
+    }
+
+    @Test
+    public void testCreateWhenSurgePricingStarts() {
+        // Given
+        KeyPair channelGeneratorKeyPair = fakeHorizon.createAccount(new BigDecimal(100));
+        ChannelGenerator channelGenerator = new ChannelGenerator(StellarUtils.toAccount(channelGeneratorKeyPair), 20);
+        operation.create(channelGenerator, 10);
+
+        fakeHorizon.withMinBaseFee(1000);
+
+        // When
+        List<Account> channelAccounts = operation.create(channelGenerator, 10);
+
+        // Then
+        assertThat(channelAccounts, hasSize(10));
+        channelAccounts.forEach(c -> assertThat(fakeHorizon.exists(c.publik), is(true)));
+        assertThat(configuration.getFeeStrategy().getNumOfFeeBumps(), equalTo(1L));
+    }
+
+    @Test
+    public void testCreateWithUnderfundedChannelGenerator() {
+        // Given
+        KeyPair channelGeneratorKeyPair = fakeHorizon.createAccount(new BigDecimal(5));
+        ChannelGenerator channelGenerator = new ChannelGenerator(StellarUtils.toAccount(channelGeneratorKeyPair), 10);
+
+        // When
+        BlockchainException exception =
+                assertThrows(BlockchainException.class, () -> operation.create(channelGenerator, 10));
+
+        // Then
+        assertThat(exception.getMessage(), containsString("op_underfunded"));
+        assertThat(fakeHorizon.getNumOfTransactions(), equalTo(0));
+    }
+}
@@ -0,0 +1,101 @@
+package units.devote.blockchain.stellar;
+
+import devote.blockchain.stellar.StellarFeeStrategy;
+import devote.blockchain.stellar.StellarUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.stellar.sdk.Server;
+import org.stellar.sdk.requests.FeeStatsRequestBuilder;
+import org.stellar.sdk.responses.FeeDistribution;
+import org.stellar.sdk.responses.FeeStatsResponse;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StellarFeeStrategyTest {
+    @Mock
+    private Server mockServer;
+
+    @Mock
+    private FeeStatsRequestBuilder mockFeeStatsRequestBuilder;
+
+    @Mock
+    private FeeStatsResponse mockFeeStats;
+
+    @Mock
+    private FeeDistribution mockFeeCharged;
+
+    private StellarFeeStrategy feeStrategy;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        when(mockServer.feeStats()).thenReturn(mockFeeStatsRequestBuilder);
+        when(mockFeeStatsRequestBuilder.execute()).thenReturn(mockFeeStats);
+        when(mockFeeStats.getLastLedgerBaseFee()).thenReturn(100L);
+        when(mockFeeStats.getFeeCharged()).thenReturn(mockFeeCharged);
+
+        feeStrategy = new StellarFeeStrategy("mock", mockServer, 70, 10000, 60_000);
+    }
+
+    @Test
+    public void testBaseFeeIsPercentileOfChargedFees() throws IOException {
+        // Given
+        when(mockFeeCharged.getP70()).thenReturn(500L);
+
+        // When
+        long baseFee = feeStrategy.baseFee();
+        feeStrategy.baseFee();
+
+        // Then
+        assertThat(baseFee, equalTo(500L));
+        verify(mockFeeStatsRequestBuilder, times(1)).execute();
+    }
+
+    @Test
+    public void testBaseFeeIsCapped() {
+        // Given
+        when(mockFeeCharged.getP70()).thenReturn(50000L);
+
+        // When
+        long baseFee = feeStrategy.baseFee();
+
+        // Then
+        assertThat(baseFee, equalTo(10000L));
+    }
+
+    @Test
+    public void testBaseFeeWhenFeeStatsAreNotAvailable() throws IOException {
+        // Given
+        when(mockFeeStatsRequestBuilder.execute()).thenThrow(new IOException("Some IO error!"));
+
+        // When
+        long baseFee = feeStrategy.baseFee();
+
+        // Then
+        assertThat(baseFee, equalTo((long) StellarUtils.STELLAR_MIN_BASE_FEE));
+    }
+
+    @Test
+    public void testBumpedBaseFee() {
+        // Given
+        when(mockFeeCharged.getP70()).thenReturn(500L);
+
+        // When
+        long bumpedBaseFee = feeStrategy.bumpedBaseFeeOf(300);
+        long cappedBumpedBaseFee = feeStrategy.bumpedBaseFeeOf(8000);
+
+        // Then
+        assertThat(bumpedBaseFee, equalTo(600L));
+        assertThat(cappedBumpedBaseFee, equalTo(10000L));
+        assertThat(feeStrategy.getNumOfFeeBumps(), equalTo(2L));
+    }
+}
@@ -66,6 +66,20 @@ public class StellarFundingAccountOperationTest {
         assertThat(doesNotHaveEnoughBalance, is(true));
     }
 
+    @Test
+    public void testHasEnoughBalanceWithReusedChannelAccounts() {
+        // Given
+        // When
+        boolean doesNotHaveEnoughBalanceWithoutReuse =
+                operation.doesNotHaveEnoughBalanceForVotesCap("someFundingAccount", 30);
+        boolean doesNotHaveEnoughBalanceWithReuse =
+                operation.doesNotHaveEnoughBalanceForVotesCap("someFundingAccount", 30, 5);
+
+        // Then
+        assertThat(doesNotHaveEnoughBalanceWithoutReuse, is(true));
+        assertThat(doesNotHaveEnoughBalanceWithReuse, is(false));
+    }
+
     @Test
     public void testXlmBalanceNotFound() {
         // Given
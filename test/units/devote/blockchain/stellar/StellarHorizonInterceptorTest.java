@@ -0,0 +1,99 @@
+package units.devote.blockchain.stellar;
+
+import devote.blockchain.stellar.StellarHorizonInterceptor;
+import devote.blockchain.stellar.StellarHorizonMetrics;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StellarHorizonInterceptorTest {
+    @Mock
+    private Interceptor.Chain mockChain;
+
+    private Request request;
+    private StellarHorizonMetrics metrics;
+    private StellarHorizonInterceptor interceptor;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        request = new Request.Builder()
+                .url("https://mock-horizon.stellar.org/accounts/GABC")
+                .build();
+        when(mockChain.request()).thenReturn(request);
+
+        metrics = new StellarHorizonMetrics();
+        interceptor = new StellarHorizonInterceptor("mock", null, metrics, 2, 1, 5);
+    }
+
+    @Test
+    public void testRetriesWhenRateLimited() throws IOException {
+        // Given
+        when(mockChain.proceed(any(Request.class)))
+                .thenReturn(responseWithCode(429))
+                .thenReturn(responseWithCode(503))
+                .thenReturn(responseWithCode(200));
+
+        // When
+        Response response = interceptor.intercept(mockChain);
+
+        // Then
+        assertThat(response.code(), equalTo(200));
+        assertThat(metrics.getNumOfRetries(), equalTo(2L));
+        assertThat(metrics.getNumOfRequests("GET accounts"), equalTo(3L));
+        assertThat(metrics.getInFlight(), equalTo(0));
+    }
+
+    @Test
+    public void testGivesUpAfterMaxRetries() throws IOException {
+        // Given
+        when(mockChain.proceed(any(Request.class))).thenReturn(responseWithCode(429));
+
+        // When
+        Response response = interceptor.intercept(mockChain);
+
+        // Then
+        assertThat(response.code(), equalTo(429));
+        verify(mockChain, times(3)).proceed(any(Request.class));
+    }
+
+    @Test
+    public void testDoesNotRetryOtherErrors() throws IOException {
+        // Given
+        when(mockChain.proceed(any(Request.class))).thenReturn(responseWithCode(400));
+
+        // When
+        Response response = interceptor.intercept(mockChain);
+
+        // Then
+        assertThat(response.code(), equalTo(400));
+        assertThat(metrics.getNumOfRetries(), equalTo(0L));
+    }
+
+    private Response responseWithCode(int code) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("mock")
+                .body(ResponseBody.create("", MediaType.get("application/json")))
+                .build();
+    }
+}
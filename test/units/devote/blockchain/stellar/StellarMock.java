@@ -1,6 +1,7 @@
 package units.devote.blockchain.stellar;
 
 import devote.blockchain.stellar.StellarBlockchainConfiguration;
+import devote.blockchain.stellar.StellarFeeStrategy;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.stellar.sdk.AccountRequiresMemoException;
@@ -25,6 +26,9 @@ class StellarMock {
     @Mock
     Server server;
 
+    @Mock
+    StellarFeeStrategy feeStrategy;
+
     @Mock
     AccountsRequestBuilder accountsRequestBuilder;
 
@@ -41,6 +45,8 @@ class StellarMock {
 
         when(configuration.getServer()).thenReturn(server);
         when(configuration.getNetwork()).thenReturn(Network.TESTNET);
+        when(configuration.getFeeStrategy()).thenReturn(feeStrategy);
+        when(feeStrategy.baseFee()).thenReturn(300L);
         when(server.accounts()).thenReturn(accountsRequestBuilder);
         when(accountsRequestBuilder.account(anyString())).thenReturn(accountResponse);
         when(accountResponse.getAccountId()).thenReturn(randomFundingKey.getAccountId());
@@ -0,0 +1,74 @@
+package units.devote.blockchain.stellar;
+
+import devote.blockchain.stellar.StellarSequenceNumbers;
+import org.junit.Before;
+import org.junit.Test;
+import org.stellar.sdk.AccountRequiresMemoException;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StellarSequenceNumbersTest {
+    private StellarMock stellarMock;
+    private StellarSequenceNumbers sequenceNumbers;
+    private String accountId;
+
+    @Before
+    public void setup() throws IOException, AccountRequiresMemoException {
+        stellarMock = new StellarMock();
+        sequenceNumbers = new StellarSequenceNumbers(10);
+        accountId = KeyPair.random().getAccountId();
+
+        when(stellarMock.accountResponse.getSequenceNumber()).thenReturn(42L);
+    }
+
+    @Test
+    public void testReserveNext() throws IOException {
+        // Given
+        // When
+        long first = sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+        long second = sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+
+        // Then
+        assertThat(first, equalTo(42L));
+        assertThat(second, equalTo(43L));
+        assertThat(sequenceNumbers.getMisses(), equalTo(1L));
+        assertThat(sequenceNumbers.getHits(), equalTo(1L));
+        verify(stellarMock.accountsRequestBuilder, times(1)).account(accountId);
+    }
+
+    @Test
+    public void testResync() throws IOException {
+        // Given
+        sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+        sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+
+        // When
+        sequenceNumbers.resync(Network.TESTNET, accountId);
+        long afterResync = sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+
+        // Then
+        assertThat(afterResync, equalTo(42L));
+        verify(stellarMock.accountsRequestBuilder, times(2)).account(accountId);
+    }
+
+    @Test
+    public void testPrime() throws IOException {
+        // Given
+        sequenceNumbers.prime(Network.TESTNET, accountId, 7L << 32);
+
+        // When
+        long sequenceNumber = sequenceNumbers.reserveNext(stellarMock.server, Network.TESTNET, accountId);
+
+        // Then
+        assertThat(sequenceNumber, equalTo(7L << 32));
+        verify(stellarMock.accountsRequestBuilder, times(0)).account(accountId);
+    }
+}
@@ -1,13 +1,21 @@
 package units.devote.blockchain.stellar;
 
 import devote.blockchain.api.BlockchainException;
+import devote.blockchain.stellar.StellarAsyncSubmitter;
+import devote.blockchain.stellar.StellarFeeStrategy;
+import devote.blockchain.stellar.StellarServerAndNetwork;
 import devote.blockchain.stellar.StellarSubmitTransaction;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.stellar.sdk.AccountRequiresMemoException;
+import org.stellar.sdk.CreateAccountOperation;
+import org.stellar.sdk.FeeBumpTransaction;
+import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
 import org.stellar.sdk.Operation;
 import org.stellar.sdk.Server;
 import org.stellar.sdk.Transaction;
@@ -16,13 +24,21 @@ import org.stellar.sdk.responses.SubmitTransactionResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class StellarSubmitTransactionTest {
     @Mock
@@ -34,6 +50,15 @@ public class StellarSubmitTransactionTest {
     @Mock
     private SubmitTransactionResponse mockSubmitTxResponse;
 
+    @Mock
+    private StellarAsyncSubmitter mockAsyncSubmitter;
+
+    @Mock
+    private StellarServerAndNetwork mockServerAndNetwork;
+
+    @Mock
+    private StellarFeeStrategy mockFeeStrategy;
+
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
@@ -63,4 +88,128 @@ public class StellarSubmitTransactionTest {
                 assertThrows(BlockchainException.class, () -> StellarSubmitTransaction.submit("mock tx", mockTransaction, mockServer));
         assertThat(exception.getMessage(), containsString("STELLAR]: Failed to submit transaction"));
     }
+
+    @Test
+    public void testSubmitWithInsufficientFeeIsFeeBumped() throws AccountRequiresMemoException, IOException {
+        // Given
+        KeyPair source = KeyPair.random();
+        Transaction transaction = new Transaction.Builder(new org.stellar.sdk.Account(source.getAccountId(), 1L), Network.TESTNET)
+                .addOperation(new CreateAccountOperation.Builder(KeyPair.random().getAccountId(), "2").build())
+                .setBaseFee(300)
+                .setTimeout(30)
+                .build();
+        transaction.sign(source);
+
+        when(mockServerAndNetwork.getServer()).thenReturn(mockServer);
+        when(mockServerAndNetwork.getFeeStrategy()).thenReturn(mockFeeStrategy);
+        when(mockFeeStrategy.bumpedBaseFeeOf(anyLong())).thenReturn(1000L);
+
+        SubmitTransactionResponse.Extras mockExtras = Mockito.mock(SubmitTransactionResponse.Extras.class);
+        SubmitTransactionResponse.Extras.ResultCodes mockResultCodes = Mockito.mock(SubmitTransactionResponse.Extras.ResultCodes.class);
+        when(mockServer.submitTransaction(any(Transaction.class))).thenReturn(mockSubmitTxResponse);
+        when(mockSubmitTxResponse.isSuccess()).thenReturn(false);
+        when(mockSubmitTxResponse.getExtras()).thenReturn(mockExtras);
+        when(mockExtras.getResultCodes()).thenReturn(mockResultCodes);
+        when(mockResultCodes.getTransactionResultCode()).thenReturn("tx_insufficient_fee");
+
+        SubmitTransactionResponse mockFeeBumpResponse = Mockito.mock(SubmitTransactionResponse.class);
+        when(mockServer.submitTransaction(any(FeeBumpTransaction.class))).thenReturn(mockFeeBumpResponse);
+        when(mockFeeBumpResponse.isSuccess()).thenReturn(true);
+
+        // When
+        SubmitTransactionResponse response =
+                StellarSubmitTransaction.submit("mock tx", transaction, source, mockServerAndNetwork);
+
+        // Then
+        assertThat(response, equalTo(mockFeeBumpResponse));
+
+        ArgumentCaptor<FeeBumpTransaction> feeBumpCaptor = ArgumentCaptor.forClass(FeeBumpTransaction.class);
+        verify(mockServer).submitTransaction(feeBumpCaptor.capture());
+        assertThat(feeBumpCaptor.getValue().getInnerTransaction(), equalTo(transaction));
+        assertThat(feeBumpCaptor.getValue().getFeeAccount(), equalTo(source.getAccountId()));
+    }
+
+    @Test
+    public void testSubmitAsync() {
+        // Given
+        when(mockAsyncSubmitter.submit(any(Transaction.class))).thenReturn(completedFuture(mockSubmitTxResponse));
+        when(mockSubmitTxResponse.isSuccess()).thenReturn(true);
+        when(mockTransaction.getOperations()).thenReturn(new Operation[]{});
+
+        // When
+        SubmitTransactionResponse response = StellarSubmitTransaction
+                .submitAsync("mock tx", mockTransaction, mockAsyncSubmitter)
+                .toCompletableFuture()
+                .join();
+
+        // Then
+        assertThat(response, equalTo(mockSubmitTxResponse));
+    }
+
+    @Test
+    public void testSubmitAsyncWithInsufficientFeeIsFeeBumpedOnExecutor() {
+        // Given
+        KeyPair source = KeyPair.random();
+        Transaction transaction = new Transaction.Builder(new org.stellar.sdk.Account(source.getAccountId(), 1L), Network.TESTNET)
+                .addOperation(new CreateAccountOperation.Builder(KeyPair.random().getAccountId(), "2").build())
+                .setBaseFee(300)
+                .setTimeout(30)
+                .build();
+        transaction.sign(source);
+
+        when(mockServerAndNetwork.getAsyncSubmitter()).thenReturn(mockAsyncSubmitter);
+        when(mockServerAndNetwork.getFeeStrategy()).thenReturn(mockFeeStrategy);
+        when(mockFeeStrategy.bumpedBaseFeeOf(anyLong())).thenReturn(1000L);
+
+        SubmitTransactionResponse.Extras mockExtras = Mockito.mock(SubmitTransactionResponse.Extras.class);
+        SubmitTransactionResponse.Extras.ResultCodes mockResultCodes = Mockito.mock(SubmitTransactionResponse.Extras.ResultCodes.class);
+        when(mockAsyncSubmitter.submit(any(Transaction.class))).thenReturn(completedFuture(mockSubmitTxResponse));
+        when(mockSubmitTxResponse.isSuccess()).thenReturn(false);
+        when(mockSubmitTxResponse.getExtras()).thenReturn(mockExtras);
+        when(mockExtras.getResultCodes()).thenReturn(mockResultCodes);
+        when(mockResultCodes.getTransactionResultCode()).thenReturn("tx_insufficient_fee");
+
+        SubmitTransactionResponse mockFeeBumpResponse = Mockito.mock(SubmitTransactionResponse.class);
+        when(mockAsyncSubmitter.submit(any(FeeBumpTransaction.class))).thenReturn(completedFuture(mockFeeBumpResponse));
+        when(mockFeeBumpResponse.isSuccess()).thenReturn(true);
+
+        AtomicInteger numOfExecutorRuns = new AtomicInteger();
+        Executor executor = runnable -> {
+            numOfExecutorRuns.incrementAndGet();
+            runnable.run();
+        };
+
+        // When
+        SubmitTransactionResponse response = StellarSubmitTransaction
+                .submitAsync("mock tx", transaction, source, mockServerAndNetwork, executor)
+                .toCompletableFuture()
+                .join();
+
+        // Then
+        assertThat(response, equalTo(mockFeeBumpResponse));
+        assertThat(numOfExecutorRuns.get(), equalTo(1));
+        verify(mockFeeStrategy).bumpedBaseFeeOf(300L);
+    }
+
+    @Test
+    public void testSubmitAsyncWithUnknownOutcome() {
+        // Given
+        CompletableFuture<SubmitTransactionResponse> unknownOutcome = new CompletableFuture<>();
+        unknownOutcome.completeExceptionally(new IOException("Transaction was not found in a ledger!"));
+
+        when(mockAsyncSubmitter.submit(any(Transaction.class))).thenReturn(unknownOutcome);
+        when(mockTransaction.getOperations()).thenReturn(new Operation[]{});
+        when(mockTransaction.getNetwork()).thenReturn(Network.TESTNET);
+        when(mockTransaction.getSourceAccount()).thenReturn(KeyPair.random().getAccountId());
+
+        // When
+        CompletionException exception = assertThrows(CompletionException.class, () ->
+                StellarSubmitTransaction.submitAsync("mock tx", mockTransaction, mockAsyncSubmitter)
+                        .toCompletableFuture()
+                        .join());
+
+        // Then
+        assertThat(exception.getCause(), instanceOf(BlockchainException.class));
+        assertThat(exception.getCause().getCause(), instanceOf(IOException.class));
+    }
 }
@@ -7,8 +7,11 @@ import devote.blockchain.stellar.StellarUtils;
 import devote.blockchain.stellar.StellarVoterAccountOperation;
 import org.junit.Before;
 import org.junit.Test;
+import org.stellar.sdk.AbstractTransaction;
 import org.stellar.sdk.AccountRequiresMemoException;
 import org.stellar.sdk.KeyPair;
+import org.stellar.sdk.Network;
+import org.stellar.sdk.Transaction;
 
 import java.io.IOException;
 
@@ -45,6 +48,63 @@ public class StellarVoterAccountOperationTest {
         assertThat(transactionString.length(), greaterThan(0));
     }
 
+    @Test
+    public void testCreateTransactionFromTemplate() throws IOException {
+        // Given
+        VoterAccountOperation.CreateTransactionParams params = generateCreationData();
+        when(stellarMock.configuration.shouldUseVoterTransactionTemplates()).thenReturn(true);
+
+        // When
+        String transactionString = operation.createTransaction(params);
+
+        // Then
+        AbstractTransaction transaction = Transaction.fromEnvelopeXdr(transactionString, Network.TESTNET);
+        assertThat(transaction, instanceOf(Transaction.class));
+        assertThat(((Transaction) transaction).getOperations().length, equalTo(2));
+        assertThat(transaction.getSignatures(), hasSize(2));
+
+        byte[] hash = transaction.hash();
+        KeyPair channel = KeyPair.fromAccountId(params.channel.publik);
+        KeyPair distribution = KeyPair.fromAccountId(params.distribution.publik);
+        assertThat(channel.verify(hash, transaction.getSignatures().get(0).getSignature().getSignature()), equalTo(true));
+        assertThat(distribution.verify(hash, transaction.getSignatures().get(1).getSignature().getSignature()), equalTo(true));
+    }
+
+    @Test
+    public void testCreateTransactionWithReusedChannelResyncsSequenceNumber() throws IOException {
+        // Given
+        VoterAccountOperation.CreateTransactionParams params = generateCreationData();
+        params.isChannelReused = true;
+        when(stellarMock.accountResponse.getSequenceNumber()).thenReturn(42L);
+
+        // When
+        String expiredTransactionString = operation.createTransaction(params);
+        String transactionString = operation.createTransaction(params);
+
+        // Then
+        Transaction expiredTransaction = (Transaction) Transaction.fromEnvelopeXdr(expiredTransactionString, Network.TESTNET);
+        Transaction transaction = (Transaction) Transaction.fromEnvelopeXdr(transactionString, Network.TESTNET);
+        assertThat(expiredTransaction.getSequenceNumber(), equalTo(43L));
+        assertThat(transaction.getSequenceNumber(), equalTo(43L));
+    }
+
+    @Test
+    public void testCreateTransactionWithFreshChannelUsesCachedSequenceNumber() throws IOException {
+        // Given
+        VoterAccountOperation.CreateTransactionParams params = generateCreationData();
+        when(stellarMock.accountResponse.getSequenceNumber()).thenReturn(42L);
+
+        // When
+        String aTransactionString = operation.createTransaction(params);
+        String anotherTransactionString = operation.createTransaction(params);
+
+        // Then
+        Transaction aTransaction = (Transaction) Transaction.fromEnvelopeXdr(aTransactionString, Network.TESTNET);
+        Transaction anotherTransaction = (Transaction) Transaction.fromEnvelopeXdr(anotherTransactionString, Network.TESTNET);
+        assertThat(aTransaction.getSequenceNumber(), equalTo(43L));
+        assertThat(anotherTransaction.getSequenceNumber(), equalTo(44L));
+    }
+
     @Test
     public void testCreateTransactionWithFailure() throws IOException {
         // Given
@@ -1,26 +1,42 @@
 package units.repositories;
 
 import data.entities.JpaChannelAccountProgress;
+import data.entities.JpaStoredTransaction;
 import data.entities.JpaVoting;
 import data.entities.JpaVotingChannelAccount;
 import data.entities.JpaChannelGeneratorAccount;
+import data.repositories.AccountCreationReservation;
+import data.repositories.imp.EbeanChannelAccountPool;
 import data.repositories.imp.EbeanCommissionRepository;
 import exceptions.InternalErrorException;
+import io.ebean.DuplicateKeyException;
 import io.ebean.EbeanServer;
 import io.ebean.ExpressionList;
+import io.ebean.Junction;
 import io.ebean.Query;
+import io.ebean.SqlUpdate;
+import io.ebean.Transaction;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EbeanCommissionRepositoryTest {
@@ -30,28 +46,31 @@ public class EbeanCommissionRepositoryTest {
     @Mock
     private EbeanServer mockEbeanServer;
 
+    @Mock
+    private EbeanChannelAccountPool mockChannelAccountPool;
+
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        repository = new EbeanCommissionRepository(mockEbeanServer);
+        repository = new EbeanCommissionRepository(mockEbeanServer, mockChannelAccountPool);
     }
 
     @Test
-    public void testConsumeOneChannel_NoMoreChannelsLeft() {
+    public void testReserveAccountCreation_NoMoreChannelsLeft() {
         // Given
-        JpaVoting mockJpaVoting = prepareConsumeOneChannelTest();
+        JpaVoting mockJpaVoting = prepareNoFreeChannelTest();
         when(mockJpaVoting.getChannelGeneratorAccounts()).thenReturn(Collections.emptyList());
 
         // When
         // Then
-        InternalErrorException exception = assertThrows(InternalErrorException.class, () -> repository.consumeOneChannel(42L));
+        InternalErrorException exception = assertThrows(InternalErrorException.class, () -> repository.reserveAccountCreation(42L, "someSignature"));
         assertThat(exception.getMessage(), equalTo("Could not find a free channel account!"));
     }
 
     @Test
-    public void testConsumeOneChannel_MoreChannelWillBeCreated() {
+    public void testReserveAccountCreation_MoreChannelWillBeCreated() {
         // Given
-        JpaVoting mockJpaVoting = prepareConsumeOneChannelTest();
+        JpaVoting mockJpaVoting = prepareNoFreeChannelTest();
         JpaChannelGeneratorAccount mockVotingIssuerAccount = Mockito.mock(JpaChannelGeneratorAccount.class);
         JpaChannelAccountProgress mockChannelAccountProgress = Mockito.mock(JpaChannelAccountProgress.class);
 
@@ -61,23 +80,166 @@ public class EbeanCommissionRepositoryTest {
 
         // When
         // Then
-        InternalErrorException exception = assertThrows(InternalErrorException.class, () -> repository.consumeOneChannel(42L));
+        InternalErrorException exception = assertThrows(InternalErrorException.class, () -> repository.reserveAccountCreation(42L, "someSignature"));
         assertThat(exception.getMessage(), equalTo("Could not find a free channel account! Please try again later!"));
     }
 
-    private JpaVoting prepareConsumeOneChannelTest() {
-        Query<JpaVotingChannelAccount> mockChannelAccountQuery = (Query<JpaVotingChannelAccount>)Mockito.mock(Query.class);
-        ExpressionList<JpaVotingChannelAccount> mockExpressionList = (ExpressionList<JpaVotingChannelAccount>)Mockito.mock(ExpressionList.class);
-        Optional<JpaVotingChannelAccount> mockChannelAccountOptional = Optional.empty();
-        JpaVoting mockJpaVoting = Mockito.mock(JpaVoting.class);
+    @Test
+    public void testReserveAccountCreation_VotingGraphIsLoadedInOneQuery() {
+        // Given
+        JpaVoting mockJpaVoting = prepareNoFreeChannelTest();
+        when(mockJpaVoting.getChannelGeneratorAccounts()).thenReturn(Collections.emptyList());
+
+        // When
+        assertThrows(InternalErrorException.class, () -> repository.reserveAccountCreation(42L, "someSignature"));
 
-        when(mockEbeanServer.createQuery(JpaVotingChannelAccount.class)).thenReturn(mockChannelAccountQuery);
-        when(mockChannelAccountQuery.where()).thenReturn(mockExpressionList);
-        when(mockExpressionList.eq("isConsumed", false)).thenReturn(mockExpressionList);
-        when(mockExpressionList.setMaxRows(1)).thenReturn(mockChannelAccountQuery);
-        when(mockChannelAccountQuery.findOneOrEmpty()).thenReturn(mockChannelAccountOptional);
+        // Then
+        verify(mockEbeanServer, times(1)).createQuery(JpaVoting.class);
+        verify(mockEbeanServer, never()).find(eq(JpaVoting.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReserveAccountCreation_ConcurrentRequestForSameSignature() {
+        // Given
+        JpaStoredTransaction mockStoredTransaction = Mockito.mock(JpaStoredTransaction.class);
+        when(mockStoredTransaction.getId()).thenReturn(7L);
+        when(mockStoredTransaction.getTransaction()).thenReturn("someTransaction");
+        when(mockStoredTransaction.getVoting()).thenReturn(Mockito.mock(JpaVoting.class));
+
+        Query<JpaStoredTransaction> mockStoredTransactionQuery = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+        // A junction, so that the or() of the signature lookup returns it too.
+        Junction<JpaStoredTransaction> mockStoredTransactionExpressions = Mockito.mock(Junction.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createQuery(JpaStoredTransaction.class)).thenReturn(mockStoredTransactionQuery);
+        when(mockStoredTransactionQuery.where()).thenReturn(mockStoredTransactionExpressions);
+        when(mockStoredTransactionExpressions.findList()).thenReturn(Collections.emptyList());
+        when(mockStoredTransactionExpressions.findOne()).thenReturn(null, mockStoredTransaction);
+
+        JpaVotingChannelAccount mockChannelAccount = Mockito.mock(JpaVotingChannelAccount.class);
+        when(mockChannelAccount.getId()).thenReturn(3L);
+        when(mockChannelAccountPool.take(42L)).thenReturn(Optional.of(reservedChannelOf(3L, false)));
+        when(mockEbeanServer.find(JpaVotingChannelAccount.class, 3L)).thenReturn(mockChannelAccount);
+
+        prepareVotingQuery();
+        when(mockEbeanServer.beginTransaction()).thenReturn(Mockito.mock(Transaction.class));
+        doThrow(new DuplicateKeyException("Duplicate signature digest", null))
+                .when(mockEbeanServer).save(any(JpaStoredTransaction.class));
+
+        // When
+        AccountCreationReservation reservation = repository.reserveAccountCreation(42L, "someSignature");
+
+        // Then
+        assertThat(reservation.storedTransactionId, equalTo(7L));
+        assertThat(reservation.isTransactionBuilt(), equalTo(true));
+        assertThat(reservation.transaction, equalTo("someTransaction"));
+        verify(mockChannelAccountPool).giveBack(42L, 3L);
+    }
+
+    @Test
+    public void testReserveAccountCreation_ReusedChannelIsTold() {
+        // Given
+        JpaVotingChannelAccount mockChannelAccount = prepareReserveAccountCreationTest(true);
+
+        // When
+        AccountCreationReservation reservation = repository.reserveAccountCreation(42L, "someSignature");
+
+        // Then
+        assertThat(reservation.isChannelReused, equalTo(true));
+        assertThat(reservation.channelAccount, sameInstance(mockChannelAccount));
+        assertThat(reservation.isTransactionBuilt(), equalTo(false));
+        verify(mockChannelAccountPool).channelUsed(42L, 3L);
+    }
+
+    @Test
+    public void testReserveAccountCreation_FreshChannelIsNotReused() {
+        // Given
+        prepareReserveAccountCreationTest(false);
+
+        // When
+        AccountCreationReservation reservation = repository.reserveAccountCreation(42L, "someSignature");
+
+        // Then
+        assertThat(reservation.isChannelReused, equalTo(false));
+    }
+
+    @Test
+    public void testCompleteAccountCreation_AlreadyCompletedByReplayedRequest() {
+        // Given
+        SqlUpdate mockSqlUpdate = Mockito.mock(SqlUpdate.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createSqlUpdate(anyString())).thenReturn(mockSqlUpdate);
+        when(mockSqlUpdate.execute()).thenReturn(0);
+
+        JpaStoredTransaction mockStoredTransaction = Mockito.mock(JpaStoredTransaction.class);
+        when(mockStoredTransaction.getTransaction()).thenReturn("firstTransaction");
+        when(mockEbeanServer.find(JpaStoredTransaction.class, 7L)).thenReturn(mockStoredTransaction);
+
+        // When
+        String transaction = repository.completeAccountCreation(7L, "secondTransaction");
+
+        // Then
+        assertThat(transaction, equalTo("firstTransaction"));
+        verify(mockChannelAccountPool, never()).transactionBuilt(any());
+    }
+
+    @Test
+    public void testCompleteAccountCreation_ChannelIsNotifiedOfBuiltTransaction() {
+        // Given
+        SqlUpdate mockSqlUpdate = Mockito.mock(SqlUpdate.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createSqlUpdate(anyString())).thenReturn(mockSqlUpdate);
+        when(mockSqlUpdate.execute()).thenReturn(1);
+
+        // When
+        String transaction = repository.completeAccountCreation(7L, "someTransaction");
+
+        // Then
+        assertThat(transaction, equalTo("someTransaction"));
+        verify(mockChannelAccountPool).transactionBuilt(7L);
+    }
+
+    private JpaVotingChannelAccount prepareReserveAccountCreationTest(boolean isChannelReused) {
+        prepareNoStoredTransaction();
+
+        JpaVotingChannelAccount mockChannelAccount = Mockito.mock(JpaVotingChannelAccount.class);
+        when(mockChannelAccount.getId()).thenReturn(3L);
+        when(mockChannelAccountPool.take(42L)).thenReturn(Optional.of(reservedChannelOf(3L, isChannelReused)));
+        when(mockEbeanServer.find(JpaVotingChannelAccount.class, 3L)).thenReturn(mockChannelAccount);
+
+        prepareVotingQuery();
+        when(mockEbeanServer.beginTransaction()).thenReturn(Mockito.mock(Transaction.class));
+
+        return mockChannelAccount;
+    }
+
+    private static EbeanChannelAccountPool.ReservedChannel reservedChannelOf(Long id, boolean isReused) {
+        return new EbeanChannelAccountPool.ReservedChannel(id, isReused, Instant.now().plusSeconds(60));
+    }
+
+    private JpaVoting prepareNoFreeChannelTest() {
+        prepareNoStoredTransaction();
+        when(mockChannelAccountPool.take(42L)).thenReturn(Optional.empty());
+
+        return prepareVotingQuery();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void prepareNoStoredTransaction() {
+        Query<JpaStoredTransaction> mockStoredTransactionQuery = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+        Junction<JpaStoredTransaction> mockStoredTransactionExpressions = Mockito.mock(Junction.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createQuery(JpaStoredTransaction.class)).thenReturn(mockStoredTransactionQuery);
+        when(mockStoredTransactionQuery.where()).thenReturn(mockStoredTransactionExpressions);
+        when(mockStoredTransactionExpressions.findList()).thenReturn(Collections.emptyList());
+        when(mockStoredTransactionExpressions.findOne()).thenReturn(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JpaVoting prepareVotingQuery() {
+        JpaVoting mockJpaVoting = Mockito.mock(JpaVoting.class);
 
-        when(mockEbeanServer.find(JpaVoting.class, 42L)).thenReturn(mockJpaVoting);
+        Query<JpaVoting> mockQuery = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+        ExpressionList<JpaVoting> mockExpressionList = Mockito.mock(ExpressionList.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createQuery(JpaVoting.class)).thenReturn(mockQuery);
+        when(mockQuery.where()).thenReturn(mockExpressionList);
+        when(mockExpressionList.findOne()).thenReturn(mockJpaVoting);
 
         return mockJpaVoting;
     }
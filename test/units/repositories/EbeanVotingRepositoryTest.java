@@ -0,0 +1,138 @@
+package units.repositories;
+
+import com.typesafe.config.Config;
+import data.entities.JpaVoting;
+import data.repositories.VotingFetchProfile;
+import data.repositories.imp.EbeanVotingRepository;
+import exceptions.NotFoundException;
+import io.ebean.EbeanServer;
+import io.ebean.ExpressionList;
+import io.ebean.Query;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EbeanVotingRepositoryTest {
+    private EbeanVotingRepository repository;
+
+    @Mock
+    private EbeanServer mockEbeanServer;
+
+    @Mock
+    private Config mockConfig;
+
+    @Mock
+    private JpaVoting mockJpaVoting;
+
+    private Query<JpaVoting> mockQuery;
+    private ExpressionList<JpaVoting> mockExpressionList;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        mockQuery = Mockito.mock(Query.class, Mockito.RETURNS_SELF);
+        mockExpressionList = Mockito.mock(ExpressionList.class, Mockito.RETURNS_SELF);
+        when(mockEbeanServer.createQuery(JpaVoting.class)).thenReturn(mockQuery);
+        when(mockQuery.where()).thenReturn(mockExpressionList);
+        when(mockExpressionList.findOne()).thenReturn(mockJpaVoting);
+
+        when(mockConfig.getInt("devote.channel.accounts.insert.batch.size")).thenReturn(100);
+        repository = new EbeanVotingRepository(mockEbeanServer, mockConfig);
+    }
+
+    @Test
+    public void testSingle() {
+        // Given
+        // When
+        JpaVoting voting = repository.single(42L);
+
+        // Then
+        assertThat(voting, sameInstance(mockJpaVoting));
+        verifySingleQueryOf(42L);
+        verify(mockQuery, never()).fetch(anyString());
+    }
+
+    @Test
+    public void testSingleForResponse() {
+        // Given
+        // When
+        JpaVoting voting = repository.single(42L, VotingFetchProfile.FOR_RESPONSE);
+
+        // Then
+        assertThat(voting, sameInstance(mockJpaVoting));
+        verifySingleQueryOf(42L);
+        verify(mockQuery).fetch("polls");
+        verify(mockQuery).fetchQuery("polls.options");
+        verify(mockQuery, never()).fetch(eq("channelGeneratorAccounts"));
+    }
+
+    @Test
+    public void testSingleForIpfsExport() {
+        // Given
+        // When
+        JpaVoting voting = repository.single(42L, VotingFetchProfile.FOR_IPFS_EXPORT);
+
+        // Then
+        assertThat(voting, sameInstance(mockJpaVoting));
+        verifySingleQueryOf(42L);
+        verify(mockQuery).fetch("channelGeneratorAccounts");
+        verify(mockQuery).fetchQuery("polls");
+        verify(mockQuery).fetch("polls.options");
+    }
+
+    @Test
+    public void testSingleForCommission() {
+        // Given
+        // When
+        JpaVoting voting = repository.single(42L, VotingFetchProfile.FOR_COMMISSION);
+
+        // Then
+        assertThat(voting, sameInstance(mockJpaVoting));
+        verifySingleQueryOf(42L);
+        verify(mockQuery).fetch("channelGeneratorAccounts");
+        verify(mockQuery).fetch("channelGeneratorAccounts.channelAccountProgress");
+        verify(mockQuery, never()).fetchQuery(anyString());
+    }
+
+    @Test
+    public void testSingle_NotFound() {
+        // Given
+        when(mockExpressionList.findOne()).thenReturn(null);
+
+        // When
+        // Then
+        assertThrows(NotFoundException.class, () -> repository.single(42L, VotingFetchProfile.FOR_RESPONSE));
+        verifySingleQueryOf(42L);
+    }
+
+    @Test
+    public void testSingle_NullId() {
+        // Given
+        // When
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> repository.single(null, VotingFetchProfile.FOR_RESPONSE));
+        verify(mockExpressionList, never()).findOne();
+    }
+
+    private void verifySingleQueryOf(Long id) {
+        verify(mockEbeanServer, times(1)).createQuery(JpaVoting.class);
+        verify(mockEbeanServer, never()).find(eq(JpaVoting.class), any());
+        verify(mockExpressionList).idEq(id);
+        verify(mockExpressionList, times(1)).findOne();
+    }
+}
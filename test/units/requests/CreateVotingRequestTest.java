@@ -5,7 +5,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import play.libs.Files;
 import requests.CreateVotingRequest;
+import requests.StreamedEmails;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -15,6 +17,7 @@ import java.util.Arrays;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class CreateVotingRequestTest {
@@ -89,4 +92,20 @@ public class CreateVotingRequestTest {
         assertThat(errorMessage, notNullValue());
         assertThat(errorMessage, containsString("The minimum difference between start and end date should be"));
     }
+
+    @Test
+    public void testAuthorizationEmailsStreamed() {
+        // Given
+        CreateVotingRequest createVotingRequest = new CreateVotingRequest();
+        createVotingRequest.setAuthorization(CreateVotingRequest.Authorization.EMAILS);
+        createVotingRequest.setStreamedAuthorizationEmails(new StreamedEmails(mock(Files.TemporaryFile.class), 2));
+        createVotingRequest.setStartDate(null);
+
+        // When
+        String errorMessage = createVotingRequest.validate(mockConfig);
+
+        // Then
+        assertThat(errorMessage, notNullValue());
+        assertThat(errorMessage, containsString("The minimum difference between start and end date should be"));
+    }
 }
@@ -0,0 +1,131 @@
+package units.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import play.libs.F;
+import security.JwtCenter;
+import security.VerifiedJwt;
+import security.jwtverification.JwtVerification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtCenterTest {
+    private static final String ROLES_CLAIM = "https://devote.network/roles";
+
+    @Mock
+    private JwtVerification mockJwtVerification;
+
+    private JwtCenter jwtCenter;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        Config config = ConfigFactory.parseString(
+                "devote.jwt.roles.claim = \"" + ROLES_CLAIM + "\"\n" +
+                "devote.jwt.verified.cache.max.size = 10\n" +
+                "devote.jwt.verified.cache.max.age.min = 10\n");
+        jwtCenter = new JwtCenter(mockJwtVerification, config);
+
+        when(mockJwtVerification.verify(anyString())).thenAnswer(invocation -> JWT.decode(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void testVerifiedTokenIsCached() {
+        // Given
+        String token = createToken("John", Instant.now().plus(Duration.ofMinutes(5)));
+        jwtCenter.verify(token);
+
+        // When
+        F.Either<JwtCenter.Error, VerifiedJwt> result = jwtCenter.verify(token);
+
+        // Then
+        assertThat(result.right.isPresent(), equalTo(true));
+        assertThat(result.right.get().getUserId(), equalTo("John"));
+        verify(mockJwtVerification, times(1)).verify(token);
+    }
+
+    @Test
+    public void testDifferentTokensAreVerifiedSeparately() {
+        // Given
+        String tokenOfJohn = createToken("John", Instant.now().plus(Duration.ofMinutes(5)));
+        String tokenOfJane = createToken("Jane", Instant.now().plus(Duration.ofMinutes(5)));
+        jwtCenter.verify(tokenOfJohn);
+
+        // When
+        F.Either<JwtCenter.Error, VerifiedJwt> result = jwtCenter.verify(tokenOfJane);
+
+        // Then
+        assertThat(result.right.get().getUserId(), equalTo("Jane"));
+        verify(mockJwtVerification, times(1)).verify(tokenOfJane);
+    }
+
+    @Test
+    public void testExpiredTokenIsNotServedFromCache() {
+        // Given
+        String token = createToken("John", Instant.now().minusSeconds(1));
+        jwtCenter.verify(token);
+
+        // When
+        jwtCenter.verify(token);
+
+        // Then
+        verify(mockJwtVerification, times(2)).verify(token);
+    }
+
+    @Test
+    public void testTokenWithoutExpiryIsNotCached() {
+        // Given
+        String token = createToken("John", null);
+        jwtCenter.verify(token);
+
+        // When
+        jwtCenter.verify(token);
+
+        // Then
+        verify(mockJwtVerification, times(2)).verify(token);
+    }
+
+    @Test
+    public void testFailedVerificationIsNotCached() {
+        // Given
+        String token = createToken("John", Instant.now().plus(Duration.ofMinutes(5)));
+        when(mockJwtVerification.verify(token)).thenThrow(new JWTVerificationException("Some invalid signature"));
+        jwtCenter.verify(token);
+
+        // When
+        F.Either<JwtCenter.Error, VerifiedJwt> result = jwtCenter.verify(token);
+
+        // Then
+        assertThat(result.left.get(), equalTo(JwtCenter.Error.ERR_INVALID_SIGNATURE_OR_CLAIM));
+        verify(mockJwtVerification, times(2)).verify(token);
+    }
+
+    private static String createToken(String user, Instant expiresAt) {
+        JWTCreator.Builder builder = JWT.create()
+                .withSubject(user)
+                .withArrayClaim(ROLES_CLAIM, new String[]{"voter"});
+        if (expiresAt != null) {
+            builder.withExpiresAt(Date.from(expiresAt));
+        }
+
+        return builder.sign(Algorithm.HMAC256("someSecret"));
+    }
+}
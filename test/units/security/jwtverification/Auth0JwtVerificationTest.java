@@ -3,6 +3,7 @@ package units.security.jwtverification;
 import com.auth0.jwk.Jwk;
 import com.auth0.jwk.JwkException;
 import com.auth0.jwk.JwkProvider;
+import com.auth0.jwk.SigningKeyNotFoundException;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
@@ -26,6 +27,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class Auth0JwtVerificationTest {
@@ -63,6 +67,57 @@ public class Auth0JwtVerificationTest {
         assertThat(decodedJWT, notNullValue());
     }
 
+    @Test
+    public void testVerifierIsReusedForSameKey() {
+        // Given
+        String jwtOfJohn = createTestJwt("mock-issuer", "John");
+        String jwtOfJane = createTestJwt("mock-issuer", "Jane");
+        Auth0JwtVerification auth0JwtVerification = new Auth0JwtVerification(mockConfig, mockJwkProvider);
+
+        // When
+        DecodedJWT decodedJwtOfJohn = auth0JwtVerification.verify(jwtOfJohn);
+        DecodedJWT decodedJwtOfJane = auth0JwtVerification.verify(jwtOfJane);
+
+        // Then
+        assertThat(decodedJwtOfJohn.getSubject(), equalTo("John"));
+        assertThat(decodedJwtOfJane.getSubject(), equalTo("Jane"));
+        verify(mockJwk, times(1)).getPublicKey();
+    }
+
+    @Test
+    public void testKeyReplacedByRefreshGetsNewVerifier() throws JwkException {
+        // Given
+        Jwk mockRefreshedJwk = mock(Jwk.class);
+        when(mockRefreshedJwk.getPublicKey()).thenReturn(testKeyPair.getPublic());
+
+        String jwt = createTestJwt("mock-issuer", "John");
+        Auth0JwtVerification auth0JwtVerification = new Auth0JwtVerification(mockConfig, mockJwkProvider);
+        auth0JwtVerification.verify(jwt);
+
+        when(mockJwkProvider.get(anyString())).thenReturn(mockRefreshedJwk);
+
+        // When
+        auth0JwtVerification.verify(jwt);
+
+        // Then
+        verify(mockJwk, times(1)).getPublicKey();
+        verify(mockRefreshedJwk, times(1)).getPublicKey();
+    }
+
+    @Test
+    public void testKeyRemovedByRefreshIsRejected() throws JwkException {
+        // Given
+        String jwt = createTestJwt("mock-issuer", "John");
+        Auth0JwtVerification auth0JwtVerification = new Auth0JwtVerification(mockConfig, mockJwkProvider);
+        auth0JwtVerification.verify(jwt);
+
+        when(mockJwkProvider.get(anyString())).thenThrow(new SigningKeyNotFoundException("No key found", null));
+
+        // When
+        // Then
+        assertThrows(RuntimeException.class, () -> auth0JwtVerification.verify(jwt));
+    }
+
     @Test
     public void testJwkProviderFails() throws JwkException {
         // Given
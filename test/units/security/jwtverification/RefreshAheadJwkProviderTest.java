@@ -0,0 +1,141 @@
+package units.security.jwtverification;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwk.UrlJwkProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import security.jwtverification.RefreshAheadJwkProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RefreshAheadJwkProviderTest {
+    @Mock
+    private UrlJwkProvider mockUrlJwkProvider;
+
+    private Jwk aJwk;
+    private Jwk anotherJwk;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        aJwk = createJwk("aKey");
+        anotherJwk = createJwk("anotherKey");
+    }
+
+    @Test
+    public void testKnownKeyIsServedFromMemory() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll()).thenReturn(Arrays.asList(aJwk, anotherJwk));
+        RefreshAheadJwkProvider provider = createProvider(Duration.ofMinutes(1));
+
+        // When
+        Jwk firstJwk = provider.get("aKey");
+        Jwk secondJwk = provider.get("anotherKey");
+
+        // Then
+        assertThat(firstJwk, sameInstance(aJwk));
+        assertThat(secondJwk, sameInstance(anotherJwk));
+        verify(mockUrlJwkProvider, times(1)).getAll();
+    }
+
+    @Test
+    public void testNoKeyIdResolvesToSingleKey() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll()).thenReturn(Collections.singletonList(aJwk));
+        RefreshAheadJwkProvider provider = createProvider(Duration.ofMinutes(1));
+
+        // When
+        Jwk jwk = provider.get(null);
+
+        // Then
+        assertThat(jwk, sameInstance(aJwk));
+    }
+
+    @Test
+    public void testNoKeyIdIsRejectedWithMultipleKeys() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll()).thenReturn(Arrays.asList(aJwk, anotherJwk));
+        RefreshAheadJwkProvider provider = createProvider(Duration.ofMinutes(1));
+
+        // When
+        // Then
+        assertThrows(SigningKeyNotFoundException.class, () -> provider.get(null));
+    }
+
+    @Test
+    public void testUnknownKeyIdRefetchIsRateLimited() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll()).thenReturn(Collections.singletonList(aJwk));
+        RefreshAheadJwkProvider provider = createProvider(Duration.ofMinutes(1));
+
+        // When
+        assertThrows(SigningKeyNotFoundException.class, () -> provider.get("madeUpKey"));
+        assertThrows(SigningKeyNotFoundException.class, () -> provider.get("anotherMadeUpKey"));
+
+        // Then
+        verify(mockUrlJwkProvider, times(1)).getAll();
+    }
+
+    @Test
+    public void testBackgroundRefreshIsRateLimitedWhileEndpointIsDown() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll())
+                .thenReturn(Collections.singletonList(aJwk))
+                .thenThrow(new SigningKeyNotFoundException("Some unavailable JWKS endpoint", null));
+        RefreshAheadJwkProvider provider = new RefreshAheadJwkProvider(mockUrlJwkProvider, Duration.ZERO,
+                Duration.ofMinutes(1), Runnable::run);
+        provider.get("aKey");
+
+        // When
+        Jwk firstJwk = provider.get("aKey");
+        Jwk secondJwk = provider.get("aKey");
+
+        // Then
+        assertThat(firstJwk, sameInstance(aJwk));
+        assertThat(secondJwk, sameInstance(aJwk));
+        verify(mockUrlJwkProvider, times(1)).getAll();
+    }
+
+    @Test
+    public void testRotatedKeyIsFetchedAndRemovedKeyIsRejected() throws JwkException {
+        // Given
+        when(mockUrlJwkProvider.getAll())
+                .thenReturn(Collections.singletonList(aJwk))
+                .thenReturn(Collections.singletonList(anotherJwk));
+        RefreshAheadJwkProvider provider = createProvider(Duration.ZERO);
+        provider.get("aKey");
+
+        // When
+        Jwk rotatedJwk = provider.get("anotherKey");
+
+        // Then
+        assertThat(rotatedJwk, sameInstance(anotherJwk));
+        assertThrows(SigningKeyNotFoundException.class, () -> provider.get("aKey"));
+    }
+
+    private RefreshAheadJwkProvider createProvider(Duration minRefetchInterval) {
+        return new RefreshAheadJwkProvider(mockUrlJwkProvider, Duration.ofHours(1), minRefetchInterval, Runnable::run);
+    }
+
+    private static Jwk createJwk(String keyId) {
+        Jwk jwk = mock(Jwk.class);
+        when(jwk.getId()).thenReturn(keyId);
+
+        return jwk;
+    }
+}
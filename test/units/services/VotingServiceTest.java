@@ -0,0 +1,151 @@
+package units.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import data.entities.Authorization;
+import data.entities.JpaVoting;
+import data.entities.Visibility;
+import data.operations.VoterDbOperations;
+import data.operations.VotingDbOperations;
+import data.repositories.VotingFetchProfile;
+import devote.blockchain.operations.VotingBlockchainOperations;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import play.libs.Json;
+import responses.SingleVotingResponse;
+import services.Base62Conversions;
+import services.VotingService;
+import tasks.TasksOrganizer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VotingServiceTest {
+    @Mock
+    private VotingDbOperations mockVotingDbOperations;
+
+    @Mock
+    private VotingBlockchainOperations mockVotingBlockchainOperations;
+
+    @Mock
+    private VoterDbOperations mockVoterDbOperations;
+
+    @Mock
+    private TasksOrganizer mockTasksOrganizer;
+
+    private VotingService votingService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        Config config = ConfigFactory.parseString("devote.voting.response.cache.max.size = 10");
+        votingService = new VotingService(mockVotingDbOperations, mockVotingBlockchainOperations,
+                mockVoterDbOperations, mockTasksOrganizer, config);
+    }
+
+    @Test
+    public void testInitializedVotingIsCached() throws ExecutionException, InterruptedException {
+        // Given
+        JpaVoting voting = createVoting("someCid", Instant.now().plus(Duration.ofDays(1)));
+        when(mockVotingDbOperations.single(42L, VotingFetchProfile.FOR_RESPONSE)).thenReturn(completedFuture(voting));
+
+        // When
+        SingleVotingResponse firstResponse = single();
+        SingleVotingResponse secondResponse = single();
+
+        // Then
+        assertThat(firstResponse.getVoting().getTitle(), equalTo("Cached voting"));
+        assertThat(secondResponse.getVoting(), sameInstance(firstResponse.getVoting()));
+        verify(mockVotingDbOperations, times(1)).single(42L, VotingFetchProfile.FOR_RESPONSE);
+    }
+
+    @Test
+    public void testNotInitializedVotingIsNotCached() throws ExecutionException, InterruptedException {
+        // Given
+        JpaVoting voting = createVoting(null, Instant.now().plus(Duration.ofDays(1)));
+        when(mockVotingDbOperations.single(42L, VotingFetchProfile.FOR_RESPONSE)).thenReturn(completedFuture(voting));
+
+        // When
+        single();
+        single();
+
+        // Then
+        verify(mockVotingDbOperations, times(2)).single(42L, VotingFetchProfile.FOR_RESPONSE);
+    }
+
+    @Test
+    public void testDecryptionKeyIsNotDisclosedWhileEncrypted() throws ExecutionException, InterruptedException {
+        // Given
+        JpaVoting voting = createVoting("someCid", Instant.now().plus(Duration.ofDays(1)));
+        when(mockVotingDbOperations.single(42L, VotingFetchProfile.FOR_RESPONSE)).thenReturn(completedFuture(voting));
+
+        // When
+        SingleVotingResponse response = single();
+
+        // Then
+        assertThat(response.getDecryptionKey(), nullValue());
+
+        JsonNode responseJson = Json.toJson(response);
+        assertThat(responseJson.get("title").asText(), equalTo("Cached voting"));
+        assertThat(responseJson.get("decryptionKey").isNull(), equalTo(true));
+    }
+
+    @Test
+    public void testDecryptionKeyIsDisclosedOnceNoLongerEncrypted() throws ExecutionException, InterruptedException {
+        // Given
+        JpaVoting voting = createVoting("someCid", Instant.now().minus(Duration.ofDays(1)));
+        when(mockVotingDbOperations.single(42L, VotingFetchProfile.FOR_RESPONSE)).thenReturn(completedFuture(voting));
+
+        // When
+        SingleVotingResponse response = single();
+        SingleVotingResponse cachedResponse = single();
+
+        // Then
+        assertThat(response.getDecryptionKey(), equalTo("someEncryptionKey"));
+        assertThat(cachedResponse.getDecryptionKey(), equalTo("someEncryptionKey"));
+
+        JsonNode responseJson = Json.toJson(response);
+        assertThat(responseJson.get("title").asText(), equalTo("Cached voting"));
+        assertThat(responseJson.get("decryptionKey").asText(), equalTo("someEncryptionKey"));
+        assertThat(responseJson.has("voting"), equalTo(false));
+    }
+
+    private SingleVotingResponse single() throws ExecutionException, InterruptedException {
+        return votingService.single(Base62Conversions.encode(42L)).toCompletableFuture().get();
+    }
+
+    private static JpaVoting createVoting(String ipfsCid, Instant encryptedUntil) {
+        JpaVoting voting = new JpaVoting();
+        voting.setId(42L);
+        voting.setTitle("Cached voting");
+        voting.setVisibility(Visibility.PUBLIC);
+        voting.setAuthorization(Authorization.EMAILS);
+        voting.setCreatedBy("Walter");
+        voting.setNetwork("mockblockchain");
+        voting.setVotesCap(42L);
+        voting.setCreatedAt(Instant.now().minus(Duration.ofDays(2)));
+        voting.setStartDate(Instant.now().minus(Duration.ofDays(1)));
+        voting.setEndDate(Instant.now().plus(Duration.ofDays(1)));
+        voting.setEncryptedUntil(encryptedUntil);
+        voting.setEncryptionKey("someEncryptionKey");
+        voting.setIpfsCid(ipfsCid);
+        voting.setPolls(new ArrayList<>());
+
+        return voting;
+    }
+}
@@ -1,7 +1,7 @@
 package units.services.commissionsubs;
 
 import data.operations.CommissionDbOperations;
-import data.operations.VoterDbOperations;
+import data.repositories.CommissionInitChecks;
 import exceptions.ForbiddenException;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,16 +14,17 @@ import services.Base62Conversions;
 import services.commissionsubs.CommissionInitSubService;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CommissionInitSubServiceTest {
@@ -33,9 +34,6 @@ public class CommissionInitSubServiceTest {
     @Mock
     private CommissionDbOperations mockCommissionDbOperations;
 
-    @Mock
-    private VoterDbOperations mockVoterDbOperations;
-
     private CommissionInitSubService initSubService;
 
     @Before
@@ -45,9 +43,8 @@ public class CommissionInitSubServiceTest {
         when(mockVerifiedJwt.getAccessToken()).thenReturn("someAccessToken");
         when(mockVerifiedJwt.getUserId()).thenReturn("Alice");
         when(mockVerifiedJwt.hasVoterRole()).thenReturn(true);
-        when(mockVoterDbOperations.collectUserInfoIfNeeded(anyString(), anyString())).thenReturn(doNothing());
 
-        initSubService = new CommissionInitSubService("somePublicKey", mockCommissionDbOperations, mockVoterDbOperations);
+        initSubService = new CommissionInitSubService("somePublicKey", mockCommissionDbOperations);
     }
 
     @Test
@@ -56,7 +53,8 @@ public class CommissionInitSubServiceTest {
         CommissionInitRequest request = new CommissionInitRequest();
         request.setVotingId(Base62Conversions.encode(42L));
 
-        when(mockVoterDbOperations.doesParticipateInVoting(anyString(), anyLong())).thenReturn(completedFuture(false));
+        when(mockCommissionDbOperations.checkInit(anyLong(), anyString()))
+                .thenReturn(completedFuture(new CommissionInitChecks(false, true, false)));
 
         // When
         CompletableFuture<CommissionInitResponse> response =
@@ -74,10 +72,8 @@ public class CommissionInitSubServiceTest {
         CommissionInitRequest request = new CommissionInitRequest();
         request.setVotingId(Base62Conversions.encode(42L));
 
-        when(mockVoterDbOperations.doesParticipateInVoting(anyString(), anyLong())).thenReturn(completedFuture(true));
-        when(mockCommissionDbOperations.isVotingInitializedProperly(anyLong())).thenReturn(completedFuture(true));
-        when(mockCommissionDbOperations.doesSessionExistForUserInVoting(anyLong(), anyString()))
-                .thenReturn(completedFuture(true));
+        when(mockCommissionDbOperations.checkInit(anyLong(), anyString()))
+                .thenReturn(completedFuture(new CommissionInitChecks(true, true, true)));
 
         // When
         CompletableFuture<CommissionInitResponse> response =
@@ -107,7 +103,24 @@ public class CommissionInitSubServiceTest {
         assertThat(exception.getCause().getMessage(), containsString("has no voter role!"));
     }
 
-    private CompletionStage<Void> doNothing() {
-        return runAsync(() -> {});
+    @Test
+    public void testVotingIsNotInitializedProperly() {
+        // Given
+        CommissionInitRequest request = new CommissionInitRequest();
+        request.setVotingId(Base62Conversions.encode(42L));
+
+        when(mockCommissionDbOperations.checkInit(anyLong(), anyString()))
+                .thenReturn(completedFuture(new CommissionInitChecks(true, false, false)));
+
+        // When
+        CompletableFuture<CommissionInitResponse> response =
+                initSubService.init(request, mockVerifiedJwt).toCompletableFuture();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, response::get);
+        assertThat(exception.getCause(), instanceOf(ForbiddenException.class));
+        assertThat(exception.getCause().getMessage(), containsString("is not initialized properly"));
+        verify(mockCommissionDbOperations, times(1)).checkInit(42L, "Alice");
+        verify(mockCommissionDbOperations, never()).createSession(anyLong(), anyString());
     }
 }
@@ -0,0 +1,116 @@
+package units.services.signatures;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import crypto.RsaBlindSignature;
+import exceptions.ServiceUnavailableException;
+import executioncontexts.CryptoExecutionContext;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import services.signatures.BatchingSignatureVerifier;
+import units.crypto.RsaEnvelope;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+public class BatchingSignatureVerifierTest {
+    @Mock
+    private CryptoExecutionContext mockCryptoExecContext;
+
+    private ActorSystem actorSystem;
+    private AsymmetricCipherKeyPair envelopeKeyPair;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(mockCryptoExecContext).execute(any(Runnable.class));
+
+        actorSystem = ActorSystem.create("BatchingSignatureVerifierTest");
+
+        RSAKeyPairGenerator generator = new RSAKeyPairGenerator();
+        generator.init(new RSAKeyGenerationParameters(BigInteger.valueOf(65537), new SecureRandom(), 2048, 80));
+        envelopeKeyPair = generator.generateKeyPair();
+    }
+
+    @After
+    public void teardown() {
+        actorSystem.terminate();
+    }
+
+    @Test
+    public void testValidAndInvalidSignaturesInSameBatch() throws ExecutionException, InterruptedException {
+        // Given
+        BatchingSignatureVerifier verifier = createVerifier(10, 100);
+
+        byte[] message = "someVotingId|someVoterPublic".getBytes();
+        byte[] revealedSignature = revealedSignatureOf(message);
+
+        // When
+        CompletableFuture<Boolean> validResult = verifier.isValid(message, revealedSignature).toCompletableFuture();
+        CompletableFuture<Boolean> invalidResult = verifier.isValid("someOtherMessage".getBytes(), revealedSignature)
+                .toCompletableFuture();
+
+        // Then
+        assertThat(validResult.get(), equalTo(true));
+        assertThat(invalidResult.get(), equalTo(false));
+        assertThat(verifier.getNumOfPending(), equalTo(0));
+    }
+
+    @Test
+    public void testRejectsWhenSaturated() {
+        // Given
+        BatchingSignatureVerifier verifier = createVerifier(1000, 1);
+
+        byte[] message = "someVotingId|someVoterPublic".getBytes();
+        byte[] revealedSignature = revealedSignatureOf(message);
+
+        verifier.isValid(message, revealedSignature);
+
+        // When
+        CompletableFuture<Boolean> rejectedResult = verifier.isValid(message, revealedSignature).toCompletableFuture();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, rejectedResult::get);
+        assertThat(exception.getCause(), instanceOf(ServiceUnavailableException.class));
+    }
+
+    private BatchingSignatureVerifier createVerifier(long windowMillis, int maxPending) {
+        Map<String, Object> configValues = new HashMap<>();
+        configValues.put("devote.commission.signature.verification.window.millis", windowMillis);
+        configValues.put("devote.commission.signature.verification.batch.size", 4);
+        configValues.put("devote.commission.signature.verification.max.pending", maxPending);
+        Config config = ConfigFactory.parseMap(configValues);
+
+        return new BatchingSignatureVerifier(envelopeKeyPair, actorSystem, mockCryptoExecContext, config);
+    }
+
+    private byte[] revealedSignatureOf(byte[] message) {
+        RsaEnvelope envelope = new RsaEnvelope((RSAKeyParameters) envelopeKeyPair.getPublic());
+        byte[] signatureOnEnvelope = RsaBlindSignature.sign(envelopeKeyPair.getPrivate(), envelope.create(message));
+        return envelope.revealedSignature(signatureOnEnvelope);
+    }
+}
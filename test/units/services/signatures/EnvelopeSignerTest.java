@@ -0,0 +1,89 @@
+package units.services.signatures;
+
+import com.typesafe.config.ConfigFactory;
+import crypto.RsaBlindSignature;
+import executioncontexts.CryptoExecutionContext;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import services.signatures.EnvelopeSigner;
+import units.crypto.RsaEnvelope;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+public class EnvelopeSignerTest {
+    @Mock
+    private CryptoExecutionContext mockCryptoExecContext;
+
+    private AsymmetricCipherKeyPair envelopeKeyPair;
+    private EnvelopeSigner envelopeSigner;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(mockCryptoExecContext).execute(any(Runnable.class));
+
+        RSAKeyPairGenerator generator = new RSAKeyPairGenerator();
+        generator.init(new RSAKeyGenerationParameters(BigInteger.valueOf(65537), new SecureRandom(), 2048, 80));
+        envelopeKeyPair = generator.generateKeyPair();
+
+        envelopeSigner = new EnvelopeSigner(envelopeKeyPair, mockCryptoExecContext,
+                ConfigFactory.parseString("devote.commission.envelope.signer.metrics.log.interval.sec = 0"));
+    }
+
+    @Test
+    public void testSign() throws ExecutionException, InterruptedException {
+        // Given
+        byte[] message = "someVotingId|someVoterPublic".getBytes();
+        RsaEnvelope envelope = new RsaEnvelope((RSAKeyParameters) envelopeKeyPair.getPublic());
+
+        // When
+        byte[] signature = envelopeSigner.sign(envelope.create(message)).toCompletableFuture().get();
+
+        // Then
+        byte[] revealedSignature = envelope.revealedSignature(signature);
+        assertThat(RsaBlindSignature.isValid(envelopeKeyPair.getPublic(), message, revealedSignature), equalTo(true));
+        assertThat(envelopeSigner.getMetrics().getNumOfSignatures(), equalTo(1L));
+        assertThat(envelopeSigner.getMetrics().getQueueDepth(), equalTo(0));
+    }
+
+    @Test
+    public void testSignAll() throws ExecutionException, InterruptedException {
+        // Given
+        RsaEnvelope envelope = new RsaEnvelope((RSAKeyParameters) envelopeKeyPair.getPublic());
+        byte[] firstEnvelope = envelope.create("first".getBytes());
+        byte[] secondEnvelope = envelope.create("second".getBytes());
+
+        // When
+        List<byte[]> signatures = envelopeSigner.signAll(Arrays.asList(firstEnvelope, secondEnvelope))
+                .toCompletableFuture().get();
+
+        // Then
+        assertThat(signatures, hasSize(2));
+        assertThat(signatures.get(0), equalTo(RsaBlindSignature.sign(envelopeKeyPair.getPrivate(), firstEnvelope)));
+        assertThat(signatures.get(1), equalTo(RsaBlindSignature.sign(envelopeKeyPair.getPrivate(), secondEnvelope)));
+        assertThat(envelopeSigner.getMetrics().getNumOfSignatures(), equalTo(2L));
+        assertThat(envelopeSigner.getMetrics().getNumOfBatches(), equalTo(1L));
+        assertThat(envelopeSigner.getMetrics().getQueueDepth(), equalTo(0));
+    }
+}
@@ -0,0 +1,210 @@
+package units.tasks;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Scheduler;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import data.entities.JpaWorkItem;
+import data.entities.WorkItemType;
+import data.repositories.WorkQueueRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import scala.concurrent.ExecutionContext;
+import tasks.WorkQueueContext;
+import tasks.WorkQueueWorker;
+import tasks.channelaccounts.ChannelAccountBuildingEngine;
+import tasks.votingblockchaininit.VotingBlockchainInitTask;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkQueueWorkerTest {
+    @Mock
+    private ActorSystem mockActorSystem;
+
+    @Mock
+    private Scheduler mockScheduler;
+
+    @Mock
+    private Cancellable mockCancellable;
+
+    @Mock
+    private ExecutionContext mockExecutionContext;
+
+    @Mock
+    private WorkQueueRepository mockWorkQueueRepository;
+
+    @Mock
+    private VotingBlockchainInitTask mockVotingInitTask;
+
+    @Mock
+    private ChannelAccountBuildingEngine mockChannelAccountBuildingEngine;
+
+    @Captor
+    private ArgumentCaptor<Duration> delayCaptor;
+
+    private WorkQueueContext context;
+    private WorkQueueWorker worker;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        Config config = ConfigFactory.parseString(
+                "devote.tasks.lease.sec = 300\n" +
+                "devote.tasks.poll.min.backoff.millis = 500\n" +
+                "devote.tasks.poll.max.backoff.millis = 2000\n" +
+                "devote.tasks.retry.base.delay.sec = 5\n" +
+                "devote.tasks.retry.max.delay.sec = 300\n");
+        context = new WorkQueueContext(mockActorSystem, mockExecutionContext, mockWorkQueueRepository, config);
+
+        when(mockActorSystem.scheduler()).thenReturn(mockScheduler);
+        when(mockScheduler.scheduleOnce(any(Duration.class), any(Runnable.class), any(ExecutionContext.class)))
+                .thenReturn(mockCancellable);
+        when(mockWorkQueueRepository.claim(context.lease)).thenReturn(Optional.empty());
+
+        worker = new WorkQueueWorker(0, context, mockVotingInitTask, mockChannelAccountBuildingEngine);
+    }
+
+    @Test
+    public void testPollBackoffDoublesUpToMax() {
+        // Given
+        // When
+        worker.run();
+        worker.run();
+        worker.run();
+        worker.run();
+
+        // Then
+        assertThat(scheduledDelays(), contains(
+                Duration.ofMillis(500), Duration.ofMillis(1000), Duration.ofMillis(2000), Duration.ofMillis(2000)));
+    }
+
+    @Test
+    public void testProcessedWorkIsFollowedRightAwayAndResetsBackoff() {
+        // Given
+        when(mockWorkQueueRepository.claim(context.lease))
+                .thenReturn(Optional.empty(), Optional.empty(), Optional.of(workItemOf(WorkItemType.VOTING_INIT)), Optional.empty());
+
+        // When
+        worker.run();
+        worker.run();
+        worker.run();
+        worker.run();
+
+        // Then
+        verify(mockVotingInitTask).initialize(42L);
+        verify(mockWorkQueueRepository).complete(7L, "someClaim");
+        assertThat(scheduledDelays(), contains(
+                Duration.ofMillis(500), Duration.ofMillis(1000), Duration.ZERO, Duration.ofMillis(500)));
+    }
+
+    @Test
+    public void testFailedWorkIsRetriedWithBackoff() {
+        // Given
+        when(mockWorkQueueRepository.claim(context.lease)).thenReturn(Optional.of(workItemOf(WorkItemType.VOTING_INIT)));
+        doThrow(new RuntimeException("Some error")).when(mockVotingInitTask).initialize(42L);
+
+        // When
+        worker.run();
+
+        // Then
+        verify(mockWorkQueueRepository).retryLater(7L, "someClaim", context.retryDelayOf(3));
+        verify(mockWorkQueueRepository, never()).complete(anyLong(), anyString());
+    }
+
+    @Test
+    public void testChannelProgressIsPostponedWhenEngineIsAtConcurrencyLimit() {
+        // Given
+        JpaWorkItem workItem = workItemOf(WorkItemType.CHANNEL_PROGRESS);
+        when(mockWorkQueueRepository.claim(context.lease)).thenReturn(Optional.of(workItem));
+        when(mockChannelAccountBuildingEngine.tryStart(workItem))
+                .thenReturn(ChannelAccountBuildingEngine.StartResult.AT_CONCURRENCY_LIMIT);
+
+        // When
+        worker.run();
+
+        // Then
+        verify(mockWorkQueueRepository).postpone(7L, "someClaim", context.maxPollBackoff);
+        verify(mockWorkQueueRepository, never()).retryLater(anyLong(), anyString(), any());
+    }
+
+    @Test
+    public void testChannelProgressIsPostponedWhenAlreadyStarted() {
+        // Given
+        JpaWorkItem workItem = workItemOf(WorkItemType.CHANNEL_PROGRESS);
+        when(mockWorkQueueRepository.claim(context.lease)).thenReturn(Optional.of(workItem));
+        when(mockChannelAccountBuildingEngine.tryStart(workItem))
+                .thenReturn(ChannelAccountBuildingEngine.StartResult.ALREADY_STARTED);
+
+        // When
+        worker.run();
+
+        // Then
+        verify(mockWorkQueueRepository).postpone(7L, "someClaim", context.lease);
+    }
+
+    @Test
+    public void testStartedChannelProgressIsLeftToEngine() {
+        // Given
+        JpaWorkItem workItem = workItemOf(WorkItemType.CHANNEL_PROGRESS);
+        when(mockWorkQueueRepository.claim(context.lease)).thenReturn(Optional.of(workItem));
+        when(mockChannelAccountBuildingEngine.tryStart(workItem))
+                .thenReturn(ChannelAccountBuildingEngine.StartResult.STARTED);
+
+        // When
+        worker.run();
+
+        // Then
+        verify(mockWorkQueueRepository, never()).postpone(anyLong(), anyString(), any());
+        verify(mockWorkQueueRepository, never()).complete(anyLong(), anyString());
+        verify(mockWorkQueueRepository, never()).retryLater(anyLong(), anyString(), any());
+    }
+
+    @Test
+    public void testWakeUpCancelsBackoff() {
+        // Given
+        when(mockCancellable.cancel()).thenReturn(true);
+        worker.start(Duration.ofSeconds(5));
+
+        // When
+        worker.wakeUp();
+
+        // Then
+        assertThat(scheduledDelays(), contains(Duration.ofSeconds(5), Duration.ZERO));
+    }
+
+    private List<Duration> scheduledDelays() {
+        verify(mockScheduler, atLeastOnce())
+                .scheduleOnce(delayCaptor.capture(), any(Runnable.class), any(ExecutionContext.class));
+        return delayCaptor.getAllValues();
+    }
+
+    private static JpaWorkItem workItemOf(WorkItemType type) {
+        JpaWorkItem workItem = new JpaWorkItem();
+        workItem.setId(7L);
+        workItem.setType(type);
+        workItem.setReferenceId(42L);
+        workItem.setClaimedBy("someClaim");
+        workItem.setAttempts(3);
+
+        return workItem;
+    }
+}
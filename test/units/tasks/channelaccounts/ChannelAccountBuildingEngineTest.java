@@ -0,0 +1,231 @@
+package units.tasks.channelaccounts;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import data.entities.JpaChannelAccountProgress;
+import data.entities.JpaChannelGeneratorAccount;
+import data.entities.JpaVoting;
+import data.entities.JpaWorkItem;
+import data.entities.WorkItemType;
+import data.repositories.ChannelProgressRepository;
+import data.repositories.VotingRepository;
+import data.repositories.WorkQueueRepository;
+import devote.blockchain.BlockchainFactory;
+import devote.blockchain.Blockchains;
+import devote.blockchain.api.Account;
+import devote.blockchain.api.ChannelAccountOperation;
+import devote.blockchain.api.ChannelGenerator;
+import executioncontexts.BlockchainExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import scala.concurrent.ExecutionContext;
+import tasks.WorkQueueContext;
+import tasks.channelaccounts.ChannelAccountBuilderTaskContext;
+import tasks.channelaccounts.ChannelAccountBuildingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChannelAccountBuildingEngineTest {
+    @Mock
+    private Blockchains mockBlockchains;
+
+    @Mock
+    private BlockchainFactory mockBlockchainFactory;
+
+    @Mock
+    private ChannelAccountOperation mockChannelAccountOperation;
+
+    @Mock
+    private VotingRepository mockVotingRepository;
+
+    @Mock
+    private ChannelProgressRepository mockChannelProgressRepository;
+
+    @Mock
+    private WorkQueueRepository mockWorkQueueRepository;
+
+    @Mock
+    private BlockchainExecutionContext mockExecutionContext;
+
+    private WorkQueueContext workQueueContext;
+    private ChannelAccountBuildingEngine engine;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        Config config = ConfigFactory.parseString(
+                "devote.channel.building.max.parallel.generators = 1\n" +
+                "devote.tasks.lease.sec = 300\n" +
+                "devote.tasks.poll.min.backoff.millis = 500\n" +
+                "devote.tasks.poll.max.backoff.millis = 10000\n" +
+                "devote.tasks.retry.base.delay.sec = 5\n" +
+                "devote.tasks.retry.max.delay.sec = 300\n");
+
+        workQueueContext = new WorkQueueContext(mock(ActorSystem.class), mock(ExecutionContext.class),
+                mockWorkQueueRepository, config);
+        ChannelAccountBuilderTaskContext builderContext =
+                new ChannelAccountBuilderTaskContext(mockBlockchains, mockVotingRepository, mockChannelProgressRepository);
+
+        engine = new ChannelAccountBuildingEngine(builderContext, workQueueContext, mockExecutionContext, config);
+
+        executeRunnableOnMockExecContext();
+        when(mockBlockchains.getFactoryByNetwork(anyString())).thenReturn(mockBlockchainFactory);
+        when(mockBlockchainFactory.channelAccountOperation(anyBoolean())).thenReturn(mockChannelAccountOperation);
+        when(mockChannelAccountOperation.maxNumOfAccountsToCreateInOneBatch()).thenReturn(10);
+
+        prepareChannelProgress(1L);
+        prepareChannelProgress(2L);
+    }
+
+    @Test
+    public void testBuildsUntilProgressIsFinished() {
+        // Given
+        List<Account> accounts = createAccounts(10);
+        when(mockChannelAccountOperation.createAsync(any(ChannelGenerator.class), anyInt(), any(Executor.class)))
+                .thenReturn(CompletableFuture.completedFuture(accounts));
+
+        // When
+        ChannelAccountBuildingEngine.StartResult startResult = engine.tryStart(workItemOf(11L, 1L));
+
+        // Then
+        assertThat(startResult, equalTo(ChannelAccountBuildingEngine.StartResult.STARTED));
+        verify(mockVotingRepository).channelAccountsCreated(42L, 1L, accounts);
+        verify(mockWorkQueueRepository).complete(11L, "someClaim");
+    }
+
+    @Test
+    public void testAtConcurrencyLimit() {
+        // Given
+        when(mockChannelAccountOperation.createAsync(any(ChannelGenerator.class), anyInt(), any(Executor.class)))
+                .thenReturn(new CompletableFuture<>());
+        engine.tryStart(workItemOf(11L, 1L));
+
+        // When
+        ChannelAccountBuildingEngine.StartResult startResult = engine.tryStart(workItemOf(12L, 2L));
+
+        // Then
+        assertThat(startResult, equalTo(ChannelAccountBuildingEngine.StartResult.AT_CONCURRENCY_LIMIT));
+        verify(mockChannelProgressRepository, never()).single(2L);
+    }
+
+    @Test
+    public void testAlreadyStarted() {
+        // Given
+        when(mockChannelAccountOperation.createAsync(any(ChannelGenerator.class), anyInt(), any(Executor.class)))
+                .thenReturn(new CompletableFuture<>());
+        engine.tryStart(workItemOf(11L, 1L));
+
+        // When
+        ChannelAccountBuildingEngine.StartResult startResult = engine.tryStart(workItemOf(11L, 1L));
+
+        // Then
+        assertThat(startResult, equalTo(ChannelAccountBuildingEngine.StartResult.ALREADY_STARTED));
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedAndFreesItsPermit() {
+        // Given
+        CompletableFuture<List<Account>> failedCreation = new CompletableFuture<>();
+        failedCreation.completeExceptionally(new RuntimeException("Some blockchain error"));
+        when(mockChannelAccountOperation.createAsync(any(ChannelGenerator.class), anyInt(), any(Executor.class)))
+                .thenReturn(failedCreation);
+
+        // When
+        ChannelAccountBuildingEngine.StartResult startResult = engine.tryStart(workItemOf(11L, 1L));
+        ChannelAccountBuildingEngine.StartResult nextStartResult = engine.tryStart(workItemOf(12L, 2L));
+
+        // Then
+        assertThat(startResult, equalTo(ChannelAccountBuildingEngine.StartResult.STARTED));
+        assertThat(nextStartResult, equalTo(ChannelAccountBuildingEngine.StartResult.STARTED));
+        verify(mockWorkQueueRepository).retryLater(11L, "someClaim", workQueueContext.retryDelayOf(3));
+        verify(mockWorkQueueRepository, never()).complete(anyLong(), anyString());
+        verify(mockVotingRepository, never()).channelAccountsCreated(anyLong(), eq(1L), any());
+    }
+
+    @Test
+    public void testLostClaimStopsBuildingAndFreesItsPermit() {
+        // Given
+        when(mockChannelAccountOperation.createAsync(any(ChannelGenerator.class), anyInt(), any(Executor.class)))
+                .thenReturn(CompletableFuture.completedFuture(createAccounts(5)));
+        when(mockWorkQueueRepository.extendLease(11L, "someClaim", workQueueContext.lease)).thenReturn(false);
+
+        // When
+        engine.tryStart(workItemOf(11L, 1L));
+        ChannelAccountBuildingEngine.StartResult nextStartResult = engine.tryStart(workItemOf(12L, 2L));
+
+        // Then
+        assertThat(nextStartResult, equalTo(ChannelAccountBuildingEngine.StartResult.STARTED));
+        verify(mockChannelProgressRepository, times(1)).single(1L);
+        verify(mockWorkQueueRepository, never()).complete(eq(11L), anyString());
+    }
+
+    private void prepareChannelProgress(Long progressId) {
+        JpaVoting mockVoting = mock(JpaVoting.class);
+        when(mockVoting.getId()).thenReturn(42L);
+        when(mockVoting.getNetwork()).thenReturn("mockblockchain");
+        when(mockVoting.getOnTestNetwork()).thenReturn(false);
+
+        JpaChannelGeneratorAccount mockChannelGenerator = mock(JpaChannelGeneratorAccount.class);
+        when(mockChannelGenerator.getVoting()).thenReturn(mockVoting);
+        when(mockChannelGenerator.getAccountSecret()).thenReturn("generatorSecret");
+        when(mockChannelGenerator.getAccountPublic()).thenReturn("generatorPublic");
+
+        JpaChannelAccountProgress mockProgress = mock(JpaChannelAccountProgress.class);
+        when(mockProgress.getId()).thenReturn(progressId);
+        when(mockProgress.getChannelGenerator()).thenReturn(mockChannelGenerator);
+        when(mockProgress.getNumOfAccountsToCreate()).thenReturn(10L);
+        when(mockProgress.getNumOfAccountsLeftToCreate()).thenReturn(10L);
+
+        when(mockChannelProgressRepository.single(progressId)).thenReturn(mockProgress);
+    }
+
+    private void executeRunnableOnMockExecContext() {
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(mockExecutionContext).execute(any(Runnable.class));
+    }
+
+    private static JpaWorkItem workItemOf(Long id, Long progressId) {
+        JpaWorkItem workItem = new JpaWorkItem();
+        workItem.setId(id);
+        workItem.setType(WorkItemType.CHANNEL_PROGRESS);
+        workItem.setReferenceId(progressId);
+        workItem.setClaimedBy("someClaim");
+        workItem.setAttempts(3);
+
+        return workItem;
+    }
+
+    private static List<Account> createAccounts(int numOfAccounts) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < numOfAccounts; i++) {
+            accounts.add(new Account("secret" + i, "public" + i));
+        }
+
+        return accounts;
+    }
+}